@@ -2,6 +2,9 @@ package com.unifi.attsw.exam.app.e2e;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
@@ -15,6 +18,8 @@ import org.assertj.swing.fixture.FrameFixture;
 import org.assertj.swing.fixture.JListFixture;
 import org.assertj.swing.junit.runner.GUITestRunner;
 import org.assertj.swing.junit.testcase.AssertJSwingJUnitTestCase;
+import org.assertj.swing.timing.Condition;
+import org.assertj.swing.timing.Pause;
 import static org.assertj.swing.launcher.ApplicationLauncher.application;
 
 import org.junit.AfterClass;
@@ -33,6 +38,11 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 
 	private static final String NUM_CONST = "10";
 
+	/*
+	 * The app runs service calls in background, views are updated asynchronously
+	 */
+	private static final long TIMEOUT = 5000;
+
 	private static EntityManagerFactory sessionFactory;
 	private static EntityManager entityManager;
 	private FrameFixture museumWindow;
@@ -63,6 +73,7 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 				return "Museum Dashboard".equals(frame.getTitle());
 			}
 		}).using(robot());
+		waitUntil("museums loaded", () -> museumWindow.list().contents().length == 2);
 
 	}
 
@@ -73,6 +84,7 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 		museumWindow.textBox("rooms").enterText(NUM_CONST);
 		museumWindow.button(JButtonMatcher.withText("Add")).click();
 
+		waitUntil("museum added", () -> museumWindow.list().contents().length == 3);
 		assertThat(museumWindow.list().contents()).contains("museum3_test - Total Rooms: 10 - Occupied Rooms: 0");
 	}
 
@@ -83,6 +95,7 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 		museumWindow.textBox("rooms").enterText(NUM_CONST);
 		museumWindow.button(JButtonMatcher.withText("Add")).click();
 
+		waitUntil("error shown", () -> !museumWindow.label("errorMessageLabel").text().isBlank());
 		museumWindow.label("errorMessageLabel").requireText("Impossibile to add Museum: " + MUSEUM1_TEST);
 
 	}
@@ -93,6 +106,7 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 		museumWindow.list().selectItem(0);
 		museumWindow.button(JButtonMatcher.withText("Delete Selected")).click();
 
+		waitUntil("museum removed", () -> museumWindow.list().contents().length == 1);
 		assertThat(museumWindow.list().contents())
 				.containsExactly("museum2_test - Total Rooms: 10 - Occupied Rooms: 0");
 
@@ -116,6 +130,7 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 		exhibitionWindow.textBox("museumNameTextField").enterText(MUSEUM1_TEST);
 
 		exhibitionWindow.button(JButtonMatcher.withText("Add Exhibition")).click();
+		waitUntil("exhibition added", () -> listAllExhibitions.contents().length == 3);
 		assertThat(listAllExhibitions.contents()).contains("exhibition3_test - Total Seats: 10 - Booked Seats: 0");
 	}
 
@@ -135,6 +150,7 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 		exhibitionWindow.textBox("museumNameTextField").enterText(MUSEUM1_TEST);
 
 		exhibitionWindow.button(JButtonMatcher.withText("Add Exhibition")).click();
+		waitUntil("error shown", () -> !exhibitionWindow.label("errorLabel").text().isBlank());
 		exhibitionWindow.label("errorLabel").requireText("Impossible to add Exhibition: " + EXHIBITION1_TEST);
 
 	}
@@ -150,9 +166,11 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 			}
 		}).using(robot());
 
+		waitUntil("exhibitions loaded", () -> exhibitionWindow.list("listAllExh").contents().length == 2);
 		exhibitionWindow.list("listAllExh").selectItem(0);
 		exhibitionWindow.button(JButtonMatcher.withText("Delete")).click();
 
+		waitUntil("exhibition removed", () -> exhibitionWindow.list("listAllExh").contents().length == 1);
 		assertThat(exhibitionWindow.list("listAllExh").contents())
 				.containsExactly("exhibition2_test - Total Seats: 100 - Booked Seats: 0");
 	}
@@ -168,9 +186,12 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 			}
 		}).using(robot());
 
+		waitUntil("exhibitions loaded", () -> exhibitionWindow.list("listAllExh").contents().length == 2);
 		exhibitionWindow.list("listAllExh").selectItem(0);
 		exhibitionWindow.button(JButtonMatcher.withText("Book")).click();
 
+		waitUntil("seat booked", () -> Arrays.asList(exhibitionWindow.list("listAllExh").contents())
+				.contains("exhibition1_test - Total Seats: 100 - Booked Seats: 1"));
 		assertThat(exhibitionWindow.list("listAllExh").contents())
 				.contains("exhibition1_test - Total Seats: 100 - Booked Seats: 1");
 	}
@@ -190,9 +211,19 @@ public class MuseumSwingAppE2E extends AssertJSwingJUnitTestCase {
 
 		exhibitionWindow.textBox("findMuseumTextField").enterText(MUSEUM1_TEST);
 		exhibitionWindow.button(JButtonMatcher.withText("Find Museum Exh.")).click();
+		waitUntil("museum exhibitions found", () -> listMuseumExhibitions.contents().length == 2);
 		assertThat(listMuseumExhibitions.contents()).hasSize(2);
 	}
 
+	private void waitUntil(String description, BooleanSupplier condition) {
+		Pause.pause(new Condition(description) {
+			@Override
+			public boolean test() {
+				return condition.getAsBoolean();
+			}
+		}, TIMEOUT);
+	}
+
 	@AfterClass
 	public static void afterClass() {
 		entityManager.clear();
@@ -0,0 +1,80 @@
+package com.unifi.attsw.exam.app;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.export.ExportFormat;
+import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
+
+@Command(name = "export", mixinStandardHelpOptions = true, description = "Export museums or exhibitions to CSV or JSON Lines, without opening the GUI.")
+public class ExportCommand implements Callable<Void> {
+
+	/**
+	 * What can be exported.
+	 */
+	enum Entities {
+		MUSEUMS, EXHIBITIONS
+	}
+
+	@ParentCommand
+	private MuseumSwingApp app;
+
+	@Spec
+	private CommandSpec spec;
+
+	@Parameters(index = "0", description = "What to export: ${COMPLETION-CANDIDATES}.")
+	private Entities entities;
+
+	@Option(names = { "--format" }, description = "Output format: ${COMPLETION-CANDIDATES}.")
+	private ExportFormat format = ExportFormat.CSV;
+
+	@Option(names = { "--output" }, description = "Output file, the standard output if missing.")
+	private Path output;
+
+	@Override
+	public Void call() throws Exception {
+		MuseumManagerService museumManagerService = new MuseumManagerServiceImpl(app.createTransactionManager());
+		long start = System.nanoTime();
+		long exported;
+		if (output == null) {
+			// the standard output is flushed but left open
+			Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+			exported = export(museumManagerService, out);
+			out.flush();
+		} else {
+			try (Writer out = Files.newBufferedWriter(output)) {
+				exported = export(museumManagerService, out);
+			}
+		}
+		// the summary goes to the standard error not to mix with the records
+		double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+		PrintWriter err = spec.commandLine().getErr();
+		err.println(String.format(Locale.ROOT, "%d rows exported in %.1f s (%.0f rows/s)", exported, seconds,
+				seconds == 0 ? 0 : exported / seconds));
+		err.flush();
+		return null;
+	}
+
+	private long export(MuseumManagerService museumManagerService, Writer out) throws RepositoryException {
+		return entities == Entities.MUSEUMS ? museumManagerService.exportMuseums(out, format)
+				: museumManagerService.exportExhibitions(out, format);
+	}
+
+}
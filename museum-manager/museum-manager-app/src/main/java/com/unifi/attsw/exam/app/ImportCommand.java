@@ -0,0 +1,67 @@
+package com.unifi.attsw.exam.app;
+
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.concurrent.Callable;
+
+import com.unifi.attsw.exam.repository.repository.postgres.PostgresBatchImporter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
+
+@Command(name = "import", mixinStandardHelpOptions = true, description = "Import museums and exhibitions from CSV files into PostgreSQL, without opening the GUI.")
+public class ImportCommand implements Callable<Void> {
+
+	@ParentCommand
+	private MuseumSwingApp app;
+
+	@Spec
+	private CommandSpec spec;
+
+	@Parameters(index = "0", description = "CSV file of museums, with header: name,total_rooms")
+	private Path museumsFile;
+
+	@Parameters(index = "1", arity = "0..1", description = "CSV file of exhibitions, with header: museum_name,name,total_seats")
+	private Path exhibitionsFile;
+
+	@Option(names = { "--batch-size" }, description = "Rows sent to the database at a time.")
+	private int batchSize = 500;
+
+	@Option(names = { "--commit-interval" }, description = "Rows committed at a time.")
+	private int commitInterval = 10000;
+
+	@Override
+	public Void call() throws Exception {
+		if (app.isInMemory()) {
+			throw new ParameterException(spec.commandLine(), "The import needs a PostgreSQL database.");
+		}
+		if (batchSize <= 0 || commitInterval <= 0) {
+			throw new ParameterException(spec.commandLine(), "Batch size and commit interval must be positive.");
+		}
+		// creates the schema if missing
+		app.createSessionFactory().close();
+		PrintWriter out = spec.commandLine().getOut();
+		try (Connection connection = app.connect()) {
+			PostgresBatchImporter importer = new PostgresBatchImporter(connection, batchSize, commitInterval);
+			try (Reader museums = Files.newBufferedReader(museumsFile)) {
+				out.println("Museums: " + importer.importMuseums(museums));
+			}
+			if (exhibitionsFile != null) {
+				try (Reader exhibitions = Files.newBufferedReader(exhibitionsFile)) {
+					out.println("Exhibitions: " + importer.importExhibitions(exhibitions));
+				}
+			}
+		}
+		out.flush();
+		return null;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.unifi.attsw.exam.app;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.util.concurrent.Callable;
+
+import com.unifi.attsw.exam.repository.repository.postgres.PostgresChangeFeed;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
+
+@Command(name = "install-triggers", mixinStandardHelpOptions = true, description = "Install in PostgreSQL the triggers notifying the changes shown by live updates, once per database.")
+public class InstallTriggersCommand implements Callable<Void> {
+
+	@ParentCommand
+	private MuseumSwingApp app;
+
+	@Spec
+	private CommandSpec spec;
+
+	@Override
+	public Void call() throws Exception {
+		if (app.isInMemory()) {
+			throw new ParameterException(spec.commandLine(), "The triggers need a PostgreSQL database.");
+		}
+		// creates the schema if missing
+		app.createSessionFactory().close();
+		try (Connection connection = app.connect()) {
+			PostgresChangeFeed.installTriggers(connection);
+		}
+		PrintWriter out = spec.commandLine().getOut();
+		out.println("Triggers installed on channel " + PostgresChangeFeed.CHANNEL);
+		out.flush();
+		return null;
+	}
+
+}
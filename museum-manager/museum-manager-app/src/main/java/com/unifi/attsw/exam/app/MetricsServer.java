@@ -0,0 +1,49 @@
+package com.unifi.attsw.exam.app;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.TransactionMetrics;
+
+/**
+ * 
+ * Serves the {@link TransactionMetrics} at {@code http://localhost:<port>/metrics}
+ * in the Prometheus text format. Only local connections are accepted.
+ *
+ */
+class MetricsServer {
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final HttpServer server;
+
+	MetricsServer(int port, TransactionMetrics metrics) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/metrics", exchange -> serve(exchange, metrics));
+	}
+
+	void start() {
+		server.start();
+	}
+
+	private static void serve(HttpExchange exchange, TransactionMetrics metrics) throws IOException {
+		try {
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream body = exchange.getResponseBody();
+					Writer out = new OutputStreamWriter(body, StandardCharsets.UTF_8)) {
+				metrics.writeTo(out);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+}
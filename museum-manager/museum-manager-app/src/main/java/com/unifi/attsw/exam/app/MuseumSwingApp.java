@@ -1,29 +1,59 @@
 package com.unifi.attsw.exam.app;
 
 import java.awt.EventQueue;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 
 import com.unifi.attsw.exam.presentation.controller.swing.MuseumSwingController;
 import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.booking.BookingQueue;
 import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.core.service.inventory.SeatInventory;
 import com.unifi.attsw.exam.presentation.view.swing.ExhibitionSwingView;
 import com.unifi.attsw.exam.presentation.view.swing.MuseumSwingView;
+import com.unifi.attsw.exam.repository.changefeed.ChangeFeed;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryChangeFeed;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryDatabase;
+import com.unifi.attsw.exam.repository.repository.postgres.PostgresChangeFeed;
 import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.memory.InMemoryTransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.InstrumentedTransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.TransactionMetrics;
 import com.unifi.attsw.exam.repository.transaction.manager.postgres.PostgresTransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.retry.RetryingTransactionManager;
 
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
 
-@Command(mixinStandardHelpOptions = true)
+@Command(mixinStandardHelpOptions = true, subcommands = { ImportCommand.class, ExportCommand.class, InstallTriggersCommand.class })
 public class MuseumSwingApp implements Callable<Void> {
 
+	private static final int MAX_CACHED_PAGES = 10;
+	private static final long INITIAL_RETRY_BACKOFF_MILLIS = 10;
+	private static final long MAX_RETRY_BACKOFF_MILLIS = 200;
+	private static final int BOOKING_WRITERS = 2;
+	private static final int BOOKING_QUEUE_CAPACITY = 10_000;
+	private static final int MAX_BOOKING_BATCH_SIZE = 1000;
+
 	@Option(names = { "--database-url" }, description = "Database url connection.")
 	private String dbUrl = "jdbc:postgresql://localhost:5432/ATTSW_DB";
 
@@ -33,28 +63,93 @@ public class MuseumSwingApp implements Callable<Void> {
 	@Option(names = { "--database-password" }, description = "Database password.")
 	private String dbPassword = "attsw";
 
+	@Option(names = { "--in-memory" }, description = "Use an in-memory database instead of PostgreSQL.")
+	private boolean inMemory = false;
+
+	@Option(names = { "--second-level-cache" }, description = "Cache museums and exhibitions read from PostgreSQL.")
+	private boolean secondLevelCache = false;
+
+	@Option(names = { "--page-size" }, description = "Museums and exhibitions loaded at a time, 0 loads them all.")
+	private int pageSize = 200;
+
+	@Option(names = { "--live-updates" }, negatable = true, description = "Show the changes made by other clients, notified by the triggers of install-triggers.")
+	private boolean liveUpdates = true;
+
+	@Option(names = { "--metrics-port" }, description = "Serve transaction metrics at http://localhost:<port>/metrics, 0 disables them.")
+	private int metricsPort = 0;
+
+	@Option(names = { "--slow-transaction-ms" }, description = "Report transactions slower than this on the standard error, with metrics enabled.")
+	private long slowTransactionMillis = 500;
+
+	@Option(names = { "--transaction-attempts" }, description = "Times a transaction conflicting with a concurrent update is run at most, 1 disables retries.")
+	private int transactionAttempts = 5;
+
+	@Option(names = { "--seat-inventory-flush-ms" }, description = "Book seats in memory, writing them to the database at this interval, 0 books them in the database.")
+	private long seatInventoryFlushMillis = 0;
+
+	@Option(names = { "--seat-inventory-journal" }, description = "Directory of the journal of the seats booked in memory and not yet written.")
+	private Path seatInventoryJournal = Paths.get("seat-inventory");
+
+	@Option(names = { "--booking-batch-ms" }, description = "Book the seats of concurrent bookings in a single transaction, waiting up to this time for them, -1 books each one on its own.")
+	private long bookingBatchMillis = -1;
+
+	@Spec
+	private CommandSpec spec;
+
+	private InMemoryDatabase inMemoryDatabase;
+
+	boolean isInMemory() {
+		return inMemory;
+	}
+
 	public static void main(String[] args) {
-		new CommandLine(new MuseumSwingApp()).execute(args);
+		new CommandLine(new MuseumSwingApp()).setCaseInsensitiveEnumValuesAllowed(true).execute(args);
 	}
 
 	@Override
 	public Void call() throws Exception {
+		if (seatInventoryFlushMillis > 0 && bookingBatchMillis >= 0) {
+			throw new ParameterException(spec.commandLine(),
+					"Seats are booked either through the seat inventory or the booking queue, not both.");
+		}
+		TransactionManager transactionManager = createTransactionManager();
+		if (metricsPort > 0) {
+			transactionManager = instrument(transactionManager);
+		}
+		if (transactionAttempts > 1) {
+			transactionManager = new RetryingTransactionManager(transactionManager, transactionAttempts,
+					INITIAL_RETRY_BACKOFF_MILLIS, MAX_RETRY_BACKOFF_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		MuseumManagerService museumManagerService;
+		if (seatInventoryFlushMillis > 0) {
+			museumManagerService = new MuseumManagerServiceImpl(transactionManager,
+					createSeatInventory(transactionManager));
+		} else if (bookingBatchMillis >= 0) {
+			museumManagerService = new MuseumManagerServiceImpl(transactionManager,
+					createBookingQueue(transactionManager));
+		} else {
+			museumManagerService = new MuseumManagerServiceImpl(transactionManager);
+		}
+		ChangeFeed changeFeed = liveUpdates ? createChangeFeed() : null;
+		Executor serviceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "museum-manager-service");
+			thread.setDaemon(true);
+			return thread;
+		});
 		EventQueue.invokeLater(() -> {
 
-			Map<String, String> properties = new HashMap<>();
-			properties.put("javax.persistence.jdbc.url", dbUrl);
-			properties.put("javax.persistence.jdbc.user", dbUser);
-			properties.put("javax.persistence.jdbc.password", dbPassword);
-
-			EntityManagerFactory sessionFactory = Persistence.createEntityManagerFactory("real.postgres", properties);
-			EntityManager entityManager = sessionFactory.createEntityManager();
-			TransactionManager transactionManager = new PostgresTransactionManager(entityManager);
-			MuseumManagerService museumManagerService = new MuseumManagerServiceImpl(transactionManager);
 			MuseumSwingView museumView = new MuseumSwingView();
 			ExhibitionSwingView exhibitionView = new ExhibitionSwingView();
 			MuseumSwingController museumSwingController = new MuseumSwingController(museumManagerService, museumView, exhibitionView);
+			museumSwingController.setExecutors(serviceExecutor, EventQueue::invokeLater);
+			if (pageSize > 0) {
+				museumSwingController.setPaging(pageSize, MAX_CACHED_PAGES);
+			}
 			museumView.setMuseumController(museumSwingController);
 			exhibitionView.setMuseumController(museumSwingController);
+			if (changeFeed != null) {
+				museumSwingController.listenTo(changeFeed);
+			}
 			museumView.setVisible(true);
 			museumSwingController.getAllMuseums();
 			museumSwingController.getAllExhibitions();
@@ -62,4 +157,76 @@ public class MuseumSwingApp implements Callable<Void> {
 		return null;
 	}
 
+	TransactionManager createTransactionManager() {
+		if (inMemory) {
+			inMemoryDatabase = new InMemoryDatabase();
+			return new InMemoryTransactionManager(inMemoryDatabase);
+		}
+		return new PostgresTransactionManager(createSessionFactory());
+	}
+
+	private TransactionManager instrument(TransactionManager transactionManager) throws IOException {
+		TransactionMetrics metrics = new TransactionMetrics(slowTransactionMillis, TimeUnit.MILLISECONDS,
+				(type, durationNanos, failure) -> System.err.println(String.format(Locale.ROOT,
+						"Slow %s transaction: %d ms%s", type.getLabel(), TimeUnit.NANOSECONDS.toMillis(durationNanos),
+						failure == null ? "" : ", rolled back: " + failure)));
+		new MetricsServer(metricsPort, metrics).start();
+		return new InstrumentedTransactionManager(transactionManager, metrics);
+	}
+
+	/*
+	 * The seats booked since the last flush are written when the application exits
+	 */
+	private SeatInventory createSeatInventory(TransactionManager transactionManager)
+			throws IOException, RepositoryException {
+		SeatInventory seatInventory = new SeatInventory(transactionManager, seatInventoryJournal,
+				seatInventoryFlushMillis, TimeUnit.MILLISECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				seatInventory.close();
+			} catch (IOException ex) {
+				System.err.println(ex.getMessage());
+			}
+		}, "seat-inventory-shutdown"));
+		return seatInventory;
+	}
+
+	/*
+	 * The bookings queued when the application exits are booked before it stops
+	 */
+	private BookingQueue createBookingQueue(TransactionManager transactionManager) {
+		BookingQueue bookingQueue = new BookingQueue(transactionManager, BOOKING_WRITERS, BOOKING_QUEUE_CAPACITY,
+				MAX_BOOKING_BATCH_SIZE, bookingBatchMillis, TimeUnit.MILLISECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(bookingQueue::close, "booking-queue-shutdown"));
+		return bookingQueue;
+	}
+
+	/*
+	 * Connects to PostgreSQL, creating the schema if missing
+	 */
+	EntityManagerFactory createSessionFactory() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("javax.persistence.jdbc.url", dbUrl);
+		properties.put("javax.persistence.jdbc.user", dbUser);
+		properties.put("javax.persistence.jdbc.password", dbPassword);
+		properties.put("hibernate.cache.use_second_level_cache", String.valueOf(secondLevelCache));
+		properties.put("hibernate.cache.use_query_cache", String.valueOf(secondLevelCache));
+		return Persistence.createEntityManagerFactory("real.postgres", properties);
+	}
+
+	/*
+	 * Only listens: the triggers are installed once by install-triggers, so that
+	 * the application never changes the schema
+	 */
+	private ChangeFeed createChangeFeed() throws RepositoryException {
+		if (inMemory) {
+			return new InMemoryChangeFeed(inMemoryDatabase);
+		}
+		return new PostgresChangeFeed(this::connect);
+	}
+
+	Connection connect() throws SQLException {
+		return DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+	}
+
 }
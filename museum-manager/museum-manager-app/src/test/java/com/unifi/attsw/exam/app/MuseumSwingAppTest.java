@@ -0,0 +1,34 @@
+package com.unifi.attsw.exam.app;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import picocli.CommandLine;
+
+public class MuseumSwingAppTest {
+
+	private CommandLine commandLine;
+	private StringWriter err;
+
+	@Before
+	public void setUp() {
+		err = new StringWriter();
+		commandLine = new CommandLine(new MuseumSwingApp());
+		commandLine.setErr(new PrintWriter(err));
+	}
+
+	@Test
+	public void testSeatInventoryWithBookingQueueShouldBeRejected() {
+		int exitCode = commandLine.execute("--in-memory", "--seat-inventory-flush-ms=100", "--booking-batch-ms=5");
+
+		assertThat(exitCode).isEqualTo(CommandLine.ExitCode.USAGE);
+		assertThat(err.toString())
+				.contains("Seats are booked either through the seat inventory or the booking queue, not both.");
+	}
+
+}
@@ -3,6 +3,7 @@ CREATE TABLE museums(
    museum_name TEXT NOT NULL,
    number_of_occupied_rooms INT NOT NULL,
    number_of_rooms INT NOT NULL,
+   version BIGINT NOT NULL DEFAULT 0,
    UNIQUE (museum_name),
    PRIMARY KEY (ID)
 
@@ -14,11 +15,15 @@ CREATE TABLE exhibitions(
    exhibition_name TEXT NOT NULL,
    total_seats INT NOT NULL,
    booked_seats INT NOT NULL,
+   seat_map BYTEA,
+   version BIGINT NOT NULL DEFAULT 0,
    UNIQUE (exhibition_name),
    PRIMARY KEY (ID)
 
 );
 
+CREATE INDEX exhibitions_museum_id_idx ON exhibitions(museum_id);
+
 
 INSERT INTO museums (id, museum_name, number_of_occupied_rooms, number_of_rooms)
 VALUES ( 'b433da18-ba5a-4b86-92af-ba11be6314e7' , 'museum1_test', 0, 10);
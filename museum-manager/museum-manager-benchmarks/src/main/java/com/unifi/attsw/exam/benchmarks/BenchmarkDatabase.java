@@ -0,0 +1,213 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryDatabase;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.memory.InMemoryTransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.postgres.PostgresTransactionManager;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * 
+ * Offline stand-in for the real database, either an embedded Postgres instance
+ * ({@value #POSTGRES}), whose schema is generated from the entities, the same
+ * with the second-level and query cache enabled ({@value #POSTGRES_CACHED}),
+ * or an {@link InMemoryDatabase} ({@value #MEMORY}). The cached one keeps
+ * cache statistics ({@link #getCacheStatistics()}). It is populated with
+ * {@code datasetSize} museums, each one with a single exhibition. Keys are
+ * derived from the row index (see {@link #museumName(int)},
+ * {@link #museumId(int)}, ...) so benchmarks can pick random existing rows
+ * without reading them back.
+ *
+ */
+public class BenchmarkDatabase implements Closeable {
+
+	public static final String POSTGRES = "postgres";
+	public static final String POSTGRES_CACHED = "postgres-cached";
+	public static final String MEMORY = "memory";
+
+	private static final String PERSISTENCE_UNIT = "benchmark.postgres";
+
+	/*
+	 * Large enough to never run out of rooms or seats during a trial.
+	 */
+	public static final int NUMBER_OF_ROOMS = 1_000_000_000;
+	public static final int NUMBER_OF_SEATS = 1_000_000_000;
+
+	private static final String POPULATE_MUSEUMS = "INSERT INTO museums (id, museum_name, number_of_rooms, number_of_occupied_rooms) "
+			+ "SELECT CAST(md5('museum' || i) AS uuid), 'museum_' || i, :rooms, 1 FROM generate_series(0, :size - 1) AS i";
+
+	private static final String POPULATE_EXHIBITIONS = "INSERT INTO exhibitions (id, museum_id, exhibition_name, total_seats, booked_seats) "
+			+ "SELECT CAST(md5('exhibition' || i) AS uuid), CAST(md5('museum' || i) AS uuid), 'exhibition_' || i, :seats, 0 "
+			+ "FROM generate_series(0, :size - 1) AS i";
+
+	private static final int POPULATE_BATCH_SIZE = 10_000;
+
+	private final EmbeddedPostgres postgres;
+	private final EntityManagerFactory entityManagerFactory;
+	private final TransactionManager transactionManager;
+
+	private BenchmarkDatabase(EmbeddedPostgres postgres, EntityManagerFactory entityManagerFactory) {
+		this.postgres = postgres;
+		this.entityManagerFactory = entityManagerFactory;
+		this.transactionManager = new PostgresTransactionManager(entityManagerFactory);
+	}
+
+	private BenchmarkDatabase(InMemoryDatabase database) {
+		this.postgres = null;
+		this.entityManagerFactory = null;
+		this.transactionManager = new InMemoryTransactionManager(database);
+	}
+
+	public static BenchmarkDatabase start(String backend, int datasetSize) throws IOException, RepositoryException {
+		switch (backend) {
+		case POSTGRES:
+			return startPostgres(datasetSize, false);
+		case POSTGRES_CACHED:
+			return startPostgres(datasetSize, true);
+		case MEMORY:
+			BenchmarkDatabase database = new BenchmarkDatabase(new InMemoryDatabase());
+			database.populateInMemory(datasetSize);
+			return database;
+		default:
+			throw new IllegalArgumentException("Unknown backend: " + backend);
+		}
+	}
+
+	private static BenchmarkDatabase startPostgres(int datasetSize, boolean cached) throws IOException {
+		EmbeddedPostgres postgres = EmbeddedPostgres.start();
+		Map<String, String> properties = new HashMap<>();
+		properties.put("javax.persistence.jdbc.url", postgres.getJdbcUrl("postgres", "postgres"));
+		properties.put("javax.persistence.jdbc.user", "postgres");
+		properties.put("javax.persistence.jdbc.driver", "org.postgresql.Driver");
+		properties.put("hibernate.cache.use_second_level_cache", String.valueOf(cached));
+		properties.put("hibernate.cache.use_query_cache", String.valueOf(cached));
+		properties.put("hibernate.generate_statistics", String.valueOf(cached));
+		BenchmarkDatabase database = new BenchmarkDatabase(postgres,
+				Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, properties));
+		database.populate(datasetSize);
+		return database;
+	}
+
+	public TransactionManager getTransactionManager() {
+		return transactionManager;
+	}
+
+	/**
+	 * @return A new JDBC connection to the embedded Postgres instance.
+	 * @throws SQLException If the connection cannot be opened.
+	 */
+	public Connection getConnection() throws SQLException {
+		if (postgres == null) {
+			throw new IllegalStateException("Not a Postgres backend.");
+		}
+		return postgres.getPostgresDatabase().getConnection();
+	}
+
+	/**
+	 * @return The Hibernate statistics, cache hits, misses and puts included, of
+	 *         the {@value #POSTGRES_CACHED} backend, null for the others.
+	 */
+	public Statistics getCacheStatistics() {
+		if (entityManagerFactory == null) {
+			return null;
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		return statistics.isStatisticsEnabled() ? statistics : null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (postgres != null) {
+			entityManagerFactory.close();
+			postgres.close();
+		}
+	}
+
+	public static String museumName(int index) {
+		return "museum_" + index;
+	}
+
+	public static String exhibitionName(int index) {
+		return "exhibition_" + index;
+	}
+
+	public static UUID museumId(int index) {
+		return md5Uuid("museum" + index);
+	}
+
+	public static UUID exhibitionId(int index) {
+		return md5Uuid("exhibition" + index);
+	}
+
+	private void populate(int datasetSize) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			entityManager.getTransaction().begin();
+			entityManager.createNativeQuery(POPULATE_MUSEUMS).setParameter("rooms", NUMBER_OF_ROOMS)
+					.setParameter("size", datasetSize).executeUpdate();
+			entityManager.createNativeQuery(POPULATE_EXHIBITIONS).setParameter("seats", NUMBER_OF_SEATS)
+					.setParameter("size", datasetSize).executeUpdate();
+			entityManager.createNativeQuery("ANALYZE").executeUpdate();
+			entityManager.getTransaction().commit();
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private void populateInMemory(int datasetSize) throws RepositoryException {
+		for (int first = 0; first < datasetSize; first += POPULATE_BATCH_SIZE) {
+			int from = first;
+			int to = Math.min(datasetSize, first + POPULATE_BATCH_SIZE);
+			transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+				for (int i = from; i < to; i++) {
+					Museum museum = new Museum(museumName(i), NUMBER_OF_ROOMS);
+					museum.setId(museumId(i));
+					museum.setOccupiedRooms(1);
+					museumRepository.addMuseum(museum);
+					Exhibition exhibition = new Exhibition(exhibitionName(i), NUMBER_OF_SEATS);
+					exhibition.setId(exhibitionId(i));
+					exhibition.setMuseumId(museum.getId());
+					exhibitionRepository.addNewExhibition(exhibition);
+				}
+				return null;
+			});
+		}
+	}
+
+	/*
+	 * Same value as Postgres CAST(md5(key) AS uuid)
+	 */
+	private static UUID md5Uuid(String key) {
+		try {
+			ByteBuffer digest = ByteBuffer
+					.wrap(MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8)));
+			return new UUID(digest.getLong(), digest.getLong());
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ *
+ * Inserts per second ({@code inserts} secondary result) of {@code rows} new
+ * museums, or new exhibitions of a single museum, added one at a time, each in
+ * its own transaction ({@code path=per-entity}), or all together through
+ * {@link MuseumManagerService#addMuseums} and
+ * {@link MuseumManagerService#addExhibitions}, in a single transaction sending
+ * them in JDBC batches ({@code path=batched}). Each invocation inserts all the
+ * rows, created just before it; the creation is not measured. The per-entity
+ * path takes minutes for a million rows, fewer can be inserted with e.g.
+ * {@code -p rows=10000}.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+	private static final String MUSEUMS = "museums";
+	private static final String EXHIBITIONS = "exhibitions";
+	private static final String PER_ENTITY = "per-entity";
+	private static final String BATCHED = "batched";
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class InsertCounter {
+
+		public long inserts;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			inserts = 0;
+		}
+	}
+
+	@Param({ BenchmarkDatabase.POSTGRES, BenchmarkDatabase.MEMORY })
+	private String backend;
+
+	@Param({ MUSEUMS, EXHIBITIONS })
+	private String entity;
+
+	@Param({ PER_ENTITY, BATCHED })
+	private String path;
+
+	@Param({ "1000000" })
+	private int rows;
+
+	private BenchmarkDatabase database;
+	private MuseumManagerService museumManager;
+	private int invocations;
+	private List<Museum> museums;
+	private List<Exhibition> exhibitions;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, RepositoryException {
+		database = BenchmarkDatabase.start(backend, 1);
+		museumManager = new MuseumManagerServiceImpl(database.getTransactionManager());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		database.close();
+	}
+
+	@Setup(Level.Invocation)
+	public void createRows() {
+		int invocation = invocations++;
+		museums = new ArrayList<>(rows);
+		exhibitions = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			if (MUSEUMS.equals(entity)) {
+				museums.add(new Museum("new_museum_" + invocation + "_" + i, BenchmarkDatabase.NUMBER_OF_ROOMS));
+			} else {
+				exhibitions.add(
+						new Exhibition("new_exhibition_" + invocation + "_" + i, BenchmarkDatabase.NUMBER_OF_SEATS));
+			}
+		}
+	}
+
+	@Benchmark
+	public int insert(InsertCounter counter) throws MuseumManagerServiceException {
+		String museumName = BenchmarkDatabase.museumName(0);
+		int inserted;
+		if (BATCHED.equals(path)) {
+			inserted = MUSEUMS.equals(entity) ? museumManager.addMuseums(museums)
+					: museumManager.addExhibitions(museumName, exhibitions);
+		} else {
+			for (Museum museum : museums) {
+				museumManager.saveMuseum(museum);
+			}
+			for (Exhibition exhibition : exhibitions) {
+				museumManager.addNewExhibition(museumName, exhibition);
+			}
+			inserted = museums.size() + exhibitions.size();
+		}
+		counter.inserts += inserted;
+		return inserted;
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.postgres.PostgresCopyLoader;
+
+/**
+ *
+ * Inserts per second ({@code inserts} secondary result) of {@code rows} new
+ * museums, or new exhibitions spread over {@value #MUSEUMS} museums, loaded
+ * through COPY by a {@link PostgresCopyLoader} into the embedded Postgres, to
+ * be compared with those of {@link BulkInsertBenchmark}. Each invocation loads
+ * all the rows, created just before it; the creation is not measured.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class CopyLoadBenchmark {
+
+	private static final String MUSEUMS_ENTITY = "museums";
+	private static final String EXHIBITIONS_ENTITY = "exhibitions";
+	private static final int MUSEUMS = 1000;
+
+	@Param({ MUSEUMS_ENTITY, EXHIBITIONS_ENTITY })
+	private String entity;
+
+	@Param({ "1000000" })
+	private int rows;
+
+	private BenchmarkDatabase database;
+	private Connection connection;
+	private PostgresCopyLoader loader;
+	private int invocations;
+	private List<Museum> museums;
+	private List<Exhibition> exhibitions;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, RepositoryException, SQLException {
+		database = BenchmarkDatabase.start(BenchmarkDatabase.POSTGRES, MUSEUMS);
+		connection = database.getConnection();
+		loader = new PostgresCopyLoader(connection);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException, SQLException {
+		try {
+			connection.close();
+		} finally {
+			database.close();
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void createRows() {
+		int invocation = invocations++;
+		museums = new ArrayList<>(rows);
+		exhibitions = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			if (MUSEUMS_ENTITY.equals(entity)) {
+				museums.add(new Museum("new_museum_" + invocation + "_" + i, BenchmarkDatabase.NUMBER_OF_ROOMS));
+			} else {
+				Exhibition exhibition = new Exhibition("new_exhibition_" + invocation + "_" + i,
+						BenchmarkDatabase.NUMBER_OF_SEATS);
+				exhibition.setMuseumId(BenchmarkDatabase.museumId(i % MUSEUMS));
+				exhibitions.add(exhibition);
+			}
+		}
+	}
+
+	@Benchmark
+	public long load(BulkInsertBenchmark.InsertCounter counter) throws RepositoryException {
+		long loaded = MUSEUMS_ENTITY.equals(entity) ? loader.loadMuseums(museums).getRowsImported()
+				: loader.loadExhibitions(exhibitions).getRowsImported();
+		counter.inserts += loaded;
+		return loaded;
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ * 
+ * Cost of deleting a museum together with its {@code exhibitionsPerMuseum}
+ * exhibitions. Each invocation deletes a museum created just before it, the
+ * creation is not measured.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeleteMuseumBenchmark {
+
+	@State(Scope.Thread)
+	public static class MuseumToDelete {
+
+		@Param({ "1", "100" })
+		private int exhibitionsPerMuseum;
+
+		private Museum museum;
+
+		@Setup(Level.Invocation)
+		public void setUp(MuseumManagerBenchmark state) throws MuseumManagerServiceException, RepositoryException {
+			long id = state.nextSequence();
+			museum = state.getMuseumManager()
+					.saveMuseum(new Museum("museum_to_delete_" + id, BenchmarkDatabase.NUMBER_OF_ROOMS));
+			state.getTransactionManager().doInTransactionExhibition(exhibitionRepository -> {
+				for (int i = 0; i < exhibitionsPerMuseum; i++) {
+					Exhibition exhibition = new Exhibition("exhibition_to_delete_" + id + "_" + i,
+							BenchmarkDatabase.NUMBER_OF_SEATS);
+					exhibition.setMuseumId(museum.getId());
+					exhibitionRepository.addNewExhibition(exhibition);
+				}
+				return null;
+			});
+		}
+	}
+
+	@Benchmark
+	public void deleteMuseum(MuseumManagerBenchmark state, MuseumToDelete museumToDelete)
+			throws MuseumManagerServiceException {
+		state.getMuseumManager().deleteMuseum(museumToDelete.museum);
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.export.ExportFormat;
+import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ * 
+ * Throughput of exporting all the {@code datasetSize} exhibitions of a
+ * {@code backend} database, discarding the output. Each invocation is a whole
+ * export, so the rows exported per second are {@code datasetSize} divided by
+ * the score. The heap is kept small so that an export holding the rows in
+ * memory would fail instead of just being slower, which is why the in-memory
+ * database, holding the whole dataset, is not a default backend.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class ExportBenchmark {
+
+	@Param({ BenchmarkDatabase.POSTGRES })
+	private String backend;
+
+	@Param({ "2000000" })
+	private int datasetSize;
+
+	@Param({ "CSV", "JSONL" })
+	private ExportFormat format;
+
+	private BenchmarkDatabase database;
+	private MuseumManagerService museumManager;
+
+	/*
+	 * Discards what is written, so only reading and formatting are measured
+	 */
+	private static final class NullWriter extends Writer {
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			// discarded
+		}
+
+		@Override
+		public void write(String string, int offset, int length) {
+			// discarded
+		}
+
+		@Override
+		public void flush() {
+			// nothing buffered
+		}
+
+		@Override
+		public void close() {
+			// nothing to release
+		}
+
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, RepositoryException {
+		database = BenchmarkDatabase.start(backend, datasetSize);
+		museumManager = new MuseumManagerServiceImpl(database.getTransactionManager());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		database.close();
+	}
+
+	@Benchmark
+	public long exportExhibitions() throws RepositoryException {
+		return museumManager.exportExhibitions(new NullWriter(), format);
+	}
+
+}
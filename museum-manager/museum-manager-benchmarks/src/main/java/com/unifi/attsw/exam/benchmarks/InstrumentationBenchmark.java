@@ -0,0 +1,73 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.InstrumentedTransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.TransactionMetrics;
+
+/**
+ * 
+ * Overhead of {@link InstrumentedTransactionManager}: the cheapest transaction
+ * there is, a lookup by id on the in-memory database, run by 4 threads with
+ * and without metrics.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class InstrumentationBenchmark {
+
+	private static final int DATASET_SIZE = 10_000;
+
+	@Param({ "false", "true" })
+	private boolean instrumented;
+
+	private BenchmarkDatabase database;
+	private TransactionManager transactionManager;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, RepositoryException {
+		database = BenchmarkDatabase.start(BenchmarkDatabase.MEMORY, DATASET_SIZE);
+		transactionManager = database.getTransactionManager();
+		if (instrumented) {
+			transactionManager = new InstrumentedTransactionManager(transactionManager, new TransactionMetrics());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		database.close();
+	}
+
+	@Benchmark
+	public Museum findMuseumById() throws RepositoryException {
+		int index = ThreadLocalRandom.current().nextInt(DATASET_SIZE);
+		return transactionManager.doInTransactionMuseum(
+				museumRepository -> museumRepository.findMuseumById(BenchmarkDatabase.museumId(index)));
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+
+/**
+ * 
+ * Repository and service hot paths, measured against a {@code backend}
+ * database holding {@code datasetSize} museums and exhibitions. Parameters can
+ * be overridden from the command line, e.g.
+ * {@code -p backend=memory -p datasetSize=1000000}. A million rows is not among
+ * the defaults, as every benchmark would run on it for every backend.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MuseumManagerBenchmark {
+
+	/**
+	 * Second-level and query cache hits, misses and puts of each iteration,
+	 * secondary results written to the JMH report, zero unless the backend is
+	 * {@value BenchmarkDatabase#POSTGRES_CACHED}.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class CacheCounters {
+
+		public long cacheHits;
+		public long cacheMisses;
+		public long cachePuts;
+		public long queryCacheHits;
+		public long queryCacheMisses;
+		public long queryCachePuts;
+
+		private Statistics statistics;
+
+		@Setup(Level.Iteration)
+		public void reset(MuseumManagerBenchmark benchmark) {
+			statistics = benchmark.database.getCacheStatistics();
+			if (statistics != null) {
+				statistics.clear();
+			}
+		}
+
+		@TearDown(Level.Iteration)
+		public void read() {
+			if (statistics != null) {
+				cacheHits = statistics.getSecondLevelCacheHitCount();
+				cacheMisses = statistics.getSecondLevelCacheMissCount();
+				cachePuts = statistics.getSecondLevelCachePutCount();
+				queryCacheHits = statistics.getQueryCacheHitCount();
+				queryCacheMisses = statistics.getQueryCacheMissCount();
+				queryCachePuts = statistics.getQueryCachePutCount();
+			}
+		}
+	}
+
+	@Param({ BenchmarkDatabase.POSTGRES, BenchmarkDatabase.POSTGRES_CACHED, BenchmarkDatabase.MEMORY })
+	private String backend;
+
+	@Param({ "1000", "100000" })
+	private int datasetSize;
+
+	private BenchmarkDatabase database;
+	private TransactionManager transactionManager;
+	private MuseumManagerService museumManager;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, RepositoryException {
+		database = BenchmarkDatabase.start(backend, datasetSize);
+		transactionManager = database.getTransactionManager();
+		museumManager = new MuseumManagerServiceImpl(transactionManager);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		database.close();
+	}
+
+	@Benchmark
+	public Museum findMuseumById(CacheCounters counters) throws RepositoryException {
+		return transactionManager.doInTransactionMuseum(
+				museumRepository -> museumRepository.findMuseumById(BenchmarkDatabase.museumId(randomIndex())));
+	}
+
+	@Benchmark
+	public Museum findMuseumByName(CacheCounters counters) throws RepositoryException {
+		String museumName = BenchmarkDatabase.museumName(randomIndex());
+		return transactionManager.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumByName(museumName));
+	}
+
+	@Benchmark
+	public List<Exhibition> findExhibitionsByMuseumId(CacheCounters counters) throws RepositoryException {
+		return transactionManager.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository
+				.findExhibitionsByMuseumId(BenchmarkDatabase.museumId(randomIndex())));
+	}
+
+	@Benchmark
+	public Museum saveMuseum(CacheCounters counters) throws MuseumManagerServiceException {
+		return museumManager
+				.saveMuseum(new Museum("new_museum_" + sequence.incrementAndGet(), BenchmarkDatabase.NUMBER_OF_ROOMS));
+	}
+
+	@Benchmark
+	public Exhibition addNewExhibition(CacheCounters counters) throws MuseumManagerServiceException {
+		return museumManager.addNewExhibition(BenchmarkDatabase.museumName(randomIndex()),
+				new Exhibition("new_exhibition_" + sequence.incrementAndGet(), BenchmarkDatabase.NUMBER_OF_SEATS));
+	}
+
+	@Benchmark
+	public int bookExhibitionSeat(CacheCounters counters) throws MuseumManagerServiceException {
+		int index = randomIndex();
+		Exhibition exhibition = new Exhibition(BenchmarkDatabase.exhibitionName(index),
+				BenchmarkDatabase.NUMBER_OF_SEATS);
+		exhibition.setId(BenchmarkDatabase.exhibitionId(index));
+		return museumManager.bookExhibitionSeat(exhibition);
+	}
+
+	MuseumManagerService getMuseumManager() {
+		return museumManager;
+	}
+
+	TransactionManager getTransactionManager() {
+		return transactionManager;
+	}
+
+	long nextSequence() {
+		return sequence.incrementAndGet();
+	}
+
+	private int randomIndex() {
+		return ThreadLocalRandom.current().nextInt(datasetSize);
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.booking.BookingQueue;
+import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.core.service.inventory.SeatInventory;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ *
+ * Seat bookings of 64 concurrent clients, each one in its own transaction
+ * ({@code booking=transaction}), through a {@link SeatInventory} flushing them
+ * every {@code flushMillis} milliseconds ({@code booking=inventory}), or
+ * through a {@link BookingQueue} committing those queued together after
+ * waiting up to {@code batchMillis} milliseconds for them
+ * ({@code booking=group-commit}). The time of the inventory flushes runs in the
+ * background and is measured only as contention.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class SeatBookingBenchmark {
+
+	private static final String TRANSACTION = "transaction";
+	private static final String INVENTORY = "inventory";
+	private static final String GROUP_COMMIT = "group-commit";
+	private static final int DATASET_SIZE = 1000;
+
+	@Param({ BenchmarkDatabase.POSTGRES, BenchmarkDatabase.MEMORY })
+	private String backend;
+
+	@Param({ TRANSACTION, INVENTORY, GROUP_COMMIT })
+	private String booking;
+
+	@Param({ "100" })
+	private long flushMillis;
+
+	@Param({ "0" })
+	private long batchMillis;
+
+	private BenchmarkDatabase database;
+	private Path journalDirectory;
+	private SeatInventory seatInventory;
+	private BookingQueue bookingQueue;
+	private MuseumManagerService museumManager;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, RepositoryException {
+		database = BenchmarkDatabase.start(backend, DATASET_SIZE);
+		if (INVENTORY.equals(booking)) {
+			journalDirectory = Files.createTempDirectory("seat-inventory");
+			seatInventory = new SeatInventory(database.getTransactionManager(), journalDirectory, flushMillis,
+					TimeUnit.MILLISECONDS);
+			museumManager = new MuseumManagerServiceImpl(database.getTransactionManager(), seatInventory);
+		} else if (GROUP_COMMIT.equals(booking)) {
+			bookingQueue = new BookingQueue(database.getTransactionManager(), 1, 10_000, 1000, batchMillis,
+					TimeUnit.MILLISECONDS);
+			museumManager = new MuseumManagerServiceImpl(database.getTransactionManager(), bookingQueue);
+		} else {
+			museumManager = new MuseumManagerServiceImpl(database.getTransactionManager());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		try {
+			if (bookingQueue != null) {
+				bookingQueue.close();
+			}
+			if (seatInventory != null) {
+				seatInventory.close();
+				try (Stream<Path> files = Files.walk(journalDirectory)) {
+					for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+						Files.delete(file);
+					}
+				}
+			}
+		} finally {
+			database.close();
+		}
+	}
+
+	@Benchmark
+	public int bookExhibitionSeat() throws MuseumManagerServiceException {
+		int index = ThreadLocalRandom.current().nextInt(DATASET_SIZE);
+		Exhibition exhibition = new Exhibition(BenchmarkDatabase.exhibitionName(index),
+				BenchmarkDatabase.NUMBER_OF_SEATS);
+		exhibition.setId(BenchmarkDatabase.exhibitionId(index));
+		return museumManager.bookExhibitionSeat(exhibition);
+	}
+
+}
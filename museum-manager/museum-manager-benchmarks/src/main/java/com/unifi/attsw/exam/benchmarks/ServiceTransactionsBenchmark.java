@@ -0,0 +1,207 @@
+package com.unifi.attsw.exam.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.InstrumentedTransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.TransactionMetrics;
+import com.unifi.attsw.exam.repository.transaction.manager.metrics.TransactionType;
+
+/**
+ *
+ * Service use cases which read rows and then write them, run in a single
+ * transaction ({@code flow=single}, as the service does) or with the read in a
+ * transaction of its own and the write in a second one ({@code flow=split}, as
+ * the service used to do). Besides the time per operation, the
+ * {@code transactions} and {@code operations} counters give the transactions
+ * begun and committed per operation, each one costing its own round trips.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceTransactionsBenchmark {
+
+	private static final String SINGLE = "single";
+	private static final int DATASET_SIZE = 1000;
+
+	@Param({ BenchmarkDatabase.POSTGRES, BenchmarkDatabase.MEMORY })
+	private String backend;
+
+	@Param({ SINGLE, "split" })
+	private String flow;
+
+	private BenchmarkDatabase database;
+	private TransactionMetrics metrics;
+	private TransactionManager transactionManager;
+	private MuseumManagerService museumManager;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Transactions run by the measured operations, reset at every iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Transactions {
+
+		public long transactions;
+		public long operations;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			transactions = 0;
+			operations = 0;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ExhibitionToDelete {
+
+		private Exhibition exhibition;
+
+		@Setup(Level.Invocation)
+		public void setUp(ServiceTransactionsBenchmark state) throws MuseumManagerServiceException {
+			exhibition = state.museumManager.addNewExhibition(state.randomMuseumName(), new Exhibition(
+					"exhibition_to_delete_" + state.sequence.incrementAndGet(), BenchmarkDatabase.NUMBER_OF_SEATS));
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class MuseumToDelete {
+
+		private Museum museum;
+
+		@Setup(Level.Invocation)
+		public void setUp(ServiceTransactionsBenchmark state) throws MuseumManagerServiceException {
+			long id = state.sequence.incrementAndGet();
+			museum = state.museumManager
+					.saveMuseum(new Museum("museum_to_delete_" + id, BenchmarkDatabase.NUMBER_OF_ROOMS));
+			state.museumManager.addNewExhibition(museum.getName(),
+					new Exhibition("exhibition_to_delete_" + id, BenchmarkDatabase.NUMBER_OF_SEATS));
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, RepositoryException {
+		database = BenchmarkDatabase.start(backend, DATASET_SIZE);
+		metrics = new TransactionMetrics();
+		transactionManager = new InstrumentedTransactionManager(database.getTransactionManager(), metrics);
+		museumManager = new MuseumManagerServiceImpl(transactionManager);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		database.close();
+	}
+
+	@Benchmark
+	public Exhibition addNewExhibition(Transactions counters)
+			throws MuseumManagerServiceException, RepositoryException {
+		long transactions = transactionsRun();
+		String museumName = randomMuseumName();
+		Exhibition exhibition = new Exhibition("new_exhibition_" + sequence.incrementAndGet(),
+				BenchmarkDatabase.NUMBER_OF_SEATS);
+		Exhibition added;
+		if (SINGLE.equals(flow)) {
+			added = museumManager.addNewExhibition(museumName, exhibition);
+		} else {
+			Museum museum = transactionManager
+					.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumByName(museumName));
+			added = transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+				exhibition.setMuseumId(museum.getId());
+				museum.setOccupiedRooms(museum.getOccupiedRooms() + 1);
+				museumRepository.updateMuseum(museum);
+				return exhibitionRepository.addNewExhibition(exhibition);
+			});
+		}
+		count(counters, transactions);
+		return added;
+	}
+
+	@Benchmark
+	public void deleteExhibition(Transactions counters, ExhibitionToDelete exhibitionToDelete)
+			throws MuseumManagerServiceException, RepositoryException {
+		long transactions = transactionsRun();
+		Exhibition exhibition = exhibitionToDelete.exhibition;
+		if (SINGLE.equals(flow)) {
+			museumManager.deleteExhibition(exhibition);
+		} else {
+			Exhibition exhibitionToRemove = transactionManager.doInTransactionExhibition(
+					exhibitionRepository -> exhibitionRepository.findExhibitionByName(exhibition.getName()));
+			transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+				Museum museum = museumRepository.findMuseumById(exhibition.getMuseumId());
+				exhibitionRepository
+						.deleteExhibition(exhibitionRepository.findExhibitionById(exhibitionToRemove.getId()));
+				museum.setOccupiedRooms(museum.getOccupiedRooms() - 1);
+				museumRepository.updateMuseum(museum);
+				return null;
+			});
+		}
+		count(counters, transactions);
+	}
+
+	@Benchmark
+	public void deleteMuseum(Transactions counters, MuseumToDelete museumToDelete)
+			throws MuseumManagerServiceException, RepositoryException {
+		long transactions = transactionsRun();
+		Museum museum = museumToDelete.museum;
+		if (SINGLE.equals(flow)) {
+			museumManager.deleteMuseum(museum);
+		} else {
+			Museum museumToRemove = transactionManager
+					.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumByName(museum.getName()));
+			transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+				exhibitionRepository.deleteExhibitionsByMuseumId(museumToRemove.getId());
+				museumRepository.deleteMuseum(museumRepository.findMuseumById(museumToRemove.getId()));
+				return null;
+			});
+		}
+		count(counters, transactions);
+	}
+
+	private void count(Transactions counters, long transactionsBefore) {
+		counters.transactions += transactionsRun() - transactionsBefore;
+		counters.operations++;
+	}
+
+	private long transactionsRun() {
+		long transactions = 0;
+		for (TransactionType type : TransactionType.values()) {
+			transactions += metrics.getCommits(type) + metrics.getRollbacks(type);
+		}
+		return transactions;
+	}
+
+	private String randomMuseumName() {
+		return BenchmarkDatabase.museumName(ThreadLocalRandom.current().nextInt(DATASET_SIZE));
+	}
+
+}
@@ -4,7 +4,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -19,6 +25,7 @@ import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException
 import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.model.SeatMap;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
 import com.unifi.attsw.exam.repository.transaction.manager.postgres.PostgresTransactionManager;
 
@@ -50,7 +57,7 @@ public class MuseumManagerServiceIT {
 	@Before
 	public void setUp() {
 		entityManager = sessionFactory.createEntityManager();
-		transactionManager = new PostgresTransactionManager(entityManager);
+		transactionManager = new PostgresTransactionManager(sessionFactory);
 		museumManager = new MuseumManagerServiceImpl(transactionManager);
 
 		entityManager.getTransaction().begin();
@@ -161,6 +168,65 @@ public class MuseumManagerServiceIT {
 		assertThat(bookedExhibitionsAfter).isEqualTo(bookedExhibitionsBefore + 1);
 	}
 
+	@Test
+	public void testConcurrentBookingsNeverOverbook() throws Exception {
+		populateDatabase();
+		Exhibition exhibition = museumManager.getExhibitionByName(EXHIBITION1_TEST);
+		int numOfThreads = 8;
+		int attemptsPerThread = 2 * exhibition.getTotalSeats() / numOfThreads;
+		AtomicInteger bookings = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		for (int i = 0; i < numOfThreads; i++) {
+			executor.submit(() -> {
+				for (int j = 0; j < attemptsPerThread; j++) {
+					try {
+						museumManager.bookExhibitionSeat(createTestExhibition(exhibition));
+						bookings.incrementAndGet();
+					} catch (MuseumManagerServiceException ex) {
+						// sold out
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+		assertThat(bookings.get()).isEqualTo(exhibition.getTotalSeats());
+		assertThat(museumManager.getExhibitionByName(EXHIBITION1_TEST).getBookedSeats())
+				.isEqualTo(exhibition.getTotalSeats());
+	}
+
+	@Test
+	public void testConcurrentAdjacentBookingsNeverShareASeat() throws Exception {
+		populateDatabase();
+		Exhibition exhibition = museumManager.getExhibitionByName(EXHIBITION1_TEST);
+		int numOfThreads = 8;
+		int attemptsPerThread = exhibition.getTotalSeats() / numOfThreads;
+		Queue<Integer> bookedSeats = new ConcurrentLinkedQueue<>();
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		for (int i = 0; i < numOfThreads; i++) {
+			executor.submit(() -> {
+				for (int j = 0; j < attemptsPerThread; j++) {
+					try {
+						for (int seat : museumManager.bookAdjacentSeats(exhibition, 2)) {
+							bookedSeats.add(seat);
+						}
+					} catch (MuseumManagerServiceException ex) {
+						// sold out
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+		assertThat(bookedSeats).hasSize(exhibition.getTotalSeats()).doesNotHaveDuplicates();
+		SeatMap seatMap = museumManager.getSeatMap(exhibition);
+		assertThat(seatMap.getBookedSeatNumbers()).isEqualTo(exhibition.getTotalSeats());
+		assertThat(museumManager.getExhibitionByName(EXHIBITION1_TEST).getBookedSeats())
+				.isEqualTo(exhibition.getTotalSeats());
+	}
+
 	@AfterClass
 	public static void tearDown() {
 		entityManager.clear();
@@ -183,6 +249,12 @@ public class MuseumManagerServiceIT {
 
 	}
 
+	public Exhibition createTestExhibition(Exhibition exhibition) {
+		Exhibition exhibitionCopy = new Exhibition(exhibition.getName(), exhibition.getTotalSeats());
+		exhibitionCopy.setId(exhibition.getId());
+		return exhibitionCopy;
+	}
+
 	/*
 	 * Utility method to populate database with data
 	 */
@@ -1,10 +1,16 @@
 package com.unifi.attsw.exam.core.service;
 
+import java.io.Writer;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.core.service.export.ExportFormat;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.model.SeatMap;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
 
 /**
@@ -33,6 +39,57 @@ public interface MuseumManagerService {
 	 */
 	public List<Exhibition> getAllExhibitions() throws RepositoryException;
 
+	/**
+	 * Communicates with Persistence layer in order to get a page of persisted
+	 * Museums, ordered by name.
+	 * 
+	 * @param lastMuseumName The name of the last Museum of the previous page, null
+	 *                       to get the first page.
+	 * @param pageSize       The maximum number of Museums in the page.
+	 * @return A List with at most pageSize Museums following the given name.
+	 * @throws RepositoryException if a database level error occurs.
+	 */
+	public List<Museum> getMuseumsPage(String lastMuseumName, int pageSize) throws RepositoryException;
+
+	/**
+	 * Communicates with Persistence layer in order to get a page of persisted
+	 * Exhibitions, ordered by name.
+	 * 
+	 * @param lastExhibitionName The name of the last Exhibition of the previous
+	 *                           page, null to get the first page.
+	 * @param pageSize           The maximum number of Exhibitions in the page.
+	 * @return A List with at most pageSize Exhibitions following the given name.
+	 * @throws RepositoryException if a database level error occurs.
+	 */
+	public List<Exhibition> getExhibitionsPage(String lastExhibitionName, int pageSize) throws RepositoryException;
+
+	/**
+	 * Communicates with Persistence layer in order to write all persisted
+	 * Museums, with columns id, name, total_rooms and occupied_rooms, one at a
+	 * time, so that memory use does not depend on their number.
+	 * 
+	 * @param out    The Writer to write to, flushed at the end.
+	 * @param format The format of the written Museums.
+	 * @return The number of Museums written.
+	 * @throws RepositoryException if a database level error occurs or the
+	 *                             Museums cannot be written.
+	 */
+	public long exportMuseums(Writer out, ExportFormat format) throws RepositoryException;
+
+	/**
+	 * Communicates with Persistence layer in order to write all persisted
+	 * Exhibitions, with columns id, museum_id, name, total_seats and
+	 * booked_seats, one at a time, so that memory use does not depend on their
+	 * number.
+	 * 
+	 * @param out    The Writer to write to, flushed at the end.
+	 * @param format The format of the written Exhibitions.
+	 * @return The number of Exhibitions written.
+	 * @throws RepositoryException if a database level error occurs or the
+	 *                             Exhibitions cannot be written.
+	 */
+	public long exportExhibitions(Writer out, ExportFormat format) throws RepositoryException;
+
 	/**
 	 * Communicates with Persistence layer in order to get all persisted Exhibitions
 	 * which belongs to a given Museum.
@@ -67,6 +124,19 @@ public interface MuseumManagerService {
 	 */
 	public Museum saveMuseum(Museum museum) throws MuseumManagerServiceException;
 
+	/**
+	 * 
+	 * Communicates with Persistence layer in order to save the given new Museums
+	 * in a single transaction, sending them to the database in batches.
+	 * 
+	 * @param museums The new Museums to save.
+	 * @return The number of saved Museums.
+	 * @throws MuseumManagerServiceException if an error occurs both at service or
+	 *                                       database level, in which case no
+	 *                                       Museum is saved.
+	 */
+	public int addMuseums(Collection<Museum> museums) throws MuseumManagerServiceException;
+
 	/**
 	 * Communicates with Persistence layer in order to delete the given Museum.
 	 * 
@@ -99,6 +169,22 @@ public interface MuseumManagerService {
 	 */
 	public Exhibition addNewExhibition(String museumName, Exhibition exhibition) throws MuseumManagerServiceException;
 
+	/**
+	 * Communicates with Persistence layer in order to save the given new
+	 * Exhibitions in a single transaction, sending them to the database in
+	 * batches, only if the Museum has a free room for each one of them.
+	 * 
+	 * @param museumName  The name of the Museum to which assign the given new
+	 *                    Exhibitions.
+	 * @param exhibitions The new Exhibitions to save.
+	 * @return The number of saved Exhibitions.
+	 * @throws MuseumManagerServiceException if an error occurs both at service or
+	 *                                       database level, in which case no
+	 *                                       Exhibition is saved.
+	 */
+	public int addExhibitions(String museumName, Collection<Exhibition> exhibitions)
+			throws MuseumManagerServiceException;
+
 	/**
 	 * Communicates with Persistence layer in order to delete the given Exhibition.
 	 * 
@@ -110,12 +196,68 @@ public interface MuseumManagerService {
 
 	/**
 	 * Communicates with Persistence layer in order to book a seat for the given
-	 * Exhibition.
+	 * Exhibition. The seat is booked atomically, only if the Exhibition still has
+	 * free seats.
 	 * 
 	 * @param exhibition The exhibition to book
+	 * @return The number of free seats left after the booking.
+	 * @throws MuseumManagerServiceException if an error occurs both at service or
+	 *                                       database level.
+	 */
+	public int bookExhibitionSeat(Exhibition exhibition) throws MuseumManagerServiceException;
+
+	/**
+	 * Communicates with Persistence layer in order to book, in a single
+	 * transaction, the given number of seats for each given Exhibition. Each
+	 * Exhibition is booked only if it has enough free seats for its request.
+	 * 
+	 * @param seatsByExhibitionId The number of seats to book for each Exhibition
+	 *                            ID.
+	 * @return The number of free seats left for each given Exhibition ID, -1 for
+	 *         the Exhibitions which have not been booked.
+	 * @throws MuseumManagerServiceException if an error occurs both at service or
+	 *                                       database level.
+	 */
+	public Map<UUID, Integer> bookSeats(Map<UUID, Integer> seatsByExhibitionId)
+			throws MuseumManagerServiceException;
+
+	/**
+	 * Communicates with Persistence layer in order to book the first free seats
+	 * next to each other of the given Exhibition. The seats are booked
+	 * atomically, only if there are as many adjacent free seats. Not available
+	 * when seats are booked through a seat inventory.
+	 * 
+	 * @param exhibition The exhibition to book
+	 * @param seats      The number of adjacent seats to book
+	 * @return The numbers of the booked seats, in ascending order.
+	 * @throws MuseumManagerServiceException if an error occurs both at service or
+	 *                                       database level.
+	 */
+	public int[] bookAdjacentSeats(Exhibition exhibition, int seats) throws MuseumManagerServiceException;
+
+	/**
+	 * Communicates with Persistence layer in order to book the seats with the
+	 * given numbers of the given Exhibition. The seats are booked atomically,
+	 * only if all of them are free. Not available when seats are booked through
+	 * a seat inventory.
+	 * 
+	 * @param exhibition  The exhibition to book
+	 * @param seatNumbers The distinct numbers of the seats to book, from 0
+	 * @throws MuseumManagerServiceException if an error occurs both at service or
+	 *                                       database level.
+	 */
+	public void bookSeatNumbers(Exhibition exhibition, int... seatNumbers) throws MuseumManagerServiceException;
+
+	/**
+	 * Communicates with Persistence layer in order to find which seats of the
+	 * given Exhibition have been booked by number. Not available when seats are
+	 * booked through a seat inventory.
+	 * 
+	 * @param exhibition The exhibition whose seats are returned
+	 * @return The seat map of the Exhibition
 	 * @throws MuseumManagerServiceException if an error occurs both at service or
 	 *                                       database level.
 	 */
-	public void bookExhibitionSeat(Exhibition exhibition) throws MuseumManagerServiceException;
+	public SeatMap getSeatMap(Exhibition exhibition) throws MuseumManagerServiceException;
 
 }
@@ -0,0 +1,279 @@
+package com.unifi.attsw.exam.core.service.booking;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+
+/**
+ *
+ * Books Exhibition seats in groups (group commit). Each booking is put in the
+ * bounded queue of a writer thread, always the same one for an Exhibition. The
+ * writer takes the first queued booking, waits up to the maximum delay for
+ * more, then books all of them in a single transaction, with one guarded
+ * UPDATE adding to each Exhibition the seats of all its bookings
+ * ({@link ExhibitionRepository#bookSeats}). Bookings queued while a batch is
+ * committed form the next one, so the busier the Exhibitions the larger the
+ * batches, at the cost of the delay and of the commit of the previous batch.
+ *
+ * An Exhibition without enough free seats for all its bookings of a batch gets
+ * as many as it has left, given to its bookings in the order they were queued;
+ * the others are sold out. A failed transaction fails all the bookings of its
+ * batch, none of which is booked.
+ *
+ */
+public class BookingQueue implements Closeable {
+
+	/**
+	 * Queued after the last booking when the queue is closed.
+	 */
+	private static final BookingRequest CLOSE = new BookingRequest(null);
+
+	private static class BookingRequest {
+
+		private final UUID exhibitionId;
+		private final CompletableFuture<Integer> freeSeats = new CompletableFuture<>();
+
+		private BookingRequest(UUID exhibitionId) {
+			this.exhibitionId = exhibitionId;
+		}
+	}
+
+	/**
+	 * The seats booked for an Exhibition by a batch, and those left free after
+	 * them.
+	 */
+	private static class Booking {
+
+		private final int bookedSeats;
+		private final int freeSeats;
+
+		private Booking(int bookedSeats, int freeSeats) {
+			this.bookedSeats = bookedSeats;
+			this.freeSeats = freeSeats;
+		}
+	}
+
+	private class BookingWriter implements Runnable {
+
+		private final BlockingQueue<BookingRequest> queue;
+		private final Thread thread;
+
+		private BookingWriter(int capacity, int index) {
+			queue = new ArrayBlockingQueue<>(capacity);
+			thread = new Thread(this, "booking-writer-" + index);
+			thread.setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			List<BookingRequest> batch = new ArrayList<>(maxBatchSize);
+			boolean open = true;
+			while (open) {
+				try {
+					open = takeBatch(batch);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					open = false;
+				}
+				if (!batch.isEmpty()) {
+					book(batch);
+					batch.clear();
+				}
+			}
+		}
+
+		/*
+		 * Waits for a booking, then for the following ones up to the maximum delay;
+		 * returns false once the queue is closed
+		 */
+		private boolean takeBatch(List<BookingRequest> batch) throws InterruptedException {
+			BookingRequest request = queue.take();
+			long deadline = System.nanoTime() + maxDelayNanos;
+			while (request != CLOSE) {
+				batch.add(request);
+				if (batch.size() == maxBatchSize) {
+					return true;
+				}
+				long delay = deadline - System.nanoTime();
+				request = delay > 0 ? queue.poll(delay, TimeUnit.NANOSECONDS) : queue.poll();
+				if (request == null) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private final TransactionManager transactionManager;
+	private final BookingWriter[] writers;
+	private final int maxBatchSize;
+	private final long maxDelayNanos;
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+	private boolean closed;
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder bookings = new LongAdder();
+
+	/**
+	 * Starts the writer threads.
+	 *
+	 * @param transactionManager The manager of the booking transactions.
+	 * @param writers            The number of writer threads, each one booking
+	 *                           its own Exhibitions.
+	 * @param capacity           The maximum number of bookings queued for a
+	 *                           writer, further ones are rejected.
+	 * @param maxBatchSize       The maximum number of bookings of a batch.
+	 * @param maxDelay           The maximum time a writer waits for more
+	 *                           bookings after the first one of a batch, 0 to
+	 *                           book only those already queued.
+	 * @param unit               The unit of the maximum delay.
+	 */
+	public BookingQueue(TransactionManager transactionManager, int writers, int capacity, int maxBatchSize,
+			long maxDelay, TimeUnit unit) {
+		if (writers <= 0 || capacity <= 0 || maxBatchSize <= 0 || maxDelay < 0) {
+			throw new IllegalArgumentException("Invalid booking queue configuration.");
+		}
+		this.transactionManager = transactionManager;
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelayNanos = unit.toNanos(maxDelay);
+		this.writers = new BookingWriter[writers];
+		for (int i = 0; i < writers; i++) {
+			this.writers[i] = new BookingWriter(capacity, i);
+			this.writers[i].thread.start();
+		}
+	}
+
+	/**
+	 * Queues the booking of a seat of the Exhibition with the given ID, booked
+	 * only if it still has free seats.
+	 *
+	 * @param exhibitionId The ID of the Exhibition to book.
+	 * @return The number of free seats left after the booking, or -1 if no seat
+	 *         has been booked because the Exhibition is sold out or does not
+	 *         exist. It fails with a {@link RejectedExecutionException} if the
+	 *         queue is full or closed, with the failure of the transaction
+	 *         otherwise.
+	 */
+	public CompletableFuture<Integer> bookSeat(UUID exhibitionId) {
+		if (exhibitionId == null) {
+			throw new IllegalArgumentException("Exhibition ID cannot be null.");
+		}
+		BookingRequest request = new BookingRequest(exhibitionId);
+		closeLock.readLock().lock();
+		try {
+			if (closed) {
+				request.freeSeats.completeExceptionally(new RejectedExecutionException("Booking queue closed."));
+			} else if (!writers[Math.floorMod(exhibitionId.hashCode(), writers.length)].queue.offer(request)) {
+				request.freeSeats.completeExceptionally(new RejectedExecutionException("Booking queue full."));
+			}
+		} finally {
+			closeLock.readLock().unlock();
+		}
+		return request.freeSeats;
+	}
+
+	/**
+	 * @return The number of batches booked, each one in its own transaction.
+	 */
+	public long getBatches() {
+		return batches.sum();
+	}
+
+	/**
+	 * @return The number of bookings of the batches booked.
+	 */
+	public long getBookings() {
+		return bookings.sum();
+	}
+
+	/**
+	 * Rejects new bookings and waits for the queued ones to be booked.
+	 */
+	@Override
+	public void close() {
+		closeLock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		} finally {
+			closeLock.writeLock().unlock();
+		}
+		try {
+			for (BookingWriter writer : writers) {
+				writer.queue.put(CLOSE);
+			}
+			for (BookingWriter writer : writers) {
+				writer.thread.join();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void book(List<BookingRequest> batch) {
+		Map<UUID, Integer> requestedSeats = new LinkedHashMap<>();
+		for (BookingRequest request : batch) {
+			requestedSeats.merge(request.exhibitionId, 1, Integer::sum);
+		}
+		Map<UUID, Booking> bookingsByExhibitionId;
+		try {
+			bookingsByExhibitionId = transactionManager.doInTransactionExhibition(
+					exhibitionRepository -> bookAvailableSeats(exhibitionRepository, requestedSeats));
+		} catch (RepositoryException | RuntimeException ex) {
+			batch.forEach(request -> request.freeSeats.completeExceptionally(ex));
+			return;
+		}
+		batches.increment();
+		bookings.add(batch.size());
+		Map<UUID, Integer> completedSeats = new HashMap<>();
+		for (BookingRequest request : batch) {
+			Booking booking = bookingsByExhibitionId.get(request.exhibitionId);
+			int seat = completedSeats.merge(request.exhibitionId, 1, Integer::sum);
+			request.freeSeats
+					.complete(seat <= booking.bookedSeats ? booking.freeSeats + booking.bookedSeats - seat : -1);
+		}
+	}
+
+	/*
+	 * Exhibitions without enough free seats for all their bookings are booked
+	 * again, for the seats they have left; if those are booked by someone else
+	 * meanwhile, or read from a stale cache, the Exhibition is sold out for the
+	 * batch
+	 */
+	private static Map<UUID, Booking> bookAvailableSeats(ExhibitionRepository exhibitionRepository,
+			Map<UUID, Integer> requestedSeats) {
+		Map<UUID, Booking> bookingsByExhibitionId = new HashMap<>();
+		exhibitionRepository.bookSeats(requestedSeats).forEach((exhibitionId, freeSeats) -> {
+			if (freeSeats >= 0) {
+				bookingsByExhibitionId.put(exhibitionId, new Booking(requestedSeats.get(exhibitionId), freeSeats));
+				return;
+			}
+			Exhibition exhibition = exhibitionRepository.findExhibitionById(exhibitionId);
+			int availableSeats = exhibition == null ? 0 : exhibition.getTotalSeats() - exhibition.getBookedSeats();
+			int leftSeats = availableSeats <= 0 ? -1
+					: exhibitionRepository.bookSeats(Map.of(exhibitionId, availableSeats)).get(exhibitionId);
+			bookingsByExhibitionId.put(exhibitionId,
+					leftSeats < 0 ? new Booking(0, 0) : new Booking(availableSeats, leftSeats));
+		});
+		return bookingsByExhibitionId;
+	}
+
+}
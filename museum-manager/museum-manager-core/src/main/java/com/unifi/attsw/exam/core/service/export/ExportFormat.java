@@ -0,0 +1,22 @@
+package com.unifi.attsw.exam.core.service.export;
+
+/**
+ * 
+ * The formats Museums and Exhibitions can be exported to.
+ *
+ */
+public enum ExportFormat {
+
+	/**
+	 * Comma separated values, with a header naming the columns. Values
+	 * containing commas, double quotes or line breaks are enclosed in double
+	 * quotes.
+	 */
+	CSV,
+
+	/**
+	 * One JSON object per line, with a member per column.
+	 */
+	JSONL
+
+}
@@ -0,0 +1,145 @@
+package com.unifi.attsw.exam.core.service.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 
+ * Writes records, one at a time, in an {@link ExportFormat}. Numbers are
+ * written as they are, any other value as a string.
+ *
+ */
+public class RecordWriter {
+
+	private final Writer out;
+	private final ExportFormat format;
+	private final String[] columns;
+
+	private long recordsWritten;
+
+	/**
+	 * Writes the header of the format, if any.
+	 * 
+	 * @param out     The Writer to write to, preferably buffered.
+	 * @param format  The format of the records.
+	 * @param columns The names of the columns of the records.
+	 * @throws IOException If the header cannot be written.
+	 */
+	public RecordWriter(Writer out, ExportFormat format, String... columns) throws IOException {
+		this.out = out;
+		this.format = format;
+		this.columns = columns;
+		if (format == ExportFormat.CSV) {
+			for (int i = 0; i < columns.length; i++) {
+				writeCsvValue(i, columns[i]);
+			}
+			out.write('\n');
+		}
+	}
+
+	/**
+	 * Writes a record.
+	 * 
+	 * @param values The values of the record, one for each column.
+	 * @throws IOException If the record cannot be written.
+	 */
+	public void write(Object... values) throws IOException {
+		if (values.length != columns.length) {
+			throw new IllegalArgumentException("Expected " + columns.length + " values.");
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (format == ExportFormat.CSV) {
+				writeCsvValue(i, values[i]);
+			} else {
+				writeJsonMember(i, values[i]);
+			}
+		}
+		out.write(format == ExportFormat.CSV ? "\n" : "}\n");
+		recordsWritten++;
+	}
+
+	/**
+	 * @return The number of records written.
+	 */
+	public long getRecordsWritten() {
+		return recordsWritten;
+	}
+
+	/**
+	 * Writes out the buffered records.
+	 * 
+	 * @throws IOException If the records cannot be written.
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	private void writeCsvValue(int column, Object value) throws IOException {
+		if (column > 0) {
+			out.write(',');
+		}
+		String string = value == null ? "" : value.toString();
+		if (value instanceof Number || !needsQuotes(string)) {
+			out.write(string);
+			return;
+		}
+		out.write('"');
+		out.write(string.replace("\"", "\"\""));
+		out.write('"');
+	}
+
+	private void writeJsonMember(int column, Object value) throws IOException {
+		out.write(column == 0 ? "{" : ",");
+		writeJsonString(columns[column]);
+		out.write(':');
+		if (value instanceof Number) {
+			out.write(value.toString());
+		} else if (value == null) {
+			out.write("null");
+		} else {
+			writeJsonString(value.toString());
+		}
+	}
+
+	private void writeJsonString(String string) throws IOException {
+		out.write('"');
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '"':
+				out.write("\\\"");
+				break;
+			case '\\':
+				out.write("\\\\");
+				break;
+			case '\n':
+				out.write("\\n");
+				break;
+			case '\r':
+				out.write("\\r");
+				break;
+			case '\t':
+				out.write("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					out.write(String.format("\\u%04x", (int) c));
+				} else {
+					out.write(c);
+				}
+			}
+		}
+		out.write('"');
+	}
+
+	private static boolean needsQuotes(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -1,39 +1,123 @@
 package com.unifi.attsw.exam.core.service.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.unifi.attsw.exam.core.service.MuseumManagerService;
+import com.unifi.attsw.exam.core.service.booking.BookingQueue;
 import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.core.service.export.ExportFormat;
+import com.unifi.attsw.exam.core.service.export.RecordWriter;
+import com.unifi.attsw.exam.core.service.inventory.SeatInventory;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 import com.unifi.attsw.exam.repository.model.Museum;
-import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
-import com.unifi.attsw.exam.repository.repository.MuseumRepository;
+import com.unifi.attsw.exam.repository.model.SeatMap;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
 import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
 
 public class MuseumManagerServiceImpl implements MuseumManagerService {
 
 	private TransactionManager transactionManager;
+	private SeatInventory seatInventory;
+	private BookingQueue bookingQueue;
+
+	private static final String[] MUSEUM_COLUMNS = { "id", "name", "total_rooms", "occupied_rooms" };
+	private static final String[] EXHIBITION_COLUMNS = { "id", "museum_id", "name", "total_seats", "booked_seats" };
 
 	public MuseumManagerServiceImpl(TransactionManager transactionManager) {
 		this.transactionManager = transactionManager;
 	}
 
+	/**
+	 * @param transactionManager The manager of the service transactions.
+	 * @param seatInventory      The inventory booking the seats in memory, in
+	 *                           place of the database.
+	 */
+	public MuseumManagerServiceImpl(TransactionManager transactionManager, SeatInventory seatInventory) {
+		this(transactionManager);
+		this.seatInventory = seatInventory;
+	}
+
+	/**
+	 * @param transactionManager The manager of the service transactions.
+	 * @param bookingQueue       The queue booking the seats of concurrent
+	 *                           bookings together, in place of a transaction per
+	 *                           booking.
+	 */
+	public MuseumManagerServiceImpl(TransactionManager transactionManager, BookingQueue bookingQueue) {
+		this(transactionManager);
+		this.bookingQueue = bookingQueue;
+	}
+
 	@Override
 	public List<Museum> getAllMuseums() throws RepositoryException {
-		return transactionManager.doInTransactionMuseum(MuseumRepository::findAllMuseums);
+		return transactionManager
+				.doInReadOnlyTransaction((museumRepository, exhibitionRepository) -> museumRepository.findAllMuseums());
 	}
 
 	@Override
 	public List<Exhibition> getAllExhibitions() throws RepositoryException {
-		return transactionManager.doInTransactionExhibition(ExhibitionRepository::findAllExhibitions);
+		return transactionManager.doInReadOnlyTransaction(
+				(museumRepository, exhibitionRepository) -> exhibitionRepository.findAllExhibitions());
+	}
+
+	@Override
+	public List<Museum> getMuseumsPage(String lastMuseumName, int pageSize) throws RepositoryException {
+		return transactionManager.doInReadOnlyTransaction(
+				(museumRepository, exhibitionRepository) -> museumRepository.findMuseumsPage(lastMuseumName, pageSize));
+	}
+
+	@Override
+	public List<Exhibition> getExhibitionsPage(String lastExhibitionName, int pageSize) throws RepositoryException {
+		return transactionManager.doInReadOnlyTransaction((museumRepository,
+				exhibitionRepository) -> exhibitionRepository.findExhibitionsPage(lastExhibitionName, pageSize));
+	}
+
+	@Override
+	public long exportMuseums(Writer out, ExportFormat format) throws RepositoryException {
+		return transactionManager.doInReadOnlyTransaction((museumRepository, exhibitionRepository) -> {
+			try {
+				RecordWriter writer = new RecordWriter(out, format, MUSEUM_COLUMNS);
+				museumRepository.forEachMuseum(museum -> write(writer, museum.getId(), museum.getName(),
+						museum.getTotalRooms(), museum.getOccupiedRooms()));
+				writer.flush();
+				return writer.getRecordsWritten();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
+	}
+
+	@Override
+	public long exportExhibitions(Writer out, ExportFormat format) throws RepositoryException {
+		return transactionManager.doInReadOnlyTransaction((museumRepository, exhibitionRepository) -> {
+			try {
+				RecordWriter writer = new RecordWriter(out, format, EXHIBITION_COLUMNS);
+				exhibitionRepository.forEachExhibition(exhibition -> write(writer, exhibition.getId(),
+						exhibition.getMuseumId(), exhibition.getName(), exhibition.getTotalSeats(),
+						exhibition.getBookedSeats()));
+				writer.flush();
+				return writer.getRecordsWritten();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
 	}
 
 	@Override
 	public List<Exhibition> getAllMuseumExhibitions(Museum museum) throws MuseumManagerServiceException {
 		try {
-			return transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> exhibitionRepository
-					.findExhibitionsByMuseumId(museum.getId()));
+			return transactionManager.doInReadOnlyTransaction((museumRepository,
+					exhibitionRepository) -> exhibitionRepository.findExhibitionsByMuseumId(museum.getId()));
 		} catch (NullPointerException | RepositoryException ex) {
 			throw new MuseumManagerServiceException("Impossible to get Exhibitions for the selected Museum: " + museum,
 					ex);
@@ -44,8 +128,8 @@ public class MuseumManagerServiceImpl implements MuseumManagerService {
 	@Override
 	public Museum getMuseumByName(String museumName) throws MuseumManagerServiceException {
 		try {
-			Museum museum = transactionManager
-					.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumByName(museumName));
+			Museum museum = transactionManager.doInReadOnlyTransaction(
+					(museumRepository, exhibitionRepository) -> museumRepository.findMuseumByName(museumName));
 			if (museum == null) {
 				throw new RepositoryException("Impossible to find the specified Museum: " + museumName);
 			}
@@ -73,23 +157,28 @@ public class MuseumManagerServiceImpl implements MuseumManagerService {
 	}
 
 	@Override
-	public void deleteMuseum(Museum museum) throws MuseumManagerServiceException{
+	public int addMuseums(Collection<Museum> museums) throws MuseumManagerServiceException {
 		try {
-			Museum museumToRemove = transactionManager
-					.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumByName(museum.getName()));
-
-			if (museumToRemove == null) {
-				throw new RepositoryException("The selected museum does not exist!");
-			}
+			return transactionManager.doInTransactionMuseum(museumRepository -> museumRepository.addMuseums(museums));
+		} catch (NullPointerException | RepositoryException ex) {
+			throw new MuseumManagerServiceException("Impossible to add Museums.", ex);
+		}
+	}
 
+	@Override
+	public void deleteMuseum(Museum museum) throws MuseumManagerServiceException{
+		try {
+			String museumName = museum.getName();
 			transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
-				List<Exhibition> museumToRemoveExhibitions = exhibitionRepository
-						.findExhibitionsByMuseumId(museumToRemove.getId());
-				museumToRemoveExhibitions.forEach(exhibitionRepository::deleteExhibition);
+				Museum museumToRemove = museumRepository.findMuseumByName(museumName);
+				if (museumToRemove == null) {
+					throw new NoSuchElementException("The selected museum does not exist!");
+				}
+				exhibitionRepository.deleteExhibitionsByMuseumId(museumToRemove.getId());
 				museumRepository.deleteMuseum(museumToRemove);
 				return null;
 			});
-		} catch (NullPointerException | RepositoryException ex) {
+		} catch (NullPointerException | NoSuchElementException | RepositoryException ex) {
 			throw new MuseumManagerServiceException("Impossible to delete Museum.", ex);
 		}
 
@@ -98,8 +187,8 @@ public class MuseumManagerServiceImpl implements MuseumManagerService {
 	@Override
 	public Exhibition getExhibitionByName(String exhibitionName) throws MuseumManagerServiceException{
 		try {
-			Exhibition exhibition = transactionManager.doInTransactionExhibition(
-					exhibitionRepository -> exhibitionRepository.findExhibitionByName(exhibitionName));
+			Exhibition exhibition = transactionManager.doInReadOnlyTransaction((museumRepository,
+					exhibitionRepository) -> exhibitionRepository.findExhibitionByName(exhibitionName));
 			if (exhibition == null) {
 				throw new RepositoryException("Impossible to find the specified Exhibition: " + exhibitionName);
 			}
@@ -111,12 +200,12 @@ public class MuseumManagerServiceImpl implements MuseumManagerService {
 
 	@Override
 	public Exhibition addNewExhibition(String museumName, Exhibition exhibition) throws MuseumManagerServiceException{
+		UUID exhibitionId = exhibition == null ? null : exhibition.getId();
 		try {
-			Museum museum = transactionManager
-					.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumByName(museumName));
-
 			return transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
-
+				// a retried transaction starts again from the given Exhibition and the latest Museum
+				exhibition.setId(exhibitionId);
+				Museum museum = museumRepository.findMuseumByName(museumName);
 				exhibition.setMuseumId(museum.getId());
 				int occupiedRooms = museum.getOccupiedRooms();
 				int rooms = museum.getTotalRooms();
@@ -125,6 +214,7 @@ public class MuseumManagerServiceImpl implements MuseumManagerService {
 							"Impossible to add new Exhibition: all rooms are occupied!");
 				}
 				museum.setOccupiedRooms(occupiedRooms + 1);
+				museumRepository.updateMuseum(museum);
 				return exhibitionRepository.addNewExhibition(exhibition);
 			});
 		} catch (UnsupportedOperationException | NullPointerException | RepositoryException ex) {
@@ -133,47 +223,177 @@ public class MuseumManagerServiceImpl implements MuseumManagerService {
 	}
 
 	@Override
-	public void deleteExhibition(Exhibition exhibition) throws MuseumManagerServiceException{
+	public int addExhibitions(String museumName, Collection<Exhibition> exhibitions)
+			throws MuseumManagerServiceException {
 		try {
+			List<UUID> exhibitionIds = exhibitions.stream().map(Exhibition::getId).collect(Collectors.toList());
+			return transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+				// a retried transaction starts again from the given Exhibitions and the latest Museum
+				Museum museum = museumRepository.findMuseumByName(museumName);
+				int occupiedRooms = museum.getOccupiedRooms() + exhibitions.size();
+				if (occupiedRooms > museum.getTotalRooms()) {
+					throw new UnsupportedOperationException(
+							"Impossible to add new Exhibitions: not enough free rooms!");
+				}
+				int index = 0;
+				for (Exhibition exhibition : exhibitions) {
+					exhibition.setId(exhibitionIds.get(index++));
+					exhibition.setMuseumId(museum.getId());
+				}
+				museum.setOccupiedRooms(occupiedRooms);
+				museumRepository.updateMuseum(museum);
+				return exhibitionRepository.addExhibitions(exhibitions);
+			});
+		} catch (UnsupportedOperationException | NullPointerException | RepositoryException ex) {
+			throw new MuseumManagerServiceException("Impossible to add Exhibitions.", ex);
+		}
+	}
 
-			Exhibition exhibitionToRemove = transactionManager.doInTransactionExhibition(
-					exhibitionRepository -> exhibitionRepository.findExhibitionByName(exhibition.getName()));
-
+	@Override
+	public void deleteExhibition(Exhibition exhibition) throws MuseumManagerServiceException{
+		try {
+			String exhibitionName = exhibition.getName();
 			transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
-				Museum museum = museumRepository.findMuseumById(exhibition.getMuseumId());
+				Exhibition exhibitionToRemove = exhibitionRepository.findExhibitionByName(exhibitionName);
+				if (exhibitionToRemove == null) {
+					throw new NoSuchElementException("The selected exhibition does not exist!");
+				}
+				Museum museum = museumRepository.findMuseumById(exhibitionToRemove.getMuseumId());
 				exhibitionRepository.deleteExhibition(exhibitionToRemove);
 				int occupiedRooms = museum.getOccupiedRooms();
 				museum.setOccupiedRooms(occupiedRooms - 1);
+				museumRepository.updateMuseum(museum);
 				return null;
 			});
-
-		} catch (NullPointerException | RepositoryException ex) {
+		} catch (NullPointerException | NoSuchElementException | RepositoryException ex) {
 			throw new MuseumManagerServiceException("Impossible to delete Exhibition.", ex);
 		}
 	}
 
 	@Override
-	public void bookExhibitionSeat(Exhibition exhibition) throws MuseumManagerServiceException{
+	public int bookExhibitionSeat(Exhibition exhibition) throws MuseumManagerServiceException{
 		try {
-			Exhibition existingExhibition = transactionManager.doInTransactionExhibition(
-					exhibitionRepository -> exhibitionRepository.findExhibitionById(exhibition.getId()));
+			int freeSeats = bookSeatOf(exhibition.getId());
 
-			if (existingExhibition.getBookedSeats() == existingExhibition.getTotalSeats()) {
+			if (freeSeats < 0) {
 				throw new UnsupportedOperationException(
 						"Impossible to book a seat for " + exhibition.getName() + ": all seats are booked");
 			}
 
-			transactionManager.doInTransactionExhibition(exhibitionRepository -> {
-				int bookedSeats = exhibition.getBookedSeats();
-				exhibition.setBookedSeats(bookedSeats + 1);
-				exhibitionRepository.updateExhibition(exhibition);
-				return null;
-			});
+			exhibition.setBookedSeats(exhibition.getTotalSeats() - freeSeats);
+			return freeSeats;
 
-		} catch (UnsupportedOperationException | RepositoryException ex) {
+		} catch (NullPointerException | IllegalArgumentException | UnsupportedOperationException
+				| RepositoryException | IOException ex) {
 			throw new MuseumManagerServiceException("Impossible to book a seat.", ex);
 		}
 
 	}
 
+	/*
+	 * Books through the seat inventory or the booking queue when given, else in a
+	 * transaction of its own
+	 */
+	private int bookSeatOf(UUID exhibitionId) throws RepositoryException, IOException {
+		if (seatInventory != null) {
+			return seatInventory.bookSeat(exhibitionId);
+		}
+		if (bookingQueue != null) {
+			try {
+				return bookingQueue.bookSeat(exhibitionId).get();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new RepositoryException("Interrupted while waiting for the booking.", ex);
+			} catch (ExecutionException ex) {
+				throw new RepositoryException("Impossible to book a seat.", ex.getCause());
+			}
+		}
+		return transactionManager
+				.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(exhibitionId));
+	}
+
+	@Override
+	public Map<UUID, Integer> bookSeats(Map<UUID, Integer> seatsByExhibitionId) throws MuseumManagerServiceException {
+		try {
+			if (seatInventory != null) {
+				return seatInventory.bookSeats(seatsByExhibitionId);
+			}
+			return transactionManager.doInTransactionExhibition(
+					exhibitionRepository -> exhibitionRepository.bookSeats(seatsByExhibitionId));
+		} catch (NullPointerException | IllegalArgumentException | RepositoryException | IOException ex) {
+			throw new MuseumManagerServiceException("Impossible to book seats.", ex);
+		}
+	}
+
+	@Override
+	public int[] bookAdjacentSeats(Exhibition exhibition, int seats) throws MuseumManagerServiceException {
+		try {
+			checkNoSeatInventory();
+			int firstSeat = transactionManager.doInTransactionExhibition(
+					exhibitionRepository -> exhibitionRepository.bookAdjacentSeats(exhibition.getId(), seats));
+
+			if (firstSeat < 0) {
+				throw new UnsupportedOperationException(
+						"Impossible to book " + seats + " adjacent seats for " + exhibition.getName());
+			}
+			return IntStream.range(firstSeat, firstSeat + seats).toArray();
+
+		} catch (NullPointerException | IllegalArgumentException | UnsupportedOperationException
+				| RepositoryException ex) {
+			throw new MuseumManagerServiceException("Impossible to book adjacent seats.", ex);
+		}
+	}
+
+	@Override
+	public void bookSeatNumbers(Exhibition exhibition, int... seatNumbers) throws MuseumManagerServiceException {
+		try {
+			checkNoSeatInventory();
+			boolean booked = transactionManager.doInTransactionExhibition(
+					exhibitionRepository -> exhibitionRepository.bookSeatNumbers(exhibition.getId(), seatNumbers));
+
+			if (!booked) {
+				throw new UnsupportedOperationException(
+						"Impossible to book the seats for " + exhibition.getName() + ": some are already booked");
+			}
+
+		} catch (NullPointerException | IllegalArgumentException | UnsupportedOperationException
+				| RepositoryException ex) {
+			throw new MuseumManagerServiceException("Impossible to book the selected seats.", ex);
+		}
+	}
+
+	@Override
+	public SeatMap getSeatMap(Exhibition exhibition) throws MuseumManagerServiceException {
+		try {
+			checkNoSeatInventory();
+			Exhibition storedExhibition = transactionManager.doInReadOnlyTransaction((museumRepository,
+					exhibitionRepository) -> exhibitionRepository.findExhibitionById(exhibition.getId()));
+			if (storedExhibition == null) {
+				throw new RepositoryException("Impossible to find the specified Exhibition: " + exhibition.getName());
+			}
+			return SeatMap.of(storedExhibition);
+		} catch (NullPointerException | IllegalArgumentException | UnsupportedOperationException
+				| RepositoryException ex) {
+			throw new MuseumManagerServiceException("Impossible to find the Exhibition seats.", ex);
+		}
+	}
+
+	/*
+	 * Seats booked by the inventory reach the database up to a flush later, so
+	 * seats booked by number there could be sold twice
+	 */
+	private void checkNoSeatInventory() {
+		if (seatInventory != null) {
+			throw new UnsupportedOperationException("Seat numbers are not available with a seat inventory.");
+		}
+	}
+
+	private static void write(RecordWriter writer, Object... values) {
+		try {
+			writer.write(values);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
 }
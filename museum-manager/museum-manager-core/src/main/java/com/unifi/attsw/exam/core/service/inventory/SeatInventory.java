@@ -0,0 +1,339 @@
+package com.unifi.attsw.exam.core.service.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+
+/**
+ *
+ * Books Exhibition seats in memory, persisting them later. The booked and
+ * total seats of an Exhibition are read from the database the first time it is
+ * booked, then booked seats are counted with compare-and-set, so bookings of
+ * different Exhibitions never wait for each other, nor for the database.
+ *
+ * Every booking is written to a local journal before it is acknowledged. At
+ * every flush interval the seats booked since the previous flush are added to
+ * the Exhibitions through {@link ExhibitionRepository#bookSeats}, in a single
+ * transaction; a failed flush is retried at the next interval. The journal is
+ * split into lock stripes, by Exhibition, and forced to disk at every flush:
+ * bookings survive a crash of the application, and a crash of the machine
+ * loses at most those of the last interval. The bookings found in the journal
+ * when the inventory is created are persisted before any new one. A crash
+ * between the commit of a flush and the deletion of its journal records books
+ * their seats twice in the database: seats may be lost for sale, never sold
+ * twice.
+ *
+ * The inventory must be the only way of booking the Exhibitions it books, and
+ * of a single application instance. Booked seats read from the database lag
+ * behind the inventory by up to a flush interval.
+ *
+ */
+public class SeatInventory implements Closeable {
+
+	private static final int STRIPES = 16;
+
+	/**
+	 * The seats of an Exhibition.
+	 */
+	private static class Seats {
+
+		private final int total;
+		private final AtomicInteger booked;
+
+		private Seats(int total, int booked) {
+			this.total = total;
+			this.booked = new AtomicInteger(booked);
+		}
+
+		/*
+		 * Returns the booked seats after the booking, or -1 if there are not enough
+		 * free seats
+		 */
+		private int tryBook(int seats) {
+			int current;
+			do {
+				current = booked.get();
+				if (current + seats > total) {
+					return -1;
+				}
+			} while (!booked.compareAndSet(current, current + seats));
+			return current + seats;
+		}
+	}
+
+	/**
+	 * The journal and unflushed seats of a part of the Exhibitions, guarded by
+	 * the stripe lock.
+	 */
+	private static class Stripe {
+
+		private final SeatJournal journal;
+		private Map<UUID, Integer> unflushed = new HashMap<>();
+		private Map<UUID, Integer> flushing = new HashMap<>();
+
+		private Stripe(SeatJournal journal) {
+			this.journal = journal;
+		}
+
+		private synchronized void book(UUID exhibitionId, int seats) throws IOException {
+			journal.append(exhibitionId, seats);
+			unflushed.merge(exhibitionId, seats, Integer::sum);
+		}
+
+		private synchronized Map<UUID, Integer> startFlush() throws IOException {
+			if (!unflushed.isEmpty()) {
+				flushing = unflushed;
+				unflushed = new HashMap<>();
+				journal.startFlush();
+			}
+			return flushing;
+		}
+
+		private synchronized void endFlush() throws IOException {
+			flushing = new HashMap<>();
+			journal.endFlush();
+		}
+
+		/*
+		 * The seats of a failed flush go back to the journal, to be flushed again
+		 */
+		private synchronized void abortFlush() throws IOException {
+			for (Map.Entry<UUID, Integer> seats : flushing.entrySet()) {
+				journal.append(seats.getKey(), seats.getValue());
+				unflushed.merge(seats.getKey(), seats.getValue(), Integer::sum);
+			}
+			journal.force();
+			endFlush();
+		}
+	}
+
+	private final TransactionManager transactionManager;
+	private final ConcurrentMap<UUID, Seats> seatsByExhibitionId = new ConcurrentHashMap<>();
+	private final Stripe[] stripes = new Stripe[STRIPES];
+	private final ScheduledExecutorService flusher;
+	private final LongAdder lostSeats = new LongAdder();
+	private final LongAdder failedFlushes = new LongAdder();
+
+	/**
+	 * Persists the bookings left in the journal by a previous run, then starts
+	 * flushing the new ones.
+	 *
+	 * @param transactionManager The manager of the flush transactions.
+	 * @param journalDirectory   The directory of the journal, created if missing.
+	 * @param flushInterval      The time between two flushes.
+	 * @param unit               The unit of the flush interval.
+	 * @throws IOException         If the journal cannot be read or written.
+	 * @throws RepositoryException If the bookings of the journal cannot be
+	 *                             persisted.
+	 */
+	public SeatInventory(TransactionManager transactionManager, Path journalDirectory, long flushInterval,
+			TimeUnit unit) throws IOException, RepositoryException {
+		if (flushInterval <= 0) {
+			throw new IllegalArgumentException("Flush interval must be positive.");
+		}
+		this.transactionManager = transactionManager;
+		Files.createDirectories(journalDirectory);
+		Map<UUID, Integer> recovered = new HashMap<>();
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe(new SeatJournal(journalDirectory.resolve("seats-" + i + ".journal")));
+			stripes[i].journal.readAll(recovered);
+		}
+		if (!recovered.isEmpty()) {
+			persist(recovered);
+		}
+		for (Stripe stripe : stripes) {
+			stripe.journal.clear();
+		}
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "seat-inventory-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushOrRetryLater, flushInterval, flushInterval, unit);
+	}
+
+	/**
+	 * Books a seat of the Exhibition with the given ID, only if it still has free
+	 * seats.
+	 *
+	 * @param exhibitionId The ID of the Exhibition to book.
+	 * @return The number of free seats left after the booking, or -1 if no seat
+	 *         has been booked because the Exhibition is sold out or does not
+	 *         exist.
+	 * @throws RepositoryException If the Exhibition cannot be read.
+	 * @throws IOException         If the booking cannot be written to the
+	 *                             journal, in which case it is not done.
+	 */
+	public int bookSeat(UUID exhibitionId) throws RepositoryException, IOException {
+		if (exhibitionId == null) {
+			throw new IllegalArgumentException("Exhibition ID cannot be null.");
+		}
+		return book(exhibitionId, 1);
+	}
+
+	/**
+	 * Books the requested number of seats for each of the given Exhibitions. Each
+	 * Exhibition is booked only if it has enough free seats for its whole
+	 * request, independently from the others.
+	 *
+	 * @param seatsByExhibitionId The number of seats to book for each Exhibition
+	 *                            ID.
+	 * @return The number of free seats left for each given Exhibition ID, -1 for
+	 *         the Exhibitions which have not been booked.
+	 * @throws RepositoryException If an Exhibition cannot be read.
+	 * @throws IOException         If a booking cannot be written to the journal,
+	 *                             in which case it is not done, as the following
+	 *                             ones.
+	 */
+	public Map<UUID, Integer> bookSeats(Map<UUID, Integer> seatsByExhibitionId)
+			throws RepositoryException, IOException {
+		for (Map.Entry<UUID, Integer> booking : seatsByExhibitionId.entrySet()) {
+			if (booking.getKey() == null || booking.getValue() == null || booking.getValue() <= 0) {
+				throw new IllegalArgumentException("Invalid booking request: " + booking);
+			}
+		}
+		Map<UUID, Integer> freeSeats = new HashMap<>();
+		for (Map.Entry<UUID, Integer> booking : seatsByExhibitionId.entrySet()) {
+			freeSeats.put(booking.getKey(), book(booking.getKey(), booking.getValue()));
+		}
+		return freeSeats;
+	}
+
+	/**
+	 * Persists the seats booked since the previous flush, in a single
+	 * transaction. If the flush fails, they are kept for the next one.
+	 *
+	 * @throws RepositoryException If the transaction fails.
+	 * @throws IOException         If the journal cannot be written.
+	 */
+	public synchronized void flush() throws RepositoryException, IOException {
+		Map<UUID, Integer> seats = new HashMap<>();
+		try {
+			for (Stripe stripe : stripes) {
+				seats.putAll(stripe.startFlush());
+			}
+			if (!seats.isEmpty()) {
+				persist(seats);
+			}
+		} catch (RepositoryException | IOException ex) {
+			for (Stripe stripe : stripes) {
+				stripe.abortFlush();
+			}
+			throw ex;
+		}
+		for (Stripe stripe : stripes) {
+			stripe.endFlush();
+		}
+	}
+
+	/**
+	 * @return The number of booked seats which could not be persisted, because
+	 *         their Exhibition had been deleted or booked by others meanwhile.
+	 */
+	public long getLostSeats() {
+		return lostSeats.sum();
+	}
+
+	/**
+	 * @return The number of scheduled flushes which have failed.
+	 */
+	public long getFailedFlushes() {
+		return failedFlushes.sum();
+	}
+
+	/**
+	 * Stops the scheduled flushes and flushes the last bookings.
+	 *
+	 * @throws IOException If the last bookings cannot be flushed, in which case
+	 *                     they are kept in the journal.
+	 */
+	@Override
+	public void close() throws IOException {
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(1, TimeUnit.MINUTES);
+			flush();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while flushing the booked seats.", ex);
+		} catch (RepositoryException ex) {
+			throw new IOException("Impossible to flush the booked seats, they are kept in the journal.", ex);
+		} finally {
+			for (Stripe stripe : stripes) {
+				stripe.journal.close();
+			}
+		}
+	}
+
+	private int book(UUID exhibitionId, int seats) throws RepositoryException, IOException {
+		Seats exhibitionSeats = seatsOf(exhibitionId);
+		if (exhibitionSeats == null) {
+			return -1;
+		}
+		int booked = exhibitionSeats.tryBook(seats);
+		if (booked < 0) {
+			return -1;
+		}
+		try {
+			stripes[Math.floorMod(exhibitionId.hashCode(), STRIPES)].book(exhibitionId, seats);
+		} catch (IOException ex) {
+			exhibitionSeats.booked.addAndGet(-seats);
+			throw ex;
+		}
+		return exhibitionSeats.total - booked;
+	}
+
+	/*
+	 * Concurrent first bookings may read the Exhibition more than once, only the
+	 * first read is kept
+	 */
+	private Seats seatsOf(UUID exhibitionId) throws RepositoryException {
+		Seats seats = seatsByExhibitionId.get(exhibitionId);
+		if (seats != null) {
+			return seats;
+		}
+		Exhibition exhibition = transactionManager.doInReadOnlyTransaction(
+				(museumRepository, exhibitionRepository) -> exhibitionRepository.findExhibitionById(exhibitionId));
+		if (exhibition == null) {
+			return null;
+		}
+		seats = new Seats(exhibition.getTotalSeats(), exhibition.getBookedSeats());
+		Seats previousSeats = seatsByExhibitionId.putIfAbsent(exhibitionId, seats);
+		return previousSeats == null ? seats : previousSeats;
+	}
+
+	private void persist(Map<UUID, Integer> seats) throws RepositoryException {
+		Map<UUID, Integer> freeSeats = transactionManager
+				.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeats(seats));
+		freeSeats.forEach((exhibitionId, free) -> {
+			if (free < 0) {
+				lostSeats.add(seats.get(exhibitionId));
+			}
+		});
+	}
+
+	private void flushOrRetryLater() {
+		try {
+			flush();
+		} catch (RepositoryException | IOException | RuntimeException ex) {
+			failedFlushes.increment();
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.unifi.attsw.exam.core.service.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ *
+ * Append-only file of the seats booked through a {@link SeatInventory} and not
+ * yet flushed to the database, one fixed-size record per booking: the
+ * Exhibition ID and the number of seats. While a flush is in progress, the
+ * records it writes are kept in a second file, deleted once they are
+ * committed. A record cut by a crash is ignored. Not thread-safe.
+ *
+ */
+class SeatJournal implements Closeable {
+
+	private static final int RECORD_SIZE = 2 * Long.BYTES + Integer.BYTES;
+
+	private final Path path;
+	private final Path flushingPath;
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+	private FileChannel channel;
+
+	SeatJournal(Path path) throws IOException {
+		this.path = path;
+		this.flushingPath = path.resolveSibling(path.getFileName() + ".flushing");
+		this.channel = open(path);
+	}
+
+	void append(UUID exhibitionId, int seats) throws IOException {
+		record.clear();
+		record.putLong(exhibitionId.getMostSignificantBits()).putLong(exhibitionId.getLeastSignificantBits())
+				.putInt(seats).flip();
+		while (record.hasRemaining()) {
+			channel.write(record);
+		}
+	}
+
+	void force() throws IOException {
+		channel.force(false);
+	}
+
+	/**
+	 * Moves the records to the flushing file, starting an empty journal.
+	 */
+	void startFlush() throws IOException {
+		channel.force(false);
+		channel.close();
+		Files.move(path, flushingPath, StandardCopyOption.ATOMIC_MOVE);
+		channel = open(path);
+	}
+
+	/**
+	 * Deletes the flushing file, once its records are committed or moved back to
+	 * the journal.
+	 */
+	void endFlush() throws IOException {
+		Files.deleteIfExists(flushingPath);
+	}
+
+	/**
+	 * Adds the seats of the records of both files, left by a crash, to the given
+	 * ones.
+	 */
+	void readAll(Map<UUID, Integer> seatsByExhibitionId) throws IOException {
+		read(flushingPath, seatsByExhibitionId);
+		read(path, seatsByExhibitionId);
+	}
+
+	/**
+	 * Empties both files, once their records are committed.
+	 */
+	void clear() throws IOException {
+		Files.deleteIfExists(flushingPath);
+		channel.truncate(0);
+		channel.force(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static FileChannel open(Path path) throws IOException {
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	private static void read(Path path, Map<UUID, Integer> seatsByExhibitionId) throws IOException {
+		if (!Files.exists(path)) {
+			return;
+		}
+		ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path));
+		while (records.remaining() >= RECORD_SIZE) {
+			UUID exhibitionId = new UUID(records.getLong(), records.getLong());
+			seatsByExhibitionId.merge(exhibitionId, records.getInt(), Integer::sum);
+		}
+	}
+
+}
@@ -2,6 +2,7 @@ package com.unifi.attsw.exam.core.view;
 
 import java.util.List;
 
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 
 /**
@@ -48,8 +49,19 @@ public interface ExhibitionView {
 	public void showError(String message, Exhibition exhibition);
 
 	/**
-	 * Clear the view when an Exhibition is correctly booked.
+	 * Update the view when a seat of an Exhibition is correctly booked.
+	 * 
+	 * @param exhibition The booked Exhibition, with its updated booked seats.
+	 */
+	public void exhibitionBooked(Exhibition exhibition);
+
+	/**
+	 * Update the view when an Exhibition is changed by any client of the
+	 * database.
+	 * 
+	 * @param type       The kind of change.
+	 * @param exhibition The changed Exhibition, or its last values if deleted.
 	 */
-	public void exhibitionBooked();
+	public void exhibitionChanged(ChangeType type, Exhibition exhibition);
 
 }
@@ -2,6 +2,7 @@ package com.unifi.attsw.exam.core.view;
 
 import java.util.List;
 
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Museum;
 
 /**
@@ -40,4 +41,12 @@ public interface MuseumView {
 	 */
 	public void museumRemoved(Museum museum);
 
+	/**
+	 * Update the view when a Museum is changed by any client of the database.
+	 * 
+	 * @param type   The kind of change.
+	 * @param museum The changed Museum, or its last values if deleted.
+	 */
+	public void museumChanged(ChangeType type, Museum museum);
+
 }
@@ -16,15 +16,26 @@ import org.mockito.junit.VerificationCollector;
 import static org.mockito.Mockito.*;
 import static org.mockito.AdditionalAnswers.answer;
 import static org.mockito.ArgumentMatchers.any;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
 
+import com.unifi.attsw.exam.core.service.booking.BookingQueue;
 import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
+import com.unifi.attsw.exam.core.service.export.ExportFormat;
 import com.unifi.attsw.exam.core.service.impl.MuseumManagerServiceImpl;
+import com.unifi.attsw.exam.core.service.inventory.SeatInventory;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.model.SeatMap;
 import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
 import com.unifi.attsw.exam.repository.repository.MuseumRepository;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
@@ -83,6 +94,9 @@ public class MuseumManagerTest {
 		when(transactionManager.doInTransaction(any()))
 				.thenAnswer(answer((TransactionCode<?> code) -> code.apply(museumRepository, exhibitionRepository)));
 
+		when(transactionManager.doInReadOnlyTransaction(any()))
+				.thenAnswer(answer((TransactionCode<?> code) -> code.apply(museumRepository, exhibitionRepository)));
+
 		museumManager = new MuseumManagerServiceImpl(transactionManager);
 
 		inOrder = inOrder(exhibitionRepository, museumRepository, museum, exhibition);
@@ -131,6 +145,90 @@ public class MuseumManagerTest {
 		assertThat(mockedPersistedExhibitions).isNotNull();
 	}
 
+	@Test
+	public void testQueriesRunInReadOnlyTransactions() throws RepositoryException {
+		when(museumRepository.findMuseumByName(MUSEUM1_TEST)).thenReturn(museum);
+		when(exhibitionRepository.findExhibitionByName(EXHIBITION1_TEST)).thenReturn(exhibition);
+
+		museumManager.getAllMuseums();
+		museumManager.getAllExhibitions();
+		museumManager.getMuseumByName(MUSEUM1_TEST);
+		museumManager.getExhibitionByName(EXHIBITION1_TEST);
+		museumManager.getAllMuseumExhibitions(museum);
+
+		verify(transactionManager, times(5)).doInReadOnlyTransaction(any());
+		verifyNoMoreInteractions(transactionManager);
+	}
+
+	@Test
+	public void testGetMuseumsPage() throws RepositoryException {
+		Museum museum2 = createTestMuseum(MUSEUM2_TEST, NUM_CONSTANT1, MUSEUM_ID_2);
+		when(museumRepository.findMuseumsPage(MUSEUM1_TEST, NUM_CONSTANT1)).thenReturn(asList(museum2));
+
+		assertThat(museumManager.getMuseumsPage(MUSEUM1_TEST, NUM_CONSTANT1)).containsExactly(museum2);
+		inOrder.verify(museumRepository).findMuseumsPage(MUSEUM1_TEST, NUM_CONSTANT1);
+		verifyNoMoreInteractions(museumRepository);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testExportMuseumsAsCsv() throws RepositoryException {
+		Museum museum2 = createTestMuseum("museum, \"2\"", NUM_CONSTANT1, MUSEUM_ID_2);
+		museum2.setOccupiedRooms(1);
+		doAnswer(answer((Consumer<Museum> consumer) -> {
+			consumer.accept(createTestMuseum(MUSEUM1_TEST, NUM_CONSTANT1, MUSEUM_ID_1));
+			consumer.accept(museum2);
+			return null;
+		})).when(museumRepository).forEachMuseum(any(Consumer.class));
+		StringWriter out = new StringWriter();
+
+		long exported = museumManager.exportMuseums(out, ExportFormat.CSV);
+
+		assertThat(exported).isEqualTo(2);
+		assertThat(out).hasToString("id,name,total_rooms,occupied_rooms\n" + MUSEUM_ID_1 + ",museum1_test,10,0\n"
+				+ MUSEUM_ID_2 + ",\"museum, \"\"2\"\"\",10,1\n");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testExportExhibitionsAsJsonLines() throws RepositoryException {
+		Exhibition exhibition2 = new Exhibition("exhibition \"2\"\n\\", NUM_CONSTANT1);
+		exhibition2.setId(EXHIBITION_ID_2);
+		exhibition2.setMuseumId(MUSEUM_ID_1);
+		exhibition2.setBookedSeats(3);
+		doAnswer(answer((Consumer<Exhibition> consumer) -> {
+			consumer.accept(exhibition2);
+			return null;
+		})).when(exhibitionRepository).forEachExhibition(any(Consumer.class));
+		StringWriter out = new StringWriter();
+
+		long exported = museumManager.exportExhibitions(out, ExportFormat.JSONL);
+
+		assertThat(exported).isEqualTo(1);
+		assertThat(out).hasToString("{\"id\":\"" + EXHIBITION_ID_2 + "\",\"museum_id\":\"" + MUSEUM_ID_1
+				+ "\",\"name\":\"exhibition \\\"2\\\"\\n\\\\\",\"total_seats\":10,\"booked_seats\":3}\n");
+	}
+
+	@Test
+	public void testExportWithNoExhibitionsWritesTheCsvHeaderOnly() throws RepositoryException {
+		StringWriter out = new StringWriter();
+
+		long exported = museumManager.exportExhibitions(out, ExportFormat.CSV);
+
+		assertThat(exported).isZero();
+		assertThat(out).hasToString("id,museum_id,name,total_seats,booked_seats\n");
+	}
+
+	@Test
+	public void testGetExhibitionsPage() throws RepositoryException {
+		Exhibition exhibition2 = createExhibition(EXHIBITION2_TEST, NUM_CONSTANT1, EXHIBITION_ID_2);
+		when(exhibitionRepository.findExhibitionsPage(null, NUM_CONSTANT1)).thenReturn(asList(exhibition2));
+
+		assertThat(museumManager.getExhibitionsPage(null, NUM_CONSTANT1)).containsExactly(exhibition2);
+		inOrder.verify(exhibitionRepository).findExhibitionsPage(null, NUM_CONSTANT1);
+		verifyNoMoreInteractions(exhibitionRepository);
+	}
+
 	@Test
 	public void testGetMuseumByNullNameShouldThrow() {
 		assertThatThrownBy(() -> {
@@ -223,33 +321,50 @@ public class MuseumManagerTest {
 	}
 
 	@Test
-	public void testDeleteMuseumWithNoExhibitions() {
-		when(exhibitionRepository.findExhibitionsByMuseumId(museum.getId())).thenReturn(asList());
+	public void testAddMuseumsInASingleTransaction() throws RepositoryException {
+		List<Museum> museums = asList(museum, createTestMuseum(MUSEUM2_TEST, NUM_CONSTANT1, MUSEUM_ID_2));
+		when(museumRepository.addMuseums(museums)).thenReturn(2);
+
+		assertThat(museumManager.addMuseums(museums)).isEqualTo(2);
+
+		verify(transactionManager).doInTransactionMuseum(any());
+		verify(museumRepository).addMuseums(museums);
+		verifyNoMoreInteractions(museumRepository);
+	}
+
+	@Test
+	public void testAddMuseumsWhenTransactionFailsShouldThrow() throws RepositoryException {
+		doThrow(new RepositoryException("failure")).when(transactionManager).doInTransactionMuseum(any());
+
+		assertThatThrownBy(() -> museumManager.addMuseums(asList(museum)))
+				.isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to add Museums.");
+	}
+
+	@Test
+	public void testDeleteMuseumWithNoExhibitions() throws RepositoryException {
+		when(exhibitionRepository.deleteExhibitionsByMuseumId(museum.getId())).thenReturn(0);
 		when(museumRepository.findMuseumByName(MUSEUM1_TEST)).thenReturn(museum);
 		museumManager.deleteMuseum(museum);
 
 		inOrder.verify(museumRepository).findMuseumByName(MUSEUM1_TEST);
-		inOrder.verify(exhibitionRepository).findExhibitionsByMuseumId(museum.getId());
+		inOrder.verify(exhibitionRepository).deleteExhibitionsByMuseumId(museum.getId());
 		verify(museumRepository).deleteMuseum(museum);
 		verifyNoMoreInteractions(museumRepository);
+		verify(transactionManager).doInTransaction(any());
+		verifyNoMoreInteractions(transactionManager);
 	}
 
 	@Test
-	public void testDeleteMuseumWithExhibitions() {
-		Exhibition exhibition1 = createExhibition(EXHIBITION1_TEST, NUM_CONSTANT1, EXHIBITION_ID_1);
-		Exhibition exhibition2 = createExhibition(EXHIBITION2_TEST, NUM_CONSTANT1, EXHIBITION_ID_2);
-
+	public void testDeleteMuseumWithExhibitionsDeletesThemInBulk() {
 		when(museumRepository.findMuseumByName(MUSEUM1_TEST)).thenReturn(museum);
-		when(exhibitionRepository.findExhibitionsByMuseumId(museum.getId()))
-				.thenReturn(asList(exhibition1, exhibition2));
+		when(exhibitionRepository.deleteExhibitionsByMuseumId(museum.getId())).thenReturn(2);
 		museumManager.deleteMuseum(museum);
 
 		inOrder.verify(museumRepository).findMuseumByName(MUSEUM1_TEST);
-		inOrder.verify(exhibitionRepository).findExhibitionsByMuseumId(museum.getId());
-		inOrder.verify(exhibitionRepository).deleteExhibition(exhibition1);
-		inOrder.verify(exhibitionRepository).deleteExhibition(exhibition2);
+		inOrder.verify(exhibitionRepository).deleteExhibitionsByMuseumId(museum.getId());
 		inOrder.verify(museumRepository).deleteMuseum(museum);
 		verifyNoMoreInteractions(museumRepository);
+		verifyNoMoreInteractions(exhibitionRepository);
 	}
 
 	@Test
@@ -266,6 +381,9 @@ public class MuseumManagerTest {
 			museumManager.deleteMuseum(museum);
 		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to delete Museum.");
 
+		verify(museumRepository).findMuseumByName(MUSEUM1_TEST);
+		verifyNoMoreInteractions(museumRepository, exhibitionRepository);
+
 	}
 
 	@Test
@@ -324,10 +442,92 @@ public class MuseumManagerTest {
 		inOrder.verify(museum).getOccupiedRooms();
 		inOrder.verify(museum).getTotalRooms();
 		inOrder.verify(museum).setOccupiedRooms(ouccupiedRooms + 1);
+		inOrder.verify(museumRepository).updateMuseum(museum);
 		inOrder.verify(exhibitionRepository).addNewExhibition(exhibition);
 		verifyNoMoreInteractions(museumRepository, exhibitionRepository);
 	}
 
+	@Test
+	public void testAddNewExhibitionRetriedStartsAgainFromTheGivenExhibitionAndTheLatestMuseum()
+			throws RepositoryException {
+		doAnswer(answer((TransactionCode<?> code) -> {
+			code.apply(museumRepository, exhibitionRepository);
+			return code.apply(museumRepository, exhibitionRepository);
+		})).when(transactionManager).doInTransaction(any());
+		Museum updatedMuseum = createTestMuseum(MUSEUM1_TEST, NUM_CONSTANT1, MUSEUM_ID_1);
+		updatedMuseum.setOccupiedRooms(5);
+		when(museumRepository.findMuseumByName(MUSEUM1_TEST)).thenReturn(createTestMuseum(MUSEUM1_TEST,
+				NUM_CONSTANT1, MUSEUM_ID_1), updatedMuseum);
+		List<UUID> persistedIds = new ArrayList<>();
+		when(exhibitionRepository.addNewExhibition(exhibition)).thenAnswer(answer((Exhibition persisted) -> {
+			persistedIds.add(persisted.getId());
+			persisted.setId(UUID.randomUUID());
+			return persisted;
+		}));
+
+		museumManager.addNewExhibition(MUSEUM1_TEST, exhibition);
+
+		assertThat(persistedIds).containsExactly(EXHIBITION_ID_1, EXHIBITION_ID_1);
+		assertThat(updatedMuseum.getOccupiedRooms()).isEqualTo(6);
+	}
+
+	@Test
+	public void testAddExhibitionsWhenRoomsAreNotEnoughShouldThrow() {
+		museum.setOccupiedRooms(museum.getTotalRooms() - 1);
+		when(museumRepository.findMuseumByName(MUSEUM1_TEST)).thenReturn(museum);
+		List<Exhibition> exhibitions = asList(exhibition,
+				createExhibition(EXHIBITION2_TEST, NUM_CONSTANT1, EXHIBITION_ID_2));
+
+		assertThatThrownBy(() -> museumManager.addExhibitions(MUSEUM1_TEST, exhibitions))
+				.isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to add Exhibitions.");
+
+		verify(museumRepository).findMuseumByName(MUSEUM1_TEST);
+		verifyNoMoreInteractions(museumRepository, exhibitionRepository);
+		assertThat(museum.getOccupiedRooms()).isEqualTo(museum.getTotalRooms() - 1);
+	}
+
+	@Test
+	public void testAddExhibitionsOccupiesARoomForEachOneBeforeAddingThem() {
+		int occupiedRooms = museum.getOccupiedRooms();
+		Exhibition exhibition2 = createExhibition(EXHIBITION2_TEST, NUM_CONSTANT1, EXHIBITION_ID_2);
+		List<Exhibition> exhibitions = asList(exhibition, exhibition2);
+		when(museumRepository.findMuseumByName(MUSEUM1_TEST)).thenReturn(museum);
+		when(exhibitionRepository.addExhibitions(exhibitions)).thenReturn(2);
+
+		assertThat(museumManager.addExhibitions(MUSEUM1_TEST, exhibitions)).isEqualTo(2);
+
+		inOrder.verify(museumRepository).findMuseumByName(MUSEUM1_TEST);
+		inOrder.verify(museum).setOccupiedRooms(occupiedRooms + 2);
+		inOrder.verify(museumRepository).updateMuseum(museum);
+		inOrder.verify(exhibitionRepository).addExhibitions(exhibitions);
+		verifyNoMoreInteractions(museumRepository, exhibitionRepository);
+		assertThat(exhibitions).extracting(Exhibition::getMuseumId).containsOnly(MUSEUM_ID_1);
+	}
+
+	@Test
+	public void testAddExhibitionsRetriedStartsAgainFromTheGivenExhibitions() throws RepositoryException {
+		doAnswer(answer((TransactionCode<?> code) -> {
+			code.apply(museumRepository, exhibitionRepository);
+			return code.apply(museumRepository, exhibitionRepository);
+		})).when(transactionManager).doInTransaction(any());
+		when(museumRepository.findMuseumByName(MUSEUM1_TEST))
+				.thenReturn(createTestMuseum(MUSEUM1_TEST, NUM_CONSTANT1, MUSEUM_ID_1));
+		Exhibition newExhibition = new Exhibition(EXHIBITION2_TEST, NUM_CONSTANT1);
+		List<Exhibition> exhibitions = asList(exhibition, newExhibition);
+		List<UUID> persistedIds = new ArrayList<>();
+		when(exhibitionRepository.addExhibitions(exhibitions)).thenAnswer(answer((List<Exhibition> persisted) -> {
+			for (Exhibition persistedExhibition : persisted) {
+				persistedIds.add(persistedExhibition.getId());
+				persistedExhibition.setId(UUID.randomUUID());
+			}
+			return persisted.size();
+		}));
+
+		museumManager.addExhibitions(MUSEUM1_TEST, exhibitions);
+
+		assertThat(persistedIds).containsExactly(EXHIBITION_ID_1, null, EXHIBITION_ID_1, null);
+	}
+
 	@Test
 	public void testAddNewExhibitionToAMuseumWhichDoesNotExistShouldThrow() {
 		when(museumRepository.findMuseumByName(MUSEUM1_TEST)).thenReturn(null);
@@ -351,10 +551,12 @@ public class MuseumManagerTest {
 			museumManager.deleteExhibition(exhibition);
 		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to delete Exhibition.");
 
+		verify(exhibitionRepository).findExhibitionByName(EXHIBITION1_TEST);
+		verifyNoMoreInteractions(museumRepository, exhibitionRepository);
 	}
 
 	@Test
-	public void testDeleteExhibition() {
+	public void testDeleteExhibition() throws RepositoryException {
 		when(exhibitionRepository.findExhibitionByName(EXHIBITION1_TEST)).thenReturn(exhibition);
 		when(museumRepository.findMuseumById(exhibition.getMuseumId())).thenReturn(museum);
 		when(museum.getOccupiedRooms()).thenReturn(1);
@@ -365,32 +567,215 @@ public class MuseumManagerTest {
 		inOrder.verify(exhibitionRepository).deleteExhibition(exhibition);
 		inOrder.verify(museum).getOccupiedRooms();
 		inOrder.verify(museum).setOccupiedRooms(0);
+		inOrder.verify(museumRepository).updateMuseum(museum);
 
 		verifyNoMoreInteractions(exhibitionRepository);
+		verify(transactionManager).doInTransaction(any());
+		verifyNoMoreInteractions(transactionManager);
+	}
+
+	@Test
+	public void testDeleteExhibitionFreesARoomOfTheMuseumItIsStoredIn() {
+		Exhibition storedExhibition = createExhibition(EXHIBITION1_TEST, NUM_CONSTANT1, EXHIBITION_ID_1);
+		storedExhibition.setMuseumId(MUSEUM_ID_1);
+		when(exhibitionRepository.findExhibitionByName(EXHIBITION1_TEST)).thenReturn(storedExhibition);
+		when(museumRepository.findMuseumById(MUSEUM_ID_1)).thenReturn(museum);
+		museum.setOccupiedRooms(1);
+		exhibition.setMuseumId(MUSEUM_ID_2);
+
+		museumManager.deleteExhibition(exhibition);
+
+		verify(exhibitionRepository).deleteExhibition(storedExhibition);
+		verify(museumRepository).updateMuseum(museum);
+		assertThat(museum.getOccupiedRooms()).isZero();
 	}
 
 	@Test
 	public void testBookExhibitionWhenAllSeatsAreBookedShouldThrow() {
-		exhibition.setBookedSeats(exhibition.getTotalSeats());
-		when(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1)).thenReturn(exhibition);
+		when(exhibitionRepository.bookSeat(EXHIBITION_ID_1)).thenReturn(-1);
 		assertThatThrownBy(() -> {
 			museumManager.bookExhibitionSeat(exhibition);
 		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book a seat.");
 
-		inOrder.verify(exhibition).getBookedSeats();
-		inOrder.verify(exhibition).getTotalSeats();
+		inOrder.verify(exhibitionRepository).bookSeat(EXHIBITION_ID_1);
+		verify(exhibition, never()).setBookedSeats(anyInt());
+		verifyNoMoreInteractions(exhibitionRepository);
+	}
+
+	@Test
+	public void testBookNullExhibitionShouldThrow() {
+		assertThatThrownBy(() -> {
+			museumManager.bookExhibitionSeat(null);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book a seat.");
+
+		verifyNoMoreInteractions(exhibitionRepository);
 	}
 
 	@Test
 	public void testBookExhibitionWhenSeatsAreAvailable() {
-		when(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1)).thenReturn(exhibition);
-		when(exhibition.getBookedSeats()).thenReturn(1);
-		museumManager.bookExhibitionSeat(exhibition);
-		
-		inOrder.verify(exhibition).getBookedSeats();
+		when(exhibitionRepository.bookSeat(EXHIBITION_ID_1)).thenReturn(NUM_CONSTANT1 - 2);
+		int freeSeats = museumManager.bookExhibitionSeat(exhibition);
+
+		inOrder.verify(exhibitionRepository).bookSeat(EXHIBITION_ID_1);
 		inOrder.verify(exhibition).setBookedSeats(2);
-		inOrder.verify(exhibitionRepository).updateExhibition(exhibition);
+		verifyNoMoreInteractions(exhibitionRepository);
+
+		assertThat(freeSeats).isEqualTo(NUM_CONSTANT1 - 2);
+	}
+
+	@Test
+	public void testBookExhibitionThroughTheSeatInventory() throws RepositoryException, IOException {
+		SeatInventory seatInventory = mock(SeatInventory.class);
+		when(seatInventory.bookSeat(EXHIBITION_ID_1)).thenReturn(NUM_CONSTANT1 - 1);
+		museumManager = new MuseumManagerServiceImpl(transactionManager, seatInventory);
+
+		int freeSeats = museumManager.bookExhibitionSeat(exhibition);
+
+		verify(seatInventory).bookSeat(EXHIBITION_ID_1);
+		inOrder.verify(exhibition).setBookedSeats(1);
+		verifyNoMoreInteractions(exhibitionRepository);
+		assertThat(freeSeats).isEqualTo(NUM_CONSTANT1 - 1);
+	}
 
+	@Test
+	public void testBookExhibitionWhenTheSeatInventoryFailsShouldThrow() throws RepositoryException, IOException {
+		SeatInventory seatInventory = mock(SeatInventory.class);
+		when(seatInventory.bookSeat(EXHIBITION_ID_1)).thenThrow(IOException.class);
+		museumManager = new MuseumManagerServiceImpl(transactionManager, seatInventory);
+
+		assertThatThrownBy(() -> {
+			museumManager.bookExhibitionSeat(exhibition);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book a seat.");
+		verify(exhibition, never()).setBookedSeats(anyInt());
+	}
+
+	@Test
+	public void testBookExhibitionThroughTheBookingQueue() {
+		BookingQueue bookingQueue = mock(BookingQueue.class);
+		when(bookingQueue.bookSeat(EXHIBITION_ID_1)).thenReturn(CompletableFuture.completedFuture(NUM_CONSTANT1 - 1));
+		museumManager = new MuseumManagerServiceImpl(transactionManager, bookingQueue);
+
+		int freeSeats = museumManager.bookExhibitionSeat(exhibition);
+
+		verify(bookingQueue).bookSeat(EXHIBITION_ID_1);
+		inOrder.verify(exhibition).setBookedSeats(1);
+		verifyNoMoreInteractions(exhibitionRepository);
+		assertThat(freeSeats).isEqualTo(NUM_CONSTANT1 - 1);
+	}
+
+	@Test
+	public void testBookExhibitionWhenTheBookingQueueFailsShouldThrow() {
+		BookingQueue bookingQueue = mock(BookingQueue.class);
+		CompletableFuture<Integer> failedBooking = new CompletableFuture<>();
+		failedBooking.completeExceptionally(new RepositoryException("failure"));
+		when(bookingQueue.bookSeat(EXHIBITION_ID_1)).thenReturn(failedBooking);
+		museumManager = new MuseumManagerServiceImpl(transactionManager, bookingQueue);
+
+		assertThatThrownBy(() -> {
+			museumManager.bookExhibitionSeat(exhibition);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book a seat.");
+		verify(exhibition, never()).setBookedSeats(anyInt());
+	}
+
+	@Test
+	public void testBookSeats() {
+		Map<UUID, Integer> seatsByExhibitionId = new HashMap<>();
+		seatsByExhibitionId.put(EXHIBITION_ID_1, 2);
+		seatsByExhibitionId.put(EXHIBITION_ID_2, 3);
+		Map<UUID, Integer> freeSeats = new HashMap<>();
+		freeSeats.put(EXHIBITION_ID_1, 8);
+		freeSeats.put(EXHIBITION_ID_2, -1);
+		when(exhibitionRepository.bookSeats(seatsByExhibitionId)).thenReturn(freeSeats);
+
+		assertThat(museumManager.bookSeats(seatsByExhibitionId)).isEqualTo(freeSeats);
+		inOrder.verify(exhibitionRepository).bookSeats(seatsByExhibitionId);
+		verifyNoMoreInteractions(exhibitionRepository);
+	}
+
+	@Test
+	public void testBookSeatsWithInvalidRequestShouldThrow() {
+		Map<UUID, Integer> seatsByExhibitionId = new HashMap<>();
+		seatsByExhibitionId.put(EXHIBITION_ID_1, -2);
+		when(exhibitionRepository.bookSeats(seatsByExhibitionId)).thenThrow(IllegalArgumentException.class);
+
+		assertThatThrownBy(() -> {
+			museumManager.bookSeats(seatsByExhibitionId);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book seats.");
+	}
+
+	@Test
+	public void testBookAdjacentSeatsReturnsTheBookedSeats() {
+		when(exhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 3)).thenReturn(4);
+
+		assertThat(museumManager.bookAdjacentSeats(exhibition, 3)).containsExactly(4, 5, 6);
+		inOrder.verify(exhibitionRepository).bookAdjacentSeats(EXHIBITION_ID_1, 3);
+		verifyNoMoreInteractions(exhibitionRepository);
+	}
+
+	@Test
+	public void testBookAdjacentSeatsWhenNotEnoughAreFreeShouldThrow() {
+		when(exhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 3)).thenReturn(-1);
+
+		assertThatThrownBy(() -> {
+			museumManager.bookAdjacentSeats(exhibition, 3);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book adjacent seats.");
+	}
+
+	@Test
+	public void testBookSeatNumbers() {
+		when(exhibitionRepository.bookSeatNumbers(EXHIBITION_ID_1, new int[] { 1, 2 })).thenReturn(true);
+
+		museumManager.bookSeatNumbers(exhibition, 1, 2);
+		inOrder.verify(exhibitionRepository).bookSeatNumbers(EXHIBITION_ID_1, new int[] { 1, 2 });
+		verifyNoMoreInteractions(exhibitionRepository);
+	}
+
+	@Test
+	public void testBookSeatNumbersWhenSomeAreBookedShouldThrow() {
+		when(exhibitionRepository.bookSeatNumbers(EXHIBITION_ID_1, new int[] { 1 })).thenReturn(false);
+
+		assertThatThrownBy(() -> {
+			museumManager.bookSeatNumbers(exhibition, 1);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book the selected seats.");
+	}
+
+	@Test
+	public void testGetSeatMapReadsTheStoredExhibition() throws RepositoryException {
+		Exhibition storedExhibition = createExhibition(EXHIBITION1_TEST, NUM_CONSTANT1, EXHIBITION_ID_1);
+		storedExhibition.setSeatMap(new byte[] { 0x05, 0x00 });
+		when(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1)).thenReturn(storedExhibition);
+
+		SeatMap seatMap = museumManager.getSeatMap(exhibition);
+
+		assertThat(seatMap.getBookedSeatNumbers()).isEqualTo(2);
+		assertThat(seatMap.isBooked(2)).isTrue();
+		assertThat(seatMap.isBooked(1)).isFalse();
+		verify(transactionManager).doInReadOnlyTransaction(any());
+	}
+
+	@Test
+	public void testSeatNumbersWithASeatInventoryShouldThrow() throws RepositoryException {
+		SeatInventory seatInventory = mock(SeatInventory.class);
+		museumManager = new MuseumManagerServiceImpl(transactionManager, seatInventory);
+
+		assertThatThrownBy(() -> {
+			museumManager.bookAdjacentSeats(exhibition, 3);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book adjacent seats.");
+		assertThatThrownBy(() -> {
+			museumManager.bookSeatNumbers(exhibition, 1, 2);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to book the selected seats.");
+		assertThatThrownBy(() -> {
+			museumManager.getSeatMap(exhibition);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to find the Exhibition seats.");
+		verifyNoMoreInteractions(seatInventory, exhibitionRepository);
+		verify(transactionManager, never()).doInTransactionExhibition(any());
+	}
+
+	@Test
+	public void testGetSeatMapOfNotExistingExhibitionShouldThrow() {
+		assertThatThrownBy(() -> {
+			museumManager.getSeatMap(exhibition);
+		}).isInstanceOf(MuseumManagerServiceException.class).hasMessage("Impossible to find the Exhibition seats.");
 	}
 
 	/**
@@ -0,0 +1,209 @@
+package com.unifi.attsw.exam.core.service.booking;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryDatabase;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.memory.InMemoryTransactionManager;
+
+public class BookingQueueTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
+	private static final UUID EXHIBITION_ID_2 = UUID.fromString("b2cb1474-24ff-41eb-a8d7-963f32f6822d");
+	private static final UUID invalidUUID = UUID.fromString("2796027d-21cc-4883-b088-514d4b3090a1");
+	private static final int NUM_OF_SEATS = 10;
+
+	private TransactionManager transactionManager;
+	private BookingQueue bookingQueue;
+
+	@Before
+	public void setUp() throws RepositoryException {
+		transactionManager = spy(new InMemoryTransactionManager(new InMemoryDatabase()));
+		populateDatabase();
+	}
+
+	@After
+	public void tearDown() {
+		if (bookingQueue != null) {
+			bookingQueue.close();
+		}
+	}
+
+	@Test
+	public void testInvalidConfigurationShouldThrow() {
+		assertThatThrownBy(() -> new BookingQueue(transactionManager, 0, 1, 1, 0, TimeUnit.MILLISECONDS))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid booking queue configuration.");
+		assertThatThrownBy(() -> new BookingQueue(transactionManager, 1, 1, 1, -1, TimeUnit.MILLISECONDS))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid booking queue configuration.");
+	}
+
+	@Test
+	public void testBookSeatOfNullExhibitionShouldThrow() {
+		bookingQueue = new BookingQueue(transactionManager, 1, 10, 10, 0, TimeUnit.MILLISECONDS);
+
+		assertThatThrownBy(() -> bookingQueue.bookSeat(null)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Exhibition ID cannot be null.");
+	}
+
+	@Test
+	public void testBookingsQueuedTogetherAreBookedInASingleTransaction() throws Exception {
+		bookingQueue = new BookingQueue(transactionManager, 1, 100, 100, 1, TimeUnit.MINUTES);
+		List<CompletableFuture<Integer>> freeSeats = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			freeSeats.add(bookingQueue.bookSeat(EXHIBITION_ID_1));
+			freeSeats.add(bookingQueue.bookSeat(EXHIBITION_ID_2));
+		}
+		freeSeats.add(bookingQueue.bookSeat(invalidUUID));
+		bookingQueue.close();
+
+		assertThat(freeSeats).extracting(CompletableFuture::get).containsExactly(NUM_OF_SEATS - 1, NUM_OF_SEATS - 1,
+				NUM_OF_SEATS - 2, NUM_OF_SEATS - 2, NUM_OF_SEATS - 3, NUM_OF_SEATS - 3, -1);
+		verify(transactionManager).doInTransactionExhibition(any());
+		assertThat(bookingQueue.getBatches()).isEqualTo(1);
+		assertThat(bookingQueue.getBookings()).isEqualTo(7);
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(3);
+		assertThat(findBookedSeats(EXHIBITION_ID_2)).isEqualTo(3);
+	}
+
+	@Test
+	public void testBatchIsBookedWhenItReachesItsMaximumSize() throws Exception {
+		bookingQueue = new BookingQueue(transactionManager, 1, 100, 2, 1, TimeUnit.MINUTES);
+
+		CompletableFuture<Integer> first = bookingQueue.bookSeat(EXHIBITION_ID_1);
+		CompletableFuture<Integer> second = bookingQueue.bookSeat(EXHIBITION_ID_1);
+
+		assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(NUM_OF_SEATS - 2);
+		assertThat(first.get()).isEqualTo(NUM_OF_SEATS - 1);
+	}
+
+	@Test
+	public void testExhibitionWithoutEnoughSeatsForTheBatchBooksThoseLeftInQueueOrder() throws Exception {
+		bookingQueue = new BookingQueue(transactionManager, 1, 100, 100, 1, TimeUnit.MINUTES);
+		List<CompletableFuture<Integer>> freeSeats = new ArrayList<>();
+		for (int i = 0; i < NUM_OF_SEATS + 2; i++) {
+			freeSeats.add(bookingQueue.bookSeat(EXHIBITION_ID_1));
+		}
+		bookingQueue.close();
+
+		for (int i = 0; i < NUM_OF_SEATS; i++) {
+			assertThat(freeSeats.get(i).get()).isEqualTo(NUM_OF_SEATS - 1 - i);
+		}
+		assertThat(freeSeats.get(NUM_OF_SEATS).get()).isEqualTo(-1);
+		assertThat(freeSeats.get(NUM_OF_SEATS + 1).get()).isEqualTo(-1);
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(NUM_OF_SEATS);
+	}
+
+	@Test
+	public void testFailedTransactionFailsAllTheBookingsOfTheBatch() throws Exception {
+		RepositoryException failure = new RepositoryException("failure");
+		doThrow(failure).when(transactionManager).doInTransactionExhibition(any());
+		bookingQueue = new BookingQueue(transactionManager, 1, 100, 100, 1, TimeUnit.MINUTES);
+
+		CompletableFuture<Integer> first = bookingQueue.bookSeat(EXHIBITION_ID_1);
+		CompletableFuture<Integer> second = bookingQueue.bookSeat(EXHIBITION_ID_2);
+		bookingQueue.close();
+
+		assertThatThrownBy(first::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+		assertThatThrownBy(second::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+		assertThat(bookingQueue.getBatches()).isZero();
+	}
+
+	@Test
+	public void testBookingsAreRejectedWhenTheQueueIsFullOrClosed() throws Exception {
+		CountDownLatch transactionStarted = new CountDownLatch(1);
+		CountDownLatch transactionReleased = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			transactionStarted.countDown();
+			transactionReleased.await();
+			return invocation.callRealMethod();
+		}).when(transactionManager).doInTransactionExhibition(any());
+		bookingQueue = new BookingQueue(transactionManager, 1, 1, 1, 0, TimeUnit.MILLISECONDS);
+
+		CompletableFuture<Integer> booking = bookingQueue.bookSeat(EXHIBITION_ID_1);
+		transactionStarted.await();
+		CompletableFuture<Integer> queuedBooking = bookingQueue.bookSeat(EXHIBITION_ID_1);
+		CompletableFuture<Integer> rejectedBooking = bookingQueue.bookSeat(EXHIBITION_ID_1);
+		transactionReleased.countDown();
+		bookingQueue.close();
+
+		assertThat(booking.get()).isEqualTo(NUM_OF_SEATS - 1);
+		assertThat(queuedBooking.get()).isEqualTo(NUM_OF_SEATS - 2);
+		assertThatThrownBy(rejectedBooking::get).hasCauseInstanceOf(RejectedExecutionException.class)
+				.hasMessageContaining("Booking queue full.");
+		assertThatThrownBy(bookingQueue.bookSeat(EXHIBITION_ID_1)::get)
+				.hasCauseInstanceOf(RejectedExecutionException.class).hasMessageContaining("Booking queue closed.");
+	}
+
+	@Test
+	public void testConcurrentBookingsNeverOverbook() throws Exception {
+		bookingQueue = new BookingQueue(transactionManager, 2, 1000, 100, 1, TimeUnit.MILLISECONDS);
+		int numOfThreads = 8;
+		List<Thread> threads = new ArrayList<>();
+		List<CompletableFuture<Integer>> freeSeats = new ArrayList<>();
+		for (int i = 0; i < numOfThreads; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < NUM_OF_SEATS; j++) {
+					CompletableFuture<Integer> booking = bookingQueue.bookSeat(EXHIBITION_ID_1);
+					synchronized (freeSeats) {
+						freeSeats.add(booking);
+					}
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		bookingQueue.close();
+
+		assertThat(freeSeats).extracting(CompletableFuture::get).filteredOn(seats -> seats >= 0)
+				.hasSize(NUM_OF_SEATS).doesNotHaveDuplicates();
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(NUM_OF_SEATS);
+	}
+
+	/**
+	 *
+	 * Utility methods
+	 *
+	 */
+
+	private int findBookedSeats(UUID exhibitionId) throws RepositoryException {
+		return transactionManager.doInReadOnlyTransaction((museumRepository,
+				exhibitionRepository) -> exhibitionRepository.findExhibitionById(exhibitionId).getBookedSeats());
+	}
+
+	private void populateDatabase() throws RepositoryException {
+		transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+			Museum museum = new Museum("museum1_test", NUM_OF_SEATS);
+			museum.setId(MUSEUM_ID_1);
+			museumRepository.addMuseum(museum);
+			for (UUID exhibitionId : new UUID[] { EXHIBITION_ID_1, EXHIBITION_ID_2 }) {
+				Exhibition exhibition = new Exhibition("exhibition_" + exhibitionId, NUM_OF_SEATS);
+				exhibition.setId(exhibitionId);
+				exhibition.setMuseumId(MUSEUM_ID_1);
+				exhibitionRepository.addNewExhibition(exhibition);
+			}
+			return null;
+		});
+	}
+
+}
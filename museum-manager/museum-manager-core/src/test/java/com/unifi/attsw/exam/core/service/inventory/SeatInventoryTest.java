@@ -0,0 +1,225 @@
+package com.unifi.attsw.exam.core.service.inventory;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryDatabase;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.memory.InMemoryTransactionManager;
+
+public class SeatInventoryTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
+	private static final UUID EXHIBITION_ID_2 = UUID.fromString("b2cb1474-24ff-41eb-a8d7-963f32f6822d");
+	private static final UUID invalidUUID = UUID.fromString("2796027d-21cc-4883-b088-514d4b3090a1");
+	private static final int NUM_OF_SEATS = 10;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TransactionManager transactionManager;
+	private Path journalDirectory;
+	private SeatInventory seatInventory;
+
+	@Before
+	public void setUp() throws IOException, RepositoryException {
+		transactionManager = spy(new InMemoryTransactionManager(new InMemoryDatabase()));
+		populateDatabase();
+		journalDirectory = folder.getRoot().toPath().resolve("journal");
+		seatInventory = createSeatInventory();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		seatInventory.close();
+	}
+
+	@Test
+	public void testInvalidFlushIntervalShouldThrow() {
+		assertThatThrownBy(() -> new SeatInventory(transactionManager, journalDirectory, 0, TimeUnit.HOURS))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Flush interval must be positive.");
+	}
+
+	@Test
+	public void testBookedSeatsArePersistedAtTheNextFlush() throws RepositoryException, IOException {
+		assertThat(seatInventory.bookSeat(EXHIBITION_ID_1)).isEqualTo(NUM_OF_SEATS - 1);
+		assertThat(seatInventory.bookSeat(EXHIBITION_ID_1)).isEqualTo(NUM_OF_SEATS - 2);
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isZero();
+
+		seatInventory.flush();
+
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(2);
+		seatInventory.flush();
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(2);
+	}
+
+	@Test
+	public void testSoldOutOrNotExistingExhibitionIsNotBooked() throws RepositoryException, IOException {
+		Map<UUID, Integer> seats = new HashMap<>();
+		seats.put(EXHIBITION_ID_1, NUM_OF_SEATS);
+		seats.put(EXHIBITION_ID_2, NUM_OF_SEATS + 1);
+		seats.put(invalidUUID, 1);
+
+		assertThat(seatInventory.bookSeats(seats)).containsEntry(EXHIBITION_ID_1, 0).containsEntry(EXHIBITION_ID_2, -1)
+				.containsEntry(invalidUUID, -1);
+		assertThat(seatInventory.bookSeat(EXHIBITION_ID_1)).isEqualTo(-1);
+		seatInventory.flush();
+
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(NUM_OF_SEATS);
+		assertThat(findBookedSeats(EXHIBITION_ID_2)).isZero();
+	}
+
+	@Test
+	public void testInvalidBookingRequestShouldThrow() {
+		assertThatThrownBy(() -> seatInventory.bookSeat(null)).isInstanceOf(IllegalArgumentException.class);
+		Map<UUID, Integer> seats = new HashMap<>();
+		seats.put(EXHIBITION_ID_1, 0);
+		assertThatThrownBy(() -> seatInventory.bookSeats(seats)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testSeatsAreCountedFromTheBookedSeatsOfTheDatabase() throws RepositoryException, IOException {
+		transactionManager.doInTransactionExhibition(exhibitionRepository -> {
+			Exhibition exhibition = exhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
+			exhibition.setBookedSeats(NUM_OF_SEATS - 1);
+			return exhibitionRepository.updateExhibition(exhibition);
+		});
+
+		assertThat(seatInventory.bookSeat(EXHIBITION_ID_1)).isZero();
+		assertThat(seatInventory.bookSeat(EXHIBITION_ID_1)).isEqualTo(-1);
+	}
+
+	@Test
+	public void testFailedFlushKeepsTheSeatsForTheNextOne() throws RepositoryException, IOException {
+		seatInventory.bookSeat(EXHIBITION_ID_1);
+		RepositoryException failure = new RepositoryException("failure");
+		doThrow(failure).doCallRealMethod().when(transactionManager).doInTransactionExhibition(any());
+
+		assertThatThrownBy(() -> seatInventory.flush()).isSameAs(failure);
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isZero();
+		seatInventory.bookSeat(EXHIBITION_ID_1);
+		seatInventory.flush();
+
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(2);
+	}
+
+	@Test
+	public void testBookingsOfACrashedInventoryArePersistedByTheNextOne() throws RepositoryException, IOException {
+		seatInventory.bookSeat(EXHIBITION_ID_1);
+		seatInventory.bookSeat(EXHIBITION_ID_2);
+		seatInventory.flush();
+		seatInventory.bookSeat(EXHIBITION_ID_1);
+		seatInventory.bookSeat(EXHIBITION_ID_1);
+
+		// the first inventory is abandoned without flushing, as if it crashed
+		seatInventory = createSeatInventory();
+
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(3);
+		assertThat(findBookedSeats(EXHIBITION_ID_2)).isEqualTo(1);
+		assertThat(seatInventory.bookSeat(EXHIBITION_ID_1)).isEqualTo(NUM_OF_SEATS - 4);
+		seatInventory.close();
+		seatInventory = createSeatInventory();
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(4);
+	}
+
+	@Test
+	public void testCloseFlushesTheLastBookings() throws RepositoryException, IOException {
+		seatInventory.bookSeat(EXHIBITION_ID_2);
+		seatInventory.close();
+
+		assertThat(findBookedSeats(EXHIBITION_ID_2)).isEqualTo(1);
+	}
+
+	@Test
+	public void testSeatsOfADeletedExhibitionAreLost() throws RepositoryException, IOException {
+		seatInventory.bookSeat(EXHIBITION_ID_2);
+		transactionManager.doInTransactionExhibition(exhibitionRepository -> {
+			exhibitionRepository.deleteExhibition(exhibitionRepository.findExhibitionById(EXHIBITION_ID_2));
+			return null;
+		});
+
+		seatInventory.flush();
+
+		assertThat(seatInventory.getLostSeats()).isEqualTo(1);
+	}
+
+	@Test
+	public void testConcurrentBookingsNeverOverbook() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(executor.submit(() -> {
+				int booked = 0;
+				for (int j = 0; j < NUM_OF_SEATS; j++) {
+					if (seatInventory.bookSeat(EXHIBITION_ID_1) >= 0) {
+						booked++;
+					}
+				}
+				return booked;
+			}));
+		}
+		int booked = 0;
+		for (Future<Integer> future : futures) {
+			booked += future.get();
+		}
+		executor.shutdown();
+		seatInventory.flush();
+
+		assertThat(booked).isEqualTo(NUM_OF_SEATS);
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(NUM_OF_SEATS);
+	}
+
+	/**
+	 *
+	 * Utility methods
+	 *
+	 */
+
+	private SeatInventory createSeatInventory() throws IOException, RepositoryException {
+		return new SeatInventory(transactionManager, journalDirectory, 1, TimeUnit.HOURS);
+	}
+
+	private int findBookedSeats(UUID exhibitionId) throws RepositoryException {
+		return transactionManager.doInTransactionExhibition(
+				exhibitionRepository -> exhibitionRepository.findExhibitionById(exhibitionId).getBookedSeats());
+	}
+
+	private void populateDatabase() throws RepositoryException {
+		transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+			Museum museum = new Museum("museum1_test", NUM_OF_SEATS);
+			museum.setId(MUSEUM_ID_1);
+			museumRepository.addMuseum(museum);
+			for (UUID exhibitionId : new UUID[] { EXHIBITION_ID_1, EXHIBITION_ID_2 }) {
+				Exhibition exhibition = new Exhibition("exhibition_" + exhibitionId, NUM_OF_SEATS);
+				exhibition.setId(exhibitionId);
+				exhibition.setMuseumId(MUSEUM_ID_1);
+				exhibitionRepository.addNewExhibition(exhibition);
+			}
+			return null;
+		});
+	}
+
+}
@@ -55,7 +55,7 @@ public class ExhibitionSwingViewIT extends AssertJSwingJUnitTestCase {
 	@Override
 	protected void onSetUp() {
 		entityManager = sessionFactory.createEntityManager();
-		transactionManager = new PostgresTransactionManager(entityManager);
+		transactionManager = new PostgresTransactionManager(sessionFactory);
 		museumManager = new MuseumManagerServiceImpl(transactionManager);
 
 		entityManager.getTransaction().begin();
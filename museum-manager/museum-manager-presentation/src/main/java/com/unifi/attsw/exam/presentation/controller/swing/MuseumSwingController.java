@@ -1,17 +1,27 @@
 package com.unifi.attsw.exam.presentation.controller.swing;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
 import com.unifi.attsw.exam.core.controller.MuseumController;
 import com.unifi.attsw.exam.core.service.MuseumManagerService;
-import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
 import com.unifi.attsw.exam.presentation.view.swing.ExhibitionSwingView;
 import com.unifi.attsw.exam.presentation.view.swing.MuseumSwingView;
+import com.unifi.attsw.exam.presentation.view.swing.PagedListModel;
+import com.unifi.attsw.exam.repository.changefeed.ChangeFeed;
+import com.unifi.attsw.exam.repository.changefeed.ChangeListener;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 import com.unifi.attsw.exam.repository.model.Museum;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
 
 /**
  * 
- * Swing implementation for {@link MuseumController}.
+ * Swing implementation for {@link MuseumController}. Service calls run on the
+ * caller thread unless executors are set with
+ * {@link #setExecutors(Executor, Executor)}.
  *
  */
 public class MuseumSwingController implements MuseumController {
@@ -30,6 +40,34 @@ public class MuseumSwingController implements MuseumController {
 	 */
 	private ExhibitionSwingView exhibitionView;
 
+	/**
+	 * Runs service calls, the caller thread by default.
+	 */
+	private Executor serviceExecutor = Runnable::run;
+
+	/**
+	 * Delivers service results to the views, the caller thread by default.
+	 */
+	private Executor viewExecutor = Runnable::run;
+
+	/*
+	 * Latest requests for each kind of read: a read superseded by a newer one of
+	 * the same kind is skipped if still queued and its result is discarded
+	 */
+	private final AtomicLong museumsRequests = new AtomicLong();
+	private final AtomicLong exhibitionsRequests = new AtomicLong();
+	private final AtomicLong museumExhibitionsRequests = new AtomicLong();
+
+	/*
+	 * Page size and number of cached pages of the lists of all Museums and all
+	 * Exhibitions, whole lists are shown when the page size is 0
+	 */
+	private int pageSize;
+	private int maxCachedPages;
+
+	private PagedListModel<Museum> museumsPagedListModel;
+	private PagedListModel<Exhibition> exhibitionsPagedListModel;
+
 	public MuseumSwingController(MuseumManagerService museumService, MuseumSwingView museumView,
 			ExhibitionSwingView exhibitionView) {
 		this.museumService = museumService;
@@ -37,75 +75,125 @@ public class MuseumSwingController implements MuseumController {
 		this.exhibitionView = exhibitionView;
 	}
 
+	/**
+	 * Runs service calls on {@code serviceExecutor} and updates the views through
+	 * {@code viewExecutor}, e.g. a background thread and
+	 * {@link java.awt.EventQueue#invokeLater(Runnable)}, so that the Event
+	 * Dispatch Thread never waits for the database. With a single-threaded
+	 * {@code serviceExecutor} calls run in the order they are made.
+	 * 
+	 * @param serviceExecutor The Executor running service calls.
+	 * @param viewExecutor    The Executor updating the views.
+	 */
+	public void setExecutors(Executor serviceExecutor, Executor viewExecutor) {
+		this.serviceExecutor = serviceExecutor;
+		this.viewExecutor = viewExecutor;
+	}
+
+	/**
+	 * Shows all Museums and all Exhibitions through {@link PagedListModel}s,
+	 * loading them {@code pageSize} at a time as they are displayed, with the
+	 * executors set by {@link #setExecutors(Executor, Executor)}.
+	 * 
+	 * @param pageSize       The number of elements loaded at a time.
+	 * @param maxCachedPages The maximum number of pages kept in memory by each
+	 *                       list.
+	 */
+	public void setPaging(int pageSize, int maxCachedPages) {
+		if (pageSize <= 0 || maxCachedPages <= 0) {
+			throw new IllegalArgumentException("Page size and cached pages must be positive.");
+		}
+		this.pageSize = pageSize;
+		this.maxCachedPages = maxCachedPages;
+	}
+
+	/**
+	 * Shows in the views the changes published by the {@link ChangeFeed}, made by
+	 * this or any other client of the database, through the {@code viewExecutor}
+	 * set by {@link #setExecutors(Executor, Executor)}. Lost changes reload all
+	 * Museums and all Exhibitions.
+	 * 
+	 * @param changeFeed The ChangeFeed of the database used by the service.
+	 */
+	public void listenTo(ChangeFeed changeFeed) {
+		changeFeed.addChangeListener(new ViewUpdater());
+	}
+
 	public void getAllMuseums() {
-		try {
-			museumView.showAllMuseums(museumService.getAllMuseums());
-		} catch (RepositoryException ex) {
-			museumView.showError("Impossibile to get museums.", null);
+		if (pageSize > 0) {
+			if (museumsPagedListModel == null) {
+				museumsPagedListModel = new PagedListModel<>(museumService::getMuseumsPage, Museum::getName, pageSize,
+						maxCachedPages, serviceExecutor, viewExecutor,
+						() -> museumView.showError("Impossibile to get museums.", null));
+				museumView.showAllMuseumsPaged(museumsPagedListModel);
+			} else {
+				museumsPagedListModel.refresh();
+			}
+			return;
 		}
+		latest(museumsRequests, museumService::getAllMuseums, museumView::showAllMuseums,
+				() -> museumView.showError("Impossibile to get museums.", null));
 	}
 
 	public void getAllExhibitions() {
-		try {
-			exhibitionView.showAllExhibitions(museumService.getAllExhibitions());
-		} catch (RepositoryException ex) {
-			museumView.showError("Impossibile to get all exhibitions.", null);
+		if (pageSize > 0) {
+			if (exhibitionsPagedListModel == null) {
+				exhibitionsPagedListModel = new PagedListModel<>(museumService::getExhibitionsPage,
+						Exhibition::getName, pageSize, maxCachedPages, serviceExecutor, viewExecutor,
+						() -> museumView.showError("Impossibile to get all exhibitions.", null));
+				exhibitionView.showAllExhibitionsPaged(exhibitionsPagedListModel);
+			} else {
+				exhibitionsPagedListModel.refresh();
+			}
+			return;
 		}
+		latest(exhibitionsRequests, museumService::getAllExhibitions, exhibitionView::showAllExhibitions,
+				() -> museumView.showError("Impossibile to get all exhibitions.", null));
 	}
 
 	public void getAllMuseumExhibitions(String museumName) {
-		try {
-			Museum museum = museumService.getMuseumByName(museumName);
-			exhibitionView.showMuseumExhibitions(museumService.getAllMuseumExhibitions(museum));
-		} catch (MuseumManagerServiceException ex) {
-			exhibitionView.showError("Impossibile to get all exhibitions.", null);
-		}
+		latest(museumExhibitionsRequests,
+				() -> museumService.getAllMuseumExhibitions(museumService.getMuseumByName(museumName)),
+				exhibitionView::showMuseumExhibitions,
+				() -> exhibitionView.showError("Impossibile to get all exhibitions.", null));
 	}
 
 	public void saveMuseum(Museum museum) {
-		try {
-			museumService.saveMuseum(museum);
-			museumView.museumAdded(museum);
-		} catch (MuseumManagerServiceException ex) {
-			museumView.showError("Impossibile to add Museum: ", museum);
-		}
+		execute(() -> museumService.saveMuseum(museum), savedMuseum -> museumView.museumAdded(museum),
+				() -> museumView.showError("Impossibile to add Museum: ", museum));
 	}
 
 	public void saveExhibition(String museumName, Exhibition exhibition) {
-		try {
-			museumService.addNewExhibition(museumName, exhibition);
-			exhibitionView.exhibitionAdded(exhibition);
-		} catch (MuseumManagerServiceException ex) {
-			exhibitionView.showError("Impossible to add Exhibition: ", exhibition);
-		}
+		execute(() -> museumService.addNewExhibition(museumName, exhibition),
+				addedExhibition -> exhibitionView.exhibitionAdded(exhibition),
+				() -> exhibitionView.showError("Impossible to add Exhibition: ", exhibition));
 	}
 
 	public void deleteMuseum(Museum museum) {
-		try {
+		execute(() -> {
 			museumService.deleteMuseum(museum);
-			museumView.museumRemoved(museum);
-			
-		} catch (MuseumManagerServiceException ex) {
-			museumView.showError("Impossible to delete Museum: ", museum);
-		}
+			return museum;
+		}, museumView::museumRemoved, () -> museumView.showError("Impossible to delete Museum: ", museum));
 	}
 
 	public void deleteExhibition(Exhibition exhibition) {
-		try {
+		execute(() -> {
 			museumService.deleteExhibition(exhibition);
-			exhibitionView.exhibitionRemoved(exhibition);
-		} catch (MuseumManagerServiceException ex) {
-			exhibitionView.showError("Impossible to delete Exhibition: ", exhibition);
-		}
+			return exhibition;
+		}, exhibitionView::exhibitionRemoved,
+				() -> exhibitionView.showError("Impossible to delete Exhibition: ", exhibition));
 	}
 
+	/**
+	 * Books a seat for a copy of the shown Exhibition, whose booked seats are
+	 * updated through the {@code viewExecutor} only.
+	 */
 	public void bookExhibitionSeat(Exhibition exhibition) {
-		try {
-			museumService.bookExhibitionSeat(exhibition);
-			exhibitionView.exhibitionBooked();
-		} catch (MuseumManagerServiceException ex) {
-			exhibitionView.showError("Impossible to book a seat for Exhibition: ", exhibition);
-		}
+		Exhibition booking = copyOf(exhibition);
+		execute(() -> museumService.bookExhibitionSeat(booking), freeSeats -> {
+			exhibition.setBookedSeats(exhibition.getTotalSeats() - freeSeats);
+			exhibitionView.exhibitionBooked(exhibition);
+		}, () -> exhibitionView.showError("Impossible to book a seat for Exhibition: ", exhibition));
 	}
 
 	public void openExhibitionsDashboard() {
@@ -118,4 +206,86 @@ public class MuseumSwingController implements MuseumController {
 		exhibitionView.setVisible(false);
 	}
 
+	/**
+	 * Forwards the published changes to the views.
+	 */
+	private class ViewUpdater implements ChangeListener {
+
+		@Override
+		public void museumChanged(ChangeType type, Museum museum) {
+			viewExecutor.execute(() -> museumView.museumChanged(type, museum));
+		}
+
+		@Override
+		public void exhibitionChanged(ChangeType type, Exhibition exhibition) {
+			viewExecutor.execute(() -> exhibitionView.exhibitionChanged(type, exhibition));
+		}
+
+		@Override
+		public void changesLost() {
+			viewExecutor.execute(() -> {
+				getAllMuseums();
+				getAllExhibitions();
+			});
+		}
+	}
+
+	/**
+	 * A call to the Service layer.
+	 *
+	 * @param <T> The type of the call result.
+	 */
+	@FunctionalInterface
+	private interface ServiceCall<T> {
+		T call() throws RepositoryException;
+	}
+
+	private <T> void execute(ServiceCall<T> serviceCall, Consumer<T> onSuccess, Runnable onError) {
+		run(() -> true, serviceCall, onSuccess, onError);
+	}
+
+	/*
+	 * As execute, for reads whose result is only meaningful until a newer read of
+	 * the same kind is requested.
+	 */
+	private <T> void latest(AtomicLong requests, ServiceCall<T> serviceCall, Consumer<T> onSuccess,
+			Runnable onError) {
+		long request = requests.incrementAndGet();
+		run(() -> requests.get() == request, serviceCall, onSuccess, onError);
+	}
+
+	private <T> void run(BooleanSupplier current, ServiceCall<T> serviceCall, Consumer<T> onSuccess,
+			Runnable onError) {
+		serviceExecutor.execute(() -> {
+			if (!current.getAsBoolean()) {
+				return;
+			}
+			Runnable viewUpdate;
+			try {
+				T result = serviceCall.call();
+				viewUpdate = () -> onSuccess.accept(result);
+			} catch (RepositoryException | RuntimeException ex) {
+				viewUpdate = onError;
+			}
+			Runnable update = viewUpdate;
+			viewExecutor.execute(() -> {
+				if (current.getAsBoolean()) {
+					update.run();
+				}
+			});
+		});
+	}
+
+	private static Exhibition copyOf(Exhibition exhibition) {
+		if (exhibition == null) {
+			return null;
+		}
+		Exhibition copy = new Exhibition(exhibition.getName(), exhibition.getTotalSeats());
+		copy.setId(exhibition.getId());
+		copy.setMuseumId(exhibition.getMuseumId());
+		copy.setBookedSeats(exhibition.getBookedSeats());
+		copy.setVersion(exhibition.getVersion());
+		return copy;
+	}
+
 }
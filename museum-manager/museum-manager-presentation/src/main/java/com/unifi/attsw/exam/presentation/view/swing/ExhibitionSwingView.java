@@ -8,6 +8,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.unifi.attsw.exam.core.view.ExhibitionView;
 import com.unifi.attsw.exam.presentation.controller.swing.MuseumSwingController;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 
 import java.awt.GridBagLayout;
@@ -21,7 +22,6 @@ import java.util.List;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JScrollPane;
 import javax.swing.JList;
@@ -39,6 +39,12 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 	private transient MuseumSwingController museumSwingController;
 
 	private static final long serialVersionUID = 1L;
+
+	/*
+	 * Sizes the cells of paged lists without rendering every element
+	 */
+	private static final Exhibition PROTOTYPE_EXHIBITION = new Exhibition("An exhibition with a rather long name", 1000);
+
 	private JPanel contentPane;
 	private JTextField exhibitionTextField;
 	private JTextField totalSeatsTextField;
@@ -50,14 +56,15 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 	private JButton btnAddExhibition;
 	private JScrollPane scrollPaneAllExh;
 	private JList<Exhibition> listAllExh;
-	private DefaultListModel<Exhibition> allExhibitionsListModel;
+	private KeyedListModel<Exhibition> allExhibitionsListModel;
+	private transient PagedListModel<Exhibition> allExhibitionsPagedListModel;
 	private JButton btnBook;
 	private JButton btnDelete;
 	private JButton btnFindAll;
 	private JLabel lblExhibitionsListFor;
 	private JScrollPane scrollPaneMuseumExh;
 	private JList<Exhibition> listMuseumExh;
-	private DefaultListModel<Exhibition> museumsExhibitionListModel;
+	private KeyedListModel<Exhibition> museumsExhibitionListModel;
 	private JLabel lblError;
 	private JButton btnMuseumsDashboard;
 	private JLabel lblExhibition;
@@ -245,7 +252,7 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 			}
 		};
 
-		allExhibitionsListModel = new DefaultListModel<>();
+		allExhibitionsListModel = new KeyedListModel<>(Exhibition::getName);
 		listAllExh = new JList<>(allExhibitionsListModel);
 		listAllExh.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 		listAllExh.setName("listAllExh");
@@ -262,7 +269,7 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 		gbcScrollPaneMuseumExh.gridy = 4;
 		contentPane.add(scrollPaneMuseumExh, gbcScrollPaneMuseumExh);
 
-		museumsExhibitionListModel = new DefaultListModel<>();
+		museumsExhibitionListModel = new KeyedListModel<>(Exhibition::getName);
 		listMuseumExh = new JList<>(museumsExhibitionListModel);
 		listMuseumExh.setEnabled(false);
 		listMuseumExh.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -317,8 +324,8 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 		/*
 		 * Actions
 		 */
-		listAllExh.addListSelectionListener(e -> btnDelete.setEnabled(listAllExh.getSelectedIndex() != -1));
-		listAllExh.addListSelectionListener(e -> btnBook.setEnabled(listAllExh.getSelectedIndex() != -1));
+		listAllExh.addListSelectionListener(e -> btnDelete.setEnabled(listAllExh.getSelectedValue() != null));
+		listAllExh.addListSelectionListener(e -> btnBook.setEnabled(listAllExh.getSelectedValue() != null));
 		btnAddExhibition.addActionListener(e -> museumSwingController.saveExhibition(museumNameTextField.getText(),
 				new Exhibition(exhibitionTextField.getText(), Integer.parseInt(totalSeatsTextField.getText()))));
 
@@ -333,29 +340,48 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 
 	@Override
 	public void showAllExhibitions(List<Exhibition> exhibitions) {
-		allExhibitionsListModel.clear();
-		exhibitions.stream().forEach(allExhibitionsListModel::addElement);
+		allExhibitionsListModel.setElements(exhibitions);
+
+	}
 
+	/**
+	 * Display all Exhibitions through a model loading them while they are
+	 * displayed. Added and removed Exhibitions refresh the model from then on,
+	 * booked Exhibitions update their row only.
+	 * 
+	 * @param exhibitions The paged List Model for all Exhibitions.
+	 */
+	public void showAllExhibitionsPaged(PagedListModel<Exhibition> exhibitions) {
+		allExhibitionsPagedListModel = exhibitions;
+		listAllExh.setPrototypeCellValue(PROTOTYPE_EXHIBITION);
+		listAllExh.setModel(exhibitions);
 	}
 
 	@Override
 	public void showMuseumExhibitions(List<Exhibition> exhibitions) {
-		museumsExhibitionListModel.clear();
-		exhibitions.stream().forEach(museumsExhibitionListModel::addElement);
+		museumsExhibitionListModel.setElements(exhibitions);
 		lblError.setText(" ");
 
 	}
 
 	@Override
 	public void exhibitionAdded(Exhibition exhibition) {
-		allExhibitionsListModel.addElement(exhibition);
+		if (allExhibitionsPagedListModel != null) {
+			allExhibitionsPagedListModel.refresh();
+		} else {
+			allExhibitionsListModel.addElement(exhibition);
+		}
 		museumsExhibitionListModel.clear();
 		lblError.setText(" ");
 	}
 
 	@Override
 	public void exhibitionRemoved(Exhibition exhibition) {
-		allExhibitionsListModel.removeElement(exhibition);
+		if (allExhibitionsPagedListModel != null) {
+			allExhibitionsPagedListModel.refresh();
+		} else {
+			allExhibitionsListModel.removeElement(exhibition);
+		}
 		lblError.setText(" ");
 	}
 
@@ -367,18 +393,49 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 	}
 
 	@Override
-	public void exhibitionBooked() {
-		museumsExhibitionListModel.clear();
-		museumSwingController.getAllExhibitions();
+	public void exhibitionBooked(Exhibition exhibition) {
+		if (allExhibitionsPagedListModel != null) {
+			allExhibitionsPagedListModel.updateElement(exhibition);
+		} else {
+			allExhibitionsListModel.updateElement(exhibition);
+		}
+		museumsExhibitionListModel.updateElement(exhibition);
 		lblError.setText(" ");
 	}
 
+	/**
+	 * Apply the change to the lists, a new Exhibition is added to the Exhibitions
+	 * of a Museum only if they are shown.
+	 */
+	@Override
+	public void exhibitionChanged(ChangeType type, Exhibition exhibition) {
+		if (allExhibitionsPagedListModel != null) {
+			if (type == ChangeType.UPDATE) {
+				allExhibitionsPagedListModel.updateElement(exhibition);
+			} else {
+				allExhibitionsPagedListModel.refresh();
+			}
+		} else if (type == ChangeType.DELETE) {
+			allExhibitionsListModel.removeElement(exhibition);
+		} else {
+			allExhibitionsListModel.addElement(exhibition);
+		}
+		if (type == ChangeType.DELETE) {
+			museumsExhibitionListModel.removeElement(exhibition);
+		} else if (type == ChangeType.UPDATE) {
+			museumsExhibitionListModel.updateElement(exhibition);
+		} else if (museumsExhibitionListModel.getSize() > 0
+				&& exhibition.getMuseumId().equals(museumsExhibitionListModel.getElementAt(0).getMuseumId())) {
+			museumsExhibitionListModel.addElement(exhibition);
+		}
+	}
+
 	/**
 	 * Get the List model for all Exhibitions.
 	 * 
 	 * @return The List Model View for all Exhibitions.
 	 */
-	public DefaultListModel<Exhibition> getAllExhibitionsListModel() {
+	public KeyedListModel<Exhibition> getAllExhibitionsListModel() {
 		return allExhibitionsListModel;
 	}
 
@@ -387,7 +444,7 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 	 * 
 	 * @return The List model view for all Exhibitions of a selected Museum.
 	 */
-	public DefaultListModel<Exhibition> getMuseumsExhibitionListModel() {
+	public KeyedListModel<Exhibition> getMuseumsExhibitionListModel() {
 		return museumsExhibitionListModel;
 	}
 
@@ -407,6 +464,9 @@ public class ExhibitionSwingView extends JFrame implements ExhibitionView {
 	 * @return The formatted String with Exhibition info.
 	 */
 	private String getDisplayString(Exhibition exhibition) {
+		if (exhibition == null) {
+			return "Loading...";
+		}
 		return exhibition.getName() + " - Total Seats: " + exhibition.getTotalSeats() + " - Booked Seats: "
 				+ exhibition.getBookedSeats();
 	}
@@ -0,0 +1,142 @@
+package com.unifi.attsw.exam.presentation.view.swing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.swing.AbstractListModel;
+
+/**
+ *
+ * {@link javax.swing.ListModel} indexing its elements by a unique key, so that
+ * an element is added, updated or removed without scanning the list and only
+ * the affected rows are repainted. Elements sharing a key replace each other.
+ *
+ * @param <T> The type of the list elements.
+ */
+public class KeyedListModel<T> extends AbstractListModel<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient Function<T, ?> keyOf;
+
+	private final transient List<T> elements = new ArrayList<>();
+
+	/*
+	 * Position of each element in the list, by key
+	 */
+	private final transient Map<Object, Integer> indexes = new HashMap<>();
+
+	public KeyedListModel(Function<T, ?> keyOf) {
+		this.keyOf = keyOf;
+	}
+
+	@Override
+	public int getSize() {
+		return elements.size();
+	}
+
+	@Override
+	public T getElementAt(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Appends the element, or updates the element with the same key in place.
+	 *
+	 * @param element The element to add.
+	 */
+	public void addElement(T element) {
+		if (updateElement(element)) {
+			return;
+		}
+		int index = elements.size();
+		elements.add(element);
+		indexes.put(keyOf.apply(element), index);
+		fireIntervalAdded(this, index, index);
+	}
+
+	/**
+	 * Replaces the element with the same key and repaints its row, also when the
+	 * element is the same instance, which may have been changed in place.
+	 *
+	 * @param element The updated element.
+	 * @return {@code false} if no element has the same key.
+	 */
+	public boolean updateElement(T element) {
+		Integer index = indexes.get(keyOf.apply(element));
+		if (index == null) {
+			return false;
+		}
+		elements.set(index, element);
+		fireContentsChanged(this, index, index);
+		return true;
+	}
+
+	/**
+	 * Removes the element with the same key. Following elements are moved up.
+	 *
+	 * @param element The element to remove.
+	 * @return {@code false} if no element has the same key.
+	 */
+	public boolean removeElement(T element) {
+		Integer index = indexes.remove(keyOf.apply(element));
+		if (index == null) {
+			return false;
+		}
+		elements.remove((int) index);
+		for (int i = index; i < elements.size(); i++) {
+			indexes.put(keyOf.apply(elements.get(i)), i);
+		}
+		fireIntervalRemoved(this, index, index);
+		return true;
+	}
+
+	/**
+	 * Replaces the elements of the list with the given ones, repainting only the
+	 * rows which changed.
+	 *
+	 * @param newElements The elements to show, with unique keys.
+	 */
+	public void setElements(List<T> newElements) {
+		int oldSize = elements.size();
+		int newSize = newElements.size();
+		int firstChanged = -1;
+		int lastChanged = -1;
+		for (int i = 0; i < Math.min(oldSize, newSize); i++) {
+			T newElement = newElements.get(i);
+			T oldElement = elements.set(i, newElement);
+			if (!oldElement.equals(newElement)) {
+				firstChanged = firstChanged < 0 ? i : firstChanged;
+				lastChanged = i;
+			}
+		}
+		if (newSize < oldSize) {
+			elements.subList(newSize, oldSize).clear();
+		} else {
+			elements.addAll(newElements.subList(oldSize, newSize));
+		}
+		indexes.clear();
+		for (int i = 0; i < newSize; i++) {
+			indexes.put(keyOf.apply(elements.get(i)), i);
+		}
+		if (newSize < oldSize) {
+			fireIntervalRemoved(this, newSize, oldSize - 1);
+		} else if (newSize > oldSize) {
+			fireIntervalAdded(this, oldSize, newSize - 1);
+		}
+		if (firstChanged >= 0) {
+			fireContentsChanged(this, firstChanged, lastChanged);
+		}
+	}
+
+	/**
+	 * Removes all the elements.
+	 */
+	public void clear() {
+		setElements(List.of());
+	}
+
+}
@@ -8,6 +8,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.unifi.attsw.exam.core.view.MuseumView;
 import com.unifi.attsw.exam.presentation.controller.swing.MuseumSwingController;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Museum;
 
 import java.awt.GridBagLayout;
@@ -17,7 +18,6 @@ import javax.swing.JTextField;
 import java.awt.Insets;
 
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JList;
 import javax.swing.JScrollPane;
@@ -39,11 +39,18 @@ public class MuseumSwingView extends JFrame implements MuseumView {
 	private transient MuseumSwingController museumSwingController;
 
 	private static final long serialVersionUID = 1L;
+
+	/*
+	 * Sizes the cells of paged lists without rendering every element
+	 */
+	private static final Museum PROTOTYPE_MUSEUM = new Museum("A museum with a rather long name", 1000);
+
 	private JPanel contentPane;
 	private JTextField txtMuseum;
 	private JTextField txtRooms;
 	private JList<Museum> museumList;
-	private DefaultListModel<Museum> museumListModel;
+	private KeyedListModel<Museum> museumListModel;
+	private transient PagedListModel<Museum> museumPagedListModel;
 	private JLabel errorMessageLabel;
 	private JLabel lblMuseum;
 	private JLabel lblRooms;
@@ -149,7 +156,7 @@ public class MuseumSwingView extends JFrame implements MuseumView {
 		gbcScrollPane.gridy = 3;
 		contentPane.add(scrollPane, gbcScrollPane);
 
-		museumListModel = new DefaultListModel<>();
+		museumListModel = new KeyedListModel<>(Museum::getName);
 		museumList = new JList<>(museumListModel);
 		museumList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 		museumList.setName("museumList");
@@ -201,7 +208,7 @@ public class MuseumSwingView extends JFrame implements MuseumView {
 			museumSwingController.openExhibitionsDashboard();
 		});
 		btnDeleteSelected.addActionListener(e -> museumSwingController.deleteMuseum(museumList.getSelectedValue()));
-		museumList.addListSelectionListener(e -> btnDeleteSelected.setEnabled(museumList.getSelectedIndex() != -1));
+		museumList.addListSelectionListener(e -> btnDeleteSelected.setEnabled(museumList.getSelectedValue() != null));
 		btnAdd.addActionListener(e -> museumSwingController
 				.saveMuseum(new Museum(txtMuseum.getText(), Integer.parseInt(txtRooms.getText()))));
 		btnFindAll.addActionListener(e -> museumSwingController.getAllMuseums());
@@ -210,8 +217,7 @@ public class MuseumSwingView extends JFrame implements MuseumView {
 
 	@Override
 	public void showAllMuseums(List<Museum> museums) {
-		museumListModel.clear();
-		museums.stream().forEach(museumListModel::addElement);
+		museumListModel.setElements(museums);
 	}
 
 	@Override
@@ -221,17 +227,52 @@ public class MuseumSwingView extends JFrame implements MuseumView {
 
 	}
 
+	/**
+	 * Display all Museums through a model loading them while they are displayed.
+	 * Added and removed Museums refresh the model from then on.
+	 * 
+	 * @param museums The paged List Model for all Museums.
+	 */
+	public void showAllMuseumsPaged(PagedListModel<Museum> museums) {
+		museumPagedListModel = museums;
+		museumList.setPrototypeCellValue(PROTOTYPE_MUSEUM);
+		museumList.setModel(museums);
+	}
+
 	@Override
 	public void museumAdded(Museum museum) {
-		museumListModel.addElement(museum);
+		if (museumPagedListModel != null) {
+			museumPagedListModel.refresh();
+		} else {
+			museumListModel.addElement(museum);
+		}
 		errorMessageLabel.setText(" ");
 
 	}
 
 	@Override
 	public void museumRemoved(Museum museum) {
-		museumListModel.removeElement(museum);
+		if (museumPagedListModel != null) {
+			museumPagedListModel.refresh();
+		} else {
+			museumListModel.removeElement(museum);
+		}
+
+	}
 
+	@Override
+	public void museumChanged(ChangeType type, Museum museum) {
+		if (museumPagedListModel != null) {
+			if (type == ChangeType.UPDATE) {
+				museumPagedListModel.updateElement(museum);
+			} else {
+				museumPagedListModel.refresh();
+			}
+		} else if (type == ChangeType.DELETE) {
+			museumListModel.removeElement(museum);
+		} else {
+			museumListModel.addElement(museum);
+		}
 	}
 
 	/**
@@ -239,7 +280,7 @@ public class MuseumSwingView extends JFrame implements MuseumView {
 	 * 
 	 * @return The List Model View for all Museums.
 	 */
-	public DefaultListModel<Museum> getMuseumListModel() {
+	public KeyedListModel<Museum> getMuseumListModel() {
 		return museumListModel;
 	}
 
@@ -250,6 +291,9 @@ public class MuseumSwingView extends JFrame implements MuseumView {
 	 * @return The formatted String with Museum info.
 	 */
 	private String getDisplayString(Museum museum) {
+		if (museum == null) {
+			return "Loading...";
+		}
 		return museum.getName() + " - Total Rooms: " + museum.getTotalRooms() + " - Occupied Rooms: "
 				+ museum.getOccupiedRooms();
 	}
@@ -0,0 +1,254 @@
+package com.unifi.attsw.exam.presentation.view.swing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import javax.swing.AbstractListModel;
+
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ *
+ * {@link javax.swing.ListModel} loading its elements a page at a time, as they
+ * are displayed, from a keyset-paged query. At most {@code maxCachedPages}
+ * pages are kept in memory, together with the key of the last element of each
+ * page met so far. Elements of a page not loaded yet are {@code null} until
+ * the page is delivered.
+ *
+ * The model grows a page at a time while the user scrolls down, its size is
+ * exact once the last page has been loaded. It must be used from the Event
+ * Dispatch Thread only, pages are loaded on {@code loadExecutor} and delivered
+ * through {@code viewExecutor}.
+ *
+ * @param <T> The type of the list elements.
+ */
+public class PagedListModel<T> extends AbstractListModel<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Loads the page following the given key.
+	 *
+	 * @param <T> The type of the list elements.
+	 */
+	@FunctionalInterface
+	public interface PageLoader<T> {
+		/**
+		 * @param lastKey  The key of the last element of the previous page,
+		 *                 {@code null} for the first page.
+		 * @param pageSize The maximum number of elements to load.
+		 * @return The elements following {@code lastKey}, ordered by key.
+		 * @throws RepositoryException If the page cannot be loaded.
+		 */
+		List<T> loadPage(String lastKey, int pageSize) throws RepositoryException;
+	}
+
+	private final transient PageLoader<T> pageLoader;
+	private final transient Function<T, String> keyOf;
+	private final int pageSize;
+	private final transient Executor loadExecutor;
+	private final transient Executor viewExecutor;
+	private final transient Runnable onError;
+
+	/*
+	 * Cached pages, least recently used first
+	 */
+	private final transient Map<Integer, List<T>> pages;
+
+	/*
+	 * Key of the last element of each full page met so far
+	 */
+	private final transient List<String> pageEnds = new ArrayList<>();
+
+	/*
+	 * Position of the elements of the cached pages, by key
+	 */
+	private final transient Map<String, Integer> cachedIndexes = new HashMap<>();
+
+	/*
+	 * Size of the last page, -1 until it is loaded
+	 */
+	private int lastPageSize = -1;
+
+	private final transient Set<Integer> pendingPages = new HashSet<>();
+
+	/*
+	 * Incremented by refresh, pages requested before are discarded
+	 */
+	private long generation;
+
+	public PagedListModel(PageLoader<T> pageLoader, Function<T, String> keyOf, int pageSize, int maxCachedPages,
+			Executor loadExecutor, Executor viewExecutor, Runnable onError) {
+		if (pageSize <= 0 || maxCachedPages <= 0) {
+			throw new IllegalArgumentException("Page size and cached pages must be positive.");
+		}
+		this.pageLoader = pageLoader;
+		this.keyOf = keyOf;
+		this.pageSize = pageSize;
+		this.loadExecutor = loadExecutor;
+		this.viewExecutor = viewExecutor;
+		this.onError = onError;
+		this.pages = new LinkedHashMap<Integer, List<T>>(maxCachedPages, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+				if (size() > maxCachedPages) {
+					forgetPage(eldest.getKey(), eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	@Override
+	public int getSize() {
+		if (lastPageSize >= 0) {
+			return pageEnds.size() * pageSize + lastPageSize;
+		}
+		return (pageEnds.size() + 1) * pageSize;
+	}
+
+	@Override
+	public T getElementAt(int index) {
+		int page = index / pageSize;
+		List<T> elements = pages.get(page);
+		if (elements == null) {
+			requestPage(page);
+			elements = pages.get(page);
+		}
+		if (elements == null || index % pageSize >= elements.size()) {
+			return null;
+		}
+		return elements.get(index % pageSize);
+	}
+
+	/**
+	 * Replaces the cached element with the same key, repainting its row only.
+	 * Elements not cached are loaded up to date when displayed.
+	 *
+	 * @param element The updated element.
+	 * @return {@code false} if no cached element has the same key.
+	 */
+	public boolean updateElement(T element) {
+		Integer index = cachedIndexes.get(keyOf.apply(element));
+		if (index == null) {
+			return false;
+		}
+		pages.get(index / pageSize).set(index % pageSize, element);
+		fireContentsChanged(this, index, index);
+		return true;
+	}
+
+	/**
+	 * Drops every cached page, so that displayed elements are loaded again. The
+	 * size and the page boundaries are kept until pages are reloaded, so the
+	 * list does not jump back to its top. Fires a single change event.
+	 */
+	public void refresh() {
+		generation++;
+		pages.clear();
+		cachedIndexes.clear();
+		pendingPages.clear();
+		int size = getSize();
+		if (size > 0) {
+			fireContentsChanged(this, 0, size - 1);
+		} else {
+			requestPage(0);
+		}
+	}
+
+	private void requestPage(int page) {
+		if (page > pageEnds.size() || !pendingPages.add(page)) {
+			return;
+		}
+		long requestGeneration = generation;
+		String lastKey = page == 0 ? null : pageEnds.get(page - 1);
+		loadExecutor.execute(() -> {
+			try {
+				List<T> elements = pageLoader.loadPage(lastKey, pageSize);
+				viewExecutor.execute(() -> pageLoaded(requestGeneration, page, lastKey, elements));
+			} catch (RepositoryException | RuntimeException ex) {
+				viewExecutor.execute(() -> pageFailed(requestGeneration, page));
+			}
+		});
+	}
+
+	private void pageLoaded(long requestGeneration, int page, String lastKey, List<T> elements) {
+		if (requestGeneration != generation || !pendingPages.remove(page)) {
+			return;
+		}
+		int oldSize = getSize();
+		int pageStart = page * pageSize;
+		if (page > pageEnds.size() || (page > 0 && !pageEnds.get(page - 1).equals(lastKey))) {
+			// the previous page moved meanwhile, this one is loaded again when displayed
+			if (pageStart < oldSize) {
+				fireContentsChanged(this, pageStart, oldSize - 1);
+			}
+			return;
+		}
+		List<T> oldElements = pages.put(page, new ArrayList<>(elements));
+		if (oldElements != null) {
+			forgetPage(page, oldElements);
+		}
+		for (int i = 0; i < elements.size(); i++) {
+			cachedIndexes.put(keyOf.apply(elements.get(i)), pageStart + i);
+		}
+		boolean nextPagesMoved = false;
+		if (elements.size() == pageSize) {
+			String pageEnd = keyOf.apply(elements.get(pageSize - 1));
+			if (page == pageEnds.size()) {
+				pageEnds.add(pageEnd);
+				lastPageSize = -1;
+			} else if (!pageEnds.get(page).equals(pageEnd)) {
+				pageEnds.set(page, pageEnd);
+				nextPagesMoved = true;
+			}
+		} else {
+			pageEnds.subList(page, pageEnds.size()).clear();
+			lastPageSize = elements.size();
+			nextPagesMoved = true;
+		}
+		if (nextPagesMoved) {
+			pages.entrySet().removeIf(cachedPage -> {
+				if (cachedPage.getKey() > page) {
+					forgetPage(cachedPage.getKey(), cachedPage.getValue());
+					return true;
+				}
+				return false;
+			});
+			pendingPages.removeIf(pendingPage -> pendingPage > page);
+		}
+		int newSize = getSize();
+		if (newSize > oldSize) {
+			fireIntervalAdded(this, oldSize, newSize - 1);
+		} else if (newSize < oldSize) {
+			fireIntervalRemoved(this, newSize, oldSize - 1);
+		}
+		int changedEnd = nextPagesMoved ? newSize - 1 : pageStart + elements.size() - 1;
+		if (changedEnd >= pageStart) {
+			fireContentsChanged(this, pageStart, changedEnd);
+		}
+	}
+
+	private void forgetPage(int page, List<T> elements) {
+		for (int i = 0; i < elements.size(); i++) {
+			cachedIndexes.remove(keyOf.apply(elements.get(i)), page * pageSize + i);
+		}
+	}
+
+	private void pageFailed(long requestGeneration, int page) {
+		if (requestGeneration == generation && pendingPages.remove(page)) {
+			onError.run();
+		}
+	}
+
+}
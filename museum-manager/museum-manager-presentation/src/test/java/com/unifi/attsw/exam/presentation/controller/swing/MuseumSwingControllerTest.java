@@ -6,20 +6,30 @@ import org.junit.Before;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
 
 import com.unifi.attsw.exam.core.service.MuseumManagerService;
 import com.unifi.attsw.exam.core.service.exception.MuseumManagerServiceException;
 import com.unifi.attsw.exam.presentation.view.swing.ExhibitionSwingView;
 import com.unifi.attsw.exam.presentation.view.swing.MuseumSwingView;
+import com.unifi.attsw.exam.presentation.view.swing.PagedListModel;
+import com.unifi.attsw.exam.repository.changefeed.ChangeFeed;
+import com.unifi.attsw.exam.repository.changefeed.ChangeListener;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 import com.unifi.attsw.exam.repository.model.Museum;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
@@ -264,11 +274,13 @@ public class MuseumSwingControllerTest {
 	@Test
 	public void testBookExhibition() {
 		Exhibition exhibition = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+		when(museumService.bookExhibitionSeat(exhibition)).thenReturn(NUM_CONSTANT1 - 1);
 		museumSwingController.bookExhibitionSeat(exhibition);
 
-		inOrder.verify(museumService).bookExhibitionSeat(exhibition);
-		inOrder.verify(exhibitionView).exhibitionBooked();
+		inOrder.verify(museumService).bookExhibitionSeat(any());
+		inOrder.verify(exhibitionView).exhibitionBooked(exhibition);
 		verifyNoMoreInteractions(museumService, exhibitionView);
+		assertThat(exhibition.getBookedSeats()).isEqualTo(1);
 	}
 
 	@Test
@@ -285,4 +297,280 @@ public class MuseumSwingControllerTest {
 		inOrder.verify(museumView).setVisible(false);
 	}
 
+	@Test
+	public void testAsyncServiceCallsRunOnServiceExecutorAndUpdateViewsOnViewExecutor() throws RepositoryException {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		List<Museum> museums = asList(new Museum(MUSEUM1_TEST, NUM_CONSTANT1));
+		when(museumService.getAllMuseums()).thenReturn(museums);
+
+		museumSwingController.getAllMuseums();
+		verifyNoInteractions(museumService, museumView);
+
+		serviceExecutor.runAll();
+		verify(museumService).getAllMuseums();
+		verifyNoInteractions(museumView);
+
+		viewExecutor.runAll();
+		verify(museumView).showAllMuseums(museums);
+	}
+
+	@Test
+	public void testAsyncErrorsAreShownOnViewExecutor() throws RepositoryException {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		Museum museum = new Museum(MUSEUM1_TEST, NUM_CONSTANT1);
+		doThrow(MuseumManagerServiceException.class).when(museumService).deleteMuseum(museum);
+
+		museumSwingController.deleteMuseum(museum);
+		serviceExecutor.runAll();
+		verifyNoInteractions(museumView);
+
+		viewExecutor.runAll();
+		verify(museumView).showError("Impossible to delete Museum: ", museum);
+	}
+
+	@Test
+	public void testAsyncUnexpectedErrorsAreShownOnViewExecutor() {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		Museum museum = new Museum(MUSEUM1_TEST, NUM_CONSTANT1);
+		doThrow(IllegalStateException.class).when(museumService).deleteMuseum(museum);
+
+		museumSwingController.deleteMuseum(museum);
+		serviceExecutor.runAll();
+		verifyNoInteractions(museumView);
+
+		viewExecutor.runAll();
+		verify(museumView).showError("Impossible to delete Museum: ", museum);
+	}
+
+	@Test
+	public void testAsyncSupersededReadIsSkippedWhenStillQueued() throws RepositoryException {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		List<Exhibition> exhibitions = asList(new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1));
+		when(museumService.getAllExhibitions()).thenReturn(exhibitions);
+
+		museumSwingController.getAllExhibitions();
+		museumSwingController.getAllExhibitions();
+		serviceExecutor.runAll();
+		viewExecutor.runAll();
+
+		verify(museumService, times(1)).getAllExhibitions();
+		verify(exhibitionView, times(1)).showAllExhibitions(exhibitions);
+	}
+
+	@Test
+	public void testAsyncSupersededReadResultIsDiscarded() throws RepositoryException {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		List<Museum> oldMuseums = asList(new Museum(MUSEUM1_TEST, NUM_CONSTANT1));
+		List<Museum> newMuseums = asList();
+		when(museumService.getAllMuseums()).thenReturn(oldMuseums).thenReturn(newMuseums);
+
+		museumSwingController.getAllMuseums();
+		serviceExecutor.runAll();
+		museumSwingController.getAllMuseums();
+		serviceExecutor.runAll();
+		viewExecutor.runAll();
+
+		verify(museumView, never()).showAllMuseums(oldMuseums);
+		verify(museumView).showAllMuseums(newMuseums);
+	}
+
+	@Test
+	public void testAsyncReadsOfDifferentKindsDoNotSupersedeEachOther() throws RepositoryException {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		List<Museum> museums = asList(new Museum(MUSEUM1_TEST, NUM_CONSTANT1));
+		List<Exhibition> exhibitions = asList(new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1));
+		when(museumService.getAllMuseums()).thenReturn(museums);
+		when(museumService.getAllExhibitions()).thenReturn(exhibitions);
+
+		museumSwingController.getAllMuseums();
+		museumSwingController.getAllExhibitions();
+		serviceExecutor.runAll();
+		viewExecutor.runAll();
+
+		verify(museumView).showAllMuseums(museums);
+		verify(exhibitionView).showAllExhibitions(exhibitions);
+	}
+
+	@Test
+	public void testAsyncWritesAreNeverSkipped() {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		Exhibition exhibition = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+
+		museumSwingController.bookExhibitionSeat(exhibition);
+		museumSwingController.bookExhibitionSeat(exhibition);
+		serviceExecutor.runAll();
+		viewExecutor.runAll();
+
+		verify(museumService, times(2)).bookExhibitionSeat(any());
+		verify(exhibitionView, times(2)).exhibitionBooked(exhibition);
+	}
+
+	@Test
+	public void testAsyncBookingChangesTheShownExhibitionOnViewExecutorOnly() {
+		QueueExecutor serviceExecutor = new QueueExecutor();
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(serviceExecutor, viewExecutor);
+		Exhibition exhibition = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+		when(museumService.bookExhibitionSeat(exhibition)).thenAnswer(invocation -> {
+			invocation.<Exhibition>getArgument(0).setBookedSeats(1);
+			return NUM_CONSTANT1 - 1;
+		});
+
+		museumSwingController.bookExhibitionSeat(exhibition);
+		serviceExecutor.runAll();
+		ArgumentCaptor<Exhibition> booking = ArgumentCaptor.forClass(Exhibition.class);
+		verify(museumService).bookExhibitionSeat(booking.capture());
+		assertThat(booking.getValue()).isNotSameAs(exhibition);
+		assertThat(exhibition.getBookedSeats()).isZero();
+
+		viewExecutor.runAll();
+		assertThat(exhibition.getBookedSeats()).isEqualTo(1);
+		verify(exhibitionView).exhibitionBooked(exhibition);
+	}
+
+	@Test
+	public void testPagedShowAllMuseumsLoadsPagesOnDemand() throws RepositoryException {
+		museumSwingController.setPaging(1, NUM_CONSTANT1);
+		Museum museum = new Museum(MUSEUM1_TEST, NUM_CONSTANT1);
+		when(museumService.getMuseumsPage(null, 1)).thenReturn(asList(museum));
+
+		museumSwingController.getAllMuseums();
+		PagedListModel<Museum> model = captureMuseumsPagedListModel();
+		verifyNoInteractions(museumService);
+
+		Museum firstMuseum = model.getElementAt(0);
+		assertThat(firstMuseum).isEqualTo(museum);
+		verify(museumService).getMuseumsPage(null, 1);
+		verify(museumService, never()).getAllMuseums();
+	}
+
+	@Test
+	public void testPagedShowAllMuseumsAgainRefreshesTheShownModel() throws RepositoryException {
+		museumSwingController.setPaging(1, NUM_CONSTANT1);
+		Museum museum = new Museum(MUSEUM1_TEST, NUM_CONSTANT1);
+		when(museumService.getMuseumsPage(null, 1)).thenReturn(asList(museum));
+		museumSwingController.getAllMuseums();
+		PagedListModel<Museum> model = captureMuseumsPagedListModel();
+		model.getElementAt(0);
+
+		museumSwingController.getAllMuseums();
+
+		verify(museumView, times(1)).showAllMuseumsPaged(any());
+		model.getElementAt(0);
+		verify(museumService, times(2)).getMuseumsPage(null, 1);
+	}
+
+	@Test
+	public void testPagedShowAllMuseumsError() throws RepositoryException {
+		museumSwingController.setPaging(1, NUM_CONSTANT1);
+		doThrow(RepositoryException.class).when(museumService).getMuseumsPage(null, 1);
+
+		museumSwingController.getAllMuseums();
+		captureMuseumsPagedListModel().getElementAt(0);
+
+		verify(museumView).showError("Impossibile to get museums.", null);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testPagedShowAllExhibitionsLoadsPagesOnDemand() throws RepositoryException {
+		museumSwingController.setPaging(1, NUM_CONSTANT1);
+		Exhibition exhibition = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+		when(museumService.getExhibitionsPage(null, 1)).thenReturn(asList(exhibition));
+		ArgumentCaptor<PagedListModel<Exhibition>> modelCaptor = ArgumentCaptor.forClass(PagedListModel.class);
+
+		museumSwingController.getAllExhibitions();
+		verify(exhibitionView).showAllExhibitionsPaged(modelCaptor.capture());
+
+		Exhibition firstExhibition = modelCaptor.getValue().getElementAt(0);
+		assertThat(firstExhibition).isEqualTo(exhibition);
+		verify(museumService, never()).getAllExhibitions();
+	}
+
+	@Test
+	public void testSetPagingWithNotPositiveSizesShouldThrow() {
+		assertThatThrownBy(() -> museumSwingController.setPaging(0, NUM_CONSTANT1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> museumSwingController.setPaging(NUM_CONSTANT1, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testPublishedChangesAreShownOnViewExecutor() {
+		QueueExecutor viewExecutor = new QueueExecutor();
+		museumSwingController.setExecutors(Runnable::run, viewExecutor);
+		ChangeListener listener = listenToChangeFeed();
+		Museum museum = new Museum(MUSEUM1_TEST, NUM_CONSTANT1);
+		Exhibition exhibition = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+
+		listener.museumChanged(ChangeType.INSERT, museum);
+		listener.exhibitionChanged(ChangeType.DELETE, exhibition);
+		verifyNoInteractions(museumView, exhibitionView);
+
+		viewExecutor.runAll();
+		inOrder.verify(museumView).museumChanged(ChangeType.INSERT, museum);
+		inOrder.verify(exhibitionView).exhibitionChanged(ChangeType.DELETE, exhibition);
+	}
+
+	@Test
+	public void testLostChangesReloadAllMuseumsAndExhibitions() throws RepositoryException {
+		List<Museum> museums = asList(new Museum(MUSEUM1_TEST, NUM_CONSTANT1));
+		List<Exhibition> exhibitions = asList(new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1));
+		when(museumService.getAllMuseums()).thenReturn(museums);
+		when(museumService.getAllExhibitions()).thenReturn(exhibitions);
+
+		listenToChangeFeed().changesLost();
+
+		verify(museumView).showAllMuseums(museums);
+		verify(exhibitionView).showAllExhibitions(exhibitions);
+	}
+
+	private ChangeListener listenToChangeFeed() {
+		ChangeFeed changeFeed = mock(ChangeFeed.class);
+		museumSwingController.listenTo(changeFeed);
+		ArgumentCaptor<ChangeListener> listenerCaptor = ArgumentCaptor.forClass(ChangeListener.class);
+		verify(changeFeed).addChangeListener(listenerCaptor.capture());
+		return listenerCaptor.getValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private PagedListModel<Museum> captureMuseumsPagedListModel() {
+		ArgumentCaptor<PagedListModel<Museum>> modelCaptor = ArgumentCaptor.forClass(PagedListModel.class);
+		verify(museumView).showAllMuseumsPaged(modelCaptor.capture());
+		return modelCaptor.getValue();
+	}
+
+	/*
+	 * Executor running its tasks only when asked to
+	 */
+	private static class QueueExecutor implements Executor {
+
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		void runAll() {
+			while (!tasks.isEmpty()) {
+				tasks.poll().run();
+			}
+		}
+	}
+
 }
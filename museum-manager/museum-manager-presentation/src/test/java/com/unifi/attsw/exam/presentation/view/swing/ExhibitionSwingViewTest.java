@@ -3,8 +3,10 @@ package com.unifi.attsw.exam.presentation.view.swing;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import java.util.Arrays;
+import java.util.UUID;
 
 import org.assertj.swing.core.matcher.JButtonMatcher;
 import org.assertj.swing.core.matcher.JLabelMatcher;
@@ -22,6 +24,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.unifi.attsw.exam.presentation.controller.swing.MuseumSwingController;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Exhibition;
 
 @RunWith(GUITestRunner.class)
@@ -192,6 +195,21 @@ public class ExhibitionSwingViewTest extends AssertJSwingJUnitTestCase {
 
 	}
 
+	@Test
+	public void testShowAllExhibitionsPagedShowsLoadedPages() {
+		JListFixture listAllExhibitions = window.list("listAllExh");
+		Exhibition exhibition1 = new Exhibition(EXHIBITION1_TEST, 10);
+		Exhibition exhibition2 = new Exhibition(EXHIBITION2_TEST, 10);
+		PagedListModel<Exhibition> pagedListModel = new PagedListModel<>(
+				(lastKey, pageSize) -> Arrays.asList(exhibition1, exhibition2), Exhibition::getName, 10, 1,
+				Runnable::run, Runnable::run, () -> {
+				});
+		GuiActionRunner.execute(() -> exhibitionSwingView.showAllExhibitionsPaged(pagedListModel));
+		String[] listContents = listAllExhibitions.contents();
+		assertThat(listContents).containsExactly("exhibition1_test - Total Seats: 10 - Booked Seats: 0",
+				"exhibition2_test - Total Seats: 10 - Booked Seats: 0");
+	}
+
 	@Test
 	public void testShowMuseumExhibitions() {
 		JListFixture listMuseumExhibitions = window.list("listMuseumExh");
@@ -243,6 +261,57 @@ public class ExhibitionSwingViewTest extends AssertJSwingJUnitTestCase {
 		assertThat(listMuseumExhibitionContents).isEmpty();
 	}
 
+	@Test
+	public void testExhibitionBookedShouldUpdateTheExhibitionRowsInPlace() {
+		Exhibition exhibition1 = new Exhibition(EXHIBITION1_TEST, 10);
+		Exhibition exhibition2 = new Exhibition(EXHIBITION2_TEST, 10);
+		GuiActionRunner.execute(() -> {
+			exhibitionSwingView.getAllExhibitionsListModel().addElement(exhibition1);
+			exhibitionSwingView.getAllExhibitionsListModel().addElement(exhibition2);
+			exhibitionSwingView.getMuseumsExhibitionListModel().addElement(exhibition2);
+		});
+		Exhibition bookedExhibition = new Exhibition(EXHIBITION2_TEST, 10);
+		bookedExhibition.setBookedSeats(1);
+
+		GuiActionRunner.execute(() -> exhibitionSwingView.exhibitionBooked(bookedExhibition));
+
+		String[] listAllExhibitionsContents = window.list("listAllExh").contents();
+		String[] listMuseumExhibitionsContents = window.list("listMuseumExh").contents();
+		assertThat(listAllExhibitionsContents).containsExactly("exhibition1_test - Total Seats: 10 - Booked Seats: 0",
+				"exhibition2_test - Total Seats: 10 - Booked Seats: 1");
+		assertThat(listMuseumExhibitionsContents).containsExactly("exhibition2_test - Total Seats: 10 - Booked Seats: 1");
+		window.label("errorLabel").requireText(" ");
+		verifyNoInteractions(museumSwingController);
+	}
+
+	@Test
+	public void testExhibitionChangedShouldAddNewExhibitionsOnlyToTheShownMuseum() {
+		UUID museumId = UUID.randomUUID();
+		Exhibition exhibition1 = new Exhibition(EXHIBITION1_TEST, 10);
+		exhibition1.setMuseumId(museumId);
+		GuiActionRunner.execute(() -> {
+			exhibitionSwingView.getAllExhibitionsListModel().addElement(exhibition1);
+			exhibitionSwingView.getMuseumsExhibitionListModel().addElement(exhibition1);
+		});
+		Exhibition sameMuseumExhibition = new Exhibition(EXHIBITION2_TEST, 10);
+		sameMuseumExhibition.setMuseumId(museumId);
+		Exhibition otherMuseumExhibition = new Exhibition("exhibition3_test", 10);
+		otherMuseumExhibition.setMuseumId(UUID.randomUUID());
+
+		GuiActionRunner.execute(() -> {
+			exhibitionSwingView.exhibitionChanged(ChangeType.INSERT, sameMuseumExhibition);
+			exhibitionSwingView.exhibitionChanged(ChangeType.INSERT, otherMuseumExhibition);
+			exhibitionSwingView.exhibitionChanged(ChangeType.DELETE, exhibition1);
+		});
+
+		String[] listAllExhibitionsContents = window.list("listAllExh").contents();
+		String[] listMuseumExhibitionsContents = window.list("listMuseumExh").contents();
+		assertThat(listAllExhibitionsContents).containsExactly("exhibition2_test - Total Seats: 10 - Booked Seats: 0",
+				"exhibition3_test - Total Seats: 10 - Booked Seats: 0");
+		assertThat(listMuseumExhibitionsContents).containsExactly("exhibition2_test - Total Seats: 10 - Booked Seats: 0");
+		verifyNoInteractions(museumSwingController);
+	}
+
 	@Test
 	public void testFindAllButtonShouldDelegateToControllerGetExhibitions() {
 		window.button(JButtonMatcher.withText("Find all")).click();
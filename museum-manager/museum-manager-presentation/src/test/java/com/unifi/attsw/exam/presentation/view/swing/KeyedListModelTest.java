@@ -0,0 +1,195 @@
+package com.unifi.attsw.exam.presentation.view.swing;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+
+public class KeyedListModelTest {
+
+	private static final String EXHIBITION1_TEST = "exhibition1_test";
+	private static final String EXHIBITION2_TEST = "exhibition2_test";
+	private static final String EXHIBITION3_TEST = "exhibition3_test";
+
+	private static final int NUM_CONSTANT1 = 10;
+
+	private KeyedListModel<Exhibition> model;
+	private List<ListDataEvent> events;
+
+	private Exhibition exhibition1;
+	private Exhibition exhibition2;
+	private Exhibition exhibition3;
+
+	@Before
+	public void setUp() {
+		model = new KeyedListModel<>(Exhibition::getName);
+		events = new ArrayList<>();
+		exhibition1 = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+		exhibition2 = new Exhibition(EXHIBITION2_TEST, NUM_CONSTANT1);
+		exhibition3 = new Exhibition(EXHIBITION3_TEST, NUM_CONSTANT1);
+		model.setElements(List.of(exhibition1, exhibition2, exhibition3));
+		model.addListDataListener(new RecordingListener());
+	}
+
+	@Test
+	public void testAddElementAppendsIt() {
+		Exhibition newExhibition = new Exhibition("exhibition4_test", NUM_CONSTANT1);
+
+		model.addElement(newExhibition);
+
+		assertThat(elements()).containsExactly(exhibition1, exhibition2, exhibition3, newExhibition);
+		assertEvent(ListDataEvent.INTERVAL_ADDED, 3, 3);
+	}
+
+	@Test
+	public void testAddElementWithExistingKeyUpdatesIt() {
+		Exhibition bookedExhibition = bookedCopyOf(exhibition2);
+
+		model.addElement(bookedExhibition);
+
+		assertThat(elements()).containsExactly(exhibition1, bookedExhibition, exhibition3);
+		assertEvent(ListDataEvent.CONTENTS_CHANGED, 1, 1);
+	}
+
+	@Test
+	public void testUpdateElementRepaintsItsRowOnly() {
+		Exhibition bookedExhibition = bookedCopyOf(exhibition3);
+
+		boolean updated = model.updateElement(bookedExhibition);
+
+		assertThat(updated).isTrue();
+		assertThat(model.getElementAt(2)).isSameAs(bookedExhibition);
+		assertEvent(ListDataEvent.CONTENTS_CHANGED, 2, 2);
+	}
+
+	@Test
+	public void testUpdateElementWithTheSameInstanceChangedInPlaceRepaintsItsRow() {
+		exhibition2.setBookedSeats(exhibition2.getBookedSeats() + 1);
+
+		boolean updated = model.updateElement(exhibition2);
+
+		assertThat(updated).isTrue();
+		assertThat(model.getElementAt(1)).isSameAs(exhibition2);
+		assertEvent(ListDataEvent.CONTENTS_CHANGED, 1, 1);
+	}
+
+	@Test
+	public void testUpdateElementWhichIsNotInTheList() {
+		boolean updated = model.updateElement(new Exhibition("exhibition4_test", NUM_CONSTANT1));
+
+		assertThat(updated).isFalse();
+		assertThat(elements()).containsExactly(exhibition1, exhibition2, exhibition3);
+		assertThat(events).isEmpty();
+	}
+
+	@Test
+	public void testRemoveElementByKey() {
+		boolean removed = model.removeElement(bookedCopyOf(exhibition1));
+
+		assertThat(removed).isTrue();
+		assertThat(elements()).containsExactly(exhibition2, exhibition3);
+		assertEvent(ListDataEvent.INTERVAL_REMOVED, 0, 0);
+
+		model.updateElement(bookedCopyOf(exhibition3));
+		assertThat(model.getElementAt(1).getBookedSeats()).isEqualTo(1);
+	}
+
+	@Test
+	public void testRemoveElementWhichIsNotInTheList() {
+		boolean removed = model.removeElement(new Exhibition("exhibition4_test", NUM_CONSTANT1));
+
+		assertThat(removed).isFalse();
+		assertThat(events).isEmpty();
+	}
+
+	@Test
+	public void testSetElementsRepaintsChangedRowsOnly() {
+		Exhibition bookedExhibition = bookedCopyOf(exhibition2);
+
+		model.setElements(List.of(new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1), bookedExhibition,
+				new Exhibition(EXHIBITION3_TEST, NUM_CONSTANT1)));
+
+		assertEvent(ListDataEvent.CONTENTS_CHANGED, 1, 1);
+	}
+
+	@Test
+	public void testSetElementsGrowingTheList() {
+		Exhibition newExhibition = new Exhibition("exhibition4_test", NUM_CONSTANT1);
+
+		model.setElements(List.of(exhibition1, exhibition2, exhibition3, newExhibition));
+
+		assertThat(elements()).containsExactly(exhibition1, exhibition2, exhibition3, newExhibition);
+		assertEvent(ListDataEvent.INTERVAL_ADDED, 3, 3);
+	}
+
+	@Test
+	public void testSetElementsShrinkingTheList() {
+		model.setElements(List.of(exhibition2));
+
+		assertThat(elements()).containsExactly(exhibition2);
+		assertThat(events).extracting(ListDataEvent::getType).containsExactly(ListDataEvent.INTERVAL_REMOVED,
+				ListDataEvent.CONTENTS_CHANGED);
+		model.removeElement(exhibition2);
+		assertThat(elements()).isEmpty();
+	}
+
+	@Test
+	public void testClear() {
+		model.clear();
+
+		assertThat(model.getSize()).isZero();
+		assertEvent(ListDataEvent.INTERVAL_REMOVED, 0, 2);
+	}
+
+	/*
+	 * Utility methods
+	 */
+
+	private List<Exhibition> elements() {
+		List<Exhibition> elements = new ArrayList<>();
+		for (int i = 0; i < model.getSize(); i++) {
+			elements.add(model.getElementAt(i));
+		}
+		return elements;
+	}
+
+	private Exhibition bookedCopyOf(Exhibition exhibition) {
+		Exhibition bookedExhibition = new Exhibition(exhibition.getName(), exhibition.getTotalSeats());
+		bookedExhibition.setBookedSeats(exhibition.getBookedSeats() + 1);
+		return bookedExhibition;
+	}
+
+	private void assertEvent(int type, int index0, int index1) {
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getType()).isEqualTo(type);
+		assertThat(events.get(0).getIndex0()).isEqualTo(index0);
+		assertThat(events.get(0).getIndex1()).isEqualTo(index1);
+	}
+
+	private class RecordingListener implements ListDataListener {
+
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			events.add(e);
+		}
+
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			events.add(e);
+		}
+
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			events.add(e);
+		}
+	}
+
+}
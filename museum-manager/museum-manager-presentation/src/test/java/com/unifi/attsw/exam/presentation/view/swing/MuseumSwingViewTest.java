@@ -5,8 +5,6 @@ import static org.mockito.Mockito.verify;
 
 import java.util.Arrays;
 
-import javax.swing.DefaultListModel;
-
 import org.assertj.swing.core.matcher.JButtonMatcher;
 import org.assertj.swing.core.matcher.JLabelMatcher;
 import org.assertj.swing.edt.GuiActionRunner;
@@ -20,6 +18,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.unifi.attsw.exam.presentation.controller.swing.MuseumSwingController;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
 import com.unifi.attsw.exam.repository.model.Museum;
 
 @RunWith(GUITestRunner.class)
@@ -126,6 +125,20 @@ public class MuseumSwingViewTest extends AssertJSwingJUnitTestCase {
 				"museum2_test - Total Rooms: 10 - Occupied Rooms: 0");
 	}
 
+	@Test
+	public void testShowAllMuseumsPagedShowsLoadedPages() {
+		Museum museum1 = new Museum(MUSEUM1_TEST, 10);
+		Museum museum2 = new Museum(MUSEUM2_TEST, 10);
+		PagedListModel<Museum> pagedListModel = new PagedListModel<>(
+				(lastKey, pageSize) -> Arrays.asList(museum1, museum2), Museum::getName, 10, 1, Runnable::run,
+				Runnable::run, () -> {
+				});
+		GuiActionRunner.execute(() -> museumSwingView.showAllMuseumsPaged(pagedListModel));
+		String[] listContents = window.list().contents();
+		assertThat(listContents).containsExactly("museum1_test - Total Rooms: 10 - Occupied Rooms: 0",
+				"museum2_test - Total Rooms: 10 - Occupied Rooms: 0");
+	}
+
 	@Test
 	public void testShowErrorShouldShowTheMessageInLabel() {
 		Museum museum1 = new Museum(MUSEUM1_TEST, 10);
@@ -149,13 +162,34 @@ public class MuseumSwingViewTest extends AssertJSwingJUnitTestCase {
 		window.label("errorMessageLabel").requireText(" ");
 	}
 
+	@Test
+	public void testMuseumChangedShouldApplyTheChangeToTheListWithoutTouchingTheErrorLabel() {
+		Museum museum1 = new Museum(MUSEUM1_TEST, 10);
+		GuiActionRunner.execute(() -> {
+			museumSwingView.getMuseumListModel().addElement(museum1);
+			museumSwingView.showError("error message", museum1);
+		});
+		Museum updatedMuseum = new Museum(MUSEUM1_TEST, 10);
+		updatedMuseum.setOccupiedRooms(1);
+
+		GuiActionRunner.execute(() -> {
+			museumSwingView.museumChanged(ChangeType.INSERT, new Museum(MUSEUM2_TEST, 10));
+			museumSwingView.museumChanged(ChangeType.UPDATE, updatedMuseum);
+			museumSwingView.museumChanged(ChangeType.DELETE, new Museum(MUSEUM2_TEST, 10));
+		});
+
+		String[] listContents = window.list().contents();
+		assertThat(listContents).containsExactly("museum1_test - Total Rooms: 10 - Occupied Rooms: 1");
+		window.label("errorMessageLabel").requireText("error message" + MUSEUM1_TEST);
+	}
+
 	@Test
 	public void testMuseumRemovedShouldRemoveTheMuseumFromTheListAndResetTheErrorLabel() {
 		// setup
 		Museum museum1 = new Museum(MUSEUM1_TEST, 10);
 		Museum museum2 = new Museum(MUSEUM2_TEST, 10);
 		GuiActionRunner.execute(() -> {
-			DefaultListModel<Museum> museumsListModel = museumSwingView.getMuseumListModel();
+			KeyedListModel<Museum> museumsListModel = museumSwingView.getMuseumListModel();
 			museumsListModel.addElement(museum1);
 			museumsListModel.addElement(museum2);
 		});
@@ -187,7 +221,7 @@ public class MuseumSwingViewTest extends AssertJSwingJUnitTestCase {
 		Museum museum1 = new Museum(MUSEUM1_TEST, 10);
 		Museum museum2 = new Museum(MUSEUM2_TEST, 10);
 		GuiActionRunner.execute(() -> {
-			DefaultListModel<Museum> museumsListModel = museumSwingView.getMuseumListModel();
+			KeyedListModel<Museum> museumsListModel = museumSwingView.getMuseumListModel();
 			museumsListModel.addElement(museum1);
 			museumsListModel.addElement(museum2);
 		});
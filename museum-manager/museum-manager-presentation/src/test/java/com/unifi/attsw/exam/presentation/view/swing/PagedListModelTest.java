@@ -0,0 +1,291 @@
+package com.unifi.attsw.exam.presentation.view.swing;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+public class PagedListModelTest {
+
+	private static final int PAGE_SIZE = 2;
+	private static final int MAX_CACHED_PAGES = 2;
+
+	private NavigableSet<String> elements;
+	private List<String> loadedPages;
+	private boolean failing;
+	private int errors;
+
+	private QueueExecutor loadExecutor;
+	private QueueExecutor viewExecutor;
+	private List<ListDataEvent> events;
+
+	private PagedListModel<String> model;
+
+	@Before
+	public void setUp() {
+		elements = new TreeSet<>(List.of("a", "b", "c", "d", "e"));
+		loadedPages = new ArrayList<>();
+		failing = false;
+		errors = 0;
+		loadExecutor = new QueueExecutor();
+		viewExecutor = new QueueExecutor();
+		events = new ArrayList<>();
+		model = new PagedListModel<>(this::loadPage, Function.identity(), PAGE_SIZE, MAX_CACHED_PAGES, loadExecutor,
+				viewExecutor, () -> errors++);
+		model.addListDataListener(new RecordingListener());
+	}
+
+	@Test
+	public void testNotPositiveSizesShouldThrow() {
+		assertThatThrownBy(() -> new PagedListModel<>(this::loadPage, Function.identity(), 0, MAX_CACHED_PAGES,
+				loadExecutor, viewExecutor, () -> errors++)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new PagedListModel<>(this::loadPage, Function.identity(), PAGE_SIZE, 0,
+				loadExecutor, viewExecutor, () -> errors++)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testElementsAreNullUntilTheirPageIsLoaded() {
+		assertThat(model.getSize()).isEqualTo(PAGE_SIZE);
+		assertThat(model.getElementAt(0)).isNull();
+		assertThat(model.getElementAt(1)).isNull();
+
+		loadAll();
+
+		assertThat(model.getElementAt(0)).isEqualTo("a");
+		assertThat(model.getElementAt(1)).isEqualTo("b");
+		assertThat(loadedPages).containsExactly("null");
+	}
+
+	@Test
+	public void testSizeGrowsAPageAtATimeAndIsExactAtTheLastPage() {
+		model.getElementAt(0);
+		loadAll();
+		assertThat(model.getSize()).isEqualTo(4);
+		assertThat(events).extracting(ListDataEvent::getType).containsExactly(ListDataEvent.INTERVAL_ADDED,
+				ListDataEvent.CONTENTS_CHANGED);
+
+		model.getElementAt(2);
+		loadAll();
+		model.getElementAt(4);
+		loadAll();
+
+		assertThat(model.getSize()).isEqualTo(5);
+		assertThat(model.getElementAt(4)).isEqualTo("e");
+		assertThat(loadedPages).containsExactly("null", "b", "d");
+	}
+
+	@Test
+	public void testEmptyListHasNoElements() {
+		elements.clear();
+		model.getElementAt(0);
+		loadAll();
+
+		assertThat(model.getSize()).isZero();
+		assertThat(events).extracting(ListDataEvent::getType).containsExactly(ListDataEvent.INTERVAL_REMOVED);
+	}
+
+	@Test
+	public void testPageIsRequestedOnceWhileLoading() {
+		model.getElementAt(0);
+		model.getElementAt(1);
+		model.getElementAt(0);
+		loadAll();
+
+		assertThat(loadedPages).containsExactly("null");
+	}
+
+	@Test
+	public void testLeastRecentlyUsedPagesAreDroppedOverTheMemoryCeiling() {
+		loadUpTo(4);
+		assertThat(loadedPages).containsExactly("null", "b", "d");
+
+		model.getElementAt(0);
+		loadAll();
+
+		assertThat(model.getElementAt(0)).isEqualTo("a");
+		assertThat(loadedPages).containsExactly("null", "b", "d", "null");
+	}
+
+	@Test
+	public void testRefreshFiresASingleChangeAndReloadsDisplayedPages() {
+		loadUpTo(4);
+		events.clear();
+		elements.add("bb");
+
+		model.refresh();
+
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getType()).isEqualTo(ListDataEvent.CONTENTS_CHANGED);
+		assertThat(events.get(0).getIndex0()).isZero();
+		assertThat(events.get(0).getIndex1()).isEqualTo(4);
+		assertThat(model.getSize()).isEqualTo(5);
+		assertThat(model.getElementAt(0)).isNull();
+	}
+
+	@Test
+	public void testRefreshDiscardsPagesRequestedBefore() {
+		model.getElementAt(0);
+		model.refresh();
+		loadAll();
+
+		assertThat(model.getElementAt(0)).isNull();
+		loadAll();
+		assertThat(model.getElementAt(0)).isEqualTo("a");
+	}
+
+	@Test
+	public void testMovedPageBoundaryDropsFollowingPages() {
+		loadUpTo(4);
+		elements.add("aa");
+		model.refresh();
+
+		model.getElementAt(2);
+		model.getElementAt(0);
+		loadAll();
+
+		assertThat(model.getElementAt(1)).isEqualTo("aa");
+		assertThat(model.getElementAt(2)).isNull();
+		loadAll();
+		assertThat(model.getElementAt(2)).isEqualTo("b");
+		assertThat(model.getElementAt(3)).isEqualTo("c");
+		assertThat(loadedPages).endsWith("b", "null", "aa");
+	}
+
+	@Test
+	public void testRemovedElementsShrinkTheList() {
+		loadUpTo(4);
+		elements.remove("c");
+		elements.remove("d");
+		elements.remove("e");
+		model.refresh();
+
+		model.getElementAt(2);
+		loadAll();
+
+		assertThat(model.getSize()).isEqualTo(2);
+		assertThat(events).extracting(ListDataEvent::getType).contains(ListDataEvent.INTERVAL_REMOVED);
+	}
+
+	@Test
+	public void testUpdateElementReplacesTheCachedElementOnly() {
+		PagedListModel<String[]> pairs = new PagedListModel<>(
+				(lastKey, pageSize) -> List.of(new String[] { "a", "1" }, new String[] { "b", "1" }),
+				pair -> pair[0], PAGE_SIZE, MAX_CACHED_PAGES, Runnable::run, Runnable::run, () -> errors++);
+		pairs.getElementAt(0);
+		pairs.addListDataListener(new RecordingListener());
+		String[] updatedPair = { "b", "2" };
+
+		boolean updated = pairs.updateElement(updatedPair);
+
+		assertThat(updated).isTrue();
+		assertThat(pairs.getElementAt(1)).isSameAs(updatedPair);
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getIndex0()).isEqualTo(1);
+		assertThat(events.get(0).getIndex1()).isEqualTo(1);
+		assertThat(pairs.updateElement(new String[] { "c", "1" })).isFalse();
+	}
+
+	@Test
+	public void testUpdateElementOfEvictedPageIsIgnored() {
+		loadUpTo(4);
+
+		boolean updated = model.updateElement("a");
+
+		assertThat(updated).isFalse();
+		assertThat(model.updateElement("e")).isTrue();
+	}
+
+	@Test
+	public void testLoadErrorsAreReported() {
+		failing = true;
+		model.getElementAt(0);
+		loadAll();
+
+		assertThat(errors).isEqualTo(1);
+		assertThat(model.getElementAt(0)).isNull();
+	}
+
+	/*
+	 * Utility methods
+	 */
+
+	private List<String> loadPage(String lastKey, int pageSize) throws RepositoryException {
+		loadedPages.add(String.valueOf(lastKey));
+		if (failing) {
+			throw new RepositoryException("Cannot load page.");
+		}
+		NavigableSet<String> following = lastKey == null ? elements : elements.tailSet(lastKey, false);
+		return following.stream().limit(pageSize).collect(Collectors.toList());
+	}
+
+	private void loadAll() {
+		while (loadExecutor.hasTasks() || viewExecutor.hasTasks()) {
+			loadExecutor.runAll();
+			viewExecutor.runAll();
+		}
+	}
+
+	private void loadUpTo(int index) {
+		for (int i = 0; i <= index; i += PAGE_SIZE) {
+			model.getElementAt(i);
+			loadAll();
+		}
+	}
+
+	private class RecordingListener implements ListDataListener {
+
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			events.add(e);
+		}
+
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			events.add(e);
+		}
+
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			events.add(e);
+		}
+	}
+
+	/*
+	 * Executor running its tasks only when asked to
+	 */
+	private static class QueueExecutor implements Executor {
+
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		boolean hasTasks() {
+			return !tasks.isEmpty();
+		}
+
+		void runAll() {
+			while (!tasks.isEmpty()) {
+				tasks.poll().run();
+			}
+		}
+	}
+
+}
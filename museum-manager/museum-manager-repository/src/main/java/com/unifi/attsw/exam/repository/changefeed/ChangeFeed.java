@@ -0,0 +1,72 @@
+package com.unifi.attsw.exam.repository.changefeed;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+
+/**
+ * 
+ * Pushes the changes committed to Museums and Exhibitions, by any client of
+ * the database, to the registered {@link ChangeListener}s, so that they do not
+ * need to poll for them. Implementations publish row-level changes in commit
+ * order, from a single thread. A listener failing on a change is told that it
+ * lost changes, as it may have missed it.
+ *
+ */
+public abstract class ChangeFeed implements AutoCloseable {
+
+	private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+	public void addChangeListener(ChangeListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeChangeListener(ChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Stops publishing changes, releasing the resources of the feed.
+	 */
+	@Override
+	public abstract void close();
+
+	protected void publishMuseum(ChangeType type, Museum museum) {
+		publish(listener -> listener.museumChanged(type, museum));
+	}
+
+	protected void publishExhibition(ChangeType type, Exhibition exhibition) {
+		publish(listener -> listener.exhibitionChanged(type, exhibition));
+	}
+
+	protected void publishChangesLost() {
+		for (ChangeListener listener : listeners) {
+			changesLost(listener);
+		}
+	}
+
+	/*
+	 * A failing listener must neither stop the feed nor the other listeners
+	 */
+	private void publish(Consumer<ChangeListener> change) {
+		for (ChangeListener listener : listeners) {
+			try {
+				change.accept(listener);
+			} catch (RuntimeException ex) {
+				changesLost(listener);
+			}
+		}
+	}
+
+	private static void changesLost(ChangeListener listener) {
+		try {
+			listener.changesLost();
+		} catch (RuntimeException ex) {
+			// there is nothing more the listener can be told
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.unifi.attsw.exam.repository.changefeed;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+
+/**
+ * 
+ * Receives the committed changes published by a {@link ChangeFeed}, in commit
+ * order, on the thread of the feed.
+ *
+ */
+public interface ChangeListener {
+
+	/**
+	 * A Museum has been committed.
+	 * 
+	 * @param type   The kind of change.
+	 * @param museum The Museum as committed, or as it was before being deleted.
+	 */
+	public void museumChanged(ChangeType type, Museum museum);
+
+	/**
+	 * An Exhibition has been committed.
+	 * 
+	 * @param type       The kind of change.
+	 * @param exhibition The Exhibition as committed, or as it was before being
+	 *                   deleted.
+	 */
+	public void exhibitionChanged(ChangeType type, Exhibition exhibition);
+
+	/**
+	 * Some changes could not be delivered, e.g. while the feed was reconnecting
+	 * to the database: whatever was read before may be stale and must be read
+	 * again.
+	 */
+	public void changesLost();
+
+}
@@ -0,0 +1,10 @@
+package com.unifi.attsw.exam.repository.changefeed;
+
+/**
+ * 
+ * The kind of change made to a row.
+ *
+ */
+public enum ChangeType {
+	INSERT, UPDATE, DELETE
+}
@@ -3,11 +3,17 @@ package com.unifi.attsw.exam.repository.model;
 import java.util.Objects;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * 
@@ -15,7 +21,9 @@ import javax.persistence.Table;
  * 
  */
 @Entity(name = "Exhibition")
-@Table(name = "exhibitions")
+@Table(name = "exhibitions", indexes = @Index(name = "exhibitions_museum_id_idx", columnList = "Museum_id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Exhibition {
 	/**
 	 * Exhibition ID, generated automatically by Hibernate
@@ -42,6 +50,13 @@ public class Exhibition {
 	@Column(name = "Booked_seats")
 	private int bookedSeats;
 
+	/**
+	 * Exhibition seats booked by number, a bit per seat (see {@link SeatMap}),
+	 * null if no seat has been booked by number
+	 */
+	@Column(name = "Seat_map")
+	private byte[] seatMap;
+
 	/**
 	 * Museum ID to which the exhibition belongs (this implements a many to one
 	 * relation)
@@ -49,6 +64,14 @@ public class Exhibition {
 	@Column(name = "Museum_id", nullable = false)
 	UUID museumId;
 
+	/**
+	 * Incremented by every update, which fails if the Exhibition has been updated
+	 * since it was read (optimistic locking)
+	 */
+	@Version
+	@Column(name = "Version", nullable = false, columnDefinition = "bigint default 0")
+	private long version;
+
 	public Exhibition(String name, int totalSeats) {
 		this.name = name;
 		this.totalSeats = totalSeats;
@@ -90,6 +113,14 @@ public class Exhibition {
 		this.bookedSeats = bookedSeats;
 	}
 
+	public byte[] getSeatMap() {
+		return seatMap;
+	}
+
+	public void setSeatMap(byte[] seatMap) {
+		this.seatMap = seatMap;
+	}
+
 	public UUID getMuseumId() {
 		return museumId;
 	}
@@ -98,6 +129,14 @@ public class Exhibition {
 		this.museumId = museumId;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
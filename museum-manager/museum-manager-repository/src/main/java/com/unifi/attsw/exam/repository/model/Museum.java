@@ -3,11 +3,16 @@ package com.unifi.attsw.exam.repository.model;
 import java.util.Objects;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * 
@@ -17,6 +22,8 @@ import javax.persistence.Table;
  */
 @Entity(name = "Museum")
 @Table(name = "museums")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Museum {
 
 	/**
@@ -44,6 +51,14 @@ public class Museum {
 	@Column(name = "Number_Of_Occupied_Rooms")
 	private int occupiedRooms;
 
+	/**
+	 * Incremented by every update, which fails if the Museum has been updated
+	 * since it was read (optimistic locking)
+	 */
+	@Version
+	@Column(name = "Version", nullable = false, columnDefinition = "bigint default 0")
+	private long version;
+
 	public Museum(String name, int rooms) {
 		this.name = name;
 		this.totalRooms = rooms;
@@ -87,6 +102,14 @@ public class Museum {
 		this.occupiedRooms = occupiedRooms;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,150 @@
+package com.unifi.attsw.exam.repository.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ *
+ * The seats of an Exhibition, numbered from 0, one bit per seat set if the seat
+ * is booked. It is stored in the Exhibition as (totalSeats + 7) / 8 bytes, seat
+ * n being bit n % 8 of byte n / 8, and scanned 64 seats at a time when looking
+ * for free seats.
+ *
+ * Seats booked without a number ({@link Exhibition#getBookedSeats()} counts
+ * all of them) take no seat of the map, but they are free seats no longer
+ * available: a seat number is booked only if the Exhibition has a free seat
+ * left, besides the seat being free in the map.
+ *
+ */
+public class SeatMap {
+
+	private final int totalSeats;
+	private final BitSet bookedSeats;
+
+	/**
+	 * Creates the seat map of an Exhibition.
+	 *
+	 * @param totalSeats The number of seats of the Exhibition.
+	 * @param seatMap    The stored seat map, null if no seat number has been
+	 *                   booked yet.
+	 */
+	public SeatMap(int totalSeats, byte[] seatMap) {
+		this.totalSeats = totalSeats;
+		this.bookedSeats = seatMap == null ? new BitSet(totalSeats) : BitSet.valueOf(seatMap);
+	}
+
+	/**
+	 * @param exhibition The Exhibition whose seat map is returned.
+	 * @return A copy of the seat map of the given Exhibition.
+	 */
+	public static SeatMap of(Exhibition exhibition) {
+		return new SeatMap(exhibition.getTotalSeats(), exhibition.getSeatMap());
+	}
+
+	public int getTotalSeats() {
+		return totalSeats;
+	}
+
+	/**
+	 * @param seat The seat number.
+	 * @return true if the seat with the given number has been booked.
+	 */
+	public boolean isBooked(int seat) {
+		checkSeat(seat);
+		return bookedSeats.get(seat);
+	}
+
+	/**
+	 * @return The number of seats booked by number.
+	 */
+	public int getBookedSeatNumbers() {
+		return bookedSeats.cardinality();
+	}
+
+	/**
+	 * Finds the first free seats next to each other, without booking them.
+	 *
+	 * @param seats The number of adjacent seats to find.
+	 * @return The number of the first of the free seats, the others following
+	 *         it, or -1 if no such seats are free.
+	 */
+	public int findAdjacentFreeSeats(int seats) {
+		if (seats <= 0) {
+			throw new IllegalArgumentException("Number of seats must be positive.");
+		}
+		int first = bookedSeats.nextClearBit(0);
+		while (first <= totalSeats - seats) {
+			int nextBooked = bookedSeats.nextSetBit(first);
+			if (nextBooked < 0 || nextBooked - first >= seats) {
+				return first;
+			}
+			first = bookedSeats.nextClearBit(nextBooked);
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The seat map, as stored in the Exhibition.
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(bookedSeats.toByteArray(), (totalSeats + 7) / 8);
+	}
+
+	/**
+	 * Books the first free seats next to each other of the given Exhibition,
+	 * updating its seat map and booked seats.
+	 *
+	 * @param exhibition The Exhibition to book.
+	 * @param seats      The number of adjacent seats to book.
+	 * @return The number of the first booked seat, the others following it, or -1
+	 *         if no seat has been booked because there are not as many adjacent
+	 *         free seats.
+	 */
+	public static int bookAdjacentSeats(Exhibition exhibition, int seats) {
+		SeatMap seatMap = of(exhibition);
+		int first = seatMap.findAdjacentFreeSeats(seats);
+		if (first < 0 || exhibition.getBookedSeats() + seats > exhibition.getTotalSeats()) {
+			return -1;
+		}
+		seatMap.bookedSeats.set(first, first + seats);
+		exhibition.setSeatMap(seatMap.toByteArray());
+		exhibition.setBookedSeats(exhibition.getBookedSeats() + seats);
+		return first;
+	}
+
+	/**
+	 * Books the seats with the given numbers of the given Exhibition, only if all
+	 * of them are free, updating its seat map and booked seats.
+	 *
+	 * @param exhibition  The Exhibition to book.
+	 * @param seatNumbers The distinct numbers of the seats to book.
+	 * @return true if the seats have been booked, false if none has been booked
+	 *         because some are not free.
+	 */
+	public static boolean bookSeatNumbers(Exhibition exhibition, int[] seatNumbers) {
+		SeatMap seatMap = of(exhibition);
+		BitSet requested = new BitSet(seatMap.totalSeats);
+		for (int seat : seatNumbers) {
+			seatMap.checkSeat(seat);
+			if (requested.get(seat)) {
+				throw new IllegalArgumentException("Duplicate seat number: " + seat);
+			}
+			requested.set(seat);
+		}
+		if (seatNumbers.length == 0 || requested.intersects(seatMap.bookedSeats)
+				|| exhibition.getBookedSeats() + seatNumbers.length > exhibition.getTotalSeats()) {
+			return false;
+		}
+		seatMap.bookedSeats.or(requested);
+		exhibition.setSeatMap(seatMap.toByteArray());
+		exhibition.setBookedSeats(exhibition.getBookedSeats() + seatNumbers.length);
+		return true;
+	}
+
+	private void checkSeat(int seat) {
+		if (seat < 0 || seat >= totalSeats) {
+			throw new IllegalArgumentException("Invalid seat number: " + seat);
+		}
+	}
+
+}
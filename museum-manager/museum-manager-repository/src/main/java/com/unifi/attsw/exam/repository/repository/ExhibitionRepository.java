@@ -1,7 +1,10 @@
 package com.unifi.attsw.exam.repository.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import com.unifi.attsw.exam.repository.model.Exhibition;
 
@@ -19,6 +22,25 @@ public interface ExhibitionRepository {
 	 */
 	public List<Exhibition> findAllExhibitions();
 
+	/**
+	 * Get a page of Exhibitions ordered by name, starting right after the given
+	 * Exhibition name (keyset pagination)
+	 * 
+	 * @param lastExhibitionName The name of the last Exhibition of the previous
+	 *                           page, null to get the first page
+	 * @param pageSize           The maximum number of Exhibitions to return
+	 * @return The List of at most pageSize Exhibitions following the given name
+	 */
+	public List<Exhibition> findExhibitionsPage(String lastExhibitionName, int pageSize);
+
+	/**
+	 * Passes every Exhibition to the consumer, one at a time, without loading
+	 * them all in memory
+	 * 
+	 * @param consumer The consumer of the Exhibitions, in no particular order
+	 */
+	public void forEachExhibition(Consumer<Exhibition> consumer);
+
 	/**
 	 * Returns the Exhibition with the given ID
 	 * 
@@ -51,6 +73,16 @@ public interface ExhibitionRepository {
 	 */
 	public Exhibition addNewExhibition(Exhibition newExhibition);
 
+	/**
+	 * Persists many new Exhibitions to Database, sending them in batches without
+	 * keeping them all in memory. Exhibitions and Museums read before are no
+	 * longer managed afterwards
+	 * 
+	 * @param newExhibitions The Exhibitions to save
+	 * @return The number of saved Exhibitions
+	 */
+	public int addExhibitions(Collection<Exhibition> newExhibitions);
+
 	/**
 	 * Updates a given existing Exhibition
 	 * 
@@ -59,6 +91,60 @@ public interface ExhibitionRepository {
 	 */
 	public Exhibition updateExhibition(Exhibition updatedExhibition);
 
+	/**
+	 * Atomically books a seat for the Exhibition with the given ID, only if it
+	 * still has free seats
+	 * 
+	 * @param exhibitionId The ID of the Exhibition to book
+	 * @return The number of free seats left after the booking, or -1 if no seat
+	 *         has been booked because the Exhibition is sold out or does not exist
+	 */
+	public int bookSeat(UUID exhibitionId);
+
+	/**
+	 * Atomically books the requested number of seats for each of the given
+	 * Exhibitions. Each Exhibition is booked only if it has enough free seats for
+	 * its whole request, independently from the others
+	 * 
+	 * @param seatsByExhibitionId The number of seats to book for each Exhibition
+	 *                            ID
+	 * @return The number of free seats left for each given Exhibition ID, -1 for
+	 *         the Exhibitions which have not been booked
+	 */
+	public Map<UUID, Integer> bookSeats(Map<UUID, Integer> seatsByExhibitionId);
+
+	/**
+	 * Atomically books the first free seats next to each other in the seat map of
+	 * the Exhibition with the given ID, only if there are as many
+	 * 
+	 * @param exhibitionId The ID of the Exhibition to book
+	 * @param seats        The number of adjacent seats to book
+	 * @return The number of the first booked seat, the others following it, or -1
+	 *         if no seat has been booked because there are not as many adjacent
+	 *         free seats or the Exhibition does not exist
+	 */
+	public int bookAdjacentSeats(UUID exhibitionId, int seats);
+
+	/**
+	 * Atomically books the seats with the given numbers of the Exhibition with the
+	 * given ID, only if all of them are free
+	 * 
+	 * @param exhibitionId The ID of the Exhibition to book
+	 * @param seatNumbers  The distinct numbers of the seats to book, from 0
+	 * @return true if the seats have been booked, false if none has been booked
+	 *         because some are not free or the Exhibition does not exist
+	 */
+	public boolean bookSeatNumbers(UUID exhibitionId, int[] seatNumbers);
+
+	/**
+	 * Deletes all the Exhibitions belonging to a specified Museum at once,
+	 * whatever their number
+	 * 
+	 * @param museumId The ID of the Museum whose Exhibitions are removed
+	 * @return The number of removed Exhibitions
+	 */
+	public int deleteExhibitionsByMuseumId(UUID museumId);
+
 	/**
 	 * Deletes an Exhibition
 	 * 
@@ -1,7 +1,9 @@
 package com.unifi.attsw.exam.repository.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import com.unifi.attsw.exam.repository.model.Museum;
 
@@ -18,6 +20,25 @@ public interface MuseumRepository {
 	 */
 	public List<Museum> findAllMuseums();
 
+	/**
+	 * Get a page of Museums ordered by name, starting right after the given
+	 * Museum name (keyset pagination)
+	 * 
+	 * @param lastMuseumName The name of the last Museum of the previous page, null
+	 *                       to get the first page
+	 * @param pageSize       The maximum number of Museums to return
+	 * @return The List of at most pageSize Museums following the given name
+	 */
+	public List<Museum> findMuseumsPage(String lastMuseumName, int pageSize);
+
+	/**
+	 * Passes every Museum to the consumer, one at a time, without loading them
+	 * all in memory
+	 * 
+	 * @param consumer The consumer of the Museums, in no particular order
+	 */
+	public void forEachMuseum(Consumer<Museum> consumer);
+
 	/**
 	 * Returns the Museum with the given ID
 	 * 
@@ -42,6 +63,16 @@ public interface MuseumRepository {
 	 */
 	public Museum addMuseum(Museum newMuseum);
 
+	/**
+	 * Persists many new Museums to Database, sending them in batches without
+	 * keeping them all in memory. Museums read before are no longer managed
+	 * afterwards
+	 * 
+	 * @param newMuseums The Museums to save
+	 * @return The number of saved Museums
+	 */
+	public int addMuseums(Collection<Museum> newMuseums);
+
 	/**
 	 * Updates a given existing Museum
 	 * 
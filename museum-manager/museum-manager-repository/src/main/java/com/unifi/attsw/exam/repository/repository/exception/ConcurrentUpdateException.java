@@ -0,0 +1,38 @@
+package com.unifi.attsw.exam.repository.repository.exception;
+
+import javax.persistence.OptimisticLockException;
+
+import org.hibernate.StaleStateException;
+
+/**
+ * 
+ * Exception to be thrown when a transaction is rolled back because it updates
+ * a row which another transaction has updated since it was read: the
+ * transaction can be run again on fresh data.
+ *
+ */
+public class ConcurrentUpdateException extends RepositoryException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConcurrentUpdateException(String message, Throwable ex) {
+		super(message, ex);
+	}
+
+	/**
+	 * @param message The message of the exception.
+	 * @param ex      The reason a transaction failed.
+	 * @return A ConcurrentUpdateException if the failure was caused by an
+	 *         optimistic lock, else a RepositoryException, with the given message
+	 *         and cause.
+	 */
+	public static RepositoryException of(String message, Throwable ex) {
+		for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+			if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+				return new ConcurrentUpdateException(message, ex);
+			}
+		}
+		return new RepositoryException(message, ex);
+	}
+
+}
@@ -10,7 +10,7 @@ public class RepositoryException extends Exception {
 	private static final long serialVersionUID = 1L;
 
 	public RepositoryException(String message, Throwable ex) {
-		super(message);
+		super(message, ex);
 	}
 
 	public RepositoryException(String message) {
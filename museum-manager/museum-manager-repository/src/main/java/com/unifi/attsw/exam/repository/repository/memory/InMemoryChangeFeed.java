@@ -0,0 +1,115 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.unifi.attsw.exam.repository.changefeed.ChangeFeed;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+
+/**
+ * 
+ * In-process emulation of the Postgres {@link ChangeFeed}: the changes of each
+ * transaction committed to an {@link InMemoryDatabase} are published once
+ * committed, in commit order, on a thread other than the committing one.
+ *
+ */
+public class InMemoryChangeFeed extends ChangeFeed {
+
+	private final InMemoryDatabase database;
+	private final Executor deliveryExecutor;
+
+	/*
+	 * The delivery thread created by this feed, null if given by the caller
+	 */
+	private final ExecutorService ownedExecutor;
+
+	/**
+	 * Creates a feed publishing changes on its own daemon thread.
+	 * 
+	 * @param database The database whose changes are published.
+	 */
+	public InMemoryChangeFeed(InMemoryDatabase database) {
+		this(database, Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "museum-manager-change-feed");
+			thread.setDaemon(true);
+			return thread;
+		}), true);
+	}
+
+	/**
+	 * Creates a feed publishing changes through the given executor, which must
+	 * run them one at a time in submission order.
+	 * 
+	 * @param database         The database whose changes are published.
+	 * @param deliveryExecutor The executor the changes are published on.
+	 */
+	public InMemoryChangeFeed(InMemoryDatabase database, Executor deliveryExecutor) {
+		this(database, deliveryExecutor, false);
+	}
+
+	private InMemoryChangeFeed(InMemoryDatabase database, Executor deliveryExecutor, boolean ownsExecutor) {
+		this.database = database;
+		this.deliveryExecutor = deliveryExecutor;
+		this.ownedExecutor = ownsExecutor ? (ExecutorService) deliveryExecutor : null;
+		database.addChangeFeed(this);
+	}
+
+	@Override
+	public void close() {
+		database.removeChangeFeed(this);
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdown();
+		}
+	}
+
+	/*
+	 * Called by the database writer once the commit is published, with the
+	 * previous committed version of each written row (null if new)
+	 */
+	void committed(Map<UUID, Museum> oldMuseums, Map<UUID, Museum> museumWrites, Map<UUID, Exhibition> oldExhibitions,
+			Map<UUID, Exhibition> exhibitionWrites) {
+		List<Runnable> changes = new ArrayList<>();
+		museumWrites.forEach((id, museum) -> {
+			ChangeType type = typeOf(oldMuseums.get(id), museum);
+			if (type != null) {
+				Museum changed = InMemoryDatabase.copyOf(museum != null ? museum : oldMuseums.get(id));
+				changes.add(() -> publishMuseum(type, changed));
+			}
+		});
+		exhibitionWrites.forEach((id, exhibition) -> {
+			ChangeType type = typeOf(oldExhibitions.get(id), exhibition);
+			if (type != null) {
+				Exhibition changed = InMemoryDatabase
+						.copyOf(exhibition != null ? exhibition : oldExhibitions.get(id));
+				changes.add(() -> publishExhibition(type, changed));
+			}
+		});
+		if (changes.isEmpty()) {
+			return;
+		}
+		try {
+			deliveryExecutor.execute(() -> changes.forEach(Runnable::run));
+		} catch (RejectedExecutionException ex) {
+			// closed meanwhile
+		}
+	}
+
+	/*
+	 * null if the row has been both inserted and deleted by the transaction
+	 */
+	private static ChangeType typeOf(Object oldRow, Object newRow) {
+		if (newRow == null) {
+			return oldRow == null ? null : ChangeType.DELETE;
+		}
+		return oldRow == null ? ChangeType.INSERT : ChangeType.UPDATE;
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+
+/**
+ * 
+ * Pure in-memory stand-in for the Postgres database, holding Museums and
+ * Exhibitions in multi-version tables. Transactions ({@link #begin()}) see a
+ * consistent snapshot of the committed data; writers are serialized and
+ * publish their changes atomically, by bumping the committed version. Old row
+ * versions are dropped once no running transaction can see them. Committed
+ * changes are published to the {@link InMemoryChangeFeed}s of the database.
+ *
+ */
+public class InMemoryDatabase {
+
+	private final VersionedTable<Museum> museums = new VersionedTable<>(Museum::getId, Museum::getName, null,
+			InMemoryDatabase::copyOf, Museum::getVersion, Museum::setVersion);
+	private final VersionedTable<Exhibition> exhibitions = new VersionedTable<>(Exhibition::getId,
+			Exhibition::getName, Exhibition::getMuseumId, InMemoryDatabase::copyOf, Exhibition::getVersion,
+			Exhibition::setVersion);
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private volatile long committedVersion;
+
+	/*
+	 * Number of running transactions by snapshot, guarded by itself
+	 */
+	private final NavigableMap<Long, Integer> activeSnapshots = new TreeMap<>();
+
+	/*
+	 * Rows written by each commit, waiting for their old versions to be dropped.
+	 * Guarded by writeLock
+	 */
+	private final Deque<Commit> unprunedCommits = new ArrayDeque<>();
+
+	private final List<InMemoryChangeFeed> changeFeeds = new CopyOnWriteArrayList<>();
+
+	private static final class Commit {
+		private final long version;
+		private final Set<UUID> museumIds;
+		private final Set<UUID> exhibitionIds;
+
+		private Commit(long version, Set<UUID> museumIds, Set<UUID> exhibitionIds) {
+			this.version = version;
+			this.museumIds = museumIds;
+			this.exhibitionIds = exhibitionIds;
+		}
+	}
+
+	public InMemoryTransaction begin() {
+		return new InMemoryTransaction(this, museums, exhibitions, false);
+	}
+
+	/**
+	 * @return A transaction which only reads: it fails at its first write.
+	 */
+	public InMemoryTransaction beginReadOnly() {
+		return new InMemoryTransaction(this, museums, exhibitions, true);
+	}
+
+	long acquireSnapshot() {
+		synchronized (activeSnapshots) {
+			long snapshot = committedVersion;
+			activeSnapshots.merge(snapshot, 1, Integer::sum);
+			return snapshot;
+		}
+	}
+
+	void releaseSnapshot(long snapshot) {
+		synchronized (activeSnapshots) {
+			activeSnapshots.computeIfPresent(snapshot, (version, count) -> count == 1 ? null : count - 1);
+		}
+	}
+
+	/**
+	 * Waits for the current writer, if any, to end.
+	 * 
+	 * @return a new snapshot, replacing the given one, holding the latest
+	 *         committed data.
+	 */
+	long beginWrite(long snapshot) {
+		writeLock.lock();
+		releaseSnapshot(snapshot);
+		return acquireSnapshot();
+	}
+
+	/*
+	 * Called by the writer only
+	 */
+	void commit(Map<UUID, Museum> museumWrites, Map<UUID, Exhibition> exhibitionWrites) {
+		long version = committedVersion + 1;
+		Map<UUID, Museum> oldMuseums = changeFeeds.isEmpty() ? null : committedRows(museums, museumWrites);
+		Map<UUID, Exhibition> oldExhibitions = changeFeeds.isEmpty() ? null
+				: committedRows(exhibitions, exhibitionWrites);
+		museums.install(museumWrites, version);
+		exhibitions.install(exhibitionWrites, version);
+		committedVersion = version;
+		unprunedCommits.add(
+				new Commit(version, new HashSet<>(museumWrites.keySet()), new HashSet<>(exhibitionWrites.keySet())));
+		if (oldMuseums != null) {
+			changeFeeds.forEach(
+					changeFeed -> changeFeed.committed(oldMuseums, museumWrites, oldExhibitions, exhibitionWrites));
+		}
+	}
+
+	void addChangeFeed(InMemoryChangeFeed changeFeed) {
+		changeFeeds.add(changeFeed);
+	}
+
+	void removeChangeFeed(InMemoryChangeFeed changeFeed) {
+		changeFeeds.remove(changeFeed);
+	}
+
+	private <T> Map<UUID, T> committedRows(VersionedTable<T> table, Map<UUID, T> writes) {
+		Map<UUID, T> rows = new HashMap<>();
+		writes.keySet().forEach(id -> rows.put(id, table.get(id, committedVersion)));
+		return rows;
+	}
+
+	/*
+	 * Called by the writer only, once its snapshot has been released
+	 */
+	void endWrite() {
+		try {
+			long oldestSnapshot = oldestSnapshot();
+			while (!unprunedCommits.isEmpty() && unprunedCommits.peek().version <= oldestSnapshot) {
+				Commit commit = unprunedCommits.poll();
+				commit.museumIds.forEach(id -> museums.prune(id, oldestSnapshot));
+				commit.exhibitionIds.forEach(id -> exhibitions.prune(id, oldestSnapshot));
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private long oldestSnapshot() {
+		synchronized (activeSnapshots) {
+			return activeSnapshots.isEmpty() ? committedVersion : activeSnapshots.firstKey();
+		}
+	}
+
+	static Museum copyOf(Museum museum) {
+		Museum copy = new Museum(museum.getName(), museum.getTotalRooms());
+		copy.setId(museum.getId());
+		copy.setOccupiedRooms(museum.getOccupiedRooms());
+		copy.setVersion(museum.getVersion());
+		return copy;
+	}
+
+	static Exhibition copyOf(Exhibition exhibition) {
+		Exhibition copy = new Exhibition(exhibition.getName(), exhibition.getTotalSeats());
+		copy.setId(exhibition.getId());
+		copy.setMuseumId(exhibition.getMuseumId());
+		copy.setBookedSeats(exhibition.getBookedSeats());
+		copy.setSeatMap(exhibition.getSeatMap() == null ? null : exhibition.getSeatMap().clone());
+		copy.setVersion(exhibition.getVersion());
+		return copy;
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.SeatMap;
+import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
+
+public class InMemoryExhibitionRepository implements ExhibitionRepository {
+
+	private InMemoryTransaction transaction;
+
+	public InMemoryExhibitionRepository(InMemoryTransaction transaction) {
+		this.transaction = transaction;
+	}
+
+	@Override
+	public List<Exhibition> findAllExhibitions() {
+		return transaction.exhibitions().findAll();
+	}
+
+	@Override
+	public List<Exhibition> findExhibitionsPage(String lastExhibitionName, int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive.");
+		}
+		return transaction.exhibitions().findPage(lastExhibitionName, pageSize);
+	}
+
+	@Override
+	public void forEachExhibition(Consumer<Exhibition> consumer) {
+		transaction.exhibitions().forEach(consumer);
+	}
+
+	@Override
+	public Exhibition findExhibitionById(UUID exhibitionId) {
+		if (exhibitionId == null) {
+			throw new IllegalArgumentException("Cannot find entity, invalid or null id: " + exhibitionId);
+		}
+		return transaction.exhibitions().findById(exhibitionId);
+	}
+
+	@Override
+	public Exhibition findExhibitionByName(String exhibitionToFind) {
+		return transaction.exhibitions().findByName(exhibitionToFind);
+	}
+
+	@Override
+	public List<Exhibition> findExhibitionsByMuseumId(UUID museumId) {
+		if (museumId == null) {
+			throw new IllegalArgumentException("Museum ID cannot be null.");
+		}
+		return transaction.exhibitions().findByGroup(museumId);
+	}
+
+	@Override
+	public Exhibition addNewExhibition(Exhibition newExhibition) {
+		if (newExhibition == null) {
+			throw new IllegalArgumentException("Exhibition cannot be null.");
+		}
+		transaction.beginWrite();
+		if (newExhibition.getId() == null) {
+			newExhibition.setId(UUID.randomUUID());
+		} else if (transaction.exhibitions().findById(newExhibition.getId()) != null) {
+			throw new IllegalStateException("Duplicate Exhibition id: " + newExhibition.getId());
+		}
+		checkConstraints(newExhibition);
+		transaction.exhibitions().put(newExhibition);
+		return newExhibition;
+	}
+
+	@Override
+	public int addExhibitions(Collection<Exhibition> newExhibitions) {
+		newExhibitions.forEach(this::addNewExhibition);
+		return newExhibitions.size();
+	}
+
+	@Override
+	public Exhibition updateExhibition(Exhibition updatedExhibition) {
+		checkExists(updatedExhibition);
+		checkConstraints(updatedExhibition);
+		transaction.exhibitions().put(updatedExhibition);
+		return transaction.exhibitions().findById(updatedExhibition.getId());
+	}
+
+	@Override
+	public int bookSeat(UUID exhibitionId) {
+		if (exhibitionId == null) {
+			throw new IllegalArgumentException("Exhibition ID cannot be null.");
+		}
+		transaction.beginWrite();
+		return book(exhibitionId, 1);
+	}
+
+	@Override
+	public Map<UUID, Integer> bookSeats(Map<UUID, Integer> seatsByExhibitionId) {
+		for (Map.Entry<UUID, Integer> booking : seatsByExhibitionId.entrySet()) {
+			if (booking.getKey() == null || booking.getValue() == null || booking.getValue() <= 0) {
+				throw new IllegalArgumentException("Invalid booking request: " + booking);
+			}
+		}
+		Map<UUID, Integer> freeSeats = new HashMap<>();
+		if (seatsByExhibitionId.isEmpty()) {
+			return freeSeats;
+		}
+		transaction.beginWrite();
+		seatsByExhibitionId.forEach((exhibitionId, seats) -> freeSeats.put(exhibitionId, book(exhibitionId, seats)));
+		return freeSeats;
+	}
+
+	@Override
+	public int bookAdjacentSeats(UUID exhibitionId, int seats) {
+		Exhibition exhibition = findExhibitionToBook(exhibitionId);
+		if (exhibition == null) {
+			return -1;
+		}
+		int firstSeat = SeatMap.bookAdjacentSeats(exhibition, seats);
+		if (firstSeat >= 0) {
+			transaction.exhibitions().put(exhibition);
+		}
+		return firstSeat;
+	}
+
+	@Override
+	public boolean bookSeatNumbers(UUID exhibitionId, int[] seatNumbers) {
+		Exhibition exhibition = findExhibitionToBook(exhibitionId);
+		if (exhibition == null || !SeatMap.bookSeatNumbers(exhibition, seatNumbers)) {
+			return false;
+		}
+		transaction.exhibitions().put(exhibition);
+		return true;
+	}
+
+	@Override
+	public int deleteExhibitionsByMuseumId(UUID museumId) {
+		if (museumId == null) {
+			throw new IllegalArgumentException("Museum ID cannot be null.");
+		}
+		transaction.beginWrite();
+		List<Exhibition> exhibitions = transaction.exhibitions().findByGroup(museumId);
+		exhibitions.forEach(exhibition -> transaction.exhibitions().delete(exhibition.getId()));
+		return exhibitions.size();
+	}
+
+	@Override
+	public void deleteExhibition(Exhibition deletedExhibition) {
+		checkExists(deletedExhibition);
+		transaction.exhibitions().delete(deletedExhibition.getId());
+	}
+
+	/*
+	 * Same semantics of the guarded UPDATE of the Postgres repository: the seats
+	 * are booked only if all of them are available
+	 */
+	private int book(UUID exhibitionId, int seats) {
+		Exhibition exhibition = transaction.exhibitions().findById(exhibitionId);
+		if (exhibition == null || exhibition.getBookedSeats() + seats > exhibition.getTotalSeats()) {
+			return -1;
+		}
+		exhibition.setBookedSeats(exhibition.getBookedSeats() + seats);
+		transaction.exhibitions().put(exhibition);
+		return exhibition.getTotalSeats() - exhibition.getBookedSeats();
+	}
+
+	private Exhibition findExhibitionToBook(UUID exhibitionId) {
+		if (exhibitionId == null) {
+			throw new IllegalArgumentException("Exhibition ID cannot be null.");
+		}
+		transaction.beginWrite();
+		return transaction.exhibitions().findById(exhibitionId);
+	}
+
+	private void checkExists(Exhibition exhibition) {
+		if (exhibition == null) {
+			throw new IllegalArgumentException("Exhibition cannot be null.");
+		}
+		transaction.beginWrite();
+		if (exhibition.getId() == null || transaction.exhibitions().findById(exhibition.getId()) == null) {
+			throw new IllegalArgumentException("Cannot find entity with id: " + exhibition.getId());
+		}
+	}
+
+	private void checkConstraints(Exhibition exhibition) {
+		if (exhibition.getName() == null) {
+			throw new IllegalArgumentException("Exhibition name cannot be null.");
+		}
+		if (exhibition.getMuseumId() == null || transaction.museums().findById(exhibition.getMuseumId()) == null) {
+			throw new IllegalStateException("Museum does not exist: " + exhibition.getMuseumId());
+		}
+		Exhibition sameNameExhibition = transaction.exhibitions().findByName(exhibition.getName());
+		if (sameNameExhibition != null && !sameNameExhibition.getId().equals(exhibition.getId())) {
+			throw new IllegalStateException("Duplicate Exhibition name: " + exhibition.getName());
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.MuseumRepository;
+
+public class InMemoryMuseumRepository implements MuseumRepository {
+
+	private InMemoryTransaction transaction;
+
+	public InMemoryMuseumRepository(InMemoryTransaction transaction) {
+		this.transaction = transaction;
+	}
+
+	@Override
+	public List<Museum> findAllMuseums() {
+		return transaction.museums().findAll();
+	}
+
+	@Override
+	public List<Museum> findMuseumsPage(String lastMuseumName, int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive.");
+		}
+		return transaction.museums().findPage(lastMuseumName, pageSize);
+	}
+
+	@Override
+	public void forEachMuseum(Consumer<Museum> consumer) {
+		transaction.museums().forEach(consumer);
+	}
+
+	@Override
+	public Museum findMuseumById(UUID id) {
+		if (id == null) {
+			throw new IllegalArgumentException("Museum ID cannot be null.");
+		}
+		Museum foundMuseum = transaction.museums().findById(id);
+		if (foundMuseum == null) {
+			throw new NoSuchElementException("Cannot find entity with id: " + id);
+		}
+		return foundMuseum;
+	}
+
+	@Override
+	public Museum findMuseumByName(String museumToFind) {
+		return transaction.museums().findByName(museumToFind);
+	}
+
+	@Override
+	public Museum addMuseum(Museum museum) {
+		if (museum == null) {
+			throw new IllegalArgumentException("Museum cannot be null.");
+		}
+		transaction.beginWrite();
+		if (museum.getId() == null) {
+			museum.setId(UUID.randomUUID());
+		} else if (transaction.museums().findById(museum.getId()) != null) {
+			throw new IllegalStateException("Duplicate Museum id: " + museum.getId());
+		}
+		checkUniqueName(museum);
+		transaction.museums().put(museum);
+		return museum;
+	}
+
+	@Override
+	public int addMuseums(Collection<Museum> newMuseums) {
+		newMuseums.forEach(this::addMuseum);
+		return newMuseums.size();
+	}
+
+	@Override
+	public Museum updateMuseum(Museum updatedMuseum) {
+		checkExists(updatedMuseum);
+		checkUniqueName(updatedMuseum);
+		transaction.museums().put(updatedMuseum);
+		return transaction.museums().findById(updatedMuseum.getId());
+	}
+
+	@Override
+	public void deleteMuseum(Museum museumToRemove) {
+		checkExists(museumToRemove);
+		if (!transaction.exhibitions().findByGroup(museumToRemove.getId()).isEmpty()) {
+			throw new IllegalStateException(
+					"Museum " + museumToRemove.getId() + " is still referenced by its Exhibitions.");
+		}
+		transaction.museums().delete(museumToRemove.getId());
+	}
+
+	private void checkExists(Museum museum) {
+		if (museum == null) {
+			throw new IllegalArgumentException("Museum cannot be null.");
+		}
+		transaction.beginWrite();
+		if (museum.getId() == null || transaction.museums().findById(museum.getId()) == null) {
+			throw new IllegalArgumentException("Cannot find entity with id: " + museum.getId());
+		}
+	}
+
+	private void checkUniqueName(Museum museum) {
+		if (museum.getName() == null) {
+			throw new IllegalArgumentException("Museum name cannot be null.");
+		}
+		Museum sameNameMuseum = transaction.museums().findByName(museum.getName());
+		if (sameNameMuseum != null && !sameNameMuseum.getId().equals(museum.getId())) {
+			throw new IllegalStateException("Duplicate Museum name: " + museum.getName());
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+
+/**
+ * 
+ * A transaction on an {@link InMemoryDatabase}. It reads the snapshot taken
+ * when it began, never blocking nor being blocked by other transactions. At
+ * its first write it becomes the only writer of the database, its snapshot
+ * moving forward to the latest committed data, so it can check constraints
+ * and update rows without conflicts; its writes become visible to other
+ * transactions all at once, when committed. A transaction is bound to the
+ * thread that began it.
+ *
+ */
+public class InMemoryTransaction {
+
+	private final InMemoryDatabase database;
+	private final TransactionalTable<Museum> museums;
+	private final TransactionalTable<Exhibition> exhibitions;
+	private final boolean readOnly;
+
+	private long snapshot;
+	private boolean writer;
+	private boolean closed;
+
+	InMemoryTransaction(InMemoryDatabase database, VersionedTable<Museum> museums,
+			VersionedTable<Exhibition> exhibitions, boolean readOnly) {
+		this.database = database;
+		this.museums = new TransactionalTable<>(museums, this);
+		this.exhibitions = new TransactionalTable<>(exhibitions, this);
+		this.readOnly = readOnly;
+		this.snapshot = database.acquireSnapshot();
+	}
+
+	public void commit() {
+		if (closed) {
+			throw new IllegalStateException("Transaction already closed.");
+		}
+		closed = true;
+		try {
+			if (writer) {
+				database.commit(museums.writes(), exhibitions.writes());
+			}
+		} finally {
+			database.releaseSnapshot(snapshot);
+			if (writer) {
+				database.endWrite();
+			}
+		}
+	}
+
+	public void rollback() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		database.releaseSnapshot(snapshot);
+		if (writer) {
+			database.endWrite();
+		}
+	}
+
+	TransactionalTable<Museum> museums() {
+		return museums;
+	}
+
+	TransactionalTable<Exhibition> exhibitions() {
+		return exhibitions;
+	}
+
+	long snapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Makes this transaction the database writer, to be called before reading
+	 * the rows a write depends on.
+	 */
+	void beginWrite() {
+		if (closed) {
+			throw new IllegalStateException("Transaction already closed.");
+		}
+		if (readOnly) {
+			throw new IllegalStateException("Read-only transaction.");
+		}
+		if (!writer) {
+			snapshot = database.beginWrite(snapshot);
+			writer = true;
+		}
+	}
+
+}
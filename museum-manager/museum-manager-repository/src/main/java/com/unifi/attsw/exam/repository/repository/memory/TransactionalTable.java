@@ -0,0 +1,224 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import javax.persistence.OptimisticLockException;
+
+/**
+ * 
+ * A {@link VersionedTable} as seen by one transaction: committed rows are read
+ * at the transaction snapshot, overlaid by the rows the transaction itself has
+ * written and not yet committed. Rows are copied in and out, so callers can
+ * never modify stored data.
+ *
+ */
+class TransactionalTable<T> {
+
+	private final VersionedTable<T> table;
+	private final InMemoryTransaction transaction;
+
+	/*
+	 * Uncommitted rows, a null value marks a deleted row
+	 */
+	private final Map<UUID, T> writes = new LinkedHashMap<>();
+
+	/*
+	 * Ids of the uncommitted rows by name, sorted, and by group, so that lookups
+	 * never scan all the rows written by the transaction
+	 */
+	private final TreeMap<String, Set<UUID>> writtenNames = new TreeMap<>();
+	private final Map<UUID, Set<UUID>> writtenGroups = new HashMap<>();
+
+	TransactionalTable(VersionedTable<T> table, InMemoryTransaction transaction) {
+		this.table = table;
+		this.transaction = transaction;
+	}
+
+	Map<UUID, T> writes() {
+		return writes;
+	}
+
+	T findById(UUID id) {
+		T row = visible(id);
+		return row == null ? null : table.copyOf(row);
+	}
+
+	T findByName(String name) {
+		if (name == null) {
+			return null;
+		}
+		Set<UUID> writtenIds = writtenNames.get(name);
+		if (writtenIds != null) {
+			return table.copyOf(writes.get(writtenIds.iterator().next()));
+		}
+		for (UUID id : table.idsWithName(name)) {
+			T row = committed(id);
+			if (row != null && name.equals(table.nameOf(row))) {
+				return table.copyOf(row);
+			}
+		}
+		return null;
+	}
+
+	List<T> findByGroup(UUID group) {
+		List<T> found = new ArrayList<>();
+		for (UUID id : table.idsInGroup(group)) {
+			T row = committed(id);
+			if (row != null && group.equals(table.groupOf(row))) {
+				found.add(table.copyOf(row));
+			}
+		}
+		for (UUID id : writtenGroups.getOrDefault(group, Collections.emptySet())) {
+			found.add(table.copyOf(writes.get(id)));
+		}
+		return found;
+	}
+
+	/**
+	 * @return all the rows, sorted by name.
+	 */
+	List<T> findAll() {
+		return findPage(null, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return at most pageSize rows whose name follows lastName (every row if
+	 *         null), sorted by name.
+	 */
+	List<T> findPage(String lastName, int pageSize) {
+		List<T> page = new ArrayList<>();
+		for (Map.Entry<String, Set<UUID>> entry : table.namesAfter(lastName).entrySet()) {
+			for (UUID id : entry.getValue()) {
+				T row = committed(id);
+				if (row != null && entry.getKey().equals(table.nameOf(row))) {
+					page.add(table.copyOf(row));
+				}
+			}
+			if (page.size() >= pageSize) {
+				break;
+			}
+		}
+		int overlaid = 0;
+		Map<String, Set<UUID>> namesAfter = lastName == null ? writtenNames : writtenNames.tailMap(lastName, false);
+		for (Set<UUID> ids : namesAfter.values()) {
+			for (UUID id : ids) {
+				page.add(table.copyOf(writes.get(id)));
+				overlaid++;
+			}
+			if (overlaid >= pageSize) {
+				break;
+			}
+		}
+		if (overlaid > 0) {
+			page.sort(Comparator.comparing(table::nameOf));
+		}
+		return page.size() > pageSize ? new ArrayList<>(page.subList(0, pageSize)) : page;
+	}
+
+	/**
+	 * Passes every row to the consumer, the committed ones sorted by name first.
+	 */
+	void forEach(Consumer<T> consumer) {
+		for (Map.Entry<String, Set<UUID>> entry : table.namesAfter(null).entrySet()) {
+			for (UUID id : entry.getValue()) {
+				T row = committed(id);
+				if (row != null && entry.getKey().equals(table.nameOf(row))) {
+					consumer.accept(table.copyOf(row));
+				}
+			}
+		}
+		for (T row : writes.values()) {
+			if (row != null) {
+				consumer.accept(table.copyOf(row));
+			}
+		}
+	}
+
+	/**
+	 * Writes a row which, like with Hibernate, must have been read with the lock
+	 * version of the committed row or of the row already written by this
+	 * transaction; the lock version is incremented once per transaction.
+	 * 
+	 * @throws OptimisticLockException if the row has been updated by another
+	 *                                 transaction since it was read.
+	 */
+	void put(T row) {
+		transaction.beginWrite();
+		UUID id = table.idOf(row);
+		T stored = table.copyOf(row);
+		T committed = table.get(id, transaction.snapshot());
+		if (committed != null) {
+			long lockVersion = table.lockVersionOf(row);
+			T written = writes.get(id);
+			if (lockVersion != table.lockVersionOf(committed)
+					&& (written == null || lockVersion != table.lockVersionOf(written))) {
+				throw new OptimisticLockException("Row " + id + " has been updated by another transaction.");
+			}
+			table.setLockVersion(stored, table.lockVersionOf(committed) + 1);
+		}
+		index(id, writes.put(id, stored), stored);
+	}
+
+	void delete(UUID id) {
+		transaction.beginWrite();
+		index(id, writes.put(id, null), null);
+	}
+
+	/*
+	 * Moves the id from the name and group of the row written before to those of
+	 * the row written now, either being null if not written or deleted
+	 */
+	private void index(UUID id, T before, T after) {
+		String nameBefore = before == null ? null : table.nameOf(before);
+		String nameAfter = after == null ? null : table.nameOf(after);
+		if (!Objects.equals(nameBefore, nameAfter)) {
+			unindex(writtenNames, nameBefore, id);
+			if (nameAfter != null) {
+				writtenNames.computeIfAbsent(nameAfter, name -> new LinkedHashSet<>()).add(id);
+			}
+		}
+		UUID groupBefore = before == null ? null : table.groupOf(before);
+		UUID groupAfter = after == null ? null : table.groupOf(after);
+		if (!Objects.equals(groupBefore, groupAfter)) {
+			unindex(writtenGroups, groupBefore, id);
+			if (groupAfter != null) {
+				writtenGroups.computeIfAbsent(groupAfter, group -> new LinkedHashSet<>()).add(id);
+			}
+		}
+	}
+
+	private static <K> void unindex(Map<K, Set<UUID>> index, K key, UUID id) {
+		if (key == null) {
+			return;
+		}
+		Set<UUID> ids = index.get(key);
+		ids.remove(id);
+		if (ids.isEmpty()) {
+			index.remove(key);
+		}
+	}
+
+	private T visible(UUID id) {
+		return writes.containsKey(id) ? writes.get(id) : table.get(id, transaction.snapshot());
+	}
+
+	/*
+	 * The committed row, unless this transaction has overwritten it
+	 */
+	private T committed(UUID id) {
+		return writes.containsKey(id) ? null : table.get(id, transaction.snapshot());
+	}
+
+}
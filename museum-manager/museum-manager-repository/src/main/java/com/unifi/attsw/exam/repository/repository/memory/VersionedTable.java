@@ -0,0 +1,192 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * 
+ * Multi-version storage of one entity type. Every row keeps the chain of its
+ * committed versions (newest first), so a reader resolves the row as it was at
+ * its snapshot while writers install new versions. Rows are indexed by id, by
+ * name (sorted, to serve keyset pages) and, optionally, by a group id (e.g. the
+ * Museum of an Exhibition). Index entries may point to rows whose visible
+ * version does not match the key anymore, readers always check the resolved
+ * row.
+ *
+ * Only one writer at a time installs or prunes versions, readers never lock.
+ *
+ */
+class VersionedTable<T> {
+
+	private static final class RowVersion<T> {
+		private final long version;
+		/*
+		 * null if the row has been deleted in this version
+		 */
+		private final T value;
+		private volatile RowVersion<T> previous;
+
+		private RowVersion(long version, T value, RowVersion<T> previous) {
+			this.version = version;
+			this.value = value;
+			this.previous = previous;
+		}
+	}
+
+	private final ConcurrentMap<UUID, RowVersion<T>> rows = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<String, Set<UUID>> idsByName = new ConcurrentSkipListMap<>();
+	private final ConcurrentMap<UUID, Set<UUID>> idsByGroup = new ConcurrentHashMap<>();
+
+	private final Function<T, UUID> idOf;
+	private final Function<T, String> nameOf;
+	private final Function<T, UUID> groupOf;
+	private final UnaryOperator<T> copyOf;
+	private final ToLongFunction<T> lockVersionOf;
+	private final ObjLongConsumer<T> setLockVersion;
+
+	VersionedTable(Function<T, UUID> idOf, Function<T, String> nameOf, Function<T, UUID> groupOf,
+			UnaryOperator<T> copyOf, ToLongFunction<T> lockVersionOf, ObjLongConsumer<T> setLockVersion) {
+		this.idOf = idOf;
+		this.nameOf = nameOf;
+		this.groupOf = groupOf;
+		this.copyOf = copyOf;
+		this.lockVersionOf = lockVersionOf;
+		this.setLockVersion = setLockVersion;
+	}
+
+	UUID idOf(T row) {
+		return idOf.apply(row);
+	}
+
+	String nameOf(T row) {
+		return nameOf.apply(row);
+	}
+
+	UUID groupOf(T row) {
+		return groupOf == null ? null : groupOf.apply(row);
+	}
+
+	T copyOf(T row) {
+		return copyOf.apply(row);
+	}
+
+	/**
+	 * @return the version of the entity used for optimistic locking, unrelated
+	 *         to the versions of this table.
+	 */
+	long lockVersionOf(T row) {
+		return lockVersionOf.applyAsLong(row);
+	}
+
+	void setLockVersion(T row, long lockVersion) {
+		setLockVersion.accept(row, lockVersion);
+	}
+
+	/**
+	 * @return the row as seen at the given snapshot, null if it does not exist.
+	 *         The returned instance is shared and must not be modified.
+	 */
+	T get(UUID id, long snapshot) {
+		RowVersion<T> version = rows.get(id);
+		while (version != null && version.version > snapshot) {
+			version = version.previous;
+		}
+		return version == null ? null : version.value;
+	}
+
+	Set<UUID> idsWithName(String name) {
+		return idsByName.getOrDefault(name, Collections.emptySet());
+	}
+
+	Set<UUID> idsInGroup(UUID group) {
+		return idsByGroup.getOrDefault(group, Collections.emptySet());
+	}
+
+	/**
+	 * @return the name index, starting after lastName (excluded) or from the
+	 *         first name if lastName is null.
+	 */
+	NavigableMap<String, Set<UUID>> namesAfter(String lastName) {
+		return lastName == null ? idsByName : idsByName.tailMap(lastName, false);
+	}
+
+	/**
+	 * Installs the given rows (null values are deletions) as the given version.
+	 * The new versions must be published by the caller once every table has
+	 * been updated.
+	 */
+	void install(Map<UUID, T> writes, long version) {
+		writes.forEach((id, value) -> {
+			if (value != null) {
+				index(idsByName, nameOf(value), id);
+				if (groupOf(value) != null) {
+					index(idsByGroup, groupOf(value), id);
+				}
+			}
+			rows.compute(id, (key, head) -> new RowVersion<>(version, value, head));
+		});
+	}
+
+	/**
+	 * Drops the versions of the row that no snapshot newer than oldestSnapshot
+	 * can see, together with the index entries only they were using.
+	 */
+	void prune(UUID id, long oldestSnapshot) {
+		RowVersion<T> head = rows.get(id);
+		RowVersion<T> oldestVisible = head;
+		while (oldestVisible != null && oldestVisible.version > oldestSnapshot) {
+			oldestVisible = oldestVisible.previous;
+		}
+		if (oldestVisible == null) {
+			return;
+		}
+		RowVersion<T> dropped = oldestVisible.previous;
+		oldestVisible.previous = null;
+
+		Set<String> retainedNames = new HashSet<>();
+		Set<UUID> retainedGroups = new HashSet<>();
+		if (oldestVisible == head && head.value == null) {
+			rows.remove(id, head);
+		} else {
+			for (RowVersion<T> version = head; version != null; version = version.previous) {
+				if (version.value != null) {
+					retainedNames.add(nameOf(version.value));
+					retainedGroups.add(groupOf(version.value));
+				}
+			}
+		}
+		for (RowVersion<T> version = dropped; version != null; version = version.previous) {
+			if (version.value != null) {
+				if (!retainedNames.contains(nameOf(version.value))) {
+					unindex(idsByName, nameOf(version.value), id);
+				}
+				if (groupOf(version.value) != null && !retainedGroups.contains(groupOf(version.value))) {
+					unindex(idsByGroup, groupOf(version.value), id);
+				}
+			}
+		}
+	}
+
+	private static <K> void index(ConcurrentMap<K, Set<UUID>> index, K key, UUID id) {
+		index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+	}
+
+	private static <K> void unindex(ConcurrentMap<K, Set<UUID>> index, K key, UUID id) {
+		index.computeIfPresent(key, (k, ids) -> {
+			ids.remove(id);
+			return ids.isEmpty() ? null : ids;
+		});
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+/**
+ *
+ * Persists many new entities in the current transaction, flushing them every
+ * {@value #FLUSH_INTERVAL} entities, so that Hibernate sends their inserts
+ * through JDBC batches of hibernate.jdbc.batch_size rows, ordered by table when
+ * hibernate.order_inserts is set. The persistence context is cleared after
+ * each flush, so it never holds more than a flush of entities: those read
+ * before in the same transaction are detached too. The persisted entities are
+ * not put in the second-level cache.
+ *
+ */
+final class BatchPersister {
+
+	/**
+	 * Entities persisted between two flushes.
+	 */
+	static final int FLUSH_INTERVAL = 1000;
+
+	private BatchPersister() {
+	}
+
+	/**
+	 * @param entityManager The entity manager of the current transaction.
+	 * @param entities      The new entities to persist.
+	 * @return The number of persisted entities.
+	 */
+	static int persistAll(EntityManager entityManager, Collection<?> entities) {
+		Session session = entityManager.unwrap(Session.class);
+		CacheMode cacheMode = session.getCacheMode();
+		session.setCacheMode(CacheMode.IGNORE);
+		try {
+			int persisted = 0;
+			for (Object entity : entities) {
+				session.persist(entity);
+				if (++persisted % FLUSH_INTERVAL == 0) {
+					session.flush();
+					session.clear();
+				}
+			}
+			session.flush();
+			session.clear();
+			return persisted;
+		} finally {
+			session.setCacheMode(cacheMode);
+		}
+	}
+
+}
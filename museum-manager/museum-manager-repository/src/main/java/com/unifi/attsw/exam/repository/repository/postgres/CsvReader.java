@@ -0,0 +1,91 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * Reads comma separated records one at a time. Fields may be enclosed in
+ * double quotes to contain commas, line breaks or doubled double quotes.
+ *
+ */
+class CsvReader {
+
+	private final BufferedReader reader;
+
+	/*
+	 * Number of the line where the last record read starts
+	 */
+	private int lineNumber;
+	private int nextLineNumber = 1;
+
+	CsvReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * @return The fields of the next record, {@code null} at the end of the input.
+	 *         Empty lines are skipped.
+	 * @throws IOException If the input cannot be read or ends inside quotes.
+	 */
+	List<String> readRecord() throws IOException {
+		String line;
+		do {
+			line = reader.readLine();
+			lineNumber = nextLineNumber++;
+		} while (line != null && line.isEmpty());
+		if (line == null) {
+			return null;
+		}
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == line.length()) {
+				if (!quoted) {
+					break;
+				}
+				line = reader.readLine();
+				nextLineNumber++;
+				if (line == null) {
+					throw new IOException("Unterminated quotes at line " + lineNumber + ".");
+				}
+				field.append('\n');
+				i = 0;
+				continue;
+			}
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				} else if (i < line.length() && line.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * @return The number of the line where the last record read starts.
+	 */
+	int getLineNumber() {
+		return lineNumber;
+	}
+
+}
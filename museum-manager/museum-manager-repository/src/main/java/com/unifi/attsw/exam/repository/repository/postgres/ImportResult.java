@@ -0,0 +1,58 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * Outcome of a bulk import: records read, rows actually inserted and time
+ * taken.
+ *
+ */
+public class ImportResult {
+
+	private final long rowsRead;
+	private final long rowsImported;
+	private final long elapsedNanos;
+
+	public ImportResult(long rowsRead, long rowsImported, long elapsedNanos) {
+		this.rowsRead = rowsRead;
+		this.rowsImported = rowsImported;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public long getRowsRead() {
+		return rowsRead;
+	}
+
+	public long getRowsImported() {
+		return rowsImported;
+	}
+
+	/**
+	 * @return The records read which were not inserted, e.g. because a row with
+	 *         the same name already exists.
+	 */
+	public long getRowsSkipped() {
+		return rowsRead - rowsImported;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return The records read per second.
+	 */
+	public double getRowsPerSecond() {
+		return elapsedNanos == 0 ? 0 : rowsRead * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "%d rows read, %d imported, %d skipped in %.1f s (%.0f rows/s)", rowsRead,
+				rowsImported, getRowsSkipped(), elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1),
+				getRowsPerSecond());
+	}
+
+}
@@ -0,0 +1,202 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ *
+ * Imports Museums and Exhibitions from CSV files into a Postgres database,
+ * reading one record at a time and inserting them through JDBC batches. The
+ * first record of a file is a header and is skipped. Rows whose name already
+ * exists are skipped, as are Exhibitions whose Museum does not exist or has no
+ * free room.
+ *
+ */
+public class PostgresBatchImporter {
+
+	private static final String INSERT_MUSEUM = "INSERT INTO museums"
+			+ " (id, museum_name, number_of_rooms, number_of_occupied_rooms) VALUES (?, ?, ?, 0)"
+			+ " ON CONFLICT (museum_name) DO NOTHING";
+
+	/*
+	 * Inserts the Exhibition and occupies a room of its Museum, or does nothing
+	 */
+	private static final String INSERT_EXHIBITION = "WITH museum AS (SELECT id FROM museums"
+			+ "   WHERE museum_name = ? AND number_of_occupied_rooms < number_of_rooms FOR UPDATE),"
+			+ " inserted AS (INSERT INTO exhibitions (id, museum_id, exhibition_name, total_seats, booked_seats)"
+			+ "   SELECT ?, id, ?, ?, 0 FROM museum ON CONFLICT (exhibition_name) DO NOTHING RETURNING museum_id)"
+			+ " UPDATE museums SET number_of_occupied_rooms = number_of_occupied_rooms + 1, version = version + 1"
+			+ " WHERE id IN (SELECT museum_id FROM inserted)";
+
+	/**
+	 * Binds the fields of a record to the insert statement.
+	 */
+	@FunctionalInterface
+	private interface RecordBinder {
+		void bind(PreparedStatement statement, List<String> fields) throws SQLException;
+	}
+
+	private final Connection connection;
+	private final int batchSize;
+	private final int commitInterval;
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * @param connection     The connection to the database, used by one import
+	 *                       at a time.
+	 * @param batchSize      The number of rows sent to the database at a time.
+	 * @param commitInterval The number of rows after which the rows sent are
+	 *                       committed.
+	 */
+	public PostgresBatchImporter(Connection connection, int batchSize, int commitInterval) {
+		this(connection, batchSize, commitInterval, null);
+	}
+
+	/**
+	 * @param connection           The connection to the database, used by one
+	 *                             import at a time.
+	 * @param batchSize            The number of rows sent to the database at a
+	 *                             time.
+	 * @param commitInterval       The number of rows after which the rows sent
+	 *                             are committed.
+	 * @param entityManagerFactory The EntityManagerFactory of the same database,
+	 *                             whose cached Museums, Exhibitions and query
+	 *                             results are evicted after every commit.
+	 */
+	public PostgresBatchImporter(Connection connection, int batchSize, int commitInterval,
+			EntityManagerFactory entityManagerFactory) {
+		if (batchSize <= 0 || commitInterval <= 0) {
+			throw new IllegalArgumentException("Batch size and commit interval must be positive.");
+		}
+		this.connection = connection;
+		this.batchSize = batchSize;
+		this.commitInterval = commitInterval;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * Imports Museums from records {@code name,total_rooms}, with no occupied
+	 * room. If the import fails, the rows committed until then stay imported.
+	 *
+	 * @param csv The CSV file.
+	 * @return The result of the import.
+	 * @throws RepositoryException If the file cannot be read, a record is
+	 *                             malformed or the database fails.
+	 */
+	public ImportResult importMuseums(Reader csv) throws RepositoryException {
+		String[] changedTables = { PostgresChangeFeed.MUSEUMS };
+		return importRecords(csv, INSERT_MUSEUM, 2, changedTables, (statement, fields) -> {
+			statement.setObject(1, UUID.randomUUID());
+			statement.setString(2, fields.get(0));
+			statement.setInt(3, Integer.parseInt(fields.get(1).trim()));
+		});
+	}
+
+	/**
+	 * Imports Exhibitions from records {@code museum_name,name,total_seats}, with
+	 * no booked seat, each occupying a room of its Museum. If the import fails,
+	 * the rows committed until then stay imported.
+	 *
+	 * @param csv The CSV file.
+	 * @return The result of the import.
+	 * @throws RepositoryException If the file cannot be read, a record is
+	 *                             malformed or the database fails.
+	 */
+	public ImportResult importExhibitions(Reader csv) throws RepositoryException {
+		String[] changedTables = { PostgresChangeFeed.MUSEUMS, PostgresChangeFeed.EXHIBITIONS };
+		return importRecords(csv, INSERT_EXHIBITION, 3, changedTables, (statement, fields) -> {
+			statement.setString(1, fields.get(0));
+			statement.setObject(2, UUID.randomUUID());
+			statement.setString(3, fields.get(1));
+			statement.setInt(4, Integer.parseInt(fields.get(2).trim()));
+		});
+	}
+
+	/*
+	 * Rows are not notified to change feeds one by one, the changed tables are
+	 * notified for reload at every commit instead
+	 */
+	private ImportResult importRecords(Reader csv, String insert, int fieldCount, String[] changedTables,
+			RecordBinder binder) throws RepositoryException {
+		long start = System.nanoTime();
+		CsvReader reader = new CsvReader(csv);
+		long rowsRead = 0;
+		long rowsImported = 0;
+		try {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try (PreparedStatement statement = connection.prepareStatement(insert)) {
+				reader.readRecord();
+				int batched = 0;
+				int uncommitted = 0;
+				List<String> fields;
+				while ((fields = reader.readRecord()) != null) {
+					if (fields.size() != fieldCount) {
+						throw new RepositoryException("Malformed record at line " + reader.getLineNumber() + ".");
+					}
+					try {
+						binder.bind(statement, fields);
+					} catch (NumberFormatException ex) {
+						throw new RepositoryException("Malformed record at line " + reader.getLineNumber() + ".", ex);
+					}
+					if (uncommitted == 0) {
+						PostgresChangeFeed.suspendRowNotifications(connection);
+					}
+					statement.addBatch();
+					rowsRead++;
+					if (++batched == batchSize) {
+						rowsImported += executeBatch(statement);
+						batched = 0;
+					}
+					if (++uncommitted == commitInterval) {
+						rowsImported += executeBatch(statement);
+						batched = 0;
+						commit(changedTables);
+						uncommitted = 0;
+					}
+				}
+				if (uncommitted > 0) {
+					rowsImported += executeBatch(statement);
+					commit(changedTables);
+				}
+			} catch (SQLException | IOException | RepositoryException ex) {
+				connection.rollback();
+				throw ex;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		} catch (SQLException | IOException ex) {
+			throw new RepositoryException("Impossible to import the records.", ex);
+		}
+		return new ImportResult(rowsRead, rowsImported, System.nanoTime() - start);
+	}
+
+	private void commit(String[] changedTables) throws SQLException {
+		PostgresChangeFeed.notifyReload(connection, changedTables);
+		connection.commit();
+		SecondLevelCache.evictMuseumsAndExhibitions(entityManagerFactory);
+	}
+
+	/*
+	 * Returns the number of rows inserted by the batch, rows of unknown count
+	 * being counted as inserted
+	 */
+	private static int executeBatch(PreparedStatement statement) throws SQLException {
+		int inserted = 0;
+		for (int count : statement.executeBatch()) {
+			inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+		}
+		return inserted;
+	}
+
+}
@@ -0,0 +1,264 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import com.unifi.attsw.exam.repository.changefeed.ChangeFeed;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ *
+ * {@link ChangeFeed} of a Postgres database. Triggers on the museums and
+ * exhibitions tables ({@link #installTriggers(Connection)}) notify every
+ * committed row, which a background thread receives through LISTEN on a
+ * dedicated connection and publishes to the listeners. If the connection is
+ * lost, the feed connects again and reports the changes as lost.
+ *
+ */
+public class PostgresChangeFeed extends ChangeFeed {
+
+	/**
+	 * Supplies the connections the feed listens on.
+	 */
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		Connection connect() throws SQLException;
+	}
+
+	public static final String CHANNEL = "museum_manager_changes";
+
+	static final String MUSEUMS = "museums";
+	static final String EXHIBITIONS = "exhibitions";
+	private static final String RELOAD = "RELOAD";
+
+	private static final int POLL_TIMEOUT_MILLIS = 500;
+	private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+	/*
+	 * Set to "on" by transactions which notify reloads instead of their rows
+	 */
+	static final String BULK_LOAD_SETTING = "museum_manager.bulk_load";
+
+	/*
+	 * Notifies "table,operation,id,<columns>,version,name" for every row, the
+	 * name comes last as it may contain commas. Notifications are limited to 8000
+	 * bytes, larger rows and truncations notify "table,RELOAD" instead
+	 */
+	private static final String NOTIFY_FUNCTION = "CREATE OR REPLACE FUNCTION museum_manager_notify_change()"
+			+ " RETURNS trigger AS $$"
+			+ " DECLARE changed RECORD; payload TEXT;"
+			+ " BEGIN"
+			+ "   IF TG_OP = 'TRUNCATE' THEN"
+			+ "     payload := TG_TABLE_NAME || '," + RELOAD + "';"
+			+ "   ELSIF current_setting('" + BULK_LOAD_SETTING + "', true) = 'on' THEN"
+			+ "     RETURN NULL;"
+			+ "   ELSE"
+			+ "     IF TG_OP = 'DELETE' THEN changed := OLD; ELSE changed := NEW; END IF;"
+			+ "     IF TG_TABLE_NAME = '" + MUSEUMS + "' THEN"
+			+ "       payload := concat_ws(',', TG_TABLE_NAME, TG_OP, changed.id, changed.number_of_rooms,"
+			+ "         changed.number_of_occupied_rooms, changed.version, changed.museum_name);"
+			+ "     ELSE"
+			+ "       payload := concat_ws(',', TG_TABLE_NAME, TG_OP, changed.id, changed.museum_id,"
+			+ "         changed.total_seats, changed.booked_seats, changed.version, changed.exhibition_name);"
+			+ "     END IF;"
+			+ "     IF octet_length(payload) >= 8000 THEN payload := TG_TABLE_NAME || '," + RELOAD + "'; END IF;"
+			+ "   END IF;"
+			+ "   PERFORM pg_notify('" + CHANNEL + "', payload);"
+			+ "   RETURN NULL;"
+			+ " END;"
+			+ " $$ LANGUAGE plpgsql";
+
+	private static final String CREATE_TRIGGER = "DO $$ BEGIN"
+			+ " IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = '%1$s' AND tgrelid = '%2$s'::regclass) THEN"
+			+ "   CREATE TRIGGER %1$s AFTER %3$s ON %2$s FOR EACH %4$s"
+			+ "   EXECUTE PROCEDURE museum_manager_notify_change();"
+			+ " END IF;"
+			+ " END $$";
+
+	/*
+	 * Serializes concurrent installations
+	 */
+	private static final long INSTALL_LOCK = 0x6d75_7365_756dL;
+
+	private final ConnectionFactory connectionFactory;
+	private final Thread listenerThread;
+	private volatile boolean running = true;
+
+	/**
+	 * Starts listening for changes, which are published from then on.
+	 *
+	 * @param connectionFactory Supplies the connections to listen on, which are
+	 *                          kept open and not shared.
+	 * @throws RepositoryException If the first connection fails.
+	 */
+	public PostgresChangeFeed(ConnectionFactory connectionFactory) throws RepositoryException {
+		this.connectionFactory = connectionFactory;
+		Connection connection;
+		try {
+			connection = connect();
+		} catch (SQLException ex) {
+			throw new RepositoryException("Cannot listen for database changes.", ex);
+		}
+		listenerThread = new Thread(() -> listen(connection), "museum-manager-change-feed");
+		listenerThread.setDaemon(true);
+		listenerThread.start();
+	}
+
+	/**
+	 * Creates the triggers notifying the changes of the museums and exhibitions
+	 * tables, unless they already exist.
+	 *
+	 * @param connection The connection to the database, with the tables already
+	 *                   created.
+	 * @throws SQLException If the triggers cannot be created.
+	 */
+	public static void installTriggers(Connection connection) throws SQLException {
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SELECT pg_advisory_xact_lock(" + INSTALL_LOCK + ")");
+			statement.execute(NOTIFY_FUNCTION);
+			for (String table : new String[] { MUSEUMS, EXHIBITIONS }) {
+				statement.execute(String.format(CREATE_TRIGGER, table + "_notify_change", table,
+						"INSERT OR UPDATE OR DELETE", "ROW"));
+				statement.execute(
+						String.format(CREATE_TRIGGER, table + "_notify_truncate", table, "TRUNCATE", "STATEMENT"));
+			}
+			connection.commit();
+		} catch (SQLException ex) {
+			connection.rollback();
+			throw ex;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/**
+	 * Stops notifying the rows changed by the current transaction of the
+	 * connection, which must notify reloads with
+	 * {@link #notifyReload(Connection, String...)} instead. Used by bulk loads,
+	 * for which one notification per row would be slower than the load itself.
+	 *
+	 * @param connection The connection, in a transaction.
+	 * @throws SQLException If the database fails.
+	 */
+	static void suspendRowNotifications(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SELECT set_config('" + BULK_LOAD_SETTING + "', 'on', true)");
+		}
+	}
+
+	/**
+	 * Notifies, at commit, that the tables must be reloaded.
+	 *
+	 * @param connection The connection, in a transaction.
+	 * @param tables     The changed tables.
+	 * @throws SQLException If the database fails.
+	 */
+	static void notifyReload(Connection connection, String... tables) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			for (String table : tables) {
+				statement.execute("SELECT pg_notify('" + CHANNEL + "', '" + table + "," + RELOAD + "')");
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		try {
+			listenerThread.join(POLL_TIMEOUT_MILLIS + RECONNECT_DELAY_MILLIS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Connection connect() throws SQLException {
+		Connection connection = connectionFactory.connect();
+		try (Statement statement = connection.createStatement()) {
+			connection.setAutoCommit(true);
+			statement.execute("LISTEN " + CHANNEL);
+			return connection;
+		} catch (SQLException ex) {
+			connection.close();
+			throw ex;
+		}
+	}
+
+	private void listen(Connection firstConnection) {
+		Connection connection = firstConnection;
+		while (running) {
+			try {
+				if (connection == null) {
+					connection = connect();
+					publishChangesLost();
+				}
+				PGNotification[] notifications = connection.unwrap(PGConnection.class)
+						.getNotifications(POLL_TIMEOUT_MILLIS);
+				if (notifications != null) {
+					for (PGNotification notification : notifications) {
+						publishPayload(notification.getParameter());
+					}
+				}
+			} catch (SQLException ex) {
+				closeQuietly(connection);
+				connection = null;
+				pause();
+			}
+		}
+		closeQuietly(connection);
+	}
+
+	private void publishPayload(String payload) {
+		String[] fields = payload.split(",", payload.startsWith(MUSEUMS + ",") ? 7 : 8);
+		try {
+			if (fields.length == 7 && MUSEUMS.equals(fields[0])) {
+				Museum museum = new Museum(fields[6], Integer.parseInt(fields[3]));
+				museum.setId(UUID.fromString(fields[2]));
+				museum.setOccupiedRooms(Integer.parseInt(fields[4]));
+				museum.setVersion(Long.parseLong(fields[5]));
+				publishMuseum(ChangeType.valueOf(fields[1]), museum);
+			} else if (fields.length == 8 && EXHIBITIONS.equals(fields[0])) {
+				Exhibition exhibition = new Exhibition(fields[7], Integer.parseInt(fields[4]));
+				exhibition.setId(UUID.fromString(fields[2]));
+				exhibition.setMuseumId(UUID.fromString(fields[3]));
+				exhibition.setBookedSeats(Integer.parseInt(fields[5]));
+				exhibition.setVersion(Long.parseLong(fields[6]));
+				publishExhibition(ChangeType.valueOf(fields[1]), exhibition);
+			} else {
+				publishChangesLost();
+			}
+		} catch (IllegalArgumentException ex) {
+			publishChangesLost();
+		}
+	}
+
+	private void pause() {
+		try {
+			Thread.sleep(RECONNECT_DELAY_MILLIS);
+		} catch (InterruptedException ex) {
+			running = false;
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void closeQuietly(Connection connection) {
+		if (connection == null) {
+			return;
+		}
+		try {
+			connection.close();
+		} catch (SQLException ex) {
+			// already broken
+		}
+	}
+
+}
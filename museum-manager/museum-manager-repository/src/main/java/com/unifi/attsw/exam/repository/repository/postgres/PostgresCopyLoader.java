@@ -0,0 +1,272 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+/**
+ *
+ * Loads Museums and Exhibitions into a Postgres database through the COPY
+ * protocol of the driver, streaming them as rows of text instead of executing
+ * a statement per row. Each load runs in a single transaction, so either all
+ * its records are loaded or none. Museums and Exhibitions without an ID get a
+ * random one, set on them.
+ *
+ * Exhibitions are copied into a temporary table, then loaded with a few
+ * set-based statements: they must belong to existing Museums, whose occupied
+ * rooms are then set to the number of their Exhibitions, which must not exceed
+ * their rooms.
+ *
+ */
+public class PostgresCopyLoader {
+
+	private static final String COPY_MUSEUMS = "COPY museums"
+			+ " (id, museum_name, number_of_rooms, number_of_occupied_rooms, version) FROM STDIN";
+
+	private static final String CREATE_EXHIBITIONS_LOAD = "CREATE TEMPORARY TABLE exhibitions_load"
+			+ " (id UUID NOT NULL, museum_id UUID NOT NULL, exhibition_name TEXT NOT NULL, total_seats INT NOT NULL,"
+			+ " booked_seats INT NOT NULL, seat_map BYTEA) ON COMMIT DROP";
+
+	private static final String COPY_EXHIBITIONS = "COPY exhibitions_load FROM STDIN";
+
+	private static final String FIND_MISSING_MUSEUM = "SELECT l.museum_id FROM exhibitions_load l"
+			+ " WHERE NOT EXISTS (SELECT 1 FROM museums m WHERE m.id = l.museum_id) LIMIT 1";
+
+	private static final String INSERT_EXHIBITIONS = "INSERT INTO exhibitions"
+			+ " (id, museum_id, exhibition_name, total_seats, booked_seats, seat_map, version)"
+			+ " SELECT id, museum_id, exhibition_name, total_seats, booked_seats, seat_map, 0 FROM exhibitions_load";
+
+	/*
+	 * Counts all the Exhibitions of the Museums of the loaded ones, those added
+	 * before included
+	 */
+	private static final String UPDATE_OCCUPIED_ROOMS = "UPDATE museums m"
+			+ " SET number_of_occupied_rooms = c.exhibitions, version = m.version + 1"
+			+ " FROM (SELECT museum_id, count(*) AS exhibitions FROM exhibitions"
+			+ "   WHERE museum_id IN (SELECT museum_id FROM exhibitions_load) GROUP BY museum_id) c"
+			+ " WHERE m.id = c.museum_id AND m.number_of_occupied_rooms <> c.exhibitions";
+
+	private static final String FIND_FULL_MUSEUM = "SELECT museum_name FROM museums"
+			+ " WHERE number_of_occupied_rooms > number_of_rooms"
+			+ " AND id IN (SELECT museum_id FROM exhibitions_load) LIMIT 1";
+
+	/*
+	 * Characters of rows buffered before being sent to the database
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Appends a record to the rows to copy, as a line of tab separated values.
+	 */
+	@FunctionalInterface
+	private interface RowWriter<T> {
+		void write(StringBuilder rows, T record);
+	}
+
+	/**
+	 * The statements of a load, returning the number of rows loaded.
+	 */
+	@FunctionalInterface
+	private interface LoadStatements {
+		long execute() throws SQLException, RepositoryException;
+	}
+
+	private final Connection connection;
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * @param connection The connection to the database, used by one load at a
+	 *                   time.
+	 */
+	public PostgresCopyLoader(Connection connection) {
+		this(connection, null);
+	}
+
+	/**
+	 * @param connection           The connection to the database, used by one
+	 *                             load at a time.
+	 * @param entityManagerFactory The EntityManagerFactory of the same database,
+	 *                             whose cached Museums, Exhibitions and query
+	 *                             results are evicted after every load.
+	 */
+	public PostgresCopyLoader(Connection connection, EntityManagerFactory entityManagerFactory) {
+		this.connection = connection;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * Loads new Museums, with no occupied room.
+	 *
+	 * @param museums The Museums to load, read once.
+	 * @return The result of the load.
+	 * @throws RepositoryException If a Museum with the same ID or name exists,
+	 *                             or the database fails.
+	 */
+	public ImportResult loadMuseums(Iterable<Museum> museums) throws RepositoryException {
+		return load(() -> copy(COPY_MUSEUMS, museums, PostgresCopyLoader::writeMuseum), PostgresChangeFeed.MUSEUMS);
+	}
+
+	/**
+	 * Loads new Exhibitions, each occupying a room of its Museum.
+	 *
+	 * @param exhibitions The Exhibitions to load, read once.
+	 * @return The result of the load.
+	 * @throws RepositoryException If the Museum of an Exhibition does not exist
+	 *                             or has not enough rooms, an Exhibition with
+	 *                             the same ID or name exists, or the database
+	 *                             fails.
+	 */
+	public ImportResult loadExhibitions(Iterable<Exhibition> exhibitions) throws RepositoryException {
+		return load(() -> {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute(CREATE_EXHIBITIONS_LOAD);
+				copy(COPY_EXHIBITIONS, exhibitions, PostgresCopyLoader::writeExhibition);
+				statement.execute("ANALYZE exhibitions_load");
+				try (ResultSet missingMuseum = statement.executeQuery(FIND_MISSING_MUSEUM)) {
+					if (missingMuseum.next()) {
+						throw new RepositoryException("Museum does not exist: " + missingMuseum.getString(1));
+					}
+				}
+				long inserted = statement.executeUpdate(INSERT_EXHIBITIONS);
+				statement.executeUpdate(UPDATE_OCCUPIED_ROOMS);
+				try (ResultSet fullMuseum = statement.executeQuery(FIND_FULL_MUSEUM)) {
+					if (fullMuseum.next()) {
+						throw new RepositoryException("Not enough rooms in Museum: " + fullMuseum.getString(1));
+					}
+				}
+				return inserted;
+			}
+		}, PostgresChangeFeed.MUSEUMS, PostgresChangeFeed.EXHIBITIONS);
+	}
+
+	/*
+	 * Rows are not notified to change feeds one by one, the changed tables are
+	 * notified for reload at commit instead
+	 */
+	private ImportResult load(LoadStatements statements, String... changedTables) throws RepositoryException {
+		long start = System.nanoTime();
+		try {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				PostgresChangeFeed.suspendRowNotifications(connection);
+				long rows = statements.execute();
+				PostgresChangeFeed.notifyReload(connection, changedTables);
+				connection.commit();
+				SecondLevelCache.evictMuseumsAndExhibitions(entityManagerFactory);
+				return new ImportResult(rows, rows, System.nanoTime() - start);
+			} catch (SQLException | RepositoryException | RuntimeException ex) {
+				connection.rollback();
+				throw ex;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		} catch (SQLException | RuntimeException ex) {
+			throw new RepositoryException("Impossible to load the records.", ex);
+		}
+	}
+
+	private <T> long copy(String copy, Iterable<T> records, RowWriter<T> writer) throws SQLException {
+		CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copy);
+		try {
+			StringBuilder rows = new StringBuilder(2 * BUFFER_SIZE);
+			for (T record : records) {
+				writer.write(rows, record);
+				if (rows.length() >= BUFFER_SIZE) {
+					writeRows(copyIn, rows);
+				}
+			}
+			writeRows(copyIn, rows);
+			return copyIn.endCopy();
+		} finally {
+			if (copyIn.isActive()) {
+				copyIn.cancelCopy();
+			}
+		}
+	}
+
+	private static void writeRows(CopyIn copyIn, StringBuilder rows) throws SQLException {
+		byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+		copyIn.writeToCopy(bytes, 0, bytes.length);
+		rows.setLength(0);
+	}
+
+	private static void writeMuseum(StringBuilder rows, Museum museum) {
+		if (museum.getId() == null) {
+			museum.setId(UUID.randomUUID());
+		}
+		rows.append(museum.getId()).append('\t');
+		appendText(rows, museum.getName());
+		rows.append('\t').append(museum.getTotalRooms()).append("\t0\t0\n");
+	}
+
+	private static void writeExhibition(StringBuilder rows, Exhibition exhibition) {
+		if (exhibition.getId() == null) {
+			exhibition.setId(UUID.randomUUID());
+		}
+		rows.append(exhibition.getId()).append('\t');
+		appendText(rows, exhibition.getMuseumId() == null ? null : exhibition.getMuseumId().toString());
+		rows.append('\t');
+		appendText(rows, exhibition.getName());
+		rows.append('\t').append(exhibition.getTotalSeats()).append('\t').append(exhibition.getBookedSeats())
+				.append('\t');
+		appendBytes(rows, exhibition.getSeatMap());
+		rows.append('\n');
+	}
+
+	/*
+	 * COPY text format: backslashes and the delimiters are escaped, null is \N
+	 */
+	private static void appendText(StringBuilder rows, String value) {
+		if (value == null) {
+			rows.append("\\N");
+			return;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '\\':
+				rows.append("\\\\");
+				break;
+			case '\t':
+				rows.append("\\t");
+				break;
+			case '\n':
+				rows.append("\\n");
+				break;
+			case '\r':
+				rows.append("\\r");
+				break;
+			default:
+				rows.append(c);
+			}
+		}
+	}
+
+	/*
+	 * Bytea hex format, whose leading backslash is escaped as well
+	 */
+	private static void appendBytes(StringBuilder rows, byte[] value) {
+		if (value == null) {
+			rows.append("\\N");
+			return;
+		}
+		rows.append("\\\\x");
+		for (byte b : value) {
+			rows.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+	}
+
+}
@@ -1,18 +1,46 @@
 package com.unifi.attsw.exam.repository.repository.postgres;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.SessionImplementor;
 
 import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.SeatMap;
 import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
 
 public class PostgresExhibitionRepository implements ExhibitionRepository {
 
 	private EntityManager entityManager;
 
+	/*
+	 * Rows fetched at a time by the database cursor, each row being detached as
+	 * soon as it is read
+	 */
+	private static final int FETCH_SIZE = 1000;
+
+	private static final String BOOK_SEATS_QUERY = "UPDATE exhibitions e"
+			+ " SET booked_seats = e.booked_seats + b.seats, version = e.version + 1"
+			+ " FROM unnest(?, ?) AS b(id, seats)"
+			+ " WHERE e.id = b.id AND e.booked_seats + b.seats <= e.total_seats"
+			+ " RETURNING e.id, e.total_seats - e.booked_seats";
+
 	public PostgresExhibitionRepository(EntityManager entityManager) {
 		this.entityManager = entityManager;
 	}
@@ -22,6 +50,36 @@ public class PostgresExhibitionRepository implements ExhibitionRepository {
 		return entityManager.createQuery("FROM Exhibition", Exhibition.class).getResultList();
 	}
 
+	@Override
+	public List<Exhibition> findExhibitionsPage(String lastExhibitionName, int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive.");
+		}
+		TypedQuery<Exhibition> query;
+		if (lastExhibitionName == null) {
+			query = entityManager.createQuery("FROM Exhibition e ORDER BY e.name", Exhibition.class);
+		} else {
+			query = entityManager
+					.createQuery("FROM Exhibition e WHERE e.name > :lastName ORDER BY e.name", Exhibition.class)
+					.setParameter("lastName", lastExhibitionName);
+		}
+		return query.setMaxResults(pageSize).getResultList();
+	}
+
+	@Override
+	public void forEachExhibition(Consumer<Exhibition> consumer) {
+		Session session = entityManager.unwrap(Session.class);
+		try (ScrollableResults results = session.createQuery("FROM Exhibition", Exhibition.class)
+				.setFetchSize(FETCH_SIZE).setReadOnly(true).setCacheMode(CacheMode.IGNORE)
+				.scroll(ScrollMode.FORWARD_ONLY)) {
+			while (results.next()) {
+				Exhibition exhibition = (Exhibition) results.get(0);
+				session.evict(exhibition);
+				consumer.accept(exhibition);
+			}
+		}
+	}
+
 	@Override
 	public Exhibition findExhibitionById(UUID exhibitionId) {
 		try {
@@ -34,8 +92,10 @@ public class PostgresExhibitionRepository implements ExhibitionRepository {
 
 	@Override
 	public Exhibition findExhibitionByName(String exhibitionToFind) {
-		List<Exhibition> exhibitions = entityManager.createQuery("FROM Exhibition", Exhibition.class).getResultList();
-		return exhibitions.stream().filter(e -> e.getName().equals(exhibitionToFind)).findAny().orElse(null);
+		List<Exhibition> exhibitions = entityManager
+				.createQuery("FROM Exhibition e WHERE e.name = :name", Exhibition.class)
+				.setParameter("name", exhibitionToFind).setHint(QueryHints.CACHEABLE, true).getResultList();
+		return exhibitions.isEmpty() ? null : exhibitions.get(0);
 
 	}
 
@@ -45,7 +105,8 @@ public class PostgresExhibitionRepository implements ExhibitionRepository {
 			throw new IllegalArgumentException("Museum ID cannot be null.");
 		}
 
-		return findAllExhibitions().stream().filter(e -> e.getMuseumId().equals(museumId)).collect(Collectors.toList());
+		return entityManager.createQuery("FROM Exhibition e WHERE e.museumId = :museumId", Exhibition.class)
+				.setParameter("museumId", museumId).setHint(QueryHints.CACHEABLE, true).getResultList();
 
 	}
 
@@ -56,12 +117,112 @@ public class PostgresExhibitionRepository implements ExhibitionRepository {
 
 	}
 
+	@Override
+	public int addExhibitions(Collection<Exhibition> newExhibitions) {
+		return BatchPersister.persistAll(entityManager, newExhibitions);
+	}
+
 	@Override
 	public Exhibition updateExhibition(Exhibition updatedExhibition) {
 			return entityManager.merge(updatedExhibition);
 
 	}
 
+	@Override
+	public int bookSeat(UUID exhibitionId) {
+		if (exhibitionId == null) {
+			throw new IllegalArgumentException("Exhibition ID cannot be null.");
+		}
+
+		List<?> freeSeats = entityManager
+				.createNativeQuery("UPDATE exhibitions SET booked_seats = booked_seats + 1, version = version + 1"
+						+ " WHERE id = :id AND booked_seats < total_seats RETURNING total_seats - booked_seats")
+				.setParameter("id", exhibitionId).getResultList();
+		evictAfterCommit(List.of(exhibitionId));
+		return freeSeats.isEmpty() ? -1 : ((Number) freeSeats.get(0)).intValue();
+	}
+
+	@Override
+	public Map<UUID, Integer> bookSeats(Map<UUID, Integer> seatsByExhibitionId) {
+		UUID[] exhibitionIds = new UUID[seatsByExhibitionId.size()];
+		Integer[] seats = new Integer[seatsByExhibitionId.size()];
+		Map<UUID, Integer> freeSeats = new HashMap<>();
+		int i = 0;
+		for (Map.Entry<UUID, Integer> booking : seatsByExhibitionId.entrySet()) {
+			if (booking.getKey() == null || booking.getValue() == null || booking.getValue() <= 0) {
+				throw new IllegalArgumentException("Invalid booking request: " + booking);
+			}
+			exhibitionIds[i] = booking.getKey();
+			seats[i++] = booking.getValue();
+			freeSeats.put(booking.getKey(), -1);
+		}
+		if (freeSeats.isEmpty()) {
+			return freeSeats;
+		}
+
+		entityManager.unwrap(Session.class).doWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(BOOK_SEATS_QUERY)) {
+				statement.setArray(1, connection.createArrayOf("uuid", exhibitionIds));
+				statement.setArray(2, connection.createArrayOf("integer", seats));
+				try (ResultSet bookedExhibitions = statement.executeQuery()) {
+					while (bookedExhibitions.next()) {
+						freeSeats.put(bookedExhibitions.getObject(1, UUID.class), bookedExhibitions.getInt(2));
+					}
+				}
+			}
+		});
+		evictAfterCommit(freeSeats.keySet());
+		return freeSeats;
+	}
+
+	@Override
+	public int bookAdjacentSeats(UUID exhibitionId, int seats) {
+		Exhibition exhibition = findExhibitionToBook(exhibitionId);
+		return exhibition == null ? -1 : SeatMap.bookAdjacentSeats(exhibition, seats);
+	}
+
+	@Override
+	public boolean bookSeatNumbers(UUID exhibitionId, int[] seatNumbers) {
+		Exhibition exhibition = findExhibitionToBook(exhibitionId);
+		return exhibition != null && SeatMap.bookSeatNumbers(exhibition, seatNumbers);
+	}
+
+	@Override
+	public int deleteExhibitionsByMuseumId(UUID museumId) {
+		if (museumId == null) {
+			throw new IllegalArgumentException("Museum ID cannot be null.");
+		}
+
+		return entityManager.createQuery("DELETE FROM Exhibition e WHERE e.museumId = :museumId")
+				.setParameter("museumId", museumId).executeUpdate();
+	}
+
+	/*
+	 * The row is locked until the end of the transaction, so that concurrent
+	 * bookings of the same Exhibition wait for each other instead of failing the
+	 * version check; the updated seat map is written when the transaction is
+	 * flushed
+	 */
+	private Exhibition findExhibitionToBook(UUID exhibitionId) {
+		if (exhibitionId == null) {
+			throw new IllegalArgumentException("Exhibition ID cannot be null.");
+		}
+		return entityManager.find(Exhibition.class, exhibitionId, LockModeType.PESSIMISTIC_WRITE);
+	}
+
+	/*
+	 * Seats are booked with plain SQL, which Hibernate does not track: booked
+	 * exhibitions are evicted from the second-level cache when the transaction
+	 * completes, as evicting them earlier would let concurrent readers cache the
+	 * old row again before the commit. Cached query results are kept: they only
+	 * hold ids, selected by name or Museum, which bookings do not change.
+	 */
+	private void evictAfterCommit(Collection<UUID> exhibitionIds) {
+		Cache cache = entityManager.getEntityManagerFactory().getCache();
+		entityManager.unwrap(SessionImplementor.class).getActionQueue()
+				.registerProcess((success, session) -> exhibitionIds.forEach(id -> cache.evict(Exhibition.class, id)));
+	}
+
 	@Override
 	public void deleteExhibition(Exhibition deletedExhibition) {
 		entityManager.remove(deletedExhibition);
@@ -1,10 +1,19 @@
 package com.unifi.attsw.exam.repository.repository.postgres;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
 
 import com.unifi.attsw.exam.repository.model.Museum;
 import com.unifi.attsw.exam.repository.repository.MuseumRepository;
@@ -13,6 +22,12 @@ public class PostgresMuseumRepository implements MuseumRepository {
 
 	private EntityManager entityManager;
 
+	/*
+	 * Rows fetched at a time by the database cursor, each row being detached as
+	 * soon as it is read
+	 */
+	private static final int FETCH_SIZE = 1000;
+
 	public PostgresMuseumRepository(EntityManager entityManager) {
 		this.entityManager = entityManager;
 
@@ -23,6 +38,34 @@ public class PostgresMuseumRepository implements MuseumRepository {
 		return entityManager.createQuery("FROM Museum", Museum.class).getResultList();
 	}
 
+	@Override
+	public List<Museum> findMuseumsPage(String lastMuseumName, int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive.");
+		}
+		TypedQuery<Museum> query;
+		if (lastMuseumName == null) {
+			query = entityManager.createQuery("FROM Museum m ORDER BY m.name", Museum.class);
+		} else {
+			query = entityManager.createQuery("FROM Museum m WHERE m.name > :lastName ORDER BY m.name", Museum.class)
+					.setParameter("lastName", lastMuseumName);
+		}
+		return query.setMaxResults(pageSize).getResultList();
+	}
+
+	@Override
+	public void forEachMuseum(Consumer<Museum> consumer) {
+		Session session = entityManager.unwrap(Session.class);
+		try (ScrollableResults results = session.createQuery("FROM Museum", Museum.class).setFetchSize(FETCH_SIZE)
+				.setReadOnly(true).setCacheMode(CacheMode.IGNORE).scroll(ScrollMode.FORWARD_ONLY)) {
+			while (results.next()) {
+				Museum museum = (Museum) results.get(0);
+				session.evict(museum);
+				consumer.accept(museum);
+			}
+		}
+	}
+
 	@Override
 	public Museum findMuseumById(UUID id) {
 		Museum foundMuseum = entityManager.find(Museum.class, id);
@@ -35,8 +78,9 @@ public class PostgresMuseumRepository implements MuseumRepository {
 
 	@Override
 	public Museum findMuseumByName(String museumToFind) {
-		List<Museum> museums = entityManager.createQuery("FROM Museum", Museum.class).getResultList();
-		return museums.stream().filter(m -> m.getName().equals(museumToFind)).findAny().orElse(null);
+		List<Museum> museums = entityManager.createQuery("FROM Museum m WHERE m.name = :name", Museum.class)
+				.setParameter("name", museumToFind).setHint(QueryHints.CACHEABLE, true).getResultList();
+		return museums.isEmpty() ? null : museums.get(0);
 
 	}
 
@@ -46,6 +90,11 @@ public class PostgresMuseumRepository implements MuseumRepository {
 			return museum;
 	}
 
+	@Override
+	public int addMuseums(Collection<Museum> newMuseums) {
+		return BatchPersister.persistAll(entityManager, newMuseums);
+	}
+
 	@Override
 	public Museum updateMuseum(Museum updatedMuseum) {
 		return entityManager.merge(updatedMuseum);
@@ -0,0 +1,36 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+
+/**
+ *
+ * Evicts the Museums, the Exhibitions and the cached query results of an
+ * EntityManagerFactory, after rows written through plain JDBC have been
+ * committed: Hibernate neither sees them nor invalidates the query spaces they
+ * belong to. Nothing is evicted when the second-level cache is disabled.
+ *
+ */
+final class SecondLevelCache {
+
+	private SecondLevelCache() {
+	}
+
+	/**
+	 * @param entityManagerFactory The EntityManagerFactory whose caches are
+	 *                             evicted, none if null.
+	 */
+	static void evictMuseumsAndExhibitions(EntityManagerFactory entityManagerFactory) {
+		if (entityManagerFactory == null) {
+			return;
+		}
+		Cache cache = entityManagerFactory.getCache();
+		cache.evict(Museum.class);
+		cache.evict(Exhibition.class);
+		cache.unwrap(org.hibernate.Cache.class).evictQueryRegions();
+	}
+
+}
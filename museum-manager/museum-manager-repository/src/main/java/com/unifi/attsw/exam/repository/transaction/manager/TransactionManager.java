@@ -47,4 +47,19 @@ public interface TransactionManager {
 	 */
 	<T> T doInTransactionExhibition(ExhibitionTransactionCode<T> code) throws RepositoryException;
 
+	/**
+	 * Transaction Manager method for handling Museum and Exhibition read-only
+	 * operations. The transaction does not track the entities it reads, nor
+	 * writes any change: the code must not update the database.
+	 * 
+	 * @param <T> The generic type argument
+	 * @param code The Database queries to execute reading both Museum and
+	 *             Exhibition entities
+	 * @return The query result
+	 * @throws RepositoryException if an error occurs while operating with database,
+	 *                             including an attempt to write
+	 * 
+	 */
+	<T> T doInReadOnlyTransaction(TransactionCode<T> code) throws RepositoryException;
+
 }
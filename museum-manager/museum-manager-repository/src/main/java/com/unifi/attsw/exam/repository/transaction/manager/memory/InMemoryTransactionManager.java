@@ -0,0 +1,77 @@
+package com.unifi.attsw.exam.repository.transaction.manager.memory;
+
+import java.util.function.Function;
+
+import com.unifi.attsw.exam.repository.repository.exception.ConcurrentUpdateException;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryDatabase;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryExhibitionRepository;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryMuseumRepository;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryTransaction;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.code.ExhibitionTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.MuseumTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.TransactionCode;
+
+/**
+ *
+ * In-memory implementation for {@link TransactionManager}, backed by an
+ * {@link InMemoryDatabase}: no external database is needed, which makes it
+ * suitable for demos, benchmarks and load tests. Like the Postgres one, it can
+ * be shared among threads and entities returned by a transaction are detached
+ * copies.
+ *
+ */
+public class InMemoryTransactionManager implements TransactionManager {
+
+	private InMemoryDatabase database;
+
+	private static final String ERROR_MESSAGE = "Something went wrong committing to database, rollback";
+
+	public InMemoryTransactionManager(InMemoryDatabase database) {
+		this.database = database;
+	}
+
+	@Override
+	public <T> T doInTransaction(TransactionCode<T> query) throws RepositoryException {
+		return executeInTransaction(transaction -> query.apply(new InMemoryMuseumRepository(transaction),
+				new InMemoryExhibitionRepository(transaction)));
+	}
+
+	@Override
+	public <T> T doInTransactionMuseum(MuseumTransactionCode<T> query) throws RepositoryException {
+		return executeInTransaction(transaction -> query.apply(new InMemoryMuseumRepository(transaction)));
+	}
+
+	@Override
+	public <T> T doInTransactionExhibition(ExhibitionTransactionCode<T> query) throws RepositoryException {
+		return executeInTransaction(transaction -> query.apply(new InMemoryExhibitionRepository(transaction)));
+	}
+
+	/**
+	 * Runs the queries on a read-only transaction, which never becomes the
+	 * database writer: it fails at its first write instead.
+	 */
+	@Override
+	public <T> T doInReadOnlyTransaction(TransactionCode<T> query) throws RepositoryException {
+		return executeInTransaction(database.beginReadOnly(), transaction -> query
+				.apply(new InMemoryMuseumRepository(transaction), new InMemoryExhibitionRepository(transaction)));
+	}
+
+	private <T> T executeInTransaction(Function<InMemoryTransaction, T> query) throws RepositoryException {
+		return executeInTransaction(database.begin(), query);
+	}
+
+	private <T> T executeInTransaction(InMemoryTransaction transaction, Function<InMemoryTransaction, T> query)
+			throws RepositoryException {
+		try {
+			T response = query.apply(transaction);
+			transaction.commit();
+			return response;
+		} catch (Exception ex) {
+			transaction.rollback();
+			throw ConcurrentUpdateException.of(ERROR_MESSAGE, ex);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.unifi.attsw.exam.repository.transaction.manager.metrics;
+
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.code.ExhibitionTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.MuseumTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.TransactionCode;
+
+/**
+ *
+ * Decorator of a {@link TransactionManager} recording the duration and the
+ * outcome of every transaction in {@link TransactionMetrics}: a transaction
+ * throwing is counted as rolled back. It only adds a couple of clock reads and
+ * atomic increments to a transaction; to disable the metrics, use the
+ * decorated manager directly.
+ *
+ */
+public class InstrumentedTransactionManager implements TransactionManager {
+
+	/**
+	 * Runs a transaction on the decorated manager.
+	 */
+	@FunctionalInterface
+	private interface Transaction<T> {
+		T run() throws RepositoryException;
+	}
+
+	private final TransactionManager transactionManager;
+	private final TransactionMetrics metrics;
+
+	public InstrumentedTransactionManager(TransactionManager transactionManager, TransactionMetrics metrics) {
+		this.transactionManager = transactionManager;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public <T> T doInTransaction(TransactionCode<T> code) throws RepositoryException {
+		return measure(TransactionType.MUSEUM_EXHIBITION, () -> transactionManager.doInTransaction(code));
+	}
+
+	@Override
+	public <T> T doInTransactionMuseum(MuseumTransactionCode<T> code) throws RepositoryException {
+		return measure(TransactionType.MUSEUM, () -> transactionManager.doInTransactionMuseum(code));
+	}
+
+	@Override
+	public <T> T doInTransactionExhibition(ExhibitionTransactionCode<T> code) throws RepositoryException {
+		return measure(TransactionType.EXHIBITION, () -> transactionManager.doInTransactionExhibition(code));
+	}
+
+	@Override
+	public <T> T doInReadOnlyTransaction(TransactionCode<T> code) throws RepositoryException {
+		return measure(TransactionType.READ_ONLY, () -> transactionManager.doInReadOnlyTransaction(code));
+	}
+
+	public TransactionMetrics getMetrics() {
+		return metrics;
+	}
+
+	private <T> T measure(TransactionType type, Transaction<T> transaction) throws RepositoryException {
+		metrics.transactionStarted();
+		long start = System.nanoTime();
+		try {
+			T response = transaction.run();
+			metrics.transactionEnded(type, System.nanoTime() - start, null);
+			return response;
+		} catch (RepositoryException | RuntimeException ex) {
+			metrics.transactionEnded(type, System.nanoTime() - start, ex);
+			throw ex;
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.unifi.attsw.exam.repository.transaction.manager.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Lock-free histogram of durations in nanoseconds, laid out like an HDR
+ * histogram: every power of two is split into {@value #SUB_BUCKETS} buckets of
+ * equal width, so any recorded value is reported with a relative error below
+ * 1/{@value #SUB_BUCKETS}, whatever its magnitude. Memory is fixed, values
+ * above {@link #MAX_VALUE} are counted as {@link #MAX_VALUE}.
+ *
+ */
+public class LatencyHistogram {
+
+	/*
+	 * Values below 2 * SUB_BUCKETS have a bucket of their own
+	 */
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * The highest value recorded exactly, about 18 minutes.
+	 */
+	public static final long MAX_VALUE = (1L << 40) - 1;
+
+	/*
+	 * Adders rather than an atomic array, as concurrent transactions of similar
+	 * duration would otherwise contend for the same cache line
+	 */
+	private final LongAdder[] buckets = new LongAdder[bucketIndex(MAX_VALUE) + 1];
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	public LatencyHistogram() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a duration, negative durations being counted as zero.
+	 * 
+	 * @param nanos The duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+		buckets[bucketIndex(value)].increment();
+		sum.add(value);
+		if (value > max.get()) {
+			max.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	/**
+	 * @return The number of durations recorded.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+
+	/**
+	 * @return The sum of the durations recorded, in nanoseconds.
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * @return The longest duration recorded, in nanoseconds.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Durations recorded while the percentile is computed may or may not be
+	 * taken into account.
+	 * 
+	 * @param percentile The percentile, between 0 and 100.
+	 * @return The highest duration, within the error of the histogram, which the
+	 *         given percentage of the recorded durations does not exceed, or 0
+	 *         if none was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] counts = new long[buckets.length];
+		long count = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets[i].sum();
+			count += counts[i];
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Values below 2 * SUB_BUCKETS are their own index; above, the index is the
+	 * position of the highest bit followed by the next SUB_BUCKET_BITS bits
+	 */
+	static int bucketIndex(long value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+		return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	static long highestValueOf(int index) {
+		if (index < 2 * SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.unifi.attsw.exam.repository.transaction.manager.metrics;
+
+/**
+ * 
+ * Receives the transactions lasting longer than the threshold of
+ * {@link TransactionMetrics}, on the thread which ran them.
+ *
+ */
+@FunctionalInterface
+public interface SlowTransactionListener {
+
+	/**
+	 * A transaction lasted longer than the threshold.
+	 * 
+	 * @param type          The kind of transaction.
+	 * @param durationNanos How long the transaction lasted, in nanoseconds.
+	 * @param failure       Why the transaction was rolled back, or null if it
+	 *                      was committed.
+	 */
+	public void slowTransaction(TransactionType type, long durationNanos, Exception failure);
+
+}
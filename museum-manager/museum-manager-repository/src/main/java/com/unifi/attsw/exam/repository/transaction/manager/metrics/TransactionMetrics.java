@@ -0,0 +1,145 @@
+package com.unifi.attsw.exam.repository.transaction.manager.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Latency, outcome and concurrency of the transactions run through an
+ * {@link InstrumentedTransactionManager}, by {@link TransactionType}. Can be
+ * shared among threads and read while transactions run; the metrics can be
+ * written in the Prometheus text exposition format.
+ *
+ */
+public class TransactionMetrics {
+
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final Map<TransactionType, LatencyHistogram> latencies = new EnumMap<>(TransactionType.class);
+	private final Map<TransactionType, LongAdder> commits = new EnumMap<>(TransactionType.class);
+	private final Map<TransactionType, LongAdder> rollbacks = new EnumMap<>(TransactionType.class);
+	private final LongAdder inFlight = new LongAdder();
+
+	private final long slowThresholdNanos;
+	private final SlowTransactionListener slowTransactionListener;
+
+	/**
+	 * Metrics which do not report slow transactions.
+	 */
+	public TransactionMetrics() {
+		this(Long.MAX_VALUE, TimeUnit.NANOSECONDS, null);
+	}
+
+	/**
+	 * @param slowThreshold           The duration above which a transaction is
+	 *                                reported as slow.
+	 * @param unit                    The unit of the threshold.
+	 * @param slowTransactionListener Receives the slow transactions.
+	 */
+	public TransactionMetrics(long slowThreshold, TimeUnit unit, SlowTransactionListener slowTransactionListener) {
+		this.slowThresholdNanos = unit.toNanos(slowThreshold);
+		this.slowTransactionListener = slowTransactionListener;
+		for (TransactionType type : TransactionType.values()) {
+			latencies.put(type, new LatencyHistogram());
+			commits.put(type, new LongAdder());
+			rollbacks.put(type, new LongAdder());
+		}
+	}
+
+	void transactionStarted() {
+		inFlight.increment();
+	}
+
+	/*
+	 * The failure is null if the transaction was committed
+	 */
+	void transactionEnded(TransactionType type, long durationNanos, Exception failure) {
+		inFlight.decrement();
+		latencies.get(type).record(durationNanos);
+		(failure == null ? commits : rollbacks).get(type).increment();
+		if (durationNanos > slowThresholdNanos && slowTransactionListener != null) {
+			slowTransactionListener.slowTransaction(type, durationNanos, failure);
+		}
+	}
+
+	public LatencyHistogram getLatency(TransactionType type) {
+		return latencies.get(type);
+	}
+
+	public long getCommits(TransactionType type) {
+		return commits.get(type).sum();
+	}
+
+	public long getRollbacks(TransactionType type) {
+		return rollbacks.get(type).sum();
+	}
+
+	/**
+	 * @return The number of transactions running.
+	 */
+	public long getInFlight() {
+		return inFlight.sum();
+	}
+
+	/**
+	 * Writes the metrics in the Prometheus text exposition format (version
+	 * 0.0.4), latencies in seconds.
+	 * 
+	 * @param out The Writer to write to.
+	 * @throws IOException If the metrics cannot be written.
+	 */
+	public void writeTo(Writer out) throws IOException {
+		out.write("# HELP museum_manager_transaction_seconds Duration of the transactions.\n");
+		out.write("# TYPE museum_manager_transaction_seconds summary\n");
+		for (TransactionType type : TransactionType.values()) {
+			LatencyHistogram latency = latencies.get(type);
+			for (double quantile : QUANTILES) {
+				writeSample(out, "museum_manager_transaction_seconds{type=\"" + type.getLabel() + "\",quantile=\""
+						+ quantile + "\"}", seconds(latency.getValueAtPercentile(quantile * 100)));
+			}
+			writeSample(out, "museum_manager_transaction_seconds_sum" + labels(type), seconds(latency.getSum()));
+			writeSample(out, "museum_manager_transaction_seconds_count" + labels(type), latency.getCount());
+		}
+		out.write("# HELP museum_manager_transaction_max_seconds Longest transaction.\n");
+		out.write("# TYPE museum_manager_transaction_max_seconds gauge\n");
+		for (TransactionType type : TransactionType.values()) {
+			writeSample(out, "museum_manager_transaction_max_seconds" + labels(type),
+					seconds(latencies.get(type).getMax()));
+		}
+		out.write("# HELP museum_manager_transactions_total Transactions ended, by outcome.\n");
+		out.write("# TYPE museum_manager_transactions_total counter\n");
+		for (TransactionType type : TransactionType.values()) {
+			writeSample(out, "museum_manager_transactions_total{type=\"" + type.getLabel() + "\",outcome=\"commit\"}",
+					getCommits(type));
+			writeSample(out, "museum_manager_transactions_total{type=\"" + type.getLabel() + "\",outcome=\"rollback\"}",
+					getRollbacks(type));
+		}
+		out.write("# HELP museum_manager_transactions_in_flight Transactions running.\n");
+		out.write("# TYPE museum_manager_transactions_in_flight gauge\n");
+		writeSample(out, "museum_manager_transactions_in_flight", getInFlight());
+		out.flush();
+	}
+
+	private static String labels(TransactionType type) {
+		return "{type=\"" + type.getLabel() + "\"}";
+	}
+
+	private static double seconds(long nanos) {
+		return nanos / NANOS_PER_SECOND;
+	}
+
+	private static void writeSample(Writer out, String name, double value) throws IOException {
+		out.write(name + " " + String.format(Locale.ROOT, "%.9f", value) + "\n");
+	}
+
+	private static void writeSample(Writer out, String name, long value) throws IOException {
+		out.write(name + " " + value + "\n");
+	}
+
+}
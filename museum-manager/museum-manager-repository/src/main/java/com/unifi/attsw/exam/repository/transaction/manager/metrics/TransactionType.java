@@ -0,0 +1,46 @@
+package com.unifi.attsw.exam.repository.transaction.manager.metrics;
+
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+
+/**
+ * 
+ * The kinds of transaction run by a {@link TransactionManager}, one for each of
+ * its methods.
+ *
+ */
+public enum TransactionType {
+
+	/**
+	 * {@link TransactionManager#doInTransaction}
+	 */
+	MUSEUM_EXHIBITION("museum_exhibition"),
+
+	/**
+	 * {@link TransactionManager#doInTransactionMuseum}
+	 */
+	MUSEUM("museum"),
+
+	/**
+	 * {@link TransactionManager#doInTransactionExhibition}
+	 */
+	EXHIBITION("exhibition"),
+
+	/**
+	 * {@link TransactionManager#doInReadOnlyTransaction}
+	 */
+	READ_ONLY("read_only");
+
+	private final String label;
+
+	private TransactionType(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * @return The name of the type in the exported metrics.
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+}
@@ -1,9 +1,14 @@
 package com.unifi.attsw.exam.repository.transaction.manager.postgres;
 
+import java.util.function.Function;
+
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 
-import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
-import com.unifi.attsw.exam.repository.repository.MuseumRepository;
+import com.unifi.attsw.exam.repository.repository.exception.ConcurrentUpdateException;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
 import com.unifi.attsw.exam.repository.repository.postgres.PostgresExhibitionRepository;
 import com.unifi.attsw.exam.repository.repository.postgres.PostgresMuseumRepository;
@@ -12,63 +17,83 @@ import com.unifi.attsw.exam.repository.transaction.manager.code.ExhibitionTransa
 import com.unifi.attsw.exam.repository.transaction.manager.code.MuseumTransactionCode;
 import com.unifi.attsw.exam.repository.transaction.manager.code.TransactionCode;
 
+/**
+ *
+ * Postgres implementation for {@link TransactionManager}. Every transaction
+ * runs on its own EntityManager, borrowed from the thread-safe
+ * EntityManagerFactory (and so from its connection pool) and closed at the
+ * end of the transaction: the manager can be shared among threads and
+ * entities returned by a transaction are detached.
+ *
+ */
 public class PostgresTransactionManager implements TransactionManager {
 
-	EntityManager entityManager;
-	MuseumRepository museumRepository;
-	ExhibitionRepository exhibitionRepository;
+	private EntityManagerFactory entityManagerFactory;
 
 	private static final String ERROR_MESSAGE = "Something went wrong committing to database, rollback";
 
-	public PostgresTransactionManager(EntityManager entityManager) {
-		this.entityManager = entityManager;
-		museumRepository = new PostgresMuseumRepository(this.entityManager);
-		exhibitionRepository = new PostgresExhibitionRepository(this.entityManager);
+	public PostgresTransactionManager(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
 	}
 
 	@Override
 	public <T> T doInTransaction(TransactionCode<T> query) throws RepositoryException {
-		this.entityManager.getTransaction().begin();
-
-		try {
-			T response = query.apply(museumRepository, exhibitionRepository);
-			this.entityManager.getTransaction().commit();
-			return response;
-		} catch (Exception ex) {
-			this.entityManager.getTransaction().rollback();
-			throw new RepositoryException(ERROR_MESSAGE, ex);
-		}
-	}
-
-	public EntityManager getEntityManager() {
-		return entityManager;
+		return executeInTransaction(entityManager -> query.apply(new PostgresMuseumRepository(entityManager),
+				new PostgresExhibitionRepository(entityManager)));
 	}
 
 	@Override
 	public <T> T doInTransactionMuseum(MuseumTransactionCode<T> query) throws RepositoryException {
-		this.entityManager.getTransaction().begin();
-		try {
-			T response = query.apply(museumRepository);
-			this.entityManager.getTransaction().commit();
-			return response;
-		} catch (Exception ex) {
-			this.entityManager.getTransaction().rollback();
-			throw new RepositoryException(ERROR_MESSAGE, ex);
-		}
+		return executeInTransaction(entityManager -> query.apply(new PostgresMuseumRepository(entityManager)));
 	}
 
 	@Override
 	public <T> T doInTransactionExhibition(ExhibitionTransactionCode<T> query) throws RepositoryException {
-		this.entityManager.getTransaction().begin();
+		return executeInTransaction(entityManager -> query.apply(new PostgresExhibitionRepository(entityManager)));
+	}
+
+	/**
+	 * Runs the queries in a transaction marked read-only on the JDBC connection,
+	 * so that PostgreSQL rejects any write. Entities are loaded read-only, with
+	 * no snapshot kept for dirty checking, and the session is never flushed. The
+	 * connection pool restores the connection to read-write when it gets it back.
+	 */
+	@Override
+	public <T> T doInReadOnlyTransaction(TransactionCode<T> query) throws RepositoryException {
+		return executeInTransaction(entityManager -> query.apply(new PostgresMuseumRepository(entityManager),
+				new PostgresExhibitionRepository(entityManager)), true);
+	}
+
+	private <T> T executeInTransaction(Function<EntityManager, T> query) throws RepositoryException {
+		return executeInTransaction(query, false);
+	}
 
+	private <T> T executeInTransaction(Function<EntityManager, T> query, boolean readOnly)
+			throws RepositoryException {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
 		try {
-			T response = query.apply(exhibitionRepository);
-			this.entityManager.getTransaction().commit();
+			entityManager.getTransaction().begin();
+			if (readOnly) {
+				Session session = entityManager.unwrap(Session.class);
+				session.setDefaultReadOnly(true);
+				session.setHibernateFlushMode(FlushMode.MANUAL);
+				// before the first statement, which begins the transaction on the server
+				session.doWork(connection -> connection.setReadOnly(true));
+			}
+			T response = query.apply(entityManager);
+			entityManager.getTransaction().commit();
 			return response;
 		} catch (Exception ex) {
-			this.entityManager.getTransaction().rollback();
-			throw new RepositoryException(ERROR_MESSAGE, ex);
+			if (entityManager.getTransaction().isActive()) {
+				entityManager.getTransaction().rollback();
+			}
+			throw ConcurrentUpdateException.of(ERROR_MESSAGE, ex);
+		} finally {
+			if (readOnly) {
+				entityManager.clear();
+			}
+			entityManager.close();
 		}
 	}
 
-}
\ No newline at end of file
+}
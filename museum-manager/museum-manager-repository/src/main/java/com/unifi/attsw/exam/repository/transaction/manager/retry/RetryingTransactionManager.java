@@ -0,0 +1,107 @@
+package com.unifi.attsw.exam.repository.transaction.manager.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.unifi.attsw.exam.repository.repository.exception.ConcurrentUpdateException;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.code.ExhibitionTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.MuseumTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.TransactionCode;
+
+/**
+ *
+ * Decorator of a {@link TransactionManager} running again the transactions
+ * rolled back by a {@link ConcurrentUpdateException}, up to a maximum number of
+ * attempts. Before each new attempt it waits for a random time up to a backoff
+ * which doubles at every attempt, from the initial to the maximum backoff, so
+ * that conflicting transactions do not keep colliding. Any other failure is
+ * thrown at once.
+ *
+ * The transaction code must read again, in the transaction, the rows it
+ * updates: updating rows read by a previous transaction fails at every
+ * attempt once they are stale.
+ *
+ */
+public class RetryingTransactionManager implements TransactionManager {
+
+	/**
+	 * Runs a transaction on the decorated manager.
+	 */
+	@FunctionalInterface
+	private interface Transaction<T> {
+		T run() throws RepositoryException;
+	}
+
+	private final TransactionManager transactionManager;
+	private final int maxAttempts;
+	private final long initialBackoffNanos;
+	private final long maxBackoffNanos;
+
+	/**
+	 * @param transactionManager The decorated manager.
+	 * @param maxAttempts        The number of times a transaction is run at most.
+	 * @param initialBackoff     The maximum wait before the second attempt.
+	 * @param maxBackoff         The maximum wait before any attempt.
+	 * @param unit               The unit of the backoffs.
+	 */
+	public RetryingTransactionManager(TransactionManager transactionManager, int maxAttempts, long initialBackoff,
+			long maxBackoff, TimeUnit unit) {
+		if (maxAttempts <= 0 || initialBackoff < 0 || maxBackoff < initialBackoff) {
+			throw new IllegalArgumentException("Invalid retry policy.");
+		}
+		this.transactionManager = transactionManager;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffNanos = unit.toNanos(initialBackoff);
+		this.maxBackoffNanos = unit.toNanos(maxBackoff);
+	}
+
+	@Override
+	public <T> T doInTransaction(TransactionCode<T> code) throws RepositoryException {
+		return retry(() -> transactionManager.doInTransaction(code));
+	}
+
+	@Override
+	public <T> T doInTransactionMuseum(MuseumTransactionCode<T> code) throws RepositoryException {
+		return retry(() -> transactionManager.doInTransactionMuseum(code));
+	}
+
+	@Override
+	public <T> T doInTransactionExhibition(ExhibitionTransactionCode<T> code) throws RepositoryException {
+		return retry(() -> transactionManager.doInTransactionExhibition(code));
+	}
+
+	@Override
+	public <T> T doInReadOnlyTransaction(TransactionCode<T> code) throws RepositoryException {
+		return retry(() -> transactionManager.doInReadOnlyTransaction(code));
+	}
+
+	private <T> T retry(Transaction<T> transaction) throws RepositoryException {
+		long backoffNanos = initialBackoffNanos;
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transaction.run();
+			} catch (ConcurrentUpdateException ex) {
+				if (attempt == maxAttempts) {
+					throw ex;
+				}
+				sleep(ThreadLocalRandom.current().nextLong(backoffNanos + 1), ex);
+				backoffNanos = Math.min(maxBackoffNanos, backoffNanos * 2);
+			}
+		}
+	}
+
+	/*
+	 * An interrupted wait gives up retrying
+	 */
+	private static void sleep(long nanos, ConcurrentUpdateException failure) throws ConcurrentUpdateException {
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw failure;
+		}
+	}
+
+}
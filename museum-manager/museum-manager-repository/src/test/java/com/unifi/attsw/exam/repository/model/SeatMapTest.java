@@ -0,0 +1,89 @@
+package com.unifi.attsw.exam.repository.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class SeatMapTest {
+
+	private static final int NUM_OF_SEATS = 5000;
+
+	@Test
+	public void testSeatMapOfAnExhibitionWithoutSeatNumbersIsEmpty() {
+		SeatMap seatMap = SeatMap.of(new Exhibition("exhibition1_test", NUM_OF_SEATS));
+
+		assertThat(seatMap.getBookedSeatNumbers()).isZero();
+		assertThat(seatMap.isBooked(NUM_OF_SEATS - 1)).isFalse();
+		assertThat(seatMap.findAdjacentFreeSeats(NUM_OF_SEATS)).isZero();
+		assertThat(seatMap.findAdjacentFreeSeats(NUM_OF_SEATS + 1)).isEqualTo(-1);
+		assertThat(seatMap.toByteArray()).hasSize(NUM_OF_SEATS / 8);
+	}
+
+	@Test
+	public void testAdjacentFreeSeatsAreFoundAcrossWords() {
+		Exhibition exhibition = new Exhibition("exhibition1_test", NUM_OF_SEATS);
+		assertThat(SeatMap.bookSeatNumbers(exhibition, IntStream.range(0, 60).toArray())).isTrue();
+		assertThat(SeatMap.bookSeatNumbers(exhibition, new int[] { 70, 200 })).isTrue();
+
+		SeatMap seatMap = SeatMap.of(exhibition);
+		assertThat(seatMap.findAdjacentFreeSeats(10)).isEqualTo(60);
+		assertThat(seatMap.findAdjacentFreeSeats(11)).isEqualTo(71);
+		assertThat(seatMap.findAdjacentFreeSeats(129)).isEqualTo(71);
+		assertThat(seatMap.findAdjacentFreeSeats(130)).isEqualTo(201);
+		assertThat(seatMap.findAdjacentFreeSeats(NUM_OF_SEATS - 201)).isEqualTo(201);
+		assertThat(seatMap.findAdjacentFreeSeats(NUM_OF_SEATS - 200)).isEqualTo(-1);
+	}
+
+	@Test
+	public void testBookAdjacentSeatsUpdatesTheExhibition() {
+		Exhibition exhibition = new Exhibition("exhibition1_test", 20);
+
+		assertThat(SeatMap.bookAdjacentSeats(exhibition, 9)).isZero();
+		assertThat(SeatMap.bookAdjacentSeats(exhibition, 9)).isEqualTo(9);
+		assertThat(SeatMap.bookAdjacentSeats(exhibition, 3)).isEqualTo(-1);
+
+		assertThat(exhibition.getBookedSeats()).isEqualTo(18);
+		assertThat(exhibition.getSeatMap()).containsExactly(0xff, 0xff, 0x03);
+		assertThat(SeatMap.of(exhibition).isBooked(17)).isTrue();
+		assertThat(SeatMap.of(exhibition).isBooked(18)).isFalse();
+	}
+
+	@Test
+	public void testSeatsBookedWithoutNumberAreNotAvailable() {
+		Exhibition exhibition = new Exhibition("exhibition1_test", 10);
+		exhibition.setBookedSeats(8);
+
+		assertThat(SeatMap.bookAdjacentSeats(exhibition, 3)).isEqualTo(-1);
+		assertThat(SeatMap.bookSeatNumbers(exhibition, new int[] { 0, 1, 2 })).isFalse();
+		assertThat(SeatMap.bookSeatNumbers(exhibition, new int[] { 0, 9 })).isTrue();
+		assertThat(exhibition.getBookedSeats()).isEqualTo(10);
+	}
+
+	@Test
+	public void testBookSeatNumbersWhenSomeAreBookedBooksNone() {
+		Exhibition exhibition = new Exhibition("exhibition1_test", 10);
+		SeatMap.bookSeatNumbers(exhibition, new int[] { 3 });
+
+		assertThat(SeatMap.bookSeatNumbers(exhibition, new int[] { 2, 3, 4 })).isFalse();
+		assertThat(SeatMap.bookSeatNumbers(exhibition, new int[0])).isFalse();
+		assertThat(exhibition.getBookedSeats()).isEqualTo(1);
+		assertThat(SeatMap.of(exhibition).getBookedSeatNumbers()).isEqualTo(1);
+	}
+
+	@Test
+	public void testInvalidSeatsShouldThrow() {
+		Exhibition exhibition = new Exhibition("exhibition1_test", 10);
+
+		assertThatThrownBy(() -> SeatMap.bookSeatNumbers(exhibition, new int[] { -1 }))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid seat number: -1");
+		assertThatThrownBy(() -> SeatMap.bookSeatNumbers(exhibition, new int[] { 1, 1 }))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Duplicate seat number: 1");
+		assertThatThrownBy(() -> SeatMap.bookAdjacentSeats(exhibition, 0))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Number of seats must be positive.");
+		assertThatThrownBy(() -> SeatMap.of(exhibition).isBooked(10)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(exhibition.getSeatMap()).isNull();
+	}
+
+}
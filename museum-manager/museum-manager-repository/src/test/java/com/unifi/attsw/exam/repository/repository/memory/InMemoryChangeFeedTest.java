@@ -0,0 +1,206 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.changefeed.ChangeListener;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.memory.InMemoryTransactionManager;
+
+public class InMemoryChangeFeedTest {
+
+	private static final String MUSEUM1_TEST = "museum1_test";
+	private static final String EXHIBITION1_TEST = "exhibition1_test";
+	private static final int NUM_CONSTANT1 = 10;
+
+	private InMemoryDatabase database;
+	private InMemoryTransactionManager transactionManager;
+	private InMemoryChangeFeed changeFeed;
+	private List<String> changes;
+
+	private Museum museum;
+	private Exhibition exhibition;
+
+	@Before
+	public void setUp() throws RepositoryException {
+		database = new InMemoryDatabase();
+		transactionManager = new InMemoryTransactionManager(database);
+		museum = transactionManager.doInTransactionMuseum(
+				museumRepository -> museumRepository.addMuseum(new Museum(MUSEUM1_TEST, NUM_CONSTANT1)));
+		exhibition = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+		exhibition.setMuseumId(museum.getId());
+		transactionManager
+				.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.addNewExhibition(exhibition));
+
+		changes = new ArrayList<>();
+		changeFeed = new InMemoryChangeFeed(database, Runnable::run);
+		changeFeed.addChangeListener(new RecordingListener(changes));
+	}
+
+	@Test
+	public void testCommittedInsertsArePublished() throws RepositoryException {
+		Museum newMuseum = transactionManager.doInTransactionMuseum(
+				museumRepository -> museumRepository.addMuseum(new Museum("museum2_test", NUM_CONSTANT1)));
+
+		assertThat(changes).containsExactly("INSERT museum museum2_test " + newMuseum.getId());
+	}
+
+	@Test
+	public void testCommittedUpdatesArePublishedWithTheNewValues() throws RepositoryException {
+		transactionManager.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository
+				.bookSeats(Map.of(exhibition.getId(), 3)));
+
+		assertThat(changes).containsExactly("UPDATE exhibition exhibition1_test 3");
+	}
+
+	@Test
+	public void testCommittedDeletesArePublishedWithTheDeletedValues() throws RepositoryException {
+		transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+			exhibitionRepository.deleteExhibitionsByMuseumId(museum.getId());
+			museumRepository.deleteMuseum(museum);
+			return null;
+		});
+
+		assertThat(changes).containsExactlyInAnyOrder("DELETE museum museum1_test " + museum.getId(),
+				"DELETE exhibition exhibition1_test 0");
+	}
+
+	@Test
+	public void testRolledBackChangesAreNotPublished() {
+		assertThatThrownBy(() -> transactionManager.doInTransactionMuseum(museumRepository -> {
+			museumRepository.addMuseum(new Museum("museum2_test", NUM_CONSTANT1));
+			throw new IllegalStateException("Rollback");
+		})).isInstanceOf(RepositoryException.class);
+
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	public void testRowsInsertedAndDeletedByTheSameTransactionAreNotPublished() throws RepositoryException {
+		transactionManager.doInTransactionMuseum(museumRepository -> {
+			Museum newMuseum = museumRepository.addMuseum(new Museum("museum2_test", NUM_CONSTANT1));
+			museumRepository.deleteMuseum(newMuseum);
+			return null;
+		});
+
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	public void testPublishedRowsAreCopies() throws RepositoryException {
+		List<Museum> published = new ArrayList<>();
+		changeFeed.addChangeListener(new RecordingListener(new ArrayList<>()) {
+			@Override
+			public void museumChanged(ChangeType type, Museum changed) {
+				changed.setOccupiedRooms(NUM_CONSTANT1);
+				published.add(changed);
+			}
+		});
+
+		transactionManager.doInTransactionMuseum(museumRepository -> {
+			Museum updated = museumRepository.findMuseumById(museum.getId());
+			updated.setOccupiedRooms(1);
+			return museumRepository.updateMuseum(updated);
+		});
+
+		assertThat(published).hasSize(1);
+		Museum committed = transactionManager
+				.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumById(museum.getId()));
+		assertThat(committed.getOccupiedRooms()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFailingListenerDoesNotStopOthers() throws RepositoryException {
+		List<String> failingChanges = new ArrayList<>();
+		List<String> otherChanges = new ArrayList<>();
+		changeFeed.addChangeListener(new RecordingListener(failingChanges) {
+			@Override
+			public void museumChanged(ChangeType type, Museum changed) {
+				throw new IllegalStateException("Failing listener");
+			}
+		});
+		changeFeed.addChangeListener(new RecordingListener(otherChanges));
+
+		transactionManager.doInTransactionMuseum(
+				museumRepository -> museumRepository.addMuseum(new Museum("museum2_test", NUM_CONSTANT1)));
+
+		assertThat(changes).hasSize(1);
+		assertThat(failingChanges).containsExactly("LOST");
+		assertThat(otherChanges).hasSize(1);
+	}
+
+	@Test
+	public void testClosedFeedPublishesNothing() throws RepositoryException {
+		changeFeed.close();
+
+		transactionManager.doInTransactionMuseum(
+				museumRepository -> museumRepository.addMuseum(new Museum("museum2_test", NUM_CONSTANT1)));
+
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	public void testChangesAreDeliveredInCommitOrderOnTheFeedThread() throws Exception {
+		changeFeed.close();
+		BlockingQueue<String> delivered = new LinkedBlockingQueue<>();
+		try (InMemoryChangeFeed threadedFeed = new InMemoryChangeFeed(database)) {
+			threadedFeed.addChangeListener(new RecordingListener(new ArrayList<>()) {
+				@Override
+				public void exhibitionChanged(ChangeType type, Exhibition changed) {
+					delivered.add(Thread.currentThread().getName() + " " + changed.getBookedSeats());
+				}
+			});
+			for (int i = 0; i < 3; i++) {
+				transactionManager
+						.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(exhibition.getId()));
+			}
+
+			List<String> received = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				received.add(delivered.poll(5, TimeUnit.SECONDS));
+			}
+			assertThat(received).containsExactly("museum-manager-change-feed 1", "museum-manager-change-feed 2",
+					"museum-manager-change-feed 3");
+		}
+	}
+
+	/*
+	 * Records changes as "type entity name <id or booked seats>"
+	 */
+	private static class RecordingListener implements ChangeListener {
+
+		private final List<String> changes;
+
+		RecordingListener(List<String> changes) {
+			this.changes = changes;
+		}
+
+		@Override
+		public void museumChanged(ChangeType type, Museum changed) {
+			changes.add(type + " museum " + changed.getName() + " " + changed.getId());
+		}
+
+		@Override
+		public void exhibitionChanged(ChangeType type, Exhibition changed) {
+			changes.add(type + " exhibition " + changed.getName() + " " + changed.getBookedSeats());
+		}
+
+		@Override
+		public void changesLost() {
+			changes.add("LOST");
+		}
+	}
+
+}
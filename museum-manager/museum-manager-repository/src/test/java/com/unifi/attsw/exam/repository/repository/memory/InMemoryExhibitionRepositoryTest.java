@@ -0,0 +1,292 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
+import com.unifi.attsw.exam.repository.repository.MuseumRepository;
+
+public class InMemoryExhibitionRepositoryTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID MUSEUM_ID_2 = UUID.fromString("94fe3013-9ebb-432e-ab55-e612dc797851");
+	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
+	private static final UUID EXHIBITION_ID_2 = UUID.fromString("b2cb1474-24ff-41eb-a8d7-963f32f6822d");
+	private static final String EXHIBITION_TEST_1 = "exhibition1_test";
+	private static final String EXHIBITION_TEST_2 = "exhibition2_test";
+	private static final String EXHIBITION_NOT_PERSISTED_TEST = "exhibition_not_persisted_test";
+	private static final int NUM_OF_SEATS = 10;
+
+	private static final UUID invalidUUID = UUID.fromString("2796027d-21cc-4883-b088-514d4b3090a1");
+
+	private InMemoryDatabase database;
+	private ExhibitionRepository inMemoryExhibitionRepository;
+
+	@Before
+	public void setUp() {
+		database = new InMemoryDatabase();
+		populateDatabase();
+		inMemoryExhibitionRepository = new InMemoryExhibitionRepository(database.begin());
+	}
+
+	@Test
+	public void testFindAllExhibitions() {
+		assertThat(inMemoryExhibitionRepository.findAllExhibitions()).extracting(Exhibition::getId)
+				.containsExactly(EXHIBITION_ID_1, EXHIBITION_ID_2);
+	}
+
+	@Test
+	public void testForEachExhibition() {
+		List<Exhibition> exhibitions = new ArrayList<>();
+		inMemoryExhibitionRepository.forEachExhibition(exhibitions::add);
+
+		assertThat(exhibitions).extracting(Exhibition::getId).containsExactly(EXHIBITION_ID_1, EXHIBITION_ID_2);
+	}
+
+	@Test
+	public void testFindExhibitionsPage() {
+		assertThat(inMemoryExhibitionRepository.findExhibitionsPage(null, 1)).extracting(Exhibition::getName)
+				.containsExactly(EXHIBITION_TEST_1);
+		assertThat(inMemoryExhibitionRepository.findExhibitionsPage(EXHIBITION_TEST_1, 5))
+				.extracting(Exhibition::getName).containsExactly(EXHIBITION_TEST_2);
+	}
+
+	@Test
+	public void testFindExhibitionByIdAndByName() {
+		assertThat(inMemoryExhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getName())
+				.isEqualTo(EXHIBITION_TEST_1);
+		assertThat(inMemoryExhibitionRepository.findExhibitionById(invalidUUID)).isNull();
+		assertThat(inMemoryExhibitionRepository.findExhibitionByName(EXHIBITION_TEST_2).getId())
+				.isEqualTo(EXHIBITION_ID_2);
+		assertThat(inMemoryExhibitionRepository.findExhibitionByName(EXHIBITION_NOT_PERSISTED_TEST)).isNull();
+	}
+
+	@Test
+	public void testFindExhibitionsByMuseumId() {
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1)).extracting(Exhibition::getId)
+				.containsExactlyInAnyOrder(EXHIBITION_ID_1, EXHIBITION_ID_2);
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_2)).isEmpty();
+	}
+
+	@Test
+	public void testFindExhibitionsByNullMuseumIdShouldThrow() {
+		assertThatThrownBy(() -> inMemoryExhibitionRepository.findExhibitionsByMuseumId(null))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Museum ID cannot be null.");
+	}
+
+	@Test
+	public void testAddNewExhibitionOfNotExistingMuseumShouldThrow() {
+		Exhibition exhibition = createTestExhibition(EXHIBITION_NOT_PERSISTED_TEST, NUM_OF_SEATS);
+		exhibition.setMuseumId(invalidUUID);
+		assertThatThrownBy(() -> inMemoryExhibitionRepository.addNewExhibition(exhibition))
+				.isInstanceOf(IllegalStateException.class).hasMessage("Museum does not exist: " + invalidUUID);
+	}
+
+	@Test
+	public void testAddNewExhibitionWithSameNameShouldThrow() {
+		Exhibition exhibition = createTestExhibition(EXHIBITION_TEST_1, NUM_OF_SEATS);
+		exhibition.setMuseumId(MUSEUM_ID_2);
+		assertThatThrownBy(() -> inMemoryExhibitionRepository.addNewExhibition(exhibition))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void testAddNewExhibitionIsIndexedByMuseum() {
+		Exhibition exhibition = createTestExhibition(EXHIBITION_NOT_PERSISTED_TEST, NUM_OF_SEATS);
+		exhibition.setMuseumId(MUSEUM_ID_2);
+		inMemoryExhibitionRepository.addNewExhibition(exhibition);
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_2)).containsExactly(exhibition);
+	}
+
+	@Test
+	public void testAddExhibitionsAreIndexedByMuseum() {
+		Exhibition exhibition1 = createTestExhibition(EXHIBITION_NOT_PERSISTED_TEST, NUM_OF_SEATS);
+		exhibition1.setMuseumId(MUSEUM_ID_2);
+		Exhibition exhibition2 = createTestExhibition("exhibition3_test", NUM_OF_SEATS);
+		exhibition2.setMuseumId(MUSEUM_ID_2);
+
+		assertThat(inMemoryExhibitionRepository.addExhibitions(List.of(exhibition1, exhibition2))).isEqualTo(2);
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_2))
+				.containsExactlyInAnyOrder(exhibition1, exhibition2);
+	}
+
+	@Test(timeout = 10_000)
+	public void testAddManyExhibitionsInOneTransactionLooksThemUpThroughIndexes() {
+		List<Exhibition> exhibitions = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			Exhibition exhibition = createTestExhibition("new_exhibition_" + i, NUM_OF_SEATS);
+			exhibition.setMuseumId(MUSEUM_ID_2);
+			exhibitions.add(exhibition);
+		}
+
+		assertThat(inMemoryExhibitionRepository.addExhibitions(exhibitions)).isEqualTo(100_000);
+		assertThat(inMemoryExhibitionRepository.findExhibitionByName("new_exhibition_99999").getId())
+				.isEqualTo(exhibitions.get(99_999).getId());
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_2)).hasSize(100_000);
+		assertThat(inMemoryExhibitionRepository.findExhibitionsPage(EXHIBITION_TEST_2, 2))
+				.extracting(Exhibition::getName).containsExactly("new_exhibition_0", "new_exhibition_1");
+	}
+
+	@Test
+	public void testUncommittedExhibitionsAreFoundByTheirLatestNameAndMuseum() {
+		Exhibition exhibition = createTestExhibition(EXHIBITION_NOT_PERSISTED_TEST, NUM_OF_SEATS);
+		exhibition.setMuseumId(MUSEUM_ID_2);
+		inMemoryExhibitionRepository.addNewExhibition(exhibition);
+		Exhibition deletedExhibition = createTestExhibition("exhibition3_test", NUM_OF_SEATS);
+		deletedExhibition.setMuseumId(MUSEUM_ID_2);
+		inMemoryExhibitionRepository.addNewExhibition(deletedExhibition);
+
+		exhibition.setName("exhibition4_test");
+		exhibition.setMuseumId(MUSEUM_ID_1);
+		inMemoryExhibitionRepository.updateExhibition(exhibition);
+		inMemoryExhibitionRepository.deleteExhibition(deletedExhibition);
+
+		assertThat(inMemoryExhibitionRepository.findExhibitionByName(EXHIBITION_NOT_PERSISTED_TEST)).isNull();
+		assertThat(inMemoryExhibitionRepository.findExhibitionByName("exhibition3_test")).isNull();
+		assertThat(inMemoryExhibitionRepository.findExhibitionByName("exhibition4_test")).isEqualTo(exhibition);
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_2)).isEmpty();
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1))
+				.extracting(Exhibition::getName)
+				.containsExactlyInAnyOrder(EXHIBITION_TEST_1, EXHIBITION_TEST_2, "exhibition4_test");
+		assertThat(inMemoryExhibitionRepository.findExhibitionsPage(EXHIBITION_TEST_2, 5))
+				.extracting(Exhibition::getName).containsExactly("exhibition4_test");
+	}
+
+	@Test
+	public void testBookSeatUntilSoldOut() {
+		for (int i = NUM_OF_SEATS - 1; i >= 0; i--) {
+			assertThat(inMemoryExhibitionRepository.bookSeat(EXHIBITION_ID_1)).isEqualTo(i);
+		}
+		assertThat(inMemoryExhibitionRepository.bookSeat(EXHIBITION_ID_1)).isEqualTo(-1);
+		assertThat(inMemoryExhibitionRepository.bookSeat(invalidUUID)).isEqualTo(-1);
+		assertThat(inMemoryExhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getBookedSeats())
+				.isEqualTo(NUM_OF_SEATS);
+	}
+
+	@Test
+	public void testBookSeats() {
+		Map<UUID, Integer> bookings = new HashMap<>();
+		bookings.put(EXHIBITION_ID_1, 4);
+		bookings.put(EXHIBITION_ID_2, NUM_OF_SEATS + 1);
+		bookings.put(invalidUUID, 1);
+		assertThat(inMemoryExhibitionRepository.bookSeats(bookings)).containsEntry(EXHIBITION_ID_1, NUM_OF_SEATS - 4)
+				.containsEntry(EXHIBITION_ID_2, -1).containsEntry(invalidUUID, -1);
+		assertThat(inMemoryExhibitionRepository.findExhibitionById(EXHIBITION_ID_2).getBookedSeats()).isZero();
+	}
+
+	@Test
+	public void testBookSeatsWithInvalidRequestShouldThrow() {
+		Map<UUID, Integer> bookings = new HashMap<>();
+		bookings.put(EXHIBITION_ID_1, 0);
+		assertThatThrownBy(() -> inMemoryExhibitionRepository.bookSeats(bookings))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testBookAdjacentSeatsUntilNoneAreFree() {
+		assertThat(inMemoryExhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 4)).isZero();
+		assertThat(inMemoryExhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 4)).isEqualTo(4);
+		assertThat(inMemoryExhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 3)).isEqualTo(-1);
+		assertThat(inMemoryExhibitionRepository.bookAdjacentSeats(invalidUUID, 1)).isEqualTo(-1);
+
+		Exhibition exhibition = inMemoryExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
+		assertThat(exhibition.getBookedSeats()).isEqualTo(8);
+		assertThat(exhibition.getSeatMap()).containsExactly(0xff, 0x00);
+	}
+
+	@Test
+	public void testBookSeatNumbersOnlyIfAllAreFree() {
+		assertThat(inMemoryExhibitionRepository.bookSeatNumbers(EXHIBITION_ID_1, new int[] { 1, 3 })).isTrue();
+		assertThat(inMemoryExhibitionRepository.bookSeatNumbers(EXHIBITION_ID_1, new int[] { 2, 3 })).isFalse();
+		assertThat(inMemoryExhibitionRepository.bookSeatNumbers(invalidUUID, new int[] { 2 })).isFalse();
+		assertThat(inMemoryExhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 2)).isEqualTo(4);
+
+		Exhibition exhibition = inMemoryExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
+		assertThat(exhibition.getBookedSeats()).isEqualTo(4);
+		assertThat(exhibition.getSeatMap()).containsExactly(0x3a, 0x00);
+	}
+
+	@Test
+	public void testBookSeatNumbersWithInvalidNumberShouldThrow() {
+		assertThatThrownBy(
+				() -> inMemoryExhibitionRepository.bookSeatNumbers(EXHIBITION_ID_1, new int[] { NUM_OF_SEATS }))
+						.isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid seat number: 10");
+		assertThatThrownBy(() -> inMemoryExhibitionRepository.bookAdjacentSeats(null, 1))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Exhibition ID cannot be null.");
+	}
+
+	@Test
+	public void testDeleteExhibition() {
+		inMemoryExhibitionRepository.deleteExhibition(inMemoryExhibitionRepository.findExhibitionById(EXHIBITION_ID_1));
+		assertThat(inMemoryExhibitionRepository.findAllExhibitions()).extracting(Exhibition::getId)
+				.containsExactly(EXHIBITION_ID_2);
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1)).extracting(Exhibition::getId)
+				.containsExactly(EXHIBITION_ID_2);
+	}
+
+	@Test
+	public void testDeleteNullExhibitionShouldThrow() {
+		assertThatThrownBy(() -> inMemoryExhibitionRepository.deleteExhibition(null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testDeleteExhibitionsByNullMuseumIdShouldThrow() {
+		assertThatThrownBy(() -> inMemoryExhibitionRepository.deleteExhibitionsByMuseumId(null))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Museum ID cannot be null.");
+	}
+
+	@Test
+	public void testDeleteExhibitionsByMuseumIdRemovesAllTheMuseumExhibitions() {
+		assertThat(inMemoryExhibitionRepository.deleteExhibitionsByMuseumId(MUSEUM_ID_1)).isEqualTo(2);
+		assertThat(inMemoryExhibitionRepository.deleteExhibitionsByMuseumId(MUSEUM_ID_2)).isZero();
+		assertThat(inMemoryExhibitionRepository.findAllExhibitions()).isEmpty();
+		assertThat(inMemoryExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1)).isEmpty();
+	}
+
+	/**
+	 * 
+	 * Utility methods
+	 * 
+	 */
+
+	public Exhibition createTestExhibition(String exhibitionName, int numOfSeats) {
+		return new Exhibition(exhibitionName, numOfSeats);
+	}
+
+	/*
+	 * Utility method to populate database with data
+	 */
+
+	private void populateDatabase() {
+		InMemoryTransaction transaction = database.begin();
+		MuseumRepository museumRepository = new InMemoryMuseumRepository(transaction);
+		ExhibitionRepository exhibitionRepository = new InMemoryExhibitionRepository(transaction);
+		Museum museum1 = new Museum("museum1_test", NUM_OF_SEATS);
+		museum1.setId(MUSEUM_ID_1);
+		Museum museum2 = new Museum("museum2_test", NUM_OF_SEATS);
+		museum2.setId(MUSEUM_ID_2);
+		museumRepository.addMuseum(museum1);
+		museumRepository.addMuseum(museum2);
+		Exhibition exhibition1 = createTestExhibition(EXHIBITION_TEST_1, NUM_OF_SEATS);
+		exhibition1.setId(EXHIBITION_ID_1);
+		exhibition1.setMuseumId(MUSEUM_ID_1);
+		Exhibition exhibition2 = createTestExhibition(EXHIBITION_TEST_2, NUM_OF_SEATS);
+		exhibition2.setId(EXHIBITION_ID_2);
+		exhibition2.setMuseumId(MUSEUM_ID_1);
+		exhibitionRepository.addNewExhibition(exhibition1);
+		exhibitionRepository.addNewExhibition(exhibition2);
+		transaction.commit();
+	}
+
+}
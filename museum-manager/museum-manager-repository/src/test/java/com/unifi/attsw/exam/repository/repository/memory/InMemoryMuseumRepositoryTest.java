@@ -0,0 +1,254 @@
+package com.unifi.attsw.exam.repository.repository.memory;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import javax.persistence.OptimisticLockException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.MuseumRepository;
+
+public class InMemoryMuseumRepositoryTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID MUSEUM_ID_2 = UUID.fromString("94fe3013-9ebb-432e-ab55-e612dc797851");
+	private static final String MUSEUM_TEST_1 = "museum1_test";
+	private static final String MUSEUM_TEST_2 = "museum2_test";
+	private static final int NUM_OF_ROOMS = 10;
+	private static final String MUSEUM_NOT_PERSISTED_TEST = "museum_not_persisted_test";
+
+	private static final UUID invalidUUID = UUID.fromString("2796027d-21cc-4883-b088-514d4b3090a1");
+
+	private InMemoryDatabase database;
+	private InMemoryTransaction transaction;
+	private MuseumRepository inMemoryMuseumRepository;
+
+	@Before
+	public void setUp() {
+		database = new InMemoryDatabase();
+		transaction = database.begin();
+		inMemoryMuseumRepository = new InMemoryMuseumRepository(transaction);
+	}
+
+	@Test
+	public void testFindAllMuseumsWhenNoMuseumsArePersisted() {
+		assertThat(inMemoryMuseumRepository.findAllMuseums()).isEmpty();
+	}
+
+	@Test
+	public void testFindAllMuseumsReturnsCommittedAndOwnMuseumsOrderedByName() {
+		populateDatabase();
+		inMemoryMuseumRepository.addMuseum(createTestMuseum("a_museum", NUM_OF_ROOMS));
+		assertThat(inMemoryMuseumRepository.findAllMuseums()).extracting(Museum::getName).containsExactly("a_museum",
+				MUSEUM_TEST_1, MUSEUM_TEST_2);
+	}
+
+	@Test
+	public void testForEachMuseumPassesCommittedAndOwnMuseums() {
+		populateDatabase();
+		inMemoryMuseumRepository.addMuseum(createTestMuseum("a_museum", NUM_OF_ROOMS));
+		inMemoryMuseumRepository.deleteMuseum(inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_2));
+
+		List<Museum> museums = new ArrayList<>();
+		inMemoryMuseumRepository.forEachMuseum(museums::add);
+
+		assertThat(museums).extracting(Museum::getName).containsExactly(MUSEUM_TEST_1, "a_museum");
+	}
+
+	@Test
+	public void testFindMuseumsPageWithNotPositivePageSizeShouldThrow() {
+		assertThatThrownBy(() -> inMemoryMuseumRepository.findMuseumsPage(null, 0))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Page size must be positive.");
+	}
+
+	@Test
+	public void testFindMuseumsPageReturnsMuseumsOrderedByNameAfterTheGivenOne() {
+		populateDatabase();
+		assertThat(inMemoryMuseumRepository.findMuseumsPage(null, 1)).extracting(Museum::getName)
+				.containsExactly(MUSEUM_TEST_1);
+		assertThat(inMemoryMuseumRepository.findMuseumsPage(MUSEUM_TEST_1, 1)).extracting(Museum::getName)
+				.containsExactly(MUSEUM_TEST_2);
+		assertThat(inMemoryMuseumRepository.findMuseumsPage(MUSEUM_TEST_2, 1)).isEmpty();
+	}
+
+	@Test
+	public void testFindMuseumByNullIdShouldThrow() {
+		assertThatThrownBy(() -> inMemoryMuseumRepository.findMuseumById(null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testFindMuseumByIdWhenNoMuseumsArePresent() {
+		assertThatThrownBy(() -> inMemoryMuseumRepository.findMuseumById(invalidUUID))
+				.isInstanceOf(NoSuchElementException.class).hasMessage("Cannot find entity with id: " + invalidUUID);
+	}
+
+	@Test
+	public void testFindMuseumByIdWhenMuseumIsPresent() {
+		populateDatabase();
+		assertThat(inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1)).extracting(Museum::getName)
+				.isEqualTo(MUSEUM_TEST_1);
+	}
+
+	@Test
+	public void testFindMuseumByNullName() {
+		assertThat(inMemoryMuseumRepository.findMuseumByName(null)).isNull();
+	}
+
+	@Test
+	public void testFindMuseumByNameWhenMuseumIsPresent() {
+		populateDatabase();
+		assertThat(inMemoryMuseumRepository.findMuseumByName(MUSEUM_TEST_2).getId()).isEqualTo(MUSEUM_ID_2);
+		assertThat(inMemoryMuseumRepository.findMuseumByName(MUSEUM_NOT_PERSISTED_TEST)).isNull();
+	}
+
+	@Test
+	public void testAddNewNullMuseumEntityShouldThrow() {
+		assertThatThrownBy(() -> inMemoryMuseumRepository.addMuseum(null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testAddNewMuseumGeneratesItsId() {
+		Museum museum = inMemoryMuseumRepository.addMuseum(createTestMuseum(MUSEUM_TEST_1, NUM_OF_ROOMS));
+		assertThat(museum.getId()).isNotNull();
+		assertThat(inMemoryMuseumRepository.findMuseumById(museum.getId())).isEqualTo(museum);
+	}
+
+	@Test
+	public void testAddMuseumsGeneratesTheirIds() {
+		List<Museum> museums = List.of(createTestMuseum(MUSEUM_TEST_1, NUM_OF_ROOMS),
+				createTestMuseum(MUSEUM_TEST_2, NUM_OF_ROOMS));
+
+		assertThat(inMemoryMuseumRepository.addMuseums(museums)).isEqualTo(2);
+		assertThat(museums).extracting(Museum::getId).doesNotContainNull();
+		assertThat(inMemoryMuseumRepository.findAllMuseums()).containsExactlyElementsOf(museums);
+	}
+
+	@Test
+	public void testAddMuseumWithSameNameShouldThrow() {
+		populateDatabase();
+		assertThatThrownBy(() -> inMemoryMuseumRepository.addMuseum(createTestMuseum(MUSEUM_TEST_1, NUM_OF_ROOMS)))
+				.isInstanceOf(IllegalStateException.class).hasMessage("Duplicate Museum name: " + MUSEUM_TEST_1);
+	}
+
+	@Test
+	public void testReturnedMuseumsAreCopies() {
+		populateDatabase();
+		inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1).setOccupiedRooms(5);
+		assertThat(inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1).getOccupiedRooms()).isZero();
+	}
+
+	@Test
+	public void testUpdateMuseum() {
+		populateDatabase();
+		Museum museum = inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1);
+		museum.setOccupiedRooms(5);
+		museum.setName(MUSEUM_NOT_PERSISTED_TEST);
+		inMemoryMuseumRepository.updateMuseum(museum);
+		assertThat(inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1).getOccupiedRooms()).isEqualTo(5);
+		assertThat(inMemoryMuseumRepository.findMuseumByName(MUSEUM_TEST_1)).isNull();
+		assertThat(inMemoryMuseumRepository.findMuseumByName(MUSEUM_NOT_PERSISTED_TEST).getId())
+				.isEqualTo(MUSEUM_ID_1);
+	}
+
+	@Test
+	public void testUpdateMuseumIncrementsItsVersionOncePerTransaction() {
+		populateDatabase();
+		Museum museum = inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1);
+		museum.setOccupiedRooms(5);
+		inMemoryMuseumRepository.updateMuseum(museum);
+		museum.setOccupiedRooms(6);
+		Museum updatedMuseum = inMemoryMuseumRepository.updateMuseum(museum);
+
+		assertThat(updatedMuseum.getVersion()).isEqualTo(1);
+		assertThat(museum.getVersion()).isZero();
+		transaction.commit();
+		assertThat(new InMemoryMuseumRepository(database.begin()).findMuseumById(MUSEUM_ID_1))
+				.extracting(Museum::getOccupiedRooms, Museum::getVersion).containsExactly(6, 1L);
+	}
+
+	@Test
+	public void testUpdateMuseumUpdatedByAnotherTransactionShouldThrow() {
+		populateDatabase();
+		Museum museum = inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1);
+		InMemoryTransaction otherTransaction = database.begin();
+		MuseumRepository otherRepository = new InMemoryMuseumRepository(otherTransaction);
+		Museum otherMuseum = otherRepository.findMuseumById(MUSEUM_ID_1);
+		otherMuseum.setOccupiedRooms(1);
+		otherRepository.updateMuseum(otherMuseum);
+		otherTransaction.commit();
+
+		museum.setOccupiedRooms(2);
+		assertThatThrownBy(() -> inMemoryMuseumRepository.updateMuseum(museum))
+				.isInstanceOf(OptimisticLockException.class);
+	}
+
+	@Test
+	public void testUpdateNotExistingMuseumShouldThrow() {
+		Museum museum = createTestMuseum(MUSEUM_TEST_1, NUM_OF_ROOMS);
+		museum.setId(invalidUUID);
+		assertThatThrownBy(() -> inMemoryMuseumRepository.updateMuseum(museum))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testDeleteMuseum() {
+		populateDatabase();
+		inMemoryMuseumRepository.deleteMuseum(inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_2));
+		assertThat(inMemoryMuseumRepository.findAllMuseums()).extracting(Museum::getId).containsExactly(MUSEUM_ID_1);
+		assertThat(inMemoryMuseumRepository.findMuseumByName(MUSEUM_TEST_2)).isNull();
+	}
+
+	@Test
+	public void testDeleteMuseumReferencedByExhibitionsShouldThrow() {
+		populateDatabase();
+		Museum museum = inMemoryMuseumRepository.findMuseumById(MUSEUM_ID_1);
+		Exhibition exhibition = new Exhibition("exhibition1_test", NUM_OF_ROOMS);
+		exhibition.setMuseumId(MUSEUM_ID_1);
+		new InMemoryExhibitionRepository(transaction).addNewExhibition(exhibition);
+
+		assertThatThrownBy(() -> inMemoryMuseumRepository.deleteMuseum(museum))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	/**
+	 * 
+	 * Utility methods
+	 * 
+	 */
+
+	public Museum createTestMuseum(String museumName, int numOfRooms) {
+		return new Museum(museumName, numOfRooms);
+	}
+
+	/*
+	 * Utility method to populate database with data, the test transaction is
+	 * restarted to see them
+	 */
+
+	private void populateDatabase() {
+		InMemoryTransaction populateTransaction = database.begin();
+		MuseumRepository museumRepository = new InMemoryMuseumRepository(populateTransaction);
+		Museum museum1 = createTestMuseum(MUSEUM_TEST_1, NUM_OF_ROOMS);
+		museum1.setId(MUSEUM_ID_1);
+		Museum museum2 = createTestMuseum(MUSEUM_TEST_2, NUM_OF_ROOMS);
+		museum2.setId(MUSEUM_ID_2);
+		museumRepository.addMuseum(museum1);
+		museumRepository.addMuseum(museum2);
+		populateTransaction.commit();
+
+		transaction.rollback();
+		transaction = database.begin();
+		inMemoryMuseumRepository = new InMemoryMuseumRepository(transaction);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CsvReaderTest {
+
+	@Test
+	public void testPlainRecords() throws IOException {
+		CsvReader reader = new CsvReader(new StringReader("a,b,c\n1,,3\n"));
+
+		assertThat(reader.readRecord()).containsExactly("a", "b", "c");
+		assertThat(reader.readRecord()).containsExactly("1", "", "3");
+		assertThat(reader.readRecord()).isNull();
+	}
+
+	@Test
+	public void testQuotedFields() throws IOException {
+		CsvReader reader = new CsvReader(new StringReader("\"a, b\",\"say \"\"hi\"\"\",\"\"\n"));
+
+		assertThat(reader.readRecord()).containsExactly("a, b", "say \"hi\"", "");
+	}
+
+	@Test
+	public void testQuotedLineBreaksAndLineNumbers() throws IOException {
+		CsvReader reader = new CsvReader(new StringReader("\"first\r\nline\",1\n\nnext,2"));
+
+		List<String> record = reader.readRecord();
+		assertThat(record).containsExactly("first\nline", "1");
+		assertThat(reader.getLineNumber()).isEqualTo(1);
+		assertThat(reader.readRecord()).containsExactly("next", "2");
+		assertThat(reader.getLineNumber()).isEqualTo(4);
+	}
+
+	@Test
+	public void testUnterminatedQuotesShouldThrow() {
+		CsvReader reader = new CsvReader(new StringReader("\"open,1\nstill open"));
+
+		assertThatThrownBy(reader::readRecord).isInstanceOf(IOException.class)
+				.hasMessage("Unterminated quotes at line 1.");
+	}
+
+}
@@ -6,9 +6,13 @@ import javax.persistence.Persistence;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import org.hibernate.Session;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -20,12 +24,15 @@ import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
 public class ExhibitionPostgresRepositoryTest {
 
 	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID MUSEUM_ID_2 = UUID.fromString("94fe3013-9ebb-432e-ab55-e612dc797851");
 
 	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
 	private static final UUID EXHIBITION_ID_2 = UUID.fromString("b2cb1474-24ff-41eb-a8d7-963f32f6822d");
+	private static final UUID EXHIBITION_ID_3 = UUID.fromString("0b3b6e7c-5d51-4e7b-a0f4-3c1a2f9d8e61");
 	private static final UUID invalidUUID = UUID.fromString("2796027d-21cc-4883-b088-514d4b3090a1");
 
 	private static final String EXHIBITION_TEST_1 = "exhibition1_test";
+	private static final String EXHIBITION_TEST_2 = "exhibition2_test";
 	private static final String EXHIBITION_NOT_PERSISTED = "exhibition_not_persisted";
 
 	private static final int UTILITY_CONST_NUM = 10;
@@ -55,6 +62,38 @@ public class ExhibitionPostgresRepositoryTest {
 		assertThat(postgresExhibitionRepository.findAllExhibitions()).isEmpty();
 	}
 
+	@Test
+	public void testForEachExhibitionPassesDetachedExhibitions() {
+		populateDatabase();
+		List<Exhibition> exhibitions = new ArrayList<>();
+
+		entityManager.getTransaction().begin();
+		postgresExhibitionRepository.forEachExhibition(exhibition -> {
+			assertThat(entityManager.contains(exhibition)).isFalse();
+			exhibitions.add(exhibition);
+		});
+		entityManager.getTransaction().commit();
+
+		assertThat(exhibitions).extracting(Exhibition::getId).containsExactlyInAnyOrder(EXHIBITION_ID_1,
+				EXHIBITION_ID_2);
+	}
+
+	@Test
+	public void testFindExhibitionsPageWithNotPositivePageSizeShouldThrow() {
+		assertThatThrownBy(() -> postgresExhibitionRepository.findExhibitionsPage(null, -1))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Page size must be positive.");
+	}
+
+	@Test
+	public void testFindExhibitionsPageReturnsExhibitionsOrderedByNameAfterTheGivenOne() {
+		populateDatabase();
+		assertThat(postgresExhibitionRepository.findExhibitionsPage(null, 1)).extracting(Exhibition::getName)
+				.containsExactly(EXHIBITION_TEST_1);
+		assertThat(postgresExhibitionRepository.findExhibitionsPage(EXHIBITION_TEST_1, 5))
+				.extracting(Exhibition::getName).containsExactly(EXHIBITION_TEST_2);
+		assertThat(postgresExhibitionRepository.findExhibitionsPage(EXHIBITION_TEST_2, 5)).isEmpty();
+	}
+
 	@Test
 	public void testFindExhibitionByIdWhenNoExhibitionsArePersisted() {
 		assertThat(postgresExhibitionRepository.findExhibitionById(invalidUUID)).isNull();
@@ -115,8 +154,38 @@ public class ExhibitionPostgresRepositoryTest {
 		Exhibition exhibition1 = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
 		Exhibition exhibition2 = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_2);
 
-		assertThat(postgresExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1)).containsExactly(exhibition1,
-				exhibition2);
+		assertThat(postgresExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1))
+				.containsExactlyInAnyOrder(exhibition1, exhibition2);
+	}
+
+	@Test
+	public void testFindExhibitionsByMuseumIdLoadsOnlyTheMuseumExhibitions() {
+		populateDatabase();
+		entityManager.getTransaction().begin();
+		entityManager
+				.createNativeQuery("INSERT INTO exhibitions(id, museum_id, exhibition_name, total_seats, booked_seats)"
+						+ "VALUES ('" + EXHIBITION_ID_3 + "', '" + MUSEUM_ID_2 + "', 'exhibition3_test', 100, 0);")
+				.executeUpdate();
+		entityManager.getTransaction().commit();
+
+		entityManager.clear();
+		assertThat(postgresExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_2)).extracting(Exhibition::getId)
+				.containsExactly(EXHIBITION_ID_3);
+		assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(1);
+
+		entityManager.clear();
+		assertThat(postgresExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1)).extracting(Exhibition::getId)
+				.containsExactlyInAnyOrder(EXHIBITION_ID_1, EXHIBITION_ID_2);
+		assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testFindExhibitionByNameLoadsOnlyTheMatchingExhibition() {
+		populateDatabase();
+		entityManager.clear();
+		Exhibition exhibition1 = postgresExhibitionRepository.findExhibitionByName(EXHIBITION_TEST_1);
+		assertThat(exhibition1.getId()).isEqualTo(EXHIBITION_ID_1);
+		assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(1);
 	}
 
 	@Test
@@ -147,6 +216,24 @@ public class ExhibitionPostgresRepositoryTest {
 		assertThat(postgresExhibitionRepository.findExhibitionById(exhibition.getId())).isEqualTo(persistedExhibition);
 	}
 
+	@Test
+	public void testAddExhibitionsDetachesThemOnceFlushed() {
+		populateDatabase();
+		List<Exhibition> exhibitions = new ArrayList<>();
+		for (int i = 0; i <= BatchPersister.FLUSH_INTERVAL; i++) {
+			Exhibition exhibition = new Exhibition("exhibition_" + i, UTILITY_CONST_NUM);
+			exhibition.setMuseumId(MUSEUM_ID_2);
+			exhibitions.add(exhibition);
+		}
+
+		entityManager.getTransaction().begin();
+		assertThat(postgresExhibitionRepository.addExhibitions(exhibitions)).isEqualTo(exhibitions.size());
+		assertThat(exhibitions).noneMatch(entityManager::contains);
+		entityManager.getTransaction().commit();
+
+		assertThat(postgresExhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_2)).hasSize(exhibitions.size());
+	}
+
 	@Test
 	public void testUpdateExhibitionWithNullEntityShouldThrow() {
 		populateDatabase();
@@ -190,6 +277,111 @@ public class ExhibitionPostgresRepositoryTest {
 
 	}
 
+	@Test
+	public void testBookSeatWithNullIdShouldThrow() {
+		assertThatThrownBy(() -> postgresExhibitionRepository.bookSeat(null))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Exhibition ID cannot be null.");
+	}
+
+	@Test
+	public void testBookSeatWhenSeatsAreAvailable() {
+		populateDatabase();
+		entityManager.getTransaction().begin();
+		int freeSeats = postgresExhibitionRepository.bookSeat(EXHIBITION_ID_1);
+		entityManager.getTransaction().commit();
+		entityManager.clear();
+
+		assertThat(freeSeats).isEqualTo(99);
+		assertThat(postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getBookedSeats()).isEqualTo(1);
+	}
+
+	@Test
+	public void testBookSeatWhenAllSeatsAreBooked() {
+		populateDatabase();
+		entityManager.getTransaction().begin();
+		entityManager.createNativeQuery("UPDATE exhibitions SET booked_seats = total_seats").executeUpdate();
+		int freeSeats = postgresExhibitionRepository.bookSeat(EXHIBITION_ID_1);
+		entityManager.getTransaction().commit();
+		entityManager.clear();
+
+		assertThat(freeSeats).isEqualTo(-1);
+		assertThat(postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getBookedSeats()).isEqualTo(100);
+	}
+
+	@Test
+	public void testBookSeatOfNotExistingExhibition() {
+		entityManager.getTransaction().begin();
+		int freeSeats = postgresExhibitionRepository.bookSeat(invalidUUID);
+		entityManager.getTransaction().commit();
+
+		assertThat(freeSeats).isEqualTo(-1);
+	}
+
+	@Test
+	public void testBookSeatsWithNotPositiveSeatsShouldThrow() {
+		Map<UUID, Integer> seatsByExhibitionId = new HashMap<>();
+		seatsByExhibitionId.put(EXHIBITION_ID_1, 0);
+		assertThatThrownBy(() -> postgresExhibitionRepository.bookSeats(seatsByExhibitionId))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testBookSeatsReportsNotBookedExhibitions() {
+		populateDatabase();
+		Map<UUID, Integer> seatsByExhibitionId = new HashMap<>();
+		seatsByExhibitionId.put(EXHIBITION_ID_1, 30);
+		seatsByExhibitionId.put(EXHIBITION_ID_2, 101);
+		seatsByExhibitionId.put(invalidUUID, 1);
+
+		entityManager.getTransaction().begin();
+		Map<UUID, Integer> freeSeats = postgresExhibitionRepository.bookSeats(seatsByExhibitionId);
+		entityManager.getTransaction().commit();
+		entityManager.clear();
+
+		assertThat(freeSeats).containsEntry(EXHIBITION_ID_1, 70).containsEntry(EXHIBITION_ID_2, -1)
+				.containsEntry(invalidUUID, -1).hasSize(3);
+		assertThat(postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getBookedSeats()).isEqualTo(30);
+		assertThat(postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_2).getBookedSeats()).isZero();
+	}
+
+	@Test
+	public void testBookAdjacentSeatsStoresTheSeatMap() {
+		populateDatabase();
+		entityManager.getTransaction().begin();
+		int firstSeat = postgresExhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 3);
+		int nextSeat = postgresExhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_1, 2);
+		int notBookedSeat = postgresExhibitionRepository.bookAdjacentSeats(EXHIBITION_ID_2, 101);
+		entityManager.getTransaction().commit();
+		entityManager.clear();
+
+		assertThat(firstSeat).isZero();
+		assertThat(nextSeat).isEqualTo(3);
+		assertThat(notBookedSeat).isEqualTo(-1);
+		Exhibition exhibition = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
+		assertThat(exhibition.getBookedSeats()).isEqualTo(5);
+		assertThat(exhibition.getSeatMap()).hasSize(13).startsWith(0x1f, 0x00);
+		assertThat(postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_2).getSeatMap()).isNull();
+	}
+
+	@Test
+	public void testBookSeatNumbersWhenSomeAreBooked() {
+		populateDatabase();
+		entityManager.getTransaction().begin();
+		boolean booked = postgresExhibitionRepository.bookSeatNumbers(EXHIBITION_ID_1, new int[] { 8, 99 });
+		boolean bookedAgain = postgresExhibitionRepository.bookSeatNumbers(EXHIBITION_ID_1, new int[] { 7, 8 });
+		boolean notExistingBooked = postgresExhibitionRepository.bookSeatNumbers(invalidUUID, new int[] { 1 });
+		entityManager.getTransaction().commit();
+		entityManager.clear();
+
+		assertThat(booked).isTrue();
+		assertThat(bookedAgain).isFalse();
+		assertThat(notExistingBooked).isFalse();
+		Exhibition exhibition = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
+		assertThat(exhibition.getBookedSeats()).isEqualTo(2);
+		assertThat(exhibition.getSeatMap()[1]).isEqualTo((byte) 0x01);
+		assertThat(exhibition.getSeatMap()[12]).isEqualTo((byte) 0x08);
+	}
+
 	@Test
 	public void testRemoveNullExhibitionShouldThrow() {
 		assertThatThrownBy(() -> postgresExhibitionRepository.deleteExhibition(null))
@@ -209,6 +401,26 @@ public class ExhibitionPostgresRepositoryTest {
 		assertThat(postgresExhibitionRepository.findAllExhibitions()).containsExactly(exhibition2);
 	}
 
+	@Test
+	public void testDeleteExhibitionsByNullMuseumIdShouldThrow() {
+		assertThatThrownBy(() -> postgresExhibitionRepository.deleteExhibitionsByMuseumId(null))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Museum ID cannot be null.");
+	}
+
+	@Test
+	public void testDeleteExhibitionsByMuseumIdRemovesAllTheMuseumExhibitions() {
+		populateDatabase();
+
+		entityManager.getTransaction().begin();
+		int deletedExhibitions = postgresExhibitionRepository.deleteExhibitionsByMuseumId(MUSEUM_ID_1);
+		int notDeletedExhibitions = postgresExhibitionRepository.deleteExhibitionsByMuseumId(MUSEUM_ID_2);
+		entityManager.getTransaction().commit();
+
+		assertThat(deletedExhibitions).isEqualTo(2);
+		assertThat(notDeletedExhibitions).isZero();
+		assertThat(postgresExhibitionRepository.findAllExhibitions()).isEmpty();
+	}
+
 	@AfterClass
 	public static void tearDown() {
 		entityManager.clear();
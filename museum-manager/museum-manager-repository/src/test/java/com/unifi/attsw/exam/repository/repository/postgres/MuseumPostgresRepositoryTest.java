@@ -2,6 +2,7 @@ package com.unifi.attsw.exam.repository.repository.postgres;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
@@ -11,6 +12,7 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 import javax.persistence.PersistenceException;
 
+import org.hibernate.Session;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -56,6 +58,37 @@ public class MuseumPostgresRepositoryTest {
 
 	}
 
+	@Test
+	public void testForEachMuseumPassesDetachedMuseums() {
+		populateDatabase();
+		List<Museum> museums = new ArrayList<>();
+
+		entityManager.getTransaction().begin();
+		postgresMuseumRepository.forEachMuseum(museum -> {
+			assertThat(entityManager.contains(museum)).isFalse();
+			museums.add(museum);
+		});
+		entityManager.getTransaction().commit();
+
+		assertThat(museums).extracting(Museum::getName).containsExactlyInAnyOrder(MUSEUM_TEST_1, MUSEUM_TEST_2);
+	}
+
+	@Test
+	public void testFindMuseumsPageWithNotPositivePageSizeShouldThrow() {
+		assertThatThrownBy(() -> postgresMuseumRepository.findMuseumsPage(null, 0))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Page size must be positive.");
+	}
+
+	@Test
+	public void testFindMuseumsPageReturnsMuseumsOrderedByNameAfterTheGivenOne() {
+		populateDatabase();
+		assertThat(postgresMuseumRepository.findMuseumsPage(null, 1)).extracting(Museum::getName)
+				.containsExactly(MUSEUM_TEST_1);
+		assertThat(postgresMuseumRepository.findMuseumsPage(MUSEUM_TEST_1, 1)).extracting(Museum::getName)
+				.containsExactly(MUSEUM_TEST_2);
+		assertThat(postgresMuseumRepository.findMuseumsPage(MUSEUM_TEST_2, 1)).isEmpty();
+	}
+
 	@Test
 	public void testFindMuseumByNullIdShouldThrow() {
 		assertThatThrownBy(() -> postgresMuseumRepository.findMuseumById(null))
@@ -92,6 +125,36 @@ public class MuseumPostgresRepositoryTest {
 				.isEqualTo(persistedMuseum);
 	}
 
+	@Test
+	public void testAddMuseumsDetachesThemOnceFlushed() {
+		List<Museum> museums = new ArrayList<>();
+		for (int i = 0; i <= BatchPersister.FLUSH_INTERVAL; i++) {
+			museums.add(createTestMuseum("museum_" + i, NUM_OF_ROOMS));
+		}
+
+		entityManager.getTransaction().begin();
+		assertThat(postgresMuseumRepository.addMuseums(museums)).isEqualTo(museums.size());
+		assertThat(museums).noneMatch(entityManager::contains);
+		entityManager.getTransaction().commit();
+
+		assertThat(postgresMuseumRepository.findAllMuseums()).hasSize(museums.size());
+		assertThat(postgresMuseumRepository.findMuseumById(museums.get(0).getId())).isEqualTo(museums.get(0));
+	}
+
+	@Test
+	public void testAddMuseumsWithDuplicateNameShouldThrow() {
+		populateDatabase();
+		List<Museum> museums = List.of(createTestMuseum(MUSEUM_NOT_PERSISTED_TEST, NUM_OF_ROOMS),
+				createTestMuseum(MUSEUM_TEST_1, NUM_OF_ROOMS));
+
+		entityManager.getTransaction().begin();
+		assertThatThrownBy(() -> postgresMuseumRepository.addMuseums(museums))
+				.isInstanceOf(PersistenceException.class);
+		entityManager.getTransaction().rollback();
+
+		assertThat(postgresMuseumRepository.findMuseumByName(MUSEUM_NOT_PERSISTED_TEST)).isNull();
+	}
+
 	@Test
 	public void testFindMuseumByIdWhenMuseumIsPresent() {
 		populateDatabase();
@@ -107,6 +170,15 @@ public class MuseumPostgresRepositoryTest {
 		assertThat(persistedMuseums).extracting(Museum::getName).contains(museum1.getName());
 	}
 
+	@Test
+	public void testFindMuseumByNameLoadsOnlyTheMatchingMuseum() {
+		populateDatabase();
+		entityManager.clear();
+		Museum museum1 = postgresMuseumRepository.findMuseumByName(MUSEUM_TEST_1);
+		assertThat(museum1.getId()).isEqualTo(MUSEUM_ID_1);
+		assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(1);
+	}
+
 	@Test
 	public void testFindMuseumByNameOfNotExistingMuseumReturnsNull() {
 		populateDatabase();
@@ -0,0 +1,148 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+public class PostgresBatchImporterTest {
+
+	private static final String MUSEUMS_HEADER = "name,total_rooms\n";
+	private static final String EXHIBITIONS_HEADER = "museum_name,name,total_seats\n";
+
+	private static EntityManagerFactory sessionFactory;
+	private static String url;
+
+	private Connection connection;
+	private PostgresBatchImporter importer;
+
+	@BeforeClass
+	public static void beforeClass() {
+		sessionFactory = Persistence.createEntityManagerFactory("postgres");
+		url = (String) sessionFactory.getProperties().get("javax.persistence.jdbc.url");
+	}
+
+	@Before
+	public void setUp() throws SQLException {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		entityManager.createNativeQuery("TRUNCATE TABLE Museums CASCADE").executeUpdate();
+		entityManager
+				.createNativeQuery("INSERT INTO museums (id, museum_name, number_of_occupied_rooms, number_of_rooms)"
+						+ "VALUES ( 'b433da18-ba5a-4b86-92af-ba11be6314e7' , 'museum1_test', 1, 2);")
+				.executeUpdate();
+		entityManager.getTransaction().commit();
+		entityManager.close();
+		connection = DriverManager.getConnection(url, "test", "test");
+		importer = new PostgresBatchImporter(connection, 2, 3);
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		sessionFactory.close();
+	}
+
+	@Test
+	public void testImportMuseums() throws RepositoryException {
+		ImportResult result = importer.importMuseums(new StringReader(
+				MUSEUMS_HEADER + "museum2_test,10\n\"museum, with \"\"quotes\"\"\", 5\nmuseum1_test,3\n"));
+
+		assertThat(result.getRowsRead()).isEqualTo(3);
+		assertThat(result.getRowsImported()).isEqualTo(2);
+		assertThat(result.getRowsSkipped()).isEqualTo(1);
+		assertThat(findAllMuseums()).extracting(Museum::getName, Museum::getTotalRooms, Museum::getOccupiedRooms)
+				.containsExactlyInAnyOrder(tuple("museum1_test", 2, 1), tuple("museum2_test", 10, 0),
+						tuple("museum, with \"quotes\"", 5, 0));
+	}
+
+	@Test
+	public void testImportExhibitionsOccupiesTheRoomsOfTheirMuseums() throws RepositoryException {
+		ImportResult result = importer.importExhibitions(new StringReader(EXHIBITIONS_HEADER
+				+ "museum1_test,exhibition1_test,100\nmuseum1_test,exhibition2_test,100\n"
+				+ "unknown_museum,exhibition3_test,100\n"));
+
+		assertThat(result.getRowsRead()).isEqualTo(3);
+		assertThat(result.getRowsImported()).isEqualTo(1);
+		assertThat(findAllExhibitions()).extracting(Exhibition::getName, Exhibition::getTotalSeats,
+				Exhibition::getBookedSeats).containsExactly(tuple("exhibition1_test", 100, 0));
+		assertThat(findAllMuseums()).extracting(Museum::getOccupiedRooms).containsExactly(2);
+	}
+
+	@Test
+	public void testImportExistingExhibitionDoesNotOccupyARoom() throws RepositoryException {
+		importer.importExhibitions(new StringReader(EXHIBITIONS_HEADER + "museum1_test,exhibition1_test,100\n"));
+		importer.importMuseums(new StringReader(MUSEUMS_HEADER + "museum2_test,10\n"));
+
+		ImportResult result = importer
+				.importExhibitions(new StringReader(EXHIBITIONS_HEADER + "museum2_test,exhibition1_test,100\n"));
+
+		assertThat(result.getRowsImported()).isZero();
+		assertThat(findAllMuseums()).extracting(Museum::getName, Museum::getOccupiedRooms)
+				.containsExactlyInAnyOrder(tuple("museum1_test", 2), tuple("museum2_test", 0));
+	}
+
+	@Test
+	public void testFailedImportKeepsTheCommittedRowsOnly() {
+		assertThatThrownBy(() -> importer.importMuseums(new StringReader(MUSEUMS_HEADER
+				+ "museum2_test,10\nmuseum3_test,10\nmuseum4_test,10\nmuseum5_test,10\nmuseum6_test,ten\n")))
+						.isInstanceOf(RepositoryException.class).hasMessage("Malformed record at line 6.");
+
+		assertThat(findAllMuseums()).extracting(Museum::getName).containsExactlyInAnyOrder("museum1_test",
+				"museum2_test", "museum3_test", "museum4_test");
+	}
+
+	@Test
+	public void testRecordWithMissingFieldsShouldThrow() {
+		assertThatThrownBy(() -> importer.importMuseums(new StringReader(MUSEUMS_HEADER + "museum2_test\n")))
+				.isInstanceOf(RepositoryException.class).hasMessage("Malformed record at line 2.");
+	}
+
+	@Test
+	public void testNotPositiveBatchSizeOrCommitIntervalShouldThrow() {
+		assertThatThrownBy(() -> new PostgresBatchImporter(connection, 0, 1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new PostgresBatchImporter(connection, 1, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/*
+	 * Utility methods
+	 */
+
+	private List<Museum> findAllMuseums() {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		List<Museum> museums = new PostgresMuseumRepository(entityManager).findAllMuseums();
+		entityManager.close();
+		return museums;
+	}
+
+	private List<Exhibition> findAllExhibitions() {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		List<Exhibition> exhibitions = new PostgresExhibitionRepository(entityManager).findAllExhibitions();
+		entityManager.close();
+		return exhibitions;
+	}
+
+}
@@ -0,0 +1,242 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.changefeed.ChangeListener;
+import com.unifi.attsw.exam.repository.changefeed.ChangeType;
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+public class PostgresChangeFeedTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
+
+	private static final String MUSEUM_TEST_2 = "museum2_test";
+	private static final int NUM_CONSTANT1 = 10;
+
+	private static final long TIMEOUT_SECONDS = 5;
+
+	private static EntityManagerFactory sessionFactory;
+	private static String url;
+
+	private PostgresChangeFeed changeFeed;
+	private BlockingQueue<String> changes;
+
+	@BeforeClass
+	public static void beforeClass() throws SQLException {
+		sessionFactory = Persistence.createEntityManagerFactory("postgres");
+		url = (String) sessionFactory.getProperties().get("javax.persistence.jdbc.url");
+		try (Connection connection = connect()) {
+			PostgresChangeFeed.installTriggers(connection);
+		}
+	}
+
+	@Before
+	public void setUp() throws RepositoryException {
+		inTransaction(entityManager -> {
+			entityManager.createNativeQuery("TRUNCATE TABLE Museums CASCADE").executeUpdate();
+			entityManager
+					.createNativeQuery("INSERT INTO museums (id, museum_name, number_of_occupied_rooms, number_of_rooms)"
+							+ "VALUES ( 'b433da18-ba5a-4b86-92af-ba11be6314e7' , 'museum1_test', 0, 10);")
+					.executeUpdate();
+			entityManager
+					.createNativeQuery("INSERT INTO exhibitions(id, museum_id, exhibition_name, total_seats, booked_seats)"
+							+ "VALUES ('49d13e51-2277-4911-929f-c9c067e2e8b4', 'b433da18-ba5a-4b86-92af-ba11be6314e7', 'exhibition1_test', 100, 0);")
+					.executeUpdate();
+		});
+		changes = new LinkedBlockingQueue<>();
+		changeFeed = new PostgresChangeFeed(PostgresChangeFeedTest::connect);
+		changeFeed.addChangeListener(new QueueListener());
+	}
+
+	@After
+	public void tearDown() {
+		changeFeed.close();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		sessionFactory.close();
+	}
+
+	@Test
+	public void testInsertedMuseumIsPublished() throws InterruptedException {
+		Museum museum = new Museum(MUSEUM_TEST_2, NUM_CONSTANT1);
+		inTransaction(entityManager -> new PostgresMuseumRepository(entityManager).addMuseum(museum));
+
+		assertThat(nextChange()).isEqualTo("INSERT museum museum2_test " + museum.getId() + " 10 0 0");
+	}
+
+	@Test
+	public void testNameWithCommasIsPublishedWhole() throws InterruptedException {
+		Museum museum = new Museum("museum, with, commas", NUM_CONSTANT1);
+		inTransaction(entityManager -> new PostgresMuseumRepository(entityManager).addMuseum(museum));
+
+		assertThat(nextChange()).isEqualTo("INSERT museum museum, with, commas " + museum.getId() + " 10 0 0");
+	}
+
+	@Test
+	public void testBookedSeatsArePublishedAsUpdates() throws InterruptedException {
+		inTransaction(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.bookSeats(Map.of(EXHIBITION_ID_1, 3)));
+
+		assertThat(nextChange())
+				.isEqualTo("UPDATE exhibition exhibition1_test " + EXHIBITION_ID_1 + " " + MUSEUM_ID_1 + " 100 3 1");
+	}
+
+	@Test
+	public void testDeletedRowsArePublishedWithTheirLastValues() throws InterruptedException {
+		inTransaction(entityManager -> {
+			new PostgresExhibitionRepository(entityManager).deleteExhibitionsByMuseumId(MUSEUM_ID_1);
+			PostgresMuseumRepository museumRepository = new PostgresMuseumRepository(entityManager);
+			museumRepository.deleteMuseum(museumRepository.findMuseumById(MUSEUM_ID_1));
+		});
+
+		assertThat(nextChange())
+				.isEqualTo("DELETE exhibition exhibition1_test " + EXHIBITION_ID_1 + " " + MUSEUM_ID_1 + " 100 0 0");
+		assertThat(nextChange()).isEqualTo("DELETE museum museum1_test " + MUSEUM_ID_1 + " 10 0 0");
+	}
+
+	@Test
+	public void testRolledBackChangesAreNotPublished() throws InterruptedException {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		new PostgresMuseumRepository(entityManager).addMuseum(new Museum(MUSEUM_TEST_2, NUM_CONSTANT1));
+		entityManager.flush();
+		entityManager.getTransaction().rollback();
+		entityManager.close();
+
+		assertThat(changes.poll(1, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	public void testTruncatedTablesArePublishedAsLostChanges() throws InterruptedException {
+		inTransaction(
+				entityManager -> entityManager.createNativeQuery("TRUNCATE TABLE Museums CASCADE").executeUpdate());
+
+		assertThat(nextChange()).isEqualTo("LOST");
+	}
+
+	@Test
+	public void testBatchImportsArePublishedAsLostChanges()
+			throws SQLException, RepositoryException, InterruptedException {
+		try (Connection connection = connect()) {
+			new PostgresBatchImporter(connection, 1, 10)
+					.importMuseums(new StringReader("name,total_rooms\nmuseum2_test,10\nmuseum3_test,10\n"));
+		}
+
+		assertThat(nextChange()).isEqualTo("LOST");
+		assertThat(changes.poll(1, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	public void testCopyLoadsArePublishedAsLostChanges()
+			throws SQLException, RepositoryException, InterruptedException {
+		try (Connection connection = connect()) {
+			new PostgresCopyLoader(connection).loadMuseums(
+					List.of(new Museum(MUSEUM_TEST_2, NUM_CONSTANT1), new Museum("museum3_test", NUM_CONSTANT1)));
+		}
+
+		assertThat(nextChange()).isEqualTo("LOST");
+		assertThat(changes.poll(1, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	public void testInstallTriggersAgainKeepsASingleNotification() throws SQLException, InterruptedException {
+		try (Connection connection = connect()) {
+			PostgresChangeFeed.installTriggers(connection);
+		}
+		Museum museum = new Museum(MUSEUM_TEST_2, NUM_CONSTANT1);
+		inTransaction(entityManager -> new PostgresMuseumRepository(entityManager).addMuseum(museum));
+
+		assertThat(nextChange()).startsWith("INSERT museum museum2_test");
+		assertThat(changes.poll(1, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	public void testLostConnectionIsReopenedAndReportedAsLostChanges() throws SQLException, InterruptedException {
+		try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+			statement.execute("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = 'LISTEN "
+					+ PostgresChangeFeed.CHANNEL + "'");
+		}
+
+		assertThat(nextChange()).isEqualTo("LOST");
+		Museum museum = new Museum(MUSEUM_TEST_2, NUM_CONSTANT1);
+		inTransaction(entityManager -> new PostgresMuseumRepository(entityManager).addMuseum(museum));
+		assertThat(nextChange()).startsWith("INSERT museum museum2_test");
+	}
+
+	@Test
+	public void testFirstConnectionFailureShouldThrow() {
+		assertThatThrownBy(() -> new PostgresChangeFeed(() -> {
+			throw new SQLException("Connection refused");
+		})).isInstanceOf(RepositoryException.class).hasMessage("Cannot listen for database changes.");
+	}
+
+	/*
+	 * Utility methods
+	 */
+
+	private static Connection connect() throws SQLException {
+		return DriverManager.getConnection(url, "test", "test");
+	}
+
+	private String nextChange() throws InterruptedException {
+		return changes.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	private void inTransaction(Consumer<EntityManager> code) {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		code.accept(entityManager);
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	private class QueueListener implements ChangeListener {
+
+		@Override
+		public void museumChanged(ChangeType type, Museum museum) {
+			changes.add(type + " museum " + museum.getName() + " " + museum.getId() + " " + museum.getTotalRooms()
+					+ " " + museum.getOccupiedRooms() + " " + museum.getVersion());
+		}
+
+		@Override
+		public void exhibitionChanged(ChangeType type, Exhibition exhibition) {
+			changes.add(type + " exhibition " + exhibition.getName() + " " + exhibition.getId() + " "
+					+ exhibition.getMuseumId() + " " + exhibition.getTotalSeats() + " "
+					+ exhibition.getBookedSeats() + " " + exhibition.getVersion());
+		}
+
+		@Override
+		public void changesLost() {
+			changes.add("LOST");
+		}
+	}
+
+}
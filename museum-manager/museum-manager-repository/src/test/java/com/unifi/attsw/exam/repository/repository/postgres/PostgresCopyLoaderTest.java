@@ -0,0 +1,179 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+public class PostgresCopyLoaderTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
+	private static final UUID invalidUUID = UUID.fromString("2796027d-21cc-4883-b088-514d4b3090a1");
+
+	private static EntityManagerFactory sessionFactory;
+	private static String url;
+
+	private Connection connection;
+	private PostgresCopyLoader loader;
+
+	@BeforeClass
+	public static void beforeClass() {
+		sessionFactory = Persistence.createEntityManagerFactory("postgres");
+		url = (String) sessionFactory.getProperties().get("javax.persistence.jdbc.url");
+	}
+
+	@Before
+	public void setUp() throws SQLException {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		entityManager.createNativeQuery("TRUNCATE TABLE Museums CASCADE").executeUpdate();
+		entityManager
+				.createNativeQuery("INSERT INTO museums (id, museum_name, number_of_occupied_rooms, number_of_rooms)"
+						+ "VALUES ( 'b433da18-ba5a-4b86-92af-ba11be6314e7' , 'museum1_test', 1, 3);")
+				.executeUpdate();
+		entityManager
+				.createNativeQuery("INSERT INTO exhibitions(id, museum_id, exhibition_name, total_seats, booked_seats)"
+						+ "VALUES ('49d13e51-2277-4911-929f-c9c067e2e8b4', 'b433da18-ba5a-4b86-92af-ba11be6314e7', 'exhibition1_test', 100, 0);")
+				.executeUpdate();
+		entityManager.getTransaction().commit();
+		entityManager.close();
+		connection = DriverManager.getConnection(url, "test", "test");
+		loader = new PostgresCopyLoader(connection);
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		sessionFactory.close();
+	}
+
+	@Test
+	public void testLoadMuseumsGeneratesMissingIds() throws RepositoryException {
+		Museum museum = new Museum("museum2_test", 10);
+		Museum escapedMuseum = new Museum("museum\twith\\escapes\n", 5);
+		escapedMuseum.setOccupiedRooms(2);
+
+		ImportResult result = loader.loadMuseums(List.of(museum, escapedMuseum));
+
+		assertThat(result.getRowsRead()).isEqualTo(2);
+		assertThat(result.getRowsImported()).isEqualTo(2);
+		assertThat(museum.getId()).isNotNull();
+		assertThat(findAllMuseums()).extracting(Museum::getId, Museum::getName, Museum::getTotalRooms,
+				Museum::getOccupiedRooms).containsExactlyInAnyOrder(tuple(MUSEUM_ID_1, "museum1_test", 3, 1),
+						tuple(museum.getId(), "museum2_test", 10, 0),
+						tuple(escapedMuseum.getId(), "museum\twith\\escapes\n", 5, 0));
+	}
+
+	@Test
+	public void testLoadMuseumWithExistingNameLoadsNone() {
+		List<Museum> museums = List.of(new Museum("museum2_test", 10), new Museum("museum1_test", 10));
+
+		assertThatThrownBy(() -> loader.loadMuseums(museums)).isInstanceOf(RepositoryException.class)
+				.hasMessage("Impossible to load the records.");
+
+		assertThat(findAllMuseums()).extracting(Museum::getName).containsExactly("museum1_test");
+	}
+
+	@Test
+	public void testLoadExhibitionsOccupiesTheRoomsOfTheirMuseums() throws RepositoryException {
+		Museum museum = new Museum("museum2_test", 10);
+		loader.loadMuseums(List.of(museum));
+		Exhibition exhibition = createExhibition("exhibition2_test", MUSEUM_ID_1);
+		exhibition.setSeatMap(new byte[] { 0x0f, (byte) 0xa0 });
+
+		ImportResult result = loader.loadExhibitions(List.of(exhibition,
+				createExhibition("exhibition3_test", museum.getId()),
+				createExhibition("exhibition4_test", museum.getId())));
+
+		assertThat(result.getRowsImported()).isEqualTo(3);
+		assertThat(findAllExhibitions()).extracting(Exhibition::getName, Exhibition::getMuseumId)
+				.containsExactlyInAnyOrder(tuple("exhibition1_test", MUSEUM_ID_1),
+						tuple("exhibition2_test", MUSEUM_ID_1), tuple("exhibition3_test", museum.getId()),
+						tuple("exhibition4_test", museum.getId()));
+		assertThat(findAllExhibitions()).filteredOn(found -> found.getId().equals(exhibition.getId()))
+				.extracting(Exhibition::getSeatMap).containsExactly(new byte[] { 0x0f, (byte) 0xa0 });
+		assertThat(findAllMuseums()).extracting(Museum::getName, Museum::getOccupiedRooms)
+				.containsExactlyInAnyOrder(tuple("museum1_test", 2), tuple("museum2_test", 2));
+	}
+
+	@Test
+	public void testLoadExhibitionsOfNotExistingMuseumLoadsNone() {
+		List<Exhibition> exhibitions = List.of(createExhibition("exhibition2_test", MUSEUM_ID_1),
+				createExhibition("exhibition3_test", invalidUUID));
+
+		assertThatThrownBy(() -> loader.loadExhibitions(exhibitions)).isInstanceOf(RepositoryException.class)
+				.hasMessage("Museum does not exist: " + invalidUUID);
+
+		assertThat(findAllExhibitions()).extracting(Exhibition::getId).containsExactly(EXHIBITION_ID_1);
+		assertThat(findAllMuseums()).extracting(Museum::getOccupiedRooms).containsExactly(1);
+	}
+
+	@Test
+	public void testLoadMoreExhibitionsThanFreeRoomsLoadsNone() {
+		List<Exhibition> exhibitions = List.of(createExhibition("exhibition2_test", MUSEUM_ID_1),
+				createExhibition("exhibition3_test", MUSEUM_ID_1), createExhibition("exhibition4_test", MUSEUM_ID_1));
+
+		assertThatThrownBy(() -> loader.loadExhibitions(exhibitions)).isInstanceOf(RepositoryException.class)
+				.hasMessage("Not enough rooms in Museum: museum1_test");
+
+		assertThat(findAllExhibitions()).extracting(Exhibition::getId).containsExactly(EXHIBITION_ID_1);
+		assertThat(findAllMuseums()).extracting(Museum::getOccupiedRooms).containsExactly(1);
+	}
+
+	@Test
+	public void testLoadExhibitionWithoutMuseumLoadsNone() {
+		List<Exhibition> exhibitions = List.of(createExhibition("exhibition2_test", null));
+
+		assertThatThrownBy(() -> loader.loadExhibitions(exhibitions)).isInstanceOf(RepositoryException.class)
+				.hasMessage("Impossible to load the records.");
+
+		assertThat(findAllExhibitions()).extracting(Exhibition::getId).containsExactly(EXHIBITION_ID_1);
+	}
+
+	/*
+	 * Utility methods
+	 */
+
+	private Exhibition createExhibition(String exhibitionName, UUID museumId) {
+		Exhibition exhibition = new Exhibition(exhibitionName, 100);
+		exhibition.setMuseumId(museumId);
+		return exhibition;
+	}
+
+	private List<Museum> findAllMuseums() {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		List<Museum> museums = new PostgresMuseumRepository(entityManager).findAllMuseums();
+		entityManager.close();
+		return museums;
+	}
+
+	private List<Exhibition> findAllExhibitions() {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		List<Exhibition> exhibitions = new PostgresExhibitionRepository(entityManager).findAllExhibitions();
+		entityManager.close();
+		return exhibitions;
+	}
+
+}
@@ -0,0 +1,237 @@
+package com.unifi.attsw.exam.repository.repository.postgres;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+
+public class SecondLevelCachePostgresRepositoryTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
+
+	private static final String MUSEUM_TEST_1 = "museum1_test";
+	private static final String EXHIBITION_TEST_1 = "exhibition1_test";
+	private static final String MUSEUM_TEST_2 = "museum2_test";
+
+	private static EntityManagerFactory sessionFactory;
+	private static Statistics statistics;
+
+	@BeforeClass
+	public static void beforeClass() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("javax.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+		properties.put("hibernate.cache.use_second_level_cache", "true");
+		properties.put("hibernate.cache.use_query_cache", "true");
+		properties.put("hibernate.cache.region.factory_class",
+				"org.hibernate.cache.jcache.internal.JCacheRegionFactory");
+		properties.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+		properties.put("hibernate.javax.cache.uri", "museum-manager-ehcache.xml");
+		properties.put("hibernate.generate_statistics", "true");
+		sessionFactory = Persistence.createEntityManagerFactory("postgres", properties);
+		statistics = sessionFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Before
+	public void setUp() {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		entityManager.createNativeQuery("TRUNCATE TABLE Museums CASCADE").executeUpdate();
+		entityManager.getTransaction().commit();
+		entityManager.close();
+		sessionFactory.getCache().evictAll();
+		statistics.clear();
+		populateDatabase();
+	}
+
+	@Test
+	public void testFindMuseumByIdIsServedFromCacheAfterFirstRead() {
+		Museum firstRead = inNewEntityManager(
+				entityManager -> new PostgresMuseumRepository(entityManager).findMuseumById(MUSEUM_ID_1));
+		Museum secondRead = inNewEntityManager(
+				entityManager -> new PostgresMuseumRepository(entityManager).findMuseumById(MUSEUM_ID_1));
+
+		assertThat(firstRead.getName()).isEqualTo(MUSEUM_TEST_1);
+		assertThat(secondRead.getName()).isEqualTo(MUSEUM_TEST_1);
+
+		assertThat(statistics.getSecondLevelCacheMissCount()).isEqualTo(1);
+		assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFindMuseumByNameIsServedFromQueryCacheAfterFirstRead() {
+		inNewEntityManager(entityManager -> new PostgresMuseumRepository(entityManager).findMuseumByName(MUSEUM_TEST_1));
+		inNewEntityManager(entityManager -> new PostgresMuseumRepository(entityManager).findMuseumByName(MUSEUM_TEST_1));
+
+		assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testUpdatedMuseumIsNotReadStaleFromCache() {
+		Museum museum = inNewEntityManager(
+				entityManager -> new PostgresMuseumRepository(entityManager).findMuseumByName(MUSEUM_TEST_1));
+		museum.setOccupiedRooms(1);
+		inNewTransaction(entityManager -> new PostgresMuseumRepository(entityManager).updateMuseum(museum));
+
+		Museum updatedMuseum = inNewEntityManager(
+				entityManager -> new PostgresMuseumRepository(entityManager).findMuseumByName(MUSEUM_TEST_1));
+		assertThat(updatedMuseum.getOccupiedRooms()).isEqualTo(1);
+	}
+
+	@Test
+	public void testBookSeatEvictsCachedExhibitionOnCommit() {
+		inNewEntityManager(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.findExhibitionById(EXHIBITION_ID_1));
+		assertThat(sessionFactory.getCache().contains(Exhibition.class, EXHIBITION_ID_1)).isTrue();
+
+		inNewTransaction(entityManager -> new PostgresExhibitionRepository(entityManager).bookSeat(EXHIBITION_ID_1));
+
+		assertThat(sessionFactory.getCache().contains(Exhibition.class, EXHIBITION_ID_1)).isFalse();
+		Exhibition bookedExhibition = inNewEntityManager(
+				entityManager -> new PostgresExhibitionRepository(entityManager).findExhibitionByName(EXHIBITION_TEST_1));
+		assertThat(bookedExhibition.getBookedSeats()).isEqualTo(1);
+	}
+
+	@Test
+	public void testBookSeatsEvictsCachedExhibitionsOnCommit() {
+		inNewEntityManager(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.findExhibitionById(EXHIBITION_ID_1));
+
+		inNewTransaction(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.bookSeats(Map.of(EXHIBITION_ID_1, 3)));
+
+		assertThat(sessionFactory.getCache().contains(Exhibition.class, EXHIBITION_ID_1)).isFalse();
+		Exhibition bookedExhibition = inNewEntityManager(
+				entityManager -> new PostgresExhibitionRepository(entityManager).findExhibitionById(EXHIBITION_ID_1));
+		assertThat(bookedExhibition.getBookedSeats()).isEqualTo(3);
+	}
+
+	@Test
+	public void testBookSeatsKeepsCachedQueryResultsFresh() {
+		inNewEntityManager(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.findExhibitionsByMuseumId(MUSEUM_ID_1));
+
+		inNewTransaction(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.bookSeats(Map.of(EXHIBITION_ID_1, 3)));
+
+		List<Exhibition> exhibitions = inNewEntityManager(entityManager -> new PostgresExhibitionRepository(
+				entityManager).findExhibitionsByMuseumId(MUSEUM_ID_1));
+		assertThat(exhibitions).extracting(Exhibition::getBookedSeats).containsExactly(3);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCopyLoadEvictsCachedMuseumsAndQueryResults() throws SQLException, RepositoryException {
+		inNewEntityManager(entityManager -> new PostgresMuseumRepository(entityManager).findMuseumById(MUSEUM_ID_1));
+		inNewEntityManager(entityManager -> new PostgresMuseumRepository(entityManager).findMuseumByName(MUSEUM_TEST_2));
+		inNewEntityManager(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.findExhibitionsByMuseumId(MUSEUM_ID_1));
+		Exhibition exhibition = new Exhibition("exhibition2_test", 100);
+		exhibition.setMuseumId(MUSEUM_ID_1);
+
+		try (Connection connection = connect()) {
+			PostgresCopyLoader loader = new PostgresCopyLoader(connection, sessionFactory);
+			loader.loadMuseums(List.of(new Museum(MUSEUM_TEST_2, 10)));
+			loader.loadExhibitions(List.of(exhibition));
+		}
+
+		Museum loadedMuseum = inNewEntityManager(
+				entityManager -> new PostgresMuseumRepository(entityManager).findMuseumByName(MUSEUM_TEST_2));
+		assertThat(loadedMuseum).isNotNull();
+		List<Exhibition> exhibitions = inNewEntityManager(entityManager -> new PostgresExhibitionRepository(
+				entityManager).findExhibitionsByMuseumId(MUSEUM_ID_1));
+		assertThat(exhibitions).hasSize(2);
+		Museum museum = inNewEntityManager(
+				entityManager -> new PostgresMuseumRepository(entityManager).findMuseumById(MUSEUM_ID_1));
+		assertThat(museum.getOccupiedRooms()).isEqualTo(2);
+	}
+
+	@Test
+	public void testBatchImportEvictsCachedMuseumsAndQueryResults() throws SQLException, RepositoryException {
+		inNewEntityManager(entityManager -> new PostgresMuseumRepository(entityManager).findMuseumById(MUSEUM_ID_1));
+		inNewEntityManager(entityManager -> new PostgresExhibitionRepository(entityManager)
+				.findExhibitionsByMuseumId(MUSEUM_ID_1));
+
+		try (Connection connection = connect()) {
+			new PostgresBatchImporter(connection, 1, 1, sessionFactory).importExhibitions(
+					new StringReader("museum_name,name,total_seats\nmuseum1_test,exhibition2_test,100\n"));
+		}
+
+		List<Exhibition> exhibitions = inNewEntityManager(entityManager -> new PostgresExhibitionRepository(
+				entityManager).findExhibitionsByMuseumId(MUSEUM_ID_1));
+		assertThat(exhibitions).hasSize(2);
+		Museum museum = inNewEntityManager(
+				entityManager -> new PostgresMuseumRepository(entityManager).findMuseumById(MUSEUM_ID_1));
+		assertThat(museum.getOccupiedRooms()).isEqualTo(1);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		sessionFactory.close();
+	}
+
+	/*
+	 * Utility methods, each call uses its own persistence context so that reads
+	 * can only be served by the database or by the second-level cache
+	 */
+
+	private <T> T inNewEntityManager(Function<EntityManager, T> code) {
+		EntityManager entityManager = sessionFactory.createEntityManager();
+		try {
+			return code.apply(entityManager);
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private <T> T inNewTransaction(Function<EntityManager, T> code) {
+		return inNewEntityManager(entityManager -> {
+			entityManager.getTransaction().begin();
+			T result = code.apply(entityManager);
+			entityManager.getTransaction().commit();
+			return result;
+		});
+	}
+
+	private Connection connect() throws SQLException {
+		return DriverManager.getConnection((String) sessionFactory.getProperties().get("javax.persistence.jdbc.url"),
+				"test", "test");
+	}
+
+	private void populateDatabase() {
+		inNewTransaction(entityManager -> {
+			entityManager
+					.createNativeQuery("INSERT INTO museums (id, museum_name, number_of_occupied_rooms, number_of_rooms)"
+							+ "VALUES ( 'b433da18-ba5a-4b86-92af-ba11be6314e7' , 'museum1_test', 0, 10);")
+					.executeUpdate();
+			return entityManager
+					.createNativeQuery("INSERT INTO exhibitions(id, museum_id, exhibition_name, total_seats, booked_seats)"
+							+ "VALUES ('49d13e51-2277-4911-929f-c9c067e2e8b4', 'b433da18-ba5a-4b86-92af-ba11be6314e7', 'exhibition1_test', 100, 0);")
+					.executeUpdate();
+		});
+	}
+
+}
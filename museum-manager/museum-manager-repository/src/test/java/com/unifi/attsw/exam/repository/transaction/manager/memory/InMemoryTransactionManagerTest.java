@@ -0,0 +1,230 @@
+package com.unifi.attsw.exam.repository.transaction.manager.memory;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Exhibition;
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.ConcurrentUpdateException;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryDatabase;
+
+public class InMemoryTransactionManagerTest {
+
+	private static final UUID MUSEUM_ID_1 = UUID.fromString("b433da18-ba5a-4b86-92af-ba11be6314e7");
+	private static final UUID EXHIBITION_ID_1 = UUID.fromString("49d13e51-2277-4911-929f-c9c067e2e8b4");
+	private static final String MUSEUM1_TEST = "museum1_test";
+	private static final String EXHIBITION1_TEST = "exhibition1_test";
+	private static final int NUM_CONSTANT1 = 10;
+
+	private InMemoryTransactionManager transactionManager;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws RepositoryException {
+		transactionManager = new InMemoryTransactionManager(new InMemoryDatabase());
+		executor = Executors.newFixedThreadPool(8);
+		populateDatabase();
+	}
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testInsertNewMuseumTransactionallyCommit() throws RepositoryException {
+		Museum museum = transactionManager
+				.doInTransactionMuseum(museumRepository -> museumRepository.addMuseum(createTestMuseum("museum2_test")));
+
+		assertThat(findAllMuseums())
+				.extracting(Museum::getId).contains(museum.getId());
+	}
+
+	@Test
+	public void testFailingTransactionShouldRollbackAndThrow() throws RepositoryException {
+		assertThatThrownBy(() -> transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+			museumRepository.addMuseum(createTestMuseum("museum2_test"));
+			exhibitionRepository.deleteExhibition(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1));
+			return museumRepository.addMuseum(createTestMuseum(MUSEUM1_TEST));
+		})).isInstanceOf(RepositoryException.class).hasMessage("Something went wrong committing to database, rollback");
+
+		assertThat(findAllMuseums())
+				.extracting(Museum::getName).containsExactly(MUSEUM1_TEST);
+		assertThat(findAllExhibitions()).extracting(Exhibition::getId).containsExactly(EXHIBITION_ID_1);
+	}
+
+	@Test
+	public void testTransactionReadsItsSnapshotWhileAnotherOneCommits() throws Exception {
+		CountDownLatch firstRead = new CountDownLatch(1);
+		CountDownLatch committed = new CountDownLatch(1);
+		Future<List<Integer>> reader = executor
+				.submit(() -> transactionManager.doInTransactionExhibition(exhibitionRepository -> {
+					List<Integer> bookedSeats = new ArrayList<>();
+					bookedSeats.add(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getBookedSeats());
+					firstRead.countDown();
+					await(committed);
+					bookedSeats.add(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getBookedSeats());
+					bookedSeats.add(exhibitionRepository.findAllExhibitions().get(0).getBookedSeats());
+					return bookedSeats;
+				}));
+
+		await(firstRead);
+		transactionManager.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(EXHIBITION_ID_1));
+		committed.countDown();
+
+		assertThat(reader.get(10, TimeUnit.SECONDS)).containsExactly(0, 0, 0);
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(1);
+	}
+
+	@Test
+	public void testReadOnlyTransactionReadsCommittedData() throws RepositoryException {
+		List<String> names = transactionManager.doInReadOnlyTransaction((museumRepository,
+				exhibitionRepository) -> asList(museumRepository.findMuseumById(MUSEUM_ID_1).getName(),
+						exhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getName()));
+
+		assertThat(names).containsExactly(MUSEUM1_TEST, EXHIBITION1_TEST);
+	}
+
+	@Test
+	public void testWriteInReadOnlyTransactionShouldRollbackAndThrow() throws RepositoryException {
+		assertThatThrownBy(() -> transactionManager.doInReadOnlyTransaction(
+				(museumRepository, exhibitionRepository) -> exhibitionRepository.bookSeat(EXHIBITION_ID_1)))
+						.isInstanceOf(RepositoryException.class)
+						.hasMessage("Something went wrong committing to database, rollback")
+						.hasRootCauseInstanceOf(IllegalStateException.class);
+
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isZero();
+		transactionManager.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(EXHIBITION_ID_1));
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(1);
+	}
+
+	@Test
+	public void testRenamedMuseumIsFoundOnlyByItsNewNameOnceCommitted() throws RepositoryException {
+		transactionManager.doInTransactionMuseum(museumRepository -> {
+			Museum museum = museumRepository.findMuseumById(MUSEUM_ID_1);
+			museum.setName("museum_renamed");
+			return museumRepository.updateMuseum(museum);
+		});
+
+		assertThat(findMuseumByName(MUSEUM1_TEST)).isNull();
+		assertThat(findMuseumByName("museum_renamed").getId()).isEqualTo(MUSEUM_ID_1);
+	}
+
+	@Test
+	public void testUpdateOfAStaleMuseumShouldRollbackAndThrowConcurrentUpdateException() throws RepositoryException {
+		Museum museum = transactionManager.doInTransactionMuseum(museumRepository -> museumRepository
+				.findMuseumById(MUSEUM_ID_1));
+		transactionManager.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(
+				EXHIBITION_ID_1));
+		transactionManager.doInTransactionMuseum(museumRepository -> {
+			Museum updatedMuseum = museumRepository.findMuseumById(MUSEUM_ID_1);
+			updatedMuseum.setOccupiedRooms(1);
+			return museumRepository.updateMuseum(updatedMuseum);
+		});
+
+		museum.setRooms(20);
+		assertThatThrownBy(() -> transactionManager.doInTransactionMuseum(museumRepository -> museumRepository
+				.updateMuseum(museum))).isInstanceOf(ConcurrentUpdateException.class)
+						.hasMessage("Something went wrong committing to database, rollback");
+
+		assertThat(findMuseumByName(MUSEUM1_TEST)).extracting(Museum::getTotalRooms, Museum::getOccupiedRooms)
+				.containsExactly(NUM_CONSTANT1, 1);
+	}
+
+	@Test
+	public void testConcurrentBookingsNeverOverbook() throws Exception {
+		List<Future<Integer>> bookings = new ArrayList<>();
+		for (int i = 0; i < 4 * NUM_CONSTANT1; i++) {
+			bookings.add(executor.submit(() -> transactionManager
+					.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(EXHIBITION_ID_1))));
+		}
+		int successfulBookings = 0;
+		for (Future<Integer> booking : bookings) {
+			if (booking.get() >= 0) {
+				successfulBookings++;
+			}
+		}
+
+		assertThat(successfulBookings).isEqualTo(NUM_CONSTANT1);
+		assertThat(findBookedSeats(EXHIBITION_ID_1)).isEqualTo(NUM_CONSTANT1);
+	}
+
+	@Test
+	public void testConcurrentTransactionsFromSeveralThreadsCommit() throws Exception {
+		List<Future<Museum>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			Museum museum = createTestMuseum("museum_" + i);
+			futures.add(executor.submit(
+					() -> transactionManager.doInTransactionMuseum(museumRepository -> museumRepository.addMuseum(museum))));
+		}
+		for (Future<Museum> future : futures) {
+			future.get();
+		}
+
+		assertThat(findAllMuseums())
+				.hasSize(9);
+	}
+
+	/**
+	 * 
+	 * Utility methods
+	 * 
+	 */
+
+	public Museum createTestMuseum(String museumName) {
+		return new Museum(museumName, NUM_CONSTANT1);
+	}
+
+	private List<Museum> findAllMuseums() throws RepositoryException {
+		return transactionManager.doInTransactionMuseum(museumRepository -> museumRepository.findAllMuseums());
+	}
+
+	private Museum findMuseumByName(String museumName) throws RepositoryException {
+		return transactionManager.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumByName(museumName));
+	}
+
+	private List<Exhibition> findAllExhibitions() throws RepositoryException {
+		return transactionManager
+				.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.findAllExhibitions());
+	}
+
+	private int findBookedSeats(UUID exhibitionId) throws RepositoryException {
+		return transactionManager.doInTransactionExhibition(
+				exhibitionRepository -> exhibitionRepository.findExhibitionById(exhibitionId).getBookedSeats());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void populateDatabase() throws RepositoryException {
+		transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
+			Museum museum = createTestMuseum(MUSEUM1_TEST);
+			museum.setId(MUSEUM_ID_1);
+			museumRepository.addMuseum(museum);
+			Exhibition exhibition = new Exhibition(EXHIBITION1_TEST, NUM_CONSTANT1);
+			exhibition.setId(EXHIBITION_ID_1);
+			exhibition.setMuseumId(MUSEUM_ID_1);
+			return exhibitionRepository.addNewExhibition(exhibition);
+		});
+	}
+
+}
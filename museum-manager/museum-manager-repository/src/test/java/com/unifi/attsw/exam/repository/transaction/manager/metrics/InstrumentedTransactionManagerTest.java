@@ -0,0 +1,136 @@
+package com.unifi.attsw.exam.repository.transaction.manager.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.code.ExhibitionTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.MuseumTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.TransactionCode;
+
+public class InstrumentedTransactionManagerTest {
+
+	private TransactionManager transactionManager;
+	private SlowTransactionListener slowTransactionListener;
+	private TransactionMetrics metrics;
+	private InstrumentedTransactionManager instrumentedTransactionManager;
+
+	@Before
+	public void setUp() {
+		transactionManager = mock(TransactionManager.class);
+		slowTransactionListener = mock(SlowTransactionListener.class);
+		metrics = new TransactionMetrics(50, TimeUnit.MILLISECONDS, slowTransactionListener);
+		instrumentedTransactionManager = new InstrumentedTransactionManager(transactionManager, metrics);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCommittedTransactionsAreCountedByType() throws RepositoryException {
+		when(transactionManager.doInTransactionMuseum(any(MuseumTransactionCode.class))).thenReturn("museum");
+
+		String response = instrumentedTransactionManager.doInTransactionMuseum(museumRepository -> "unused");
+		instrumentedTransactionManager.doInTransactionMuseum(museumRepository -> "unused");
+		instrumentedTransactionManager.doInTransaction((museumRepository, exhibitionRepository) -> "unused");
+
+		assertThat(response).isEqualTo("museum");
+		assertThat(metrics.getCommits(TransactionType.MUSEUM)).isEqualTo(2);
+		assertThat(metrics.getCommits(TransactionType.MUSEUM_EXHIBITION)).isEqualTo(1);
+		assertThat(metrics.getCommits(TransactionType.EXHIBITION)).isZero();
+		assertThat(metrics.getLatency(TransactionType.MUSEUM).getCount()).isEqualTo(2);
+		assertThat(metrics.getRollbacks(TransactionType.MUSEUM)).isZero();
+		assertThat(metrics.getInFlight()).isZero();
+		verifyNoInteractions(slowTransactionListener);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testReadOnlyTransactionsAreCountedApart() throws RepositoryException {
+		when(transactionManager.doInReadOnlyTransaction(any(TransactionCode.class))).thenReturn("read");
+
+		String response = instrumentedTransactionManager.doInReadOnlyTransaction((museums, exhibitions) -> "unused");
+
+		assertThat(response).isEqualTo("read");
+		assertThat(metrics.getCommits(TransactionType.READ_ONLY)).isEqualTo(1);
+		assertThat(metrics.getCommits(TransactionType.MUSEUM_EXHIBITION)).isZero();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFailedTransactionsAreCountedAsRollbacksAndRethrown() throws RepositoryException {
+		RepositoryException failure = new RepositoryException("failure");
+		when(transactionManager.doInTransactionExhibition(any(ExhibitionTransactionCode.class))).thenThrow(failure);
+		when(transactionManager.doInTransaction(any(TransactionCode.class))).thenThrow(new IllegalStateException());
+
+		assertThatThrownBy(() -> instrumentedTransactionManager.doInTransactionExhibition(exhibitionRepository -> null))
+				.isSameAs(failure);
+		assertThatThrownBy(() -> instrumentedTransactionManager.doInTransaction((museums, exhibitions) -> null))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(metrics.getRollbacks(TransactionType.EXHIBITION)).isEqualTo(1);
+		assertThat(metrics.getRollbacks(TransactionType.MUSEUM_EXHIBITION)).isEqualTo(1);
+		assertThat(metrics.getCommits(TransactionType.EXHIBITION)).isZero();
+		assertThat(metrics.getInFlight()).isZero();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testInFlightTransactions() throws RepositoryException {
+		when(transactionManager.doInTransactionMuseum(any(MuseumTransactionCode.class)))
+				.thenAnswer(invocation -> metrics.getInFlight());
+
+		long inFlight = instrumentedTransactionManager.doInTransactionMuseum(museumRepository -> 0L);
+
+		assertThat(inFlight).isEqualTo(1);
+		assertThat(metrics.getInFlight()).isZero();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSlowTransactionsAreReported() throws RepositoryException {
+		RepositoryException failure = new RepositoryException("failure");
+		when(transactionManager.doInTransactionMuseum(any(MuseumTransactionCode.class))).thenAnswer(invocation -> {
+			Thread.sleep(60);
+			throw failure;
+		});
+
+		assertThatThrownBy(() -> instrumentedTransactionManager.doInTransactionMuseum(museumRepository -> null))
+				.isSameAs(failure);
+
+		verify(slowTransactionListener).slowTransaction(eq(TransactionType.MUSEUM),
+				longThat(duration -> duration >= TimeUnit.MILLISECONDS.toNanos(60)), same(failure));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testMetricsAreWrittenInPrometheusTextFormat() throws Exception {
+		when(transactionManager.doInTransactionMuseum(any(MuseumTransactionCode.class))).thenAnswer(invocation -> {
+			Thread.sleep(1);
+			return null;
+		});
+		instrumentedTransactionManager.doInTransactionMuseum(museumRepository -> null);
+		StringWriter out = new StringWriter();
+
+		metrics.writeTo(out);
+
+		String exported = out.toString();
+		assertThat(exported).contains("# TYPE museum_manager_transaction_seconds summary\n",
+				"museum_manager_transaction_seconds_count{type=\"museum\"} 1\n",
+				"museum_manager_transaction_seconds_count{type=\"exhibition\"} 0\n",
+				"museum_manager_transactions_total{type=\"museum\",outcome=\"commit\"} 1\n",
+				"museum_manager_transactions_total{type=\"museum\",outcome=\"rollback\"} 0\n",
+				"museum_manager_transactions_in_flight 0\n");
+		assertThat(exported).containsPattern(
+				"museum_manager_transaction_seconds\\{type=\"museum\",quantile=\"0.99\"\\} 0\\.\\d{9}\n");
+		assertThat(exported.split("\n")).allMatch(line -> line.startsWith("# ")
+				|| line.matches("museum_manager_\\w+(\\{[^}]*\\})? [0-9.]+"));
+	}
+
+}
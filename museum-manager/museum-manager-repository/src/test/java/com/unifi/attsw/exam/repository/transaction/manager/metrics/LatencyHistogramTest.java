@@ -0,0 +1,54 @@
+package com.unifi.attsw.exam.repository.transaction.manager.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucketsAreContiguousAndWithinTheRelativeError() {
+		for (long value = 0; value < 1_000_000; value++) {
+			int index = LatencyHistogram.bucketIndex(value);
+			assertThat(LatencyHistogram.highestValueOf(index)).isGreaterThanOrEqualTo(value);
+			assertThat(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value).isTrue();
+			assertThat(LatencyHistogram.highestValueOf(index) - value).isLessThanOrEqualTo(value / 64);
+		}
+		assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.bucketIndex(LatencyHistogram.MAX_VALUE)))
+				.isEqualTo(LatencyHistogram.MAX_VALUE);
+	}
+
+	@Test
+	public void testEmptyHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getValueAtPercentile(99)).isZero();
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getSum()).isEqualTo(500_500_000);
+		assertThat(histogram.getMax()).isEqualTo(1_000_000);
+		assertThat(histogram.getValueAtPercentile(50)).isCloseTo(500_000, withinPercentage(1.6));
+		assertThat(histogram.getValueAtPercentile(99)).isCloseTo(990_000, withinPercentage(1.6));
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1_000_000);
+	}
+
+	@Test
+	public void testOutOfRangeValuesAreClamped() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-1);
+		histogram.record(Long.MAX_VALUE);
+
+		assertThat(histogram.getValueAtPercentile(50)).isZero();
+		assertThat(histogram.getMax()).isEqualTo(LatencyHistogram.MAX_VALUE);
+	}
+
+}
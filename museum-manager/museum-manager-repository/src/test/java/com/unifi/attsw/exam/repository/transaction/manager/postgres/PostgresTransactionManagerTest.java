@@ -2,7 +2,12 @@ package com.unifi.attsw.exam.repository.transaction.manager.postgres;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -18,6 +23,7 @@ import com.unifi.attsw.exam.repository.model.Exhibition;
 import com.unifi.attsw.exam.repository.model.Museum;
 import com.unifi.attsw.exam.repository.repository.ExhibitionRepository;
 import com.unifi.attsw.exam.repository.repository.MuseumRepository;
+import com.unifi.attsw.exam.repository.repository.exception.ConcurrentUpdateException;
 import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
 import com.unifi.attsw.exam.repository.repository.postgres.PostgresExhibitionRepository;
 import com.unifi.attsw.exam.repository.repository.postgres.PostgresMuseumRepository;
@@ -52,9 +58,9 @@ public class PostgresTransactionManagerTest {
 	public void setUp() throws Exception {
 		entityManager = sessionFactory.createEntityManager();
 
-		transactionManager = new PostgresTransactionManager(entityManager);
-		postgresMuseumRepository = new PostgresMuseumRepository(transactionManager.getEntityManager());
-		postgresExhibitionRepository = new PostgresExhibitionRepository(transactionManager.getEntityManager());
+		transactionManager = new PostgresTransactionManager(sessionFactory);
+		postgresMuseumRepository = new PostgresMuseumRepository(entityManager);
+		postgresExhibitionRepository = new PostgresExhibitionRepository(entityManager);
 
 		entityManager.getTransaction().begin();
 		entityManager.createNativeQuery("TRUNCATE TABLE Museums CASCADE").executeUpdate();
@@ -211,29 +217,27 @@ public class PostgresTransactionManagerTest {
 	@Test
 	public void testDeleteRemovedExhibitionInPostgresDatabaseShouldThrowAndRollback() throws RepositoryException {
 		populateDatabase();
-		Exhibition exhibition = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
 
 		transactionManager.doInTransactionExhibition(exhibitionRepository -> {
-			exhibitionRepository.deleteExhibition(exhibition);
+			exhibitionRepository.deleteExhibition(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1));
 			return null;
 		});
 
 		assertThatThrownBy(() -> transactionManager.doInTransactionExhibition(exhibitionRepository -> {
-			exhibitionRepository.deleteExhibition(exhibition);
+			exhibitionRepository.deleteExhibition(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1));
 			return null;
 		})).isInstanceOf(RepositoryException.class);
 
 		assertThat(postgresExhibitionRepository.findAllExhibitions()).hasSize(1).extracting(Exhibition::getId)
-				.doesNotContain(exhibition.getId()).contains(EXHIBITION_ID_2);
+				.doesNotContain(EXHIBITION_ID_1).contains(EXHIBITION_ID_2);
 	}
 
 	@Test
 	public void testDeleteExhibitionInPostgresDatabaseCommit() throws RepositoryException {
 		populateDatabase();
-		Exhibition exhibition = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
 
 		transactionManager.doInTransactionExhibition(exhibitionRepository -> {
-			exhibitionRepository.deleteExhibition(exhibition);
+			exhibitionRepository.deleteExhibition(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1));
 			return null;
 		});
 
@@ -257,9 +261,8 @@ public class PostgresTransactionManagerTest {
 	public void testDeleteMuseumReferencedMuseumByExhibitionInPostgresDatabaseShouldThrowAndRollback()
 			throws RepositoryException {
 		populateDatabase();
-		Museum museum = postgresMuseumRepository.findMuseumById(MUSEUM_ID_1);
 		assertThatThrownBy(() -> transactionManager.doInTransactionMuseum(museumRepository -> {
-			museumRepository.deleteMuseum(museum);
+			museumRepository.deleteMuseum(museumRepository.findMuseumById(MUSEUM_ID_1));
 			return null;
 		})).isInstanceOf(RepositoryException.class);
 
@@ -270,14 +273,13 @@ public class PostgresTransactionManagerTest {
 	@Test
 	public void testCorrectlyDeleteMuseumWithNoExhibitionsInPostgresDatabaseCommit() throws RepositoryException {
 		populateDatabase();
-		Museum museumToBeDeleted = postgresMuseumRepository.findMuseumById(MUSEUM_ID_2);
 		Museum museum = postgresMuseumRepository.findMuseumById(MUSEUM_ID_1);
 
 		Exhibition exhibition1 = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
 		Exhibition exhibition2 = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_2);
 
 		transactionManager.doInTransactionMuseum((museumRepository) -> {
-			museumRepository.deleteMuseum(museumToBeDeleted);
+			museumRepository.deleteMuseum(museumRepository.findMuseumById(MUSEUM_ID_2));
 			return null;
 		});
 
@@ -290,14 +292,11 @@ public class PostgresTransactionManagerTest {
 	@Test
 	public void testCorrectlyDeleteMuseumReferencedByExhibitionsInPostgresDatabaseCommit() throws RepositoryException {
 		populateDatabase();
-		Museum museum = postgresMuseumRepository.findMuseumById(MUSEUM_ID_1);
-		Exhibition exhibition1 = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
-		Exhibition exhibition2 = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_2);
 
 		transactionManager.doInTransaction((museumRepository, exhibitionRepository) -> {
-			exhibitionRepository.deleteExhibition(exhibition1);
-			exhibitionRepository.deleteExhibition(exhibition2);
-			museumRepository.deleteMuseum(museum);
+			exhibitionRepository.deleteExhibition(exhibitionRepository.findExhibitionById(EXHIBITION_ID_1));
+			exhibitionRepository.deleteExhibition(exhibitionRepository.findExhibitionById(EXHIBITION_ID_2));
+			museumRepository.deleteMuseum(museumRepository.findMuseumById(MUSEUM_ID_1));
 			return null;
 		});
 
@@ -319,8 +318,8 @@ public class PostgresTransactionManagerTest {
 	@Test
 	public void testUpdateRemovedMuseumInPosgresDatabaseShouldThrowAndRollback() {
 		populateDatabase();
-		Museum museum = postgresMuseumRepository.findMuseumById(MUSEUM_ID_1);
 		assertThatThrownBy(() -> transactionManager.doInTransactionMuseum((museumRepository) -> {
+			Museum museum = museumRepository.findMuseumById(MUSEUM_ID_1);
 			museumRepository.deleteMuseum(museum);
 			return museumRepository.updateMuseum(museum);
 		})).isInstanceOf(RepositoryException.class);
@@ -344,6 +343,85 @@ public class PostgresTransactionManagerTest {
 		assertThat(postgresMuseumRepository.findMuseumById(MUSEUM_ID_1).getTotalRooms()).isEqualTo(50);
 	}
 
+	@Test
+	public void testUpdateMuseumInPostgresDatabaseIncrementsItsVersion() throws RepositoryException {
+		populateDatabase();
+		Museum museum = postgresMuseumRepository.findMuseumById(MUSEUM_ID_1);
+		entityManager.clear();
+		Museum updatedMuseum = transactionManager.doInTransactionMuseum((museumRepository) -> {
+			museum.setOccupiedRooms(5);
+			return museumRepository.updateMuseum(museum);
+		});
+
+		assertThat(updatedMuseum.getVersion()).isEqualTo(museum.getVersion() + 1);
+		assertThat(postgresMuseumRepository.findMuseumById(MUSEUM_ID_1).getVersion())
+				.isEqualTo(updatedMuseum.getVersion());
+	}
+
+	@Test
+	public void testUpdateStaleMuseumInPostgresDatabaseShouldRollbackAndThrowConcurrentUpdateException()
+			throws RepositoryException {
+		populateDatabase();
+		Museum museum = postgresMuseumRepository.findMuseumById(MUSEUM_ID_1);
+		entityManager.clear();
+		transactionManager.doInTransactionMuseum((museumRepository) -> {
+			Museum updatedMuseum = museumRepository.findMuseumById(MUSEUM_ID_1);
+			updatedMuseum.setOccupiedRooms(1);
+			return museumRepository.updateMuseum(updatedMuseum);
+		});
+
+		museum.setRooms(50);
+		assertThatThrownBy(() -> transactionManager.doInTransactionMuseum((museumRepository) -> {
+			return museumRepository.updateMuseum(museum);
+		})).isInstanceOf(ConcurrentUpdateException.class);
+		assertThat(postgresMuseumRepository.findMuseumById(MUSEUM_ID_1))
+				.extracting(Museum::getTotalRooms, Museum::getOccupiedRooms).containsExactly(NUM_CONSTANT1, 1);
+	}
+
+	@Test
+	public void testUpdateExhibitionBookedSinceReadInPostgresDatabaseShouldRollbackAndThrowConcurrentUpdateException()
+			throws RepositoryException {
+		populateDatabase();
+		Exhibition exhibition = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
+		entityManager.clear();
+		transactionManager
+				.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(EXHIBITION_ID_1));
+
+		exhibition.setName("renamed_exhibition");
+		assertThatThrownBy(() -> transactionManager.doInTransactionExhibition(exhibitionRepository -> {
+			return exhibitionRepository.updateExhibition(exhibition);
+		})).isInstanceOf(ConcurrentUpdateException.class);
+		assertThat(postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1))
+				.extracting(Exhibition::getName, Exhibition::getBookedSeats).containsExactly(EXHIBITION1_TEST, 1);
+	}
+
+	@Test
+	public void testReadOnlyTransactionDoesNotFlushChangesToTheEntitiesItReads() throws RepositoryException {
+		populateDatabase();
+		Museum museum = transactionManager.doInReadOnlyTransaction((museumRepository, exhibitionRepository) -> {
+			Museum readMuseum = museumRepository.findMuseumById(MUSEUM_ID_1);
+			readMuseum.setOccupiedRooms(5);
+			exhibitionRepository.findExhibitionsByMuseumId(MUSEUM_ID_1);
+			return readMuseum;
+		});
+
+		assertThat(museum.getOccupiedRooms()).isEqualTo(5);
+		assertThat(postgresMuseumRepository.findMuseumById(MUSEUM_ID_1))
+				.extracting(Museum::getOccupiedRooms, Museum::getVersion).containsExactly(0, 0L);
+	}
+
+	@Test
+	public void testWriteInReadOnlyTransactionShouldRollbackAndThrow() throws RepositoryException {
+		populateDatabase();
+		assertThatThrownBy(() -> transactionManager.doInReadOnlyTransaction(
+				(museumRepository, exhibitionRepository) -> exhibitionRepository.bookSeat(EXHIBITION_ID_1)))
+						.isInstanceOf(RepositoryException.class);
+
+		int freeSeats = transactionManager
+				.doInTransactionExhibition(exhibitionRepository -> exhibitionRepository.bookSeat(EXHIBITION_ID_1));
+		assertThat(freeSeats).isEqualTo(99);
+	}
+
 	@Test
 	public void testUpdateNullExhibitionInPostgresDatabaseShouldRollbackAndThrow() {
 		populateDatabase();
@@ -355,9 +433,9 @@ public class PostgresTransactionManagerTest {
 	@Test
 	public void testUpdateRemovedExhibitionInPostgresDatabaseShouldRollbackAndThrow() throws RepositoryException {
 		populateDatabase();
-		Exhibition exhibition = postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
 
 		assertThatThrownBy(() -> transactionManager.doInTransactionExhibition(exhibitionRepository -> {
+			Exhibition exhibition = exhibitionRepository.findExhibitionById(EXHIBITION_ID_1);
 			exhibitionRepository.deleteExhibition(exhibition);
 			return exhibitionRepository.updateExhibition(exhibition);
 		})).isInstanceOf(RepositoryException.class);
@@ -381,6 +459,24 @@ public class PostgresTransactionManagerTest {
 		assertThat(postgresExhibitionRepository.findExhibitionById(EXHIBITION_ID_1).getTotalSeats()).isEqualTo(50);
 	}
 
+	@Test
+	public void testConcurrentTransactionsFromSeveralThreadsCommit() throws Exception {
+		int numOfThreads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		List<Future<Museum>> futures = new ArrayList<>();
+		for (int i = 0; i < numOfThreads; i++) {
+			Museum museum = createTestMuseum(MUSEUM1_TEST + i, NUM_CONSTANT1);
+			futures.add(executor.submit(
+					() -> transactionManager.doInTransactionMuseum(museumRepository -> museumRepository.addMuseum(museum))));
+		}
+		for (Future<Museum> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		assertThat(postgresMuseumRepository.findAllMuseums()).hasSize(numOfThreads);
+	}
+
 	@After
 	public void after() {
 		entityManager.clear();
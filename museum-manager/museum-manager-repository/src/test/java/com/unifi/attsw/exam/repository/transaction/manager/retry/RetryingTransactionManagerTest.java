@@ -0,0 +1,121 @@
+package com.unifi.attsw.exam.repository.transaction.manager.retry;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.unifi.attsw.exam.repository.model.Museum;
+import com.unifi.attsw.exam.repository.repository.exception.ConcurrentUpdateException;
+import com.unifi.attsw.exam.repository.repository.exception.RepositoryException;
+import com.unifi.attsw.exam.repository.repository.memory.InMemoryDatabase;
+import com.unifi.attsw.exam.repository.transaction.manager.TransactionManager;
+import com.unifi.attsw.exam.repository.transaction.manager.code.ExhibitionTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.MuseumTransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.code.TransactionCode;
+import com.unifi.attsw.exam.repository.transaction.manager.memory.InMemoryTransactionManager;
+
+public class RetryingTransactionManagerTest {
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private TransactionManager transactionManager;
+	private RetryingTransactionManager retryingTransactionManager;
+
+	@Before
+	public void setUp() {
+		transactionManager = mock(TransactionManager.class);
+		retryingTransactionManager = new RetryingTransactionManager(transactionManager, MAX_ATTEMPTS, 0, 1,
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void testInvalidRetryPolicyShouldThrow() {
+		assertThatThrownBy(() -> new RetryingTransactionManager(transactionManager, 0, 0, 1, TimeUnit.MILLISECONDS))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid retry policy.");
+		assertThatThrownBy(() -> new RetryingTransactionManager(transactionManager, 1, 2, 1, TimeUnit.MILLISECONDS))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid retry policy.");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testTransactionRolledBackByAConcurrentUpdateIsRunAgain() throws RepositoryException {
+		when(transactionManager.doInTransactionMuseum(any(MuseumTransactionCode.class)))
+				.thenThrow(new ConcurrentUpdateException("conflict", null)).thenReturn("museum");
+
+		assertThat(retryingTransactionManager.<String>doInTransactionMuseum(museumRepository -> "unused"))
+				.isEqualTo("museum");
+		verify(transactionManager, times(2)).doInTransactionMuseum(any(MuseumTransactionCode.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testTransactionIsRunAtMostMaxAttemptsTimes() throws RepositoryException {
+		ConcurrentUpdateException lastFailure = new ConcurrentUpdateException("last conflict", null);
+		when(transactionManager.doInTransactionExhibition(any(ExhibitionTransactionCode.class)))
+				.thenThrow(new ConcurrentUpdateException("conflict", null),
+						new ConcurrentUpdateException("conflict", null), lastFailure);
+
+		assertThatThrownBy(() -> retryingTransactionManager.doInTransactionExhibition(exhibitionRepository -> null))
+				.isSameAs(lastFailure);
+		verify(transactionManager, times(MAX_ATTEMPTS)).doInTransactionExhibition(any(ExhibitionTransactionCode.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testOtherFailuresAreNotRetried() throws RepositoryException {
+		RepositoryException failure = new RepositoryException("failure");
+		when(transactionManager.doInTransaction(any(TransactionCode.class))).thenThrow(failure);
+
+		assertThatThrownBy(() -> retryingTransactionManager.doInTransaction((museums, exhibitions) -> null))
+				.isSameAs(failure);
+		verify(transactionManager).doInTransaction(any(TransactionCode.class));
+	}
+
+	@Test
+	public void testConcurrentReadModifyWriteTransactionsLoseNoUpdate() throws Exception {
+		InMemoryTransactionManager inMemoryTransactionManager = new InMemoryTransactionManager(new InMemoryDatabase());
+		UUID museumId = inMemoryTransactionManager
+				.doInTransactionMuseum(museumRepository -> museumRepository.addMuseum(new Museum("museum1_test", 100)))
+				.getId();
+		TransactionManager retrying = new RetryingTransactionManager(inMemoryTransactionManager, 100, 0, 1,
+				TimeUnit.MILLISECONDS);
+
+		int numOfThreads = 4;
+		int updatesPerThread = 10;
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		List<Future<Void>> futures = new ArrayList<>();
+		for (int i = 0; i < numOfThreads; i++) {
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < updatesPerThread; j++) {
+					retrying.doInTransactionMuseum(museumRepository -> {
+						Museum museum = museumRepository.findMuseumById(museumId);
+						museum.setOccupiedRooms(museum.getOccupiedRooms() + 1);
+						return museumRepository.updateMuseum(museum);
+					});
+				}
+				return null;
+			}));
+		}
+		for (Future<Void> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		Museum museum = inMemoryTransactionManager
+				.doInTransactionMuseum(museumRepository -> museumRepository.findMuseumById(museumId));
+		assertThat(museum.getOccupiedRooms()).isEqualTo(numOfThreads * updatesPerThread);
+		assertThat(museum.getVersion()).isEqualTo(numOfThreads * updatesPerThread);
+	}
+
+}